@@ -0,0 +1,69 @@
+package net.sourceforge.kolmafia.maximizer;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import net.sourceforge.kolmafia.AdventureResult;
+import net.sourceforge.kolmafia.Modifiers;
+import net.sourceforge.kolmafia.equipment.Slot;
+import net.sourceforge.kolmafia.objectpool.ItemPool;
+import net.sourceforge.kolmafia.persistence.ModifierDatabase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Compares compiled and uncompiled maximizer scoring of one recorded equipment set. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EvaluatorBenchmark {
+  @Param({"meat, 2 item", "mus, hp, -tie", "item, letter, number, bonus time sword"})
+  public String expression;
+
+  private Evaluator evaluator;
+  private Modifiers mods;
+  private Map<Slot, AdventureResult> equipment;
+
+  @Setup
+  public void setup() {
+    this.equipment = new EnumMap<>(Slot.class);
+    this.equipment.put(Slot.HAT, ItemPool.get(ItemPool.JEWEL_EYED_WIZARD_HAT));
+    this.equipment.put(Slot.WEAPON, ItemPool.get(ItemPool.TIME_SWORD));
+    this.equipment.put(Slot.OFFHAND, ItemPool.get(ItemPool.SUGAR_SHIELD));
+    this.equipment.put(Slot.CONTAINER, ItemPool.get(ItemPool.BUDDY_BJORN));
+    this.equipment.put(Slot.SHIRT, ItemPool.get(ItemPool.ASTRAL_SHIRT));
+    this.equipment.put(Slot.PANTS, ItemPool.get(ItemPool.OLD_SWEATPANTS));
+    this.equipment.put(Slot.ACCESSORY1, ItemPool.get(ItemPool.STAINLESS_STEEL_SOLITAIRE));
+    this.equipment.put(Slot.ACCESSORY2, ItemPool.get(ItemPool.NAVEL_RING));
+    this.equipment.put(Slot.ACCESSORY3, ItemPool.get(ItemPool.MR_ACCESSORY));
+    this.equipment.put(Slot.FAMILIAR, ItemPool.get(ItemPool.LEAD_NECKLACE));
+
+    this.mods = new Modifiers();
+    for (AdventureResult item : this.equipment.values()) {
+      this.mods.add(ModifierDatabase.getItemModifiers(item.getItemId()));
+    }
+
+    this.evaluator = new Evaluator(this.expression);
+  }
+
+  @Benchmark
+  public double compiled() {
+    return this.evaluator.getScore(this.mods, this.equipment);
+  }
+
+  @Benchmark
+  public double uncompiled() {
+    return this.evaluator.getUncompiledScore(this.mods, this.equipment);
+  }
+}
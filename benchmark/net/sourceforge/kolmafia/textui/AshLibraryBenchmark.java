@@ -0,0 +1,96 @@
+package net.sourceforge.kolmafia.textui;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import net.sourceforge.kolmafia.textui.parsetree.LibraryFunction;
+import net.sourceforge.kolmafia.textui.parsetree.Type;
+import net.sourceforge.kolmafia.textui.parsetree.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Calls hot RuntimeLibrary functions from ASH loops, and compares a single library call through
+ * LibraryFunction with the same call made by reflection.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AshLibraryBenchmark {
+  private static final int LOOPS = 1000;
+
+  @Param({
+    "to_int(\"123\")",
+    "get_property(\"kingLiberated\")",
+    "item_amount($item[seal-clubbing club])"
+  })
+  public String call;
+
+  private AshRuntime script;
+  private AshRuntime runtime;
+  private LibraryFunction function;
+  private Method method;
+  private Object[] values;
+
+  @Setup
+  public void setup() throws NoSuchMethodException {
+    String source = "void main() { for i from 1 to " + LOOPS + " { " + this.call + "; } }";
+    this.script = new AshRuntime();
+    this.script.validate(null, new ByteArrayInputStream(source.getBytes(StandardCharsets.UTF_8)));
+
+    this.runtime = new AshRuntime();
+    switch (this.call.substring(0, this.call.indexOf('('))) {
+      case "to_int" -> {
+        this.function = this.findFunction("to_int", DataTypes.STRING_TYPE);
+        this.values = new Object[] {this.runtime, new Value("123")};
+      }
+      case "get_property" -> {
+        this.function = this.findFunction("get_property", DataTypes.STRING_TYPE);
+        this.values = new Object[] {this.runtime, new Value("kingLiberated")};
+      }
+      default -> {
+        this.function = this.findFunction("item_amount", DataTypes.ITEM_TYPE);
+        this.values = new Object[] {this.runtime, DataTypes.makeItemValue(1, true)};
+      }
+    }
+    this.method = LibraryFunction.findLibraryMethod(this.function.getName(), 1);
+  }
+
+  private LibraryFunction findFunction(final String name, final Type paramType) {
+    for (var function : RuntimeLibrary.getFunctions().findFunctions(name)) {
+      if (function.getVariableReferences().size() == 1
+          && function.getVariableReferences().get(0).getRawType().equals(paramType)) {
+        return (LibraryFunction) function;
+      }
+    }
+    throw new IllegalStateException("No " + name + "(" + paramType + ")");
+  }
+
+  @Benchmark
+  public Value ashLoop() {
+    return this.script.execute("main", null);
+  }
+
+  @Benchmark
+  public Value libraryCall() {
+    return this.function.execute(this.runtime, this.values);
+  }
+
+  @Benchmark
+  public Object reflectiveCall() throws ReflectiveOperationException {
+    return this.method.invoke(null, this.values);
+  }
+}
@@ -0,0 +1,57 @@
+package net.sourceforge.kolmafia.textui.javascript;
+
+import java.util.concurrent.TimeUnit;
+import net.sourceforge.kolmafia.textui.parsetree.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Calls hot RuntimeLibrary functions from JavaScript loops, where every call after the first goes
+ * through the stub's cached overload, and from loops which alternate argument types.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JavascriptLibraryBenchmark {
+  private static final int LOOPS = 1000;
+
+  @Param({
+    "toInt(\"123\")",
+    "getProperty(\"kingLiberated\")",
+    "itemAmount(Item.get(\"seal-clubbing club\"))",
+    "toInt(i % 2 == 0 ? \"123\" : true)"
+  })
+  public String call;
+
+  private JavascriptRuntime loop;
+  private JavascriptRuntime single;
+
+  @Setup
+  public void setup() {
+    this.loop =
+        new JavascriptRuntime("for (let i = 0; i < " + LOOPS + "; i++) { " + this.call + "; }");
+    this.single = new JavascriptRuntime("const i = 0; " + this.call);
+  }
+
+  @Benchmark
+  public Value jsLoop() {
+    return this.loop.execute(null, null, true);
+  }
+
+  @Benchmark
+  public Value jsScript() {
+    return this.single.execute(null, null, true);
+  }
+}
@@ -0,0 +1,90 @@
+package net.sourceforge.kolmafia.utilities;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads recorded large pages the way GenericRequest used to and the way it does now, and matches a
+ * pattern against a String made from the body and against the body in place. Run with -prof gc to
+ * compare allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseBufferBenchmark {
+  private static final Pattern ROW_PATTERN = Pattern.compile("<tr[^>]*>");
+
+  @Param({
+    "test_mall_search_store.html",
+    "test_ascensionhistory.html",
+    "test_mall_search_unlockers_page_1.html"
+  })
+  public String page;
+
+  private byte[] bytes;
+
+  @Setup
+  public void setup() throws IOException {
+    this.bytes = Files.readAllBytes(Path.of("test", "root", "request", this.page));
+  }
+
+  @Benchmark
+  public String readAllBytes() {
+    return new String(
+        ByteBufferUtilities.read(new ByteArrayInputStream(this.bytes)), StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public String readPooled() {
+    ResponseBuffer body = ResponseBuffer.acquire();
+    try {
+      return body.readFrom(new ByteArrayInputStream(this.bytes)).toString();
+    } finally {
+      body.release();
+    }
+  }
+
+  @Benchmark
+  public int matchString() {
+    return ResponseBufferBenchmark.countRows(this.readAllBytes());
+  }
+
+  @Benchmark
+  public int matchInPlace() {
+    ResponseBuffer body = ResponseBuffer.acquire();
+    try {
+      return ResponseBufferBenchmark.countRows(body.readFrom(new ByteArrayInputStream(this.bytes)));
+    } finally {
+      body.release();
+    }
+  }
+
+  private static int countRows(final CharSequence text) {
+    int rows = 0;
+    Matcher matcher = ROW_PATTERN.matcher(text);
+    while (matcher.find()) {
+      ++rows;
+    }
+    return rows;
+  }
+}
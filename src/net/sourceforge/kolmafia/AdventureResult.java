@@ -21,6 +21,7 @@ import net.sourceforge.kolmafia.session.ElVibratoManager;
 import net.sourceforge.kolmafia.session.ElVibratoManager.Punchcard;
 import net.sourceforge.kolmafia.session.GoalManager;
 import net.sourceforge.kolmafia.session.InventoryManager;
+import net.sourceforge.kolmafia.utilities.IndexedItemList;
 import net.sourceforge.kolmafia.utilities.StringUtilities;
 
 public class AdventureResult implements Comparable<AdventureResult>, Cloneable {
@@ -964,7 +965,11 @@ public class AdventureResult implements Comparable<AdventureResult>, Cloneable {
    */
   public static void addResultToList(
       final List<AdventureResult> sourceList, final AdventureResult result) {
-    int index = sourceList.indexOf(result);
+    // An indexed list can tell us cheaply that the item is new
+    int index =
+        sourceList instanceof IndexedItemList indexed && indexed.findItem(result) == null
+            ? -1
+            : sourceList.indexOf(result);
 
     // First, filter out things where it's a simple addition of an
     // item, or something which may not result in a change in the
@@ -1141,6 +1146,10 @@ public class AdventureResult implements Comparable<AdventureResult>, Cloneable {
    * intent more transparent.
    */
   public int getCount(final List<AdventureResult> list) {
+    if (list instanceof IndexedItemList indexed) {
+      AdventureResult item = indexed.findItem(this);
+      return item == null ? 0 : item.getCount();
+    }
     int index = list.indexOf(this);
     if (index == -1) return 0;
     AdventureResult item = list.get(index);
@@ -266,12 +266,12 @@ public class Expression {
           v = KoLCharacter.hasEquipped(item) ? 1 : 0;
         }
         case 'h' -> v =
-            Modifiers.mainhandClass.equalsIgnoreCase((String) this.literals.get((int) s[--sp]))
+            Modifiers.getMainhandClass().equalsIgnoreCase((String) this.literals.get((int) s[--sp]))
                 ? 1
                 : 0;
         case 'i' -> v =
             FamiliarDatabase.hasAttribute(
-                    Modifiers.currentFamiliar, (String) this.literals.get((int) s[--sp]))
+                    Modifiers.getCurrentFamiliar(), (String) this.literals.get((int) s[--sp]))
                 ? 1
                 : 0;
         case 'j' -> v =
@@ -302,7 +302,7 @@ public class Expression {
               (StringUtilities.isNumeric(fam))
                   ? FamiliarDatabase.getFamiliarName(StringUtilities.parseInt(fam))
                   : fam;
-          v = Modifiers.currentFamiliar.equalsIgnoreCase(familiarName) ? 1 : 0;
+          v = Modifiers.getCurrentFamiliar().equalsIgnoreCase(familiarName) ? 1 : 0;
         }
         case 'z' -> {
           String expressionZone = (String) this.literals.get((int) s[--sp]);
@@ -399,7 +399,7 @@ public class Expression {
         }
           // Valid with Modifier Expression:
         case '\u008b' -> v =
-            switch (FamiliarDatabase.getFamiliarId(Modifiers.currentFamiliar)) {
+            switch (FamiliarDatabase.getFamiliarId(Modifiers.getCurrentFamiliar())) {
               case FamiliarPool.AUTONOMOUS_DISCO_BALL,
                   FamiliarPool.CLOCKWORK_GRAPEFRUIT,
                   FamiliarPool.PRESSIE,
@@ -448,10 +448,10 @@ public class Expression {
         }
         case 'F' -> v = KoLCharacter.getFullness();
         case 'G' -> v = HolidayDatabase.getGrimaciteEffect() / 10.0;
-        case 'H' -> v = Modifiers.hoboPower;
+        case 'H' -> v = Modifiers.getHoboPower();
         case 'I' -> v = KoLCharacter.getDiscoMomentum();
         case 'J' -> v = HolidayDatabase.getHoliday().contains("Festival of Jarlsberg") ? 1.0 : 0.0;
-        case 'K' -> v = Modifiers.smithsness;
+        case 'K' -> v = Modifiers.getSmithsness();
         case 'L' -> v = KoLCharacter.getLevel();
         case 'M' -> v = HolidayDatabase.getMoonlight();
         case 'N' -> v = KoLCharacter.getAudience();
@@ -463,7 +463,7 @@ public class Expression {
                 ? 0.0
                 : Math.max(1, this.effect.getCount(KoLConstants.activeEffects));
         case 'U' -> v = KoLCharacter.getTelescopeUpgrades();
-        case 'W' -> v = Modifiers.currentWeight;
+        case 'W' -> v = Modifiers.getCurrentWeight();
         case 'X' -> v = KoLCharacter.getGender().modifierValue;
         case 'Y' -> v = KoLCharacter.getFury();
         default -> {
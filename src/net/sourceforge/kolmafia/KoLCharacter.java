@@ -4981,12 +4981,12 @@ public abstract class KoLCharacter {
     Modifiers newModifiers = debug ? new DebugModifiers() : new Modifiers();
     Modifiers.setFamiliar(familiar);
     AdventureResult weapon = equipment.get(Slot.WEAPON);
-    Modifiers.mainhandClass =
-        weapon == null ? "" : EquipmentDatabase.getItemType(weapon.getItemId());
+    Modifiers.setMainhandClass(
+        weapon == null ? "" : EquipmentDatabase.getItemType(weapon.getItemId()));
     AdventureResult offhand = equipment.get(Slot.OFFHAND);
-    Modifiers.unarmed =
+    Modifiers.setUnarmed(
         (weapon == null || weapon == EquipmentRequest.UNEQUIP)
-            && (offhand == null || offhand == EquipmentRequest.UNEQUIP);
+            && (offhand == null || offhand == EquipmentRequest.UNEQUIP));
 
     // Area-specific adjustments
     newModifiers.add(ModifierDatabase.getModifiers(ModifierType.LOC, Modifiers.currentLocation));
@@ -5046,7 +5046,7 @@ public abstract class KoLCharacter {
                     DoubleModifier.INITIATIVE, level * 20, ModifierType.EL_VIBRATO, "SELF");
                 break;
               case 8:
-                if (Modifiers.currentFamiliar.contains("megadrone")) {
+                if (Modifiers.getCurrentFamiliar().contains("megadrone")) {
                   newModifiers.addDouble(
                       DoubleModifier.FAMILIAR_WEIGHT, level * 10, ModifierType.EL_VIBRATO, "DRONE");
                 }
@@ -5068,7 +5068,7 @@ public abstract class KoLCharacter {
     }
 
     // Store some modifiers as statics
-    Modifiers.smithsness = KoLCharacter.getSmithsnessModifier(equipment, effects);
+    Modifiers.setSmithsness(KoLCharacter.getSmithsnessModifier(equipment, effects));
 
     // Look at items
     for (var slot : SlotSet.SLOTS) {
@@ -5258,7 +5258,7 @@ public abstract class KoLCharacter {
     newModifiers.add(fightMods);
 
     // Store some modifiers as statics
-    Modifiers.hoboPower = newModifiers.getDouble(DoubleModifier.HOBO_POWER);
+    Modifiers.setHoboPower(newModifiers.getDouble(DoubleModifier.HOBO_POWER));
 
     if (Modifiers.currentLocation.equals("The Slime Tube")) {
       int hatred = (int) newModifiers.getDouble(DoubleModifier.SLIME_HATES_IT);
@@ -28,6 +28,8 @@ import net.sourceforge.kolmafia.AdventureResult.AdventureLongCountResult;
 import net.sourceforge.kolmafia.KoLConstants.CraftingType;
 import net.sourceforge.kolmafia.KoLConstants.MafiaState;
 import net.sourceforge.kolmafia.SpecialOutfit.Checkpoint;
+import net.sourceforge.kolmafia.listener.Listener;
+import net.sourceforge.kolmafia.listener.ListenerRegistry;
 import net.sourceforge.kolmafia.listener.NamedListenerRegistry;
 import net.sourceforge.kolmafia.listener.PreferenceListenerRegistry;
 import net.sourceforge.kolmafia.moods.RecoveryManager;
@@ -37,6 +39,7 @@ import net.sourceforge.kolmafia.objectpool.SkillPool;
 import net.sourceforge.kolmafia.persistence.BountyDatabase;
 import net.sourceforge.kolmafia.persistence.ConcoctionDatabase;
 import net.sourceforge.kolmafia.persistence.ConsumablesDatabase;
+import net.sourceforge.kolmafia.persistence.DatabaseStartup;
 import net.sourceforge.kolmafia.persistence.EffectDatabase;
 import net.sourceforge.kolmafia.persistence.EquipmentDatabase;
 import net.sourceforge.kolmafia.persistence.FamiliarDatabase;
@@ -151,6 +154,9 @@ public abstract class KoLmafia {
   public static MafiaState displayState = MafiaState.ENABLE;
   private static boolean allowDisplayUpdate = true;
 
+  // Keeps listener coalescing in step with its preferences. Registries only hold listeners weakly.
+  private static final Listener COALESCING_LISTENER = KoLmafia::updateListenerCoalescing;
+
   // All dates are presented as if the day began at rollover.
   public static final TimeZone KOL_TIME_ZONE = TimeZone.getTimeZone("GMT-0330");
 
@@ -310,6 +316,17 @@ public abstract class KoLmafia {
     // Create a script directory if necessary
     KoLConstants.SCRIPT_LOCATION.mkdirs();
 
+    // Load the static databases now, reading their data files in parallel,
+    // rather than one at a time as each is first used
+    DatabaseStartup.run();
+
+    // Gather listener fires into batches, if asked to, so that fast automation doesn't redraw
+    // the display for every change
+    KoLmafia.updateListenerCoalescing();
+    PreferenceListenerRegistry.registerPreferenceListener(
+        new String[] {"coalesceListeners", "coalesceListenersInterval"},
+        KoLmafia.COALESCING_LISTENER);
+
     // Clear the image cache for the first time so subsequent image
     // files loaded into it have the right timestamps
     if (Preferences.getLong("lastImageCacheClear") == 0L) {
@@ -389,6 +406,12 @@ public abstract class KoLmafia {
         "https://adoptium.net/installation/");
   }
 
+  private static void updateListenerCoalescing() {
+    ListenerRegistry.setCoalescing(
+        Preferences.getBoolean("coalesceListeners"),
+        Preferences.getInteger("coalesceListenersInterval"));
+  }
+
   private static void initLookAndFeel() {
     // Change the default look and feel to match the player's
     // preferences. Always do this.
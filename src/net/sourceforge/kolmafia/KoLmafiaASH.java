@@ -1,11 +1,17 @@
 package net.sourceforge.kolmafia;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import net.sourceforge.kolmafia.request.CampgroundRequest;
 import net.sourceforge.kolmafia.request.RelayRequest;
 import net.sourceforge.kolmafia.textui.AshRuntime;
@@ -22,8 +28,12 @@ import net.sourceforge.kolmafia.utilities.FileUtilities;
 public abstract class KoLmafiaASH {
   private static final HashMap<String, File> relayScriptMap = new HashMap<>();
 
-  private static final HashMap<File, Long> TIMESTAMPS = new HashMap<>();
-  private static final HashMap<File, ScriptRuntime> INTERPRETERS = new HashMap<>();
+  private static final Map<File, CachedScript> INTERPRETERS = new ConcurrentHashMap<>();
+
+  private static final AtomicInteger cacheHits = new AtomicInteger();
+  private static final AtomicInteger cacheRevalidations = new AtomicInteger();
+  private static final AtomicInteger cacheMisses = new AtomicInteger();
+  private static final AtomicLong parseNanos = new AtomicLong();
 
   public static final AshRuntime NAMESPACE_INTERPRETER = new NamespaceInterpreter();
 
@@ -185,48 +195,123 @@ public abstract class KoLmafiaASH {
       return null;
     }
 
-    boolean createInterpreter = !KoLmafiaASH.TIMESTAMPS.containsKey(toExecute);
-
-    if (!createInterpreter) {
-      Long timestamp = KoLmafiaASH.TIMESTAMPS.get(toExecute);
-      createInterpreter = timestamp != toExecute.lastModified();
+    CachedScript cached = KoLmafiaASH.INTERPRETERS.get(toExecute);
+    if (cached != null && cached.isCurrent()) {
+      KoLmafiaASH.cacheHits.incrementAndGet();
+      return cached.interpreter;
     }
 
-    if (!createInterpreter) {
-      ScriptRuntime interpreter = KoLmafiaASH.INTERPRETERS.get(toExecute);
-      if (interpreter instanceof AshRuntime) {
-        Map<File, Parser> imports = ((AshRuntime) interpreter).getImports();
+    KoLmafiaASH.cacheMisses.incrementAndGet();
+    KoLmafiaASH.INTERPRETERS.remove(toExecute);
+
+    long start = System.nanoTime();
+    ScriptRuntime interpreter;
+    Map<File, Long> sources = new HashMap<>();
+    if (toExecute.getName().endsWith(".js")) {
+      interpreter = new JavascriptRuntime(toExecute);
+      sources.put(toExecute, toExecute.lastModified());
+    } else {
+      AshRuntime ashRuntime = new AshRuntime();
+      boolean valid = ashRuntime.validate(toExecute, null);
+      KoLmafiaASH.parseNanos.addAndGet(System.nanoTime() - start);
+      if (!valid) {
+        return null;
+      }
+
+      // The imports include the script itself
+      for (Map.Entry<File, Parser> entry : ashRuntime.getImports().entrySet()) {
+        sources.put(entry.getKey(), entry.getValue().getModificationTimestamp());
+      }
+      interpreter = ashRuntime;
+    }
 
-        Iterator<Entry<File, Parser>> it = imports.entrySet().iterator();
+    KoLmafiaASH.INTERPRETERS.put(toExecute, new CachedScript(interpreter, sources));
+    return interpreter;
+  }
 
-        while (it.hasNext() && !createInterpreter) {
-          Entry<File, Parser> entry = it.next();
-          File file = entry.getKey();
-          long timestamp = entry.getValue().getModificationTimestamp();
-          createInterpreter = timestamp != file.lastModified();
+  /**
+   * A parsed script, along with the timestamp and content hash of every file it was parsed from.
+   * If a timestamp changes but the contents are the same, the script is still current.
+   */
+  private static class CachedScript {
+    private final ScriptRuntime interpreter;
+    private final Map<File, Long> timestamps;
+    private final Map<File, byte[]> hashes = new HashMap<>();
+
+    private CachedScript(final ScriptRuntime interpreter, final Map<File, Long> timestamps) {
+      this.interpreter = interpreter;
+      this.timestamps = new ConcurrentHashMap<>(timestamps);
+
+      for (Map.Entry<File, Long> entry : timestamps.entrySet()) {
+        File file = entry.getKey();
+        byte[] hash = KoLmafiaASH.hashFile(file);
+        // If the file changed since it was parsed, leave it unhashed so it is reparsed
+        if (hash != null && file.lastModified() == entry.getValue()) {
+          this.hashes.put(file, hash);
         }
       }
     }
 
-    if (createInterpreter) {
-      KoLmafiaASH.TIMESTAMPS.remove(toExecute);
-      ScriptRuntime interpreter;
-      if (toExecute.getName().endsWith(".js")) {
-        interpreter = new JavascriptRuntime(toExecute);
-      } else {
-        interpreter = new AshRuntime();
+    private boolean isCurrent() {
+      boolean revalidated = false;
+
+      for (Map.Entry<File, Long> entry : this.timestamps.entrySet()) {
+        File file = entry.getKey();
+        long timestamp = file.lastModified();
+        if (timestamp == entry.getValue()) {
+          continue;
+        }
+
+        byte[] hash = this.hashes.get(file);
+        if (hash == null || !Arrays.equals(hash, KoLmafiaASH.hashFile(file))) {
+          return false;
+        }
+
+        entry.setValue(timestamp);
+        revalidated = true;
       }
 
-      if (interpreter instanceof AshRuntime
-          && !((AshRuntime) interpreter).validate(toExecute, null)) {
-        return null;
+      if (revalidated) {
+        KoLmafiaASH.cacheRevalidations.incrementAndGet();
       }
+      return true;
+    }
+  }
 
-      KoLmafiaASH.TIMESTAMPS.put(toExecute, toExecute.lastModified());
-      KoLmafiaASH.INTERPRETERS.put(toExecute, interpreter);
+  private static byte[] hashFile(final File file) {
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(Files.readAllBytes(file.toPath()));
+    } catch (IOException | NoSuchAlgorithmException e) {
+      return null;
     }
+  }
+
+  public static int getCachedScriptCount() {
+    return KoLmafiaASH.INTERPRETERS.size();
+  }
+
+  public static int getCacheHits() {
+    return KoLmafiaASH.cacheHits.get();
+  }
+
+  public static int getCacheRevalidations() {
+    return KoLmafiaASH.cacheRevalidations.get();
+  }
+
+  public static int getCacheMisses() {
+    return KoLmafiaASH.cacheMisses.get();
+  }
+
+  public static long getParseMillis() {
+    return KoLmafiaASH.parseNanos.get() / 1_000_000L;
+  }
 
-    return KoLmafiaASH.INTERPRETERS.get(toExecute);
+  public static void clearInterpreterCache() {
+    KoLmafiaASH.INTERPRETERS.clear();
+    KoLmafiaASH.cacheHits.set(0);
+    KoLmafiaASH.cacheRevalidations.set(0);
+    KoLmafiaASH.cacheMisses.set(0);
+    KoLmafiaASH.parseNanos.set(0);
   }
 
   public static void showUserFunctions(final AshRuntime interpreter, final String filter) {
@@ -299,7 +384,8 @@ public abstract class KoLmafiaASH {
   }
 
   public static final void stopAllRelayInterpreters() {
-    for (ScriptRuntime i : KoLmafiaASH.INTERPRETERS.values()) {
+    for (CachedScript cached : KoLmafiaASH.INTERPRETERS.values()) {
+      ScriptRuntime i = cached.interpreter;
       if (i.getRelayRequest() != null) {
         i.setState(ScriptRuntime.State.EXIT);
       }
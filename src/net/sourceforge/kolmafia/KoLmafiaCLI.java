@@ -517,6 +517,7 @@ public class KoLmafiaCLI {
     new AprilBandCommand().register("aprilband");
     new AreaSummaryCommand().register("safe");
     new AsdonMartinCommand().register("asdonmartin");
+    new AshCacheCommand().register("ashcache");
     new AshMultiLineCommand().register("<inline-ash-script>");
     new AshRefCommand().register("ashref");
     new AshSingleLineCommand().register("ash").register("ashq");
@@ -662,6 +663,7 @@ public class KoLmafiaCLI {
     new FlickerCommand().register("flicker");
     new FloristCommand().register("florist");
     new FlowerHuntCommand().register("flowers").register("swagger");
+    new FlushPreferencesCommand().register("flushprefs");
     new FoldItemCommand().register("fold").register("squeeze");
     new FortuneCommand().register("fortune");
     new ForumCommand().registerPlural("forum");
@@ -701,6 +703,7 @@ public class KoLmafiaCLI {
     new LeavesCommand().register("leaves");
     new LedCandleCommand().register("ledcandle").register("jillcandle");
     new LeprecondoCommand().register("leprecondo");
+    new ListenerStatsCommand().register("listenerstats");
     new LoathingIdolCommand().register("loathingidol");
     new LogEchoCommand().register("logecho").register("logprint");
     new LoginCommand().register("login");
@@ -740,6 +743,7 @@ public class KoLmafiaCLI {
     new OlfactionCommand().register("olfact").register("olfaction").register("putty");
     new OutfitCheckpointCommand().register("checkpoint");
     new OutfitCommand().register("outfit");
+    new PageTimesCommand().register("pagetimes");
     new PandaCommand().register("panda");
     new PastaThrallCommand().register("thralls");
     new PhotoBoothCommand().register("photobooth");
@@ -800,6 +804,7 @@ public class KoLmafiaCLI {
     new SpookyravenCommand().register("spookyraven");
     new SpoonCommand().register("spoon");
     new StickersCommand().registerPlural("sticker");
+    new StartupTimesCommand().register("startuptimes");
     new StorageCommand().register("hagnk").register("pull");
     new StyxPixieCommand().register("styx");
     new SubmitSpadeDataCommand().register("spade");
@@ -1051,8 +1056,8 @@ public class KoLmafiaCLI {
           RequestLogger.printLine("chatbot stopped");
           break;
         case "status":
-          boolean running = manager != null && manager.getStats() != null && manager.getStats().gamesCount >= 0;
-          RequestLogger.printLine("chatbot status: " + (running ? "running" : "stopped"));
+          RequestLogger.printLine(
+              "chatbot status: " + (manager.isRunning() ? "running" : "stopped"));
           break;
         case "save":
           manager.saveGameState();
@@ -48,6 +48,7 @@ import net.sourceforge.kolmafia.session.AutumnatonManager;
 import net.sourceforge.kolmafia.session.InventoryManager;
 import net.sourceforge.kolmafia.utilities.Indexed;
 import net.sourceforge.kolmafia.utilities.IntOrString;
+import net.sourceforge.kolmafia.utilities.TwoLevelEnumHashMap;
 
 @SuppressWarnings("incomplete-switch")
 public class Modifiers {
@@ -64,6 +65,119 @@ public class Modifiers {
   public static double currentWeight = 0.0;
   public static boolean unarmed = false;
 
+  // A thread which calculates speculative modifiers alongside other threads (for example, a
+  // parallel maximizer worker) carries its own copy of the fields above which change with
+  // equipment and familiar, plus its own copies of variable modifiers.
+  private static final ThreadLocal<Context> threadContext = new ThreadLocal<>();
+
+  public static final class Context {
+    private String currentFamiliar = Modifiers.currentFamiliar;
+    private String mainhandClass = Modifiers.mainhandClass;
+    private double hoboPower = Modifiers.hoboPower;
+    private double smithsness = Modifiers.smithsness;
+    private double currentWeight = Modifiers.currentWeight;
+    private boolean unarmed = Modifiers.unarmed;
+    private final TwoLevelEnumHashMap<ModifierType, IntOrString, Modifiers> modifiersByName =
+        new TwoLevelEnumHashMap<>(ModifierType.class);
+
+    public TwoLevelEnumHashMap<ModifierType, IntOrString, Modifiers> getModifiersByName() {
+      return this.modifiersByName;
+    }
+  }
+
+  /**
+   * Runs task with a private copy of the current modifier context. Modifier calculations done by
+   * the task do not disturb, and are not disturbed by, calculations on other threads.
+   */
+  public static void withPrivateContext(final Runnable task) {
+    Context previous = Modifiers.threadContext.get();
+    Modifiers.threadContext.set(new Context());
+    try {
+      task.run();
+    } finally {
+      Modifiers.threadContext.set(previous);
+    }
+  }
+
+  public static Context getPrivateContext() {
+    return Modifiers.threadContext.get();
+  }
+
+  public static String getCurrentFamiliar() {
+    Context context = Modifiers.threadContext.get();
+    return context == null ? Modifiers.currentFamiliar : context.currentFamiliar;
+  }
+
+  public static String getMainhandClass() {
+    Context context = Modifiers.threadContext.get();
+    return context == null ? Modifiers.mainhandClass : context.mainhandClass;
+  }
+
+  public static void setMainhandClass(final String mainhandClass) {
+    Context context = Modifiers.threadContext.get();
+    if (context == null) {
+      Modifiers.mainhandClass = mainhandClass;
+    } else {
+      context.mainhandClass = mainhandClass;
+    }
+  }
+
+  public static double getHoboPower() {
+    Context context = Modifiers.threadContext.get();
+    return context == null ? Modifiers.hoboPower : context.hoboPower;
+  }
+
+  public static void setHoboPower(final double hoboPower) {
+    Context context = Modifiers.threadContext.get();
+    if (context == null) {
+      Modifiers.hoboPower = hoboPower;
+    } else {
+      context.hoboPower = hoboPower;
+    }
+  }
+
+  public static double getSmithsness() {
+    Context context = Modifiers.threadContext.get();
+    return context == null ? Modifiers.smithsness : context.smithsness;
+  }
+
+  public static void setSmithsness(final double smithsness) {
+    Context context = Modifiers.threadContext.get();
+    if (context == null) {
+      Modifiers.smithsness = smithsness;
+    } else {
+      context.smithsness = smithsness;
+    }
+  }
+
+  public static double getCurrentWeight() {
+    Context context = Modifiers.threadContext.get();
+    return context == null ? Modifiers.currentWeight : context.currentWeight;
+  }
+
+  private static void setCurrentWeight(final double currentWeight) {
+    Context context = Modifiers.threadContext.get();
+    if (context == null) {
+      Modifiers.currentWeight = currentWeight;
+    } else {
+      context.currentWeight = currentWeight;
+    }
+  }
+
+  public static boolean isUnarmed() {
+    Context context = Modifiers.threadContext.get();
+    return context == null ? Modifiers.unarmed : context.unarmed;
+  }
+
+  public static void setUnarmed(final boolean unarmed) {
+    Context context = Modifiers.threadContext.get();
+    if (context == null) {
+      Modifiers.unarmed = unarmed;
+    } else {
+      context.unarmed = unarmed;
+    }
+  }
+
   // caching of passive skills for the current character
   private static boolean availableSkillsChanged = false;
   private static final Map<Boolean, List<Modifiers>> availablePassiveSkillModifiersByVariable =
@@ -649,7 +763,7 @@ public class Modifiers {
 
     // Unarmed modifiers apply only if the character has no weapon or offhand
     boolean unarmed = mods.getBoolean(BooleanModifier.UNARMED);
-    if (unarmed && !Modifiers.unarmed) {
+    if (unarmed && !Modifiers.isUnarmed()) {
       return;
     }
 
@@ -1173,7 +1287,7 @@ public class Modifiers {
       final FamiliarData familiar, int weight, final AdventureResult famItem) {
     int familiarId = familiar.getEffectiveId();
     weight = Math.max(1, weight);
-    Modifiers.currentWeight = weight;
+    Modifiers.setCurrentWeight(weight);
 
     String race = familiar.getEffectiveRace();
 
@@ -1554,7 +1668,13 @@ public class Modifiers {
   }
 
   public static void setFamiliar(FamiliarData fam) {
-    Modifiers.currentFamiliar = fam == null ? "" : fam.getRace();
+    String race = fam == null ? "" : fam.getRace();
+    Context context = Modifiers.threadContext.get();
+    if (context == null) {
+      Modifiers.currentFamiliar = race;
+    } else {
+      context.currentFamiliar = race;
+    }
   }
 
   @Override
@@ -1,13 +1,21 @@
 package net.sourceforge.kolmafia;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
 import java.util.Date;
 import java.util.List;
 import java.util.Objects;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 import net.sourceforge.kolmafia.KoLConstants.MafiaState;
 import net.sourceforge.kolmafia.listener.NamedListenerRegistry;
 import net.sourceforge.kolmafia.persistence.SkillDatabase;
+import net.sourceforge.kolmafia.preferences.Preferences;
 import net.sourceforge.kolmafia.request.*;
 import net.sourceforge.kolmafia.request.GrandpaRequest;
 import net.sourceforge.kolmafia.request.coinmaster.AWOLQuartermasterRequest;
@@ -42,8 +50,10 @@ import net.sourceforge.kolmafia.session.ChoiceManager;
 import net.sourceforge.kolmafia.session.DvorakManager;
 import net.sourceforge.kolmafia.session.ElVibratoManager;
 import net.sourceforge.kolmafia.session.OceanManager;
+import net.sourceforge.kolmafia.session.SessionLogIndex;
 import net.sourceforge.kolmafia.session.SorceressLairManager;
 import net.sourceforge.kolmafia.shop.ShopRequest;
+import net.sourceforge.kolmafia.utilities.AsyncLogWriter;
 import net.sourceforge.kolmafia.utilities.LogStream;
 import net.sourceforge.kolmafia.utilities.NullStream;
 import net.sourceforge.kolmafia.utilities.StringUtilities;
@@ -56,12 +66,18 @@ public class RequestLogger extends NullStream {
   private static PrintStream mirrorStream = NullStream.INSTANCE;
 
   private static PrintStream sessionStream = NullStream.INSTANCE;
+  // The file the session log was last opened on, which is kept after it is closed
+  private static String sessionLogName = null;
+  // The character that file belongs to, as it appears in the file name
+  private static String sessionLogOwner = null;
+  private static SessionLogIndex sessionIndex = null;
   private static PrintStream debugStream = NullStream.INSTANCE;
   private static PrintStream traceStream = NullStream.INSTANCE;
 
   private static String lastURLString = "";
   public static String previousUpdateString = "";
   private static boolean wasLastRequestSimple = false;
+  private static String lastRegistrar = null;
 
   private RequestLogger() {}
 
@@ -69,6 +85,11 @@ public class RequestLogger extends NullStream {
     return lastURLString;
   }
 
+  /** Returns the name of whatever claimed the last registered URL, or null if nothing did. */
+  public static String getLastRegistrar() {
+    return lastRegistrar;
+  }
+
   @Override
   public void println() {
     RequestLogger.printLine();
@@ -250,7 +271,8 @@ public class RequestLogger extends NullStream {
       RequestLogger.closeStream(originalStream);
     }
 
-    return LogStream.openStream(filename, false);
+    AsyncLogWriter.setFlushInterval(Preferences.getInteger("logFlushInterval"));
+    return LogStream.openAsyncStream(filename);
   }
 
   public static void closeStream(final PrintStream stream) {
@@ -288,20 +310,70 @@ public class RequestLogger extends NullStream {
   }
 
   public static void openSessionLog() {
+    String owner = StringUtilities.globalStringReplace(KoLCharacter.getUserName(), " ", "_");
+    String filename = owner + "_" + KoLConstants.DAILY_FORMAT.format(new Date()) + ".txt";
+    String previous = RequestLogger.sessionLogName;
+
+    // Compare the owner exactly, since one character's name may begin with another's
+    if (previous != null
+        && owner.equals(RequestLogger.sessionLogOwner)
+        && !previous.equals(filename)) {
+      // The day has turned over since this character's log was opened
+      RequestLogger.closeSessionLog();
+      if (Preferences.getBoolean("compressSessionLogs")) {
+        File rotated = new File(KoLConstants.SESSIONS_LOCATION, previous);
+        RequestThread.runInParallel(() -> RequestLogger.compressLog(rotated), false);
+      }
+    }
+
     RequestLogger.sessionStream =
         RequestLogger.openStream(
-            KoLConstants.SESSIONS_DIRECTORY
-                + StringUtilities.globalStringReplace(KoLCharacter.getUserName(), " ", "_")
-                + "_"
-                + KoLConstants.DAILY_FORMAT.format(new Date())
-                + ".txt",
-            RequestLogger.sessionStream,
-            false);
+            KoLConstants.SESSIONS_DIRECTORY + filename, RequestLogger.sessionStream, false);
+    if (RequestLogger.sessionIndex != null) {
+      RequestLogger.sessionIndex.close();
+      RequestLogger.sessionIndex = null;
+    }
+    if (RequestLogger.sessionStream != NullStream.INSTANCE) {
+      RequestLogger.sessionLogName = filename;
+      RequestLogger.sessionLogOwner = owner;
+      RequestLogger.sessionIndex =
+          SessionLogIndex.open(new File(KoLConstants.SESSIONS_LOCATION, filename));
+    }
+  }
+
+  // Replaces a closed log with a gzipped copy, which session_logs() can still read
+  private static void compressLog(final File file) {
+    if (!file.exists()) {
+      return;
+    }
+
+    File compressed = new File(file.getParentFile(), file.getName() + ".gz");
+    try (InputStream istream = new FileInputStream(file);
+        OutputStream ostream = new GZIPOutputStream(new FileOutputStream(compressed))) {
+      istream.transferTo(ostream);
+    } catch (IOException e) {
+      StaticEntity.printStackTrace(e);
+      compressed.delete();
+      return;
+    }
+    file.delete();
   }
 
   public static void closeSessionLog() {
     RequestLogger.closeStream(RequestLogger.sessionStream);
     RequestLogger.sessionStream = NullStream.INSTANCE;
+    if (RequestLogger.sessionIndex != null) {
+      RequestLogger.sessionIndex.close();
+      RequestLogger.sessionIndex = null;
+    }
+  }
+
+  /** Writes out anything the session log and its index are still holding. */
+  public static void flushSessionLog() {
+    RequestLogger.sessionStream.flush();
+    if (RequestLogger.sessionIndex != null) {
+      RequestLogger.sessionIndex.flush();
+    }
   }
 
   public static void updateSessionLog() {
@@ -313,7 +385,18 @@ public class RequestLogger extends NullStream {
       StaticEntity.printStackTrace("Backtrace triggered by session log message");
     }
 
-    RequestLogger.sessionStream.println(line);
+    PrintStream stream = RequestLogger.sessionStream;
+    SessionLogIndex index = RequestLogger.sessionIndex;
+    if (index != null && stream instanceof LogStream log) {
+      // Nothing else may be printed between noting where the line goes and printing it
+      synchronized (log) {
+        index.record(log.position(), line);
+        log.println(line);
+      }
+      return;
+    }
+
+    stream.println(line);
   }
 
   public static boolean isDebugging() {
@@ -400,6 +483,297 @@ public class RequestLogger extends NullStream {
     }
   }
 
+  private static void claimedBy(final String registrar) {
+    RequestLogger.wasLastRequestSimple = false;
+    RequestLogger.lastRegistrar = registrar;
+  }
+
+  // Built on first use, since naming every registrar loads its class. Each registrar is listed
+  // with the pages it can claim, or none if it might claim anything; within a page, they are still
+  // consulted in the order listed here.
+
+  private static class Registrars {
+    // Simple visits, which do not need to post any form fields
+    static final RequestRegistry VISITS =
+        new RequestRegistry()
+            // We know of 138 different shops.
+            //
+            // 24 concoctions
+            // 71 coinmasters
+            // 39 NPC stores
+            // 4 NPC + coinmaster
+
+            // This one was written before shop.php was modernized.
+            // It's obsolete, so, who knows?
+            .claim(Crimbo12Request.class, Crimbo12Request::registerRequest, "shop.php")
+            // This should cover literally everything else.
+            .always("ShopRequest", ShopRequest::registerRequest, "shop.php")
+            .claimWithOrigin(
+                FightRequest.class, FightRequest::registerRequest, "fight.php", "fambattle.php")
+            // We want to register simple visits to the Altar of Literacy
+            .claim(
+                AltarOfLiteracyRequest.class,
+                AltarOfLiteracyRequest::registerRequest,
+                "town_altar.php")
+            // We want to register simple visits to the Bounty Hunter Hunter
+            .claim(
+                BountyHunterHunterRequest.class,
+                BountyHunterHunterRequest::registerRequest,
+                "bounty.php")
+            // We want to register visits to the You're the Fudge Wizard Now, Dog choice adventure
+            // before ChoiceManager.
+            .claim(
+                FudgeWandRequest.class,
+                FudgeWandRequest::registerRequest,
+                "inv_use.php",
+                "choice.php")
+            // We want to register visits to the Summoning Chamber choice adventure before
+            // ChoiceManager.
+            .claim(
+                SummoningChamberRequest.class,
+                SummoningChamberRequest::registerRequest,
+                "choice.php")
+            .claim(HeyDezeRequest.class, HeyDezeRequest::registerRequest, "heydeze.php")
+            .claim(MrStoreRequest.class, MrStoreRequest::registerRequest, "mrstore.php")
+            .claim(SpaaaceRequest.class, SpaaaceRequest::registerRequest, "spaaace.php")
+            .claim(VolcanoMazeRequest.class, VolcanoMazeRequest::registerRequest, "volcanomaze.php")
+            // These are all instances of choice.php
+            .claim(BurningLeavesRequest.class, BurningLeavesRequest::registerRequest, "choice.php")
+            .claim(
+                BurningNewspaperRequest.class,
+                BurningNewspaperRequest::registerRequest,
+                "choice.php")
+            .claim(
+                CargoCultistShortsRequest.class,
+                CargoCultistShortsRequest::registerRequest,
+                "choice.php")
+            .claim(
+                ClanLoungeSwimmingPoolRequest.class,
+                ClanLoungeSwimmingPoolRequest::registerRequest,
+                "choice.php")
+            .claim(
+                DeckOfEveryCardRequest.class,
+                DeckOfEveryCardRequest::registerRequest,
+                "choice.php")
+            .claim(FloristRequest.class, FloristRequest::registerRequest, "choice.php")
+            .claim(GrubbyWoolRequest.class, GrubbyWoolRequest::registerRequest, "choice.php")
+            .claim(HashingViseRequest.class, HashingViseRequest::registerRequest, "choice.php")
+            .claim(MeteoroidRequest.class, MeteoroidRequest::registerRequest, "choice.php")
+            .claim(NumberologyRequest.class, NumberologyRequest::registerRequest, "choice.php")
+            .claim(PottedTeaTreeRequest.class, PottedTeaTreeRequest::registerRequest, "choice.php")
+            .claim(SausageOMaticRequest.class, SausageOMaticRequest::registerRequest, "choice.php")
+            .claim(TerminalRequest.class, TerminalRequest::registerRequest, "choice.php")
+            .claim(
+                SweetSynthesisRequest.class, SweetSynthesisRequest::registerRequest, "choice.php")
+            .claim(WaxGlobRequest.class, WaxGlobRequest::registerRequest, "choice.php")
+            .always("DvorakManager", DvorakManager::registerRequest, "tiles.php")
+            .always("OceanManager", OceanManager::registerRequest, "ocean.php")
+            .always("ElVibratoManager", ElVibratoManager::registerRequest, "elvmachine.php")
+            .build();
+
+    // Form submissions which must be looked at before the uninteresting ones are weeded out
+    static final RequestRegistry FORMS =
+        new RequestRegistry()
+            // We want to register some visits to the Campground
+            .claim(CampgroundRequest.class, CampgroundRequest::registerRequest, "campground.php")
+            // These are campground requests and so must go here.
+            .claim(PizzaCubeRequest.class, PizzaCubeRequest::registerRequest, "campground.php")
+            .claim(PortalRequest.class, PortalRequest::registerRequest, "campground.php")
+            .claim(TelescopeRequest.class, TelescopeRequest::registerRequest)
+            // This might be a campground request and so must go here.
+            .claim(
+                UseSkillRequest.class,
+                UseSkillRequest::registerRequest,
+                "skillz.php",
+                "campground.php",
+                "runskillz.php")
+            // This might be on inventory.php
+            .claim(
+                EquipmentRequest.class,
+                EquipmentRequest::registerRequest,
+                "bedazzle.php",
+                "inv_use.php",
+                "inventory.php",
+                "inv_equip.php")
+            .build();
+
+    static final RequestRegistry ACTIONS =
+        new RequestRegistry()
+            // Check individual cafes
+            .claim(MicroBreweryRequest.class, MicroBreweryRequest::registerRequest)
+            .claim(ChezSnooteeRequest.class, ChezSnooteeRequest::registerRequest)
+            .claim(CrimboCafeRequest.class, CrimboCafeRequest::registerRequest)
+            // Check UseItemRequest early, so that lastItemUsed gets
+            // cleared when processing anything else.  Otherwise, any
+            // non-item-use that redirects to inventory.php?action=message
+            // (such as outfit changes) will cause the last item to be
+            // processed again.
+
+            // However, we have to check CreateItemRequest earlier, so that
+            // it can handle single-/multi-use concoctions.
+            .alwaysWithOrigin("CreateItemRequest", CreateItemRequest::registerRequest)
+            // Are we finally ready to call UseItemRequest?
+            .claim(UseItemRequest.class, UseItemRequest::registerRequest)
+            // The following is in place.php
+            .claim(
+                FalloutShelterRequest.class, FalloutShelterRequest::registerRequest, "place.php")
+            // Let the "placeholder" for place.php take every otherwise
+            // unclaimed call to that URL.
+            .always("PlaceRequest", PlaceRequest::registerRequest, "place.php")
+            // The following lists all the remaining requests in
+            // alphabetical order.
+            .claim(AfterLifeRequest.class, AfterLifeRequest::registerRequest, "afterlife.php")
+            .claim(
+                AltarOfBonesRequest.class, AltarOfBonesRequest::registerRequest, "bone_altar.php")
+            .claim(ArcadeRequest.class, ArcadeRequest::registerRequest)
+            .claim(ArtistRequest.class, ArtistRequest::registerRequest, "place.php")
+            .claim(AutoMallRequest.class, AutoMallRequest::registerRequest, "managestore.php")
+            .claim(
+                AutoSellRequest.class,
+                AutoSellRequest::registerRequest,
+                "sellstuff.php",
+                "sellstuff_ugly.php")
+            .claim(
+                AWOLQuartermasterRequest.class,
+                AWOLQuartermasterRequest::registerRequest,
+                "inv_use.php")
+            .claim(BeerPongRequest.class, BeerPongRequest::registerRequest, "beerpong.php")
+            .claim(BigBrotherRequest.class, BigBrotherRequest::registerRequest, "monkeycastle.php")
+            .claim(BURTRequest.class, BURTRequest::registerRequest, "inv_use.php")
+            .claim(CafeRequest.class, CafeRequest::registerRequest)
+            .claim(CakeArenaRequest.class, CakeArenaRequest::registerRequest, "arena.php")
+            .claim(CampAwayRequest.class, CampAwayRequest::registerRequest, "place.php")
+            .claim(ChateauRequest.class, ChateauRequest::registerRequest, "place.php")
+            .claim(
+                ClanLoungeRequest.class, ClanLoungeRequest::registerRequest, "clan_viplounge.php")
+            .claim(
+                ClanRumpusRequest.class,
+                ClanRumpusRequest::registerRequest,
+                "clan_rumpus.php",
+                "place.php",
+                "gnomes.php")
+            .claim(ClanStashRequest.class, ClanStashRequest::registerRequest, "clan_stash.php")
+            .claim(
+                ClosetRequest.class,
+                ClosetRequest::registerRequest,
+                "closet.php",
+                "fillcloset.php",
+                "inventory.php")
+            .claim(
+                CRIMBCOGiftShopRequest.class,
+                CRIMBCOGiftShopRequest::registerRequest,
+                "crimbo10.php")
+            .claim(Crimbo07Request.class, Crimbo07Request::registerRequest)
+            .claim(Crimbo09Request.class, Crimbo09Request::registerRequest, "crimbo09.php")
+            .claim(Crimbo10Request.class, Crimbo10Request::registerRequest, "crimbo10.php")
+            .claim(Crimbo11Request.class, Crimbo11Request::registerRequest, "crimbo11.php")
+            .claim(
+                Crimbo21TreeRequest.class, Crimbo21TreeRequest::registerRequest, "crimbo21tree.php")
+            .claim(CrimboCartelRequest.class, CrimboCartelRequest::registerRequest, "crimbo09.php")
+            .claim(CurseRequest.class, CurseRequest::registerRequest, "curse.php")
+            .claim(DigRequest.class, DigRequest::registerRequest, "dig.php")
+            .claim(DimemasterRequest.class, DimemasterRequest::registerRequest, "bigisland.php")
+            .claim(
+                DisplayCaseRequest.class,
+                DisplayCaseRequest::registerRequest,
+                "managecollection.php")
+            .claim(
+                DreadsylvaniaRequest.class,
+                DreadsylvaniaRequest::registerRequest,
+                "clan_dreadsylvania.php")
+            .claim(
+                DwarfContraptionRequest.class,
+                DwarfContraptionRequest::registerRequest,
+                "dwarfcontraption.php")
+            .claim(
+                DwarfFactoryRequest.class, DwarfFactoryRequest::registerRequest, "dwarffactory.php")
+            .claim(EdBaseRequest.class, EdBaseRequest::registerRequest, "place.php")
+            .claim(FamiliarRequest.class, FamiliarRequest::registerRequest, "familiar.php")
+            .claim(FamTeamRequest.class, FamTeamRequest::registerRequest, "famteam.php")
+            .claim(FantasyRealmRequest.class, FantasyRealmRequest::registerRequest, "choice.php")
+            .claim(
+                FleaMarketRequest.class, FleaMarketRequest::registerRequest, "town_fleamarket.php")
+            .claim(
+                FleaMarketSellRequest.class,
+                FleaMarketSellRequest::registerRequest,
+                "town_sellflea.php")
+            .claim(FreeSnackRequest.class, FreeSnackRequest::registerRequest, "gamestore.php")
+            .claim(FriarRequest.class, FriarRequest::registerRequest, "friars.php")
+            .claim(GameShoppeRequest.class, GameShoppeRequest::registerRequest, "gamestore.php")
+            .claim(GourdRequest.class, GourdRequest::registerRequest, "town_right.php")
+            .claim(GrandpaRequest.class, GrandpaRequest::registerRequest, "monkeycastle.php")
+            .claim(GuildRequest.class, GuildRequest::registerRequest, "guild.php")
+            .claim(HermitRequest.class, HermitRequest::registerRequest, "hermit.php")
+            .claim(
+                IslandRequest.class,
+                IslandRequest::registerRequest,
+                "bigisland.php",
+                "postwarisland.php")
+            .claim(KnollRequest.class, KnollRequest::registerRequest, "place.php")
+            .claim(LeafletRequest.class, LeafletRequest::registerRequest, "leaflet.php")
+            .claim(
+                MallSearchRequest.class,
+                MallSearchRequest::registerRequest,
+                "mallstore.php",
+                "mall.php")
+            .claim(ManageStoreRequest.class, ManageStoreRequest::registerRequest, "backoffice.php")
+            .claim(MindControlRequest.class, MindControlRequest::registerRequest)
+            .claim(MomRequest.class, MomRequest::registerRequest, "monkeycastle.php")
+            .claim(
+                MonsterManuelRequest.class, MonsterManuelRequest::registerRequest, "questlog.php")
+            .claim(MushroomRequest.class, MushroomRequest::registerRequest, "knoll_mushrooms.php")
+            .claim(NemesisRequest.class, NemesisRequest::registerRequest, "cave.php")
+            .claim(
+                PandamoniumRequest.class, PandamoniumRequest::registerRequest, "pandamonium.php")
+            .claim(PeeVPeeRequest.class, PeeVPeeRequest::registerRequest, "peevpee.php")
+            .claim(ProfileRequest.class, ProfileRequest::registerRequest, "showplayer.php")
+            .claim(PulverizeRequest.class, PulverizeRequest::registerRequest, "craft.php")
+            .claim(
+                QuartersmasterRequest.class,
+                QuartersmasterRequest::registerRequest,
+                "bigisland.php")
+            .claim(RaffleRequest.class, RaffleRequest::registerRequest, "raffle.php")
+            .claim(GnomePartRequest.class, GnomePartRequest::registerRequest, "choice.php")
+            .claim(RichardRequest.class, RichardRequest::registerRequest, "clan_hobopolis.php")
+            .claim(ScrapheapRequest.class, ScrapheapRequest::registerRequest, "place.php")
+            .claim(SeaMerkinRequest.class, SeaMerkinRequest::registerRequest, "sea_merkin.php")
+            .claim(SendGiftRequest.class, SendGiftRequest::registerRequest, "town_sendgift.php")
+            .claim(SendMailRequest.class, SendMailRequest::registerRequest, "sendmessage.php")
+            .claim(ShrineRequest.class, ShrineRequest::registerRequest, "da.php")
+            .claim(SkateParkRequest.class, SkateParkRequest::registerRequest, "sea_skatepark.php")
+            .claim(StandardRequest.class, StandardRequest::registerRequest, "standard.php")
+            .claim(StorageRequest.class, StorageRequest::registerRequest, "storage.php")
+            .claim(SuburbanDisRequest.class, SuburbanDisRequest::registerRequest, "suburbandis.php")
+            .claim(SwaggerShopRequest.class, SwaggerShopRequest::registerRequest, "peevpee.php")
+            .claim(TavernRequest.class, TavernRequest::registerRequest, "tavern.php")
+            .claim(
+                TravelingTraderRequest.class,
+                TravelingTraderRequest::registerRequest,
+                "traveler.php")
+            .claim(TrophyHutRequest.class, TrophyHutRequest::registerRequest, "trophy.php")
+            .claim(TutorialRequest.class, TutorialRequest::registerRequest, "tutorial.php")
+            .claim(
+                UneffectRequest.class,
+                UneffectRequest::registerRequest,
+                "uneffect.php",
+                "charsheet.php")
+            .claim(UntinkerRequest.class, UntinkerRequest::registerRequest, "place.php")
+            .claim(
+                VolcanoIslandRequest.class,
+                VolcanoIslandRequest::registerRequest,
+                "volcanoisland.php")
+            .claim(WildfireCampRequest.class, WildfireCampRequest::registerRequest, "place.php")
+            .claim(ZapRequest.class, ZapRequest::registerRequest, "wand.php")
+            // Do PurchaseRequest after all Coinmaster shops so they can
+            // register simple visits, if they so choose.
+            .claim(
+                PurchaseRequest.class,
+                PurchaseRequest::registerRequest,
+                "mallstore.php",
+                "town_giftshop.php")
+            .build();
+  }
+
   private static void doRegister(final GenericRequest request, final String urlString) {
     // If we are in a fight, don't even look at things which are
     // not fight.php, since they will immediately redirect to
@@ -409,6 +783,7 @@ public class RequestLogger extends NullStream {
     }
 
     RequestLogger.lastURLString = urlString;
+    RequestLogger.lastRegistrar = null;
 
     if (urlString.startsWith("api")
         || urlString.startsWith("charpane")
@@ -423,12 +798,12 @@ public class RequestLogger extends NullStream {
     // but are not claimed here will be picked up by KoLAdventure
 
     if (SorceressLairManager.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
+      RequestLogger.claimedBy("SorceressLairManager");
       return;
     }
 
     if (KoLAdventure.recordToSession(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
+      RequestLogger.claimedBy("KoLAdventure");
       return;
     }
 
@@ -439,221 +814,16 @@ public class RequestLogger extends NullStream {
             || request instanceof RelayRequest
             || request instanceof PlaceRequest;
 
-    if (urlString.startsWith("shop.php")) {
-      // We know of 138 different shops.
-      //
-      // 24 concoctions
-      // 71 coinmasters
-      // 39 NPC stores
-      // 4 NPC + coinmaster
-
-      // This one was written before shop.php was modernized.
-      // It's obsolete, so, who knows?
-      if ((isExternal || request instanceof Crimbo12Request)
-          && Crimbo12Request.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-
-      // This should cover literally everything else.
-      if (ShopRequest.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-    }
-
-    if ((isExternal || request instanceof FightRequest)
-        && FightRequest.registerRequest(isExternal, urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // Some adventures do not post any form fields,
-    // so handle them first.
-
-    // We want to register simple visits to the Altar of Literacy
-    if ((isExternal || request instanceof AltarOfLiteracyRequest)
-        && AltarOfLiteracyRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // We want to register simple visits to the Bounty Hunter Hunter
-    if ((isExternal || request instanceof BountyHunterHunterRequest)
-        && BountyHunterHunterRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // We want to register visits to the You're the Fudge Wizard Now, Dog choice adventure before
-    // ChoiceManager.
-    if ((isExternal || request instanceof FudgeWandRequest)
-        && FudgeWandRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // We want to register visits to the Summoning Chamber choice adventure before ChoiceManager.
-    if ((isExternal || request instanceof SummoningChamberRequest)
-        && SummoningChamberRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // We want to register simple visits to HeyDeze
-    if ((isExternal || request instanceof HeyDezeRequest)
-        && HeyDezeRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // We want to register simple visits to Mr. Store
-    if ((isExternal || request instanceof MrStoreRequest)
-        && MrStoreRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // We want to register simple visits to Spaaace
-    if ((isExternal || request instanceof SpaaaceRequest)
-        && SpaaaceRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // We want to register simple visits to the Volcano Maze
-    if ((isExternal || request instanceof VolcanoMazeRequest)
-        && VolcanoMazeRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
+    String registrar = Registrars.VISITS.register(request, isExternal, urlString);
+    if (registrar != null) {
+      RequestLogger.claimedBy(registrar);
       return;
     }
 
     if (urlString.startsWith("choice.php")) {
-      // Burning Leaves creation is an instance of choice.php
-      if ((isExternal || request instanceof BurningLeavesRequest)
-          && BurningLeavesRequest.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-
-      // Burning Newspaper creation is an instance of choice.php
-      if ((isExternal || request instanceof BurningNewspaperRequest)
-          && BurningNewspaperRequest.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-
-      // The Cargo Cultist Shorts is an instance of choice.php
-      if ((isExternal || request instanceof CargoCultistShortsRequest)
-          && CargoCultistShortsRequest.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-
-      // The Clan Lounge Swimming Pool is an instance of choice.php
-      if ((isExternal || request instanceof ClanLoungeSwimmingPoolRequest)
-          && ClanLoungeSwimmingPoolRequest.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-
-      // The Deck of Every Card is an instance of choice.php
-      if ((isExternal || request instanceof DeckOfEveryCardRequest)
-          && DeckOfEveryCardRequest.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-
-      // The Florist is an instance of choice.php
-      if ((isExternal || request instanceof FloristRequest)
-          && FloristRequest.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-
-      // grubby wool creation is an instance of choice.php
-      if ((isExternal || request instanceof GrubbyWoolRequest)
-          && GrubbyWoolRequest.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-
-      // The Hashing Vise is an instance of choice.php
-      if ((isExternal || request instanceof HashingViseRequest)
-          && HashingViseRequest.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-
-      // metal meteoroid creation is an instance of choice.php
-      if ((isExternal || request instanceof MeteoroidRequest)
-          && MeteoroidRequest.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-
-      // Numberology is an instance of choice.php
-      if ((isExternal || request instanceof NumberologyRequest)
-          && NumberologyRequest.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-
-      // The Potted Tea Tree is an instance of choice.php
-      if ((isExternal || request instanceof PottedTeaTreeRequest)
-          && PottedTeaTreeRequest.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-
-      // Sausage Grinder creation is an instance of choice.php
-      if ((isExternal || request instanceof SausageOMaticRequest)
-          && SausageOMaticRequest.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-
-      // The Source Terminal is an instance of choice.php
-      if ((isExternal || request instanceof TerminalRequest)
-          && TerminalRequest.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-
-      // Sweet Synthesis is an instance of choice.php
-      if ((isExternal || request instanceof SweetSynthesisRequest)
-          && SweetSynthesisRequest.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-
-      // Wax Glob creation is an instance of choice.php
-      if ((isExternal || request instanceof WaxGlobRequest)
-          && WaxGlobRequest.registerRequest(urlString)) {
-        RequestLogger.wasLastRequestSimple = false;
-        return;
-      }
-
       // All other choicees can be handled generically.
       ChoiceManager.registerRequest(urlString);
-      return;
-    }
-
-    // We want to register a simple visit to tiles.php
-    if (DvorakManager.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // We want to register a simple visit to ocean.php
-    if (OceanManager.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // We want to register a simple visit to elvmachine.php
-    if (ElVibratoManager.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
+      RequestLogger.lastRegistrar = "ChoiceManager";
       return;
     }
 
@@ -664,46 +834,9 @@ public class RequestLogger extends NullStream {
       return;
     }
 
-    // We want to register some visits to the Campground
-    if ((isExternal || request instanceof CampgroundRequest)
-        && CampgroundRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // This is a campground request and so must go here.
-    if ((isExternal || request instanceof PizzaCubeRequest)
-        && PizzaCubeRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // This is a campground request and so must go here.
-    if ((isExternal || request instanceof PortalRequest)
-        && PortalRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // This is a campground request and so must go here.
-    if ((isExternal || request instanceof TelescopeRequest)
-        && TelescopeRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // This might be a campground request and so must go here.
-    if ((isExternal || request instanceof UseSkillRequest)
-        && UseSkillRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // This might be on inventory.php
-
-    if ((isExternal || request instanceof EquipmentRequest)
-        && EquipmentRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
+    registrar = Registrars.FORMS.register(request, isExternal, urlString);
+    if (registrar != null) {
+      RequestLogger.claimedBy(registrar);
       return;
     }
 
@@ -716,556 +849,9 @@ public class RequestLogger extends NullStream {
       return;
     }
 
-    // Check individual cafes
-    if ((isExternal || request instanceof MicroBreweryRequest)
-        && MicroBreweryRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof ChezSnooteeRequest)
-        && ChezSnooteeRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof CrimboCafeRequest)
-        && CrimboCafeRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // Check UseItemRequest early, so that lastItemUsed gets
-    // cleared when processing anything else.  Otherwise, any
-    // non-item-use that redirects to inventory.php?action=message
-    // (such as outfit changes) will cause the last item to be
-    // processed again.
-
-    // However, we have to check CreateItemRequest earlier, so that
-    // it can handle single-/multi-use concoctions.
-    if (CreateItemRequest.registerRequest(isExternal, urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // Are we finally ready to call UseItemRequest?
-    if ((isExternal || request instanceof UseItemRequest)
-        && UseItemRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // The following is in place.php
-    if ((isExternal || request instanceof FalloutShelterRequest)
-        && FalloutShelterRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // Let the "placeholder" for place.php take every otherwise
-    // unclaimed call to that URL.
-
-    if (PlaceRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // The following lists all the remaining requests in
-    // alphabetical order.
-
-    if ((isExternal || request instanceof AfterLifeRequest)
-        && AfterLifeRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof AltarOfBonesRequest)
-        && AltarOfBonesRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof ArcadeRequest)
-        && ArcadeRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof ArtistRequest)
-        && ArtistRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof AutoMallRequest)
-        && AutoMallRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof AutoSellRequest)
-        && AutoSellRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof AWOLQuartermasterRequest)
-        && AWOLQuartermasterRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof BeerPongRequest)
-        && BeerPongRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof BigBrotherRequest)
-        && BigBrotherRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof BURTRequest) && BURTRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof CafeRequest) && CafeRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof CakeArenaRequest)
-        && CakeArenaRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof CampAwayRequest)
-        && CampAwayRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof ChateauRequest)
-        && ChateauRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof ClanLoungeRequest)
-        && ClanLoungeRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof ClanRumpusRequest)
-        && ClanRumpusRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof ClanStashRequest)
-        && ClanStashRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof ClosetRequest)
-        && ClosetRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof CRIMBCOGiftShopRequest)
-        && CRIMBCOGiftShopRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof Crimbo07Request)
-        && Crimbo07Request.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof Crimbo09Request)
-        && Crimbo09Request.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof Crimbo10Request)
-        && Crimbo10Request.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof Crimbo11Request)
-        && Crimbo11Request.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof Crimbo21TreeRequest)
-        && Crimbo21TreeRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof CrimboCartelRequest)
-        && CrimboCartelRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof CurseRequest)
-        && CurseRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof DigRequest) && DigRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof DimemasterRequest)
-        && DimemasterRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof DisplayCaseRequest)
-        && DisplayCaseRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof DreadsylvaniaRequest)
-        && DreadsylvaniaRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof DwarfContraptionRequest)
-        && DwarfContraptionRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof DwarfFactoryRequest)
-        && DwarfFactoryRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof EdBaseRequest)
-        && EdBaseRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof FamiliarRequest)
-        && FamiliarRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof FamTeamRequest)
-        && FamTeamRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof FantasyRealmRequest)
-        && FantasyRealmRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof FleaMarketRequest)
-        && FleaMarketRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof FleaMarketSellRequest)
-        && FleaMarketSellRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof FreeSnackRequest)
-        && FreeSnackRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof FriarRequest)
-        && FriarRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof GameShoppeRequest)
-        && GameShoppeRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof GourdRequest)
-        && GourdRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof GrandpaRequest)
-        && GrandpaRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof GuildRequest)
-        && GuildRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof HermitRequest)
-        && HermitRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof IslandRequest)
-        && IslandRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof KnollRequest)
-        && KnollRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof LeafletRequest)
-        && LeafletRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof MallSearchRequest)
-        && MallSearchRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof ManageStoreRequest)
-        && ManageStoreRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof MindControlRequest)
-        && MindControlRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof MomRequest) && MomRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof MonsterManuelRequest)
-        && MonsterManuelRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof MushroomRequest)
-        && MushroomRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof NemesisRequest)
-        && NemesisRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof PandamoniumRequest)
-        && PandamoniumRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof PeeVPeeRequest)
-        && PeeVPeeRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof ProfileRequest)
-        && ProfileRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof PulverizeRequest)
-        && PulverizeRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof QuartersmasterRequest)
-        && QuartersmasterRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof RaffleRequest)
-        && RaffleRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof GnomePartRequest)
-        && GnomePartRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof RichardRequest)
-        && RichardRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof ScrapheapRequest)
-        && ScrapheapRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof SeaMerkinRequest)
-        && SeaMerkinRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof SendGiftRequest)
-        && SendGiftRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof SendMailRequest)
-        && SendMailRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof ShrineRequest)
-        && ShrineRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof SkateParkRequest)
-        && SkateParkRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof StandardRequest)
-        && StandardRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof StorageRequest)
-        && StorageRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof SuburbanDisRequest)
-        && SuburbanDisRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof SwaggerShopRequest)
-        && SwaggerShopRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof TavernRequest)
-        && TavernRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof TravelingTraderRequest)
-        && TravelingTraderRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof TrophyHutRequest)
-        && TrophyHutRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof TutorialRequest)
-        && TutorialRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof UneffectRequest)
-        && UneffectRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof UntinkerRequest)
-        && UntinkerRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof VolcanoIslandRequest)
-        && VolcanoIslandRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof WildfireCampRequest)
-        && WildfireCampRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    if ((isExternal || request instanceof ZapRequest) && ZapRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
-      return;
-    }
-
-    // Do PurchaseRequest after all Coinmaster shops so they can
-    // register simple visits, if they so choose.
-
-    if ((isExternal || request instanceof PurchaseRequest)
-        && PurchaseRequest.registerRequest(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
+    registrar = Registrars.ACTIONS.register(request, isExternal, urlString);
+    if (registrar != null) {
+      RequestLogger.claimedBy(registrar);
       return;
     }
 
@@ -1273,7 +859,7 @@ public class RequestLogger extends NullStream {
     // unclaimed simple visits to a place.php container
 
     if (PlaceRequest.unclaimedPlace(urlString)) {
-      RequestLogger.wasLastRequestSimple = false;
+      RequestLogger.claimedBy("PlaceRequest");
       return;
     }
 
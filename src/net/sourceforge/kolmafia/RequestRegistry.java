@@ -0,0 +1,123 @@
+package net.sourceforge.kolmafia;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import net.sourceforge.kolmafia.request.GenericRequest;
+
+/**
+ * An ordered list of the registrars which may claim a URL for the session log, indexed by the pages
+ * each one can claim. Registering a URL only consults the registrars for its page, together with
+ * those which can claim any page, but still in the order they were added.
+ */
+class RequestRegistry {
+  interface Registrar {
+    boolean register(boolean isExternal, String urlString);
+  }
+
+  private record Registration(
+      String name, Class<? extends GenericRequest> requestClass, Registrar registrar) {
+    boolean register(
+        final GenericRequest request, final boolean isExternal, final String urlString) {
+      return (this.requestClass == null || isExternal || this.requestClass.isInstance(request))
+          && this.registrar.register(isExternal, urlString);
+    }
+  }
+
+  private static final Registration[] NONE = new Registration[0];
+
+  private final List<Registration> registrations = new ArrayList<>();
+  private final List<String[]> registrationPages = new ArrayList<>();
+
+  private Map<String, Registration[]> byPage = Map.of();
+  private Registration[] anyPage = NONE;
+
+  /**
+   * Adds a registrar which is only consulted for requests of the given class, or for external
+   * requests. If no pages are given, it is consulted for every page.
+   */
+  RequestRegistry claim(
+      final Class<? extends GenericRequest> requestClass,
+      final Predicate<String> registrar,
+      final String... pages) {
+    return this.add(
+        requestClass.getSimpleName(),
+        requestClass,
+        (isExternal, urlString) -> registrar.test(urlString),
+        pages);
+  }
+
+  /** As claim, but the registrar is also told whether the request is external. */
+  RequestRegistry claimWithOrigin(
+      final Class<? extends GenericRequest> requestClass,
+      final Registrar registrar,
+      final String... pages) {
+    return this.add(requestClass.getSimpleName(), requestClass, registrar, pages);
+  }
+
+  /** Adds a registrar which is consulted for every request. */
+  RequestRegistry always(
+      final String name, final Predicate<String> registrar, final String... pages) {
+    return this.add(name, null, (isExternal, urlString) -> registrar.test(urlString), pages);
+  }
+
+  RequestRegistry alwaysWithOrigin(
+      final String name, final Registrar registrar, final String... pages) {
+    return this.add(name, null, registrar, pages);
+  }
+
+  private RequestRegistry add(
+      final String name,
+      final Class<? extends GenericRequest> requestClass,
+      final Registrar registrar,
+      final String[] pages) {
+    this.registrations.add(new Registration(name, requestClass, registrar));
+    this.registrationPages.add(pages);
+    return this;
+  }
+
+  /** Builds the page index. Registrars added after this are ignored until it is called again. */
+  RequestRegistry build() {
+    Map<String, List<Registration>> lists = new HashMap<>();
+    List<Registration> anyPage = new ArrayList<>();
+
+    for (int i = 0; i < this.registrations.size(); ++i) {
+      Registration registration = this.registrations.get(i);
+      String[] pages = this.registrationPages.get(i);
+      if (pages.length == 0) {
+        // Every page list built so far needs this one too, as do any made later
+        anyPage.add(registration);
+        lists.values().forEach(list -> list.add(registration));
+        continue;
+      }
+      for (String page : pages) {
+        lists.computeIfAbsent(page, k -> new ArrayList<>(anyPage)).add(registration);
+      }
+    }
+
+    Map<String, Registration[]> byPage = new HashMap<>();
+    lists.forEach((page, list) -> byPage.put(page, list.toArray(NONE)));
+    this.anyPage = anyPage.toArray(NONE);
+    this.byPage = byPage;
+    return this;
+  }
+
+  /**
+   * Offers the URL to each registrar which may claim it, in order, until one does.
+   *
+   * @return the name of the registrar which claimed the URL, or null if none did
+   */
+  String register(final GenericRequest request, final boolean isExternal, final String urlString) {
+    int query = urlString.indexOf('?');
+    String page = query == -1 ? urlString : urlString.substring(0, query);
+
+    for (Registration registration : this.byPage.getOrDefault(page, this.anyPage)) {
+      if (registration.register(request, isExternal, urlString)) {
+        return registration.name();
+      }
+    }
+    return null;
+  }
+}
@@ -693,6 +693,6 @@ public abstract class StaticEntity {
   }
 
   static final boolean isRelayThread() {
-    return RelayServer.agentThreads.contains(Thread.currentThread());
+    return RelayServer.isAgentThread(Thread.currentThread());
   }
 }
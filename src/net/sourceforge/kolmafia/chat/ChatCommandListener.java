@@ -0,0 +1,15 @@
+package net.sourceforge.kolmafia.chat;
+
+/**
+ * Receives chat commands (private messages and channel lines addressed to the player) before the
+ * chatbot script does. Register with {@link ChatManager#addCommandListener}.
+ */
+public interface ChatCommandListener {
+  /**
+   * Called on the chat thread, so implementations should return quickly and do any real work
+   * elsewhere.
+   *
+   * @return true if the command was consumed and the chatbot script should not see it
+   */
+  boolean handleChatCommand(String sender, String content, String channel);
+}
@@ -11,6 +11,7 @@ import java.util.List;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import net.java.dev.spellcast.utilities.LockableListModel;
@@ -45,6 +46,8 @@ import net.sourceforge.kolmafia.utilities.StringUtilities;
 public abstract class ChatManager {
   private static final LinkedList<ChatMessage> clanMessages = new RollingLinkedList<>(20);
   private static final Set<String> validChatReplyRecipients = new HashSet<>();
+  private static final CopyOnWriteArrayList<ChatCommandListener> commandListeners =
+      new CopyOnWriteArrayList<>();
 
   private static final TreeMap<String, StyledChatBuffer> instantMessageBuffers = new TreeMap<>();
   private static List<Entry<String, StyledChatBuffer>> bufferEntries = new ArrayList<>(0);
@@ -579,23 +582,24 @@ public abstract class ChatManager {
     ChatManager.invokeChatScript(sender, content, channel);
   }
 
+  public static final void addCommandListener(final ChatCommandListener listener) {
+    ChatManager.commandListeners.addIfAbsent(listener);
+  }
+
+  public static final void removeCommandListener(final ChatCommandListener listener) {
+    ChatManager.commandListeners.remove(listener);
+  }
+
   public static final void invokeChatScript(
       final String sender, final String content, final String channel) {
-    // Native Java chatbot integration: if the native bot is running, handle the message
-    try {
-      net.sourceforge.kolmafia.games.ChatGameManager manager = net.sourceforge.kolmafia.games.ChatGameManager.getInstance();
-      if (manager != null) {
-        // Only handle if bot is running
-        java.lang.reflect.Field runningField = manager.getClass().getDeclaredField("isRunning");
-        runningField.setAccessible(true);
-        boolean isRunning = runningField.getBoolean(manager);
-        if (isRunning) {
-          manager.handleChatMessage(sender, content);
-          return; // Don't run userscript if native bot is active
+    for (ChatCommandListener listener : ChatManager.commandListeners) {
+      try {
+        if (listener.handleChatCommand(sender, content, channel)) {
+          return;
         }
+      } catch (Exception e) {
+        StaticEntity.printStackTrace(e, "Chat command listener failed");
       }
-    } catch (Throwable t) {
-      // Ignore errors from native bot
     }
 
     String scriptName = Preferences.getString("chatbotScript");
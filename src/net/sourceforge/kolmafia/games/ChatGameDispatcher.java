@@ -0,0 +1,165 @@
+package net.sourceforge.kolmafia.games;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.LockSupport;
+import net.sourceforge.kolmafia.StaticEntity;
+
+/**
+ * Moves chat game traffic off the chat poller. Incoming lines go onto a lock-free queue drained by
+ * a dispatcher thread, and outgoing messages onto a second queue drained by a sender thread that
+ * waits between chat requests and merges consecutive short messages to the same place.
+ */
+public class ChatGameDispatcher {
+  interface InboundHandler {
+    void handle(String sender, String message);
+  }
+
+  interface OutboundSender {
+    void send(String contact, String message);
+  }
+
+  // Lines longer than this would be split by ChatSender anyway
+  static final int MAX_BATCH_LENGTH = 256;
+  static final String BATCH_SEPARATOR = " / ";
+
+  private record Inbound(String sender, String message) {}
+
+  // Only messages with the same contact and a non-null prefix can be merged
+  private record Outbound(String contact, String prefix, String text) {
+    String message() {
+      return this.prefix == null ? this.text : this.prefix + this.text;
+    }
+  }
+
+  private final ConcurrentLinkedQueue<Inbound> inbound = new ConcurrentLinkedQueue<>();
+  private final ConcurrentLinkedQueue<Outbound> outbound = new ConcurrentLinkedQueue<>();
+  private final InboundHandler handler;
+  private final OutboundSender sender;
+  private final long sendInterval;
+
+  private volatile boolean running = false;
+  // A restart replaces these, and the old threads then exit
+  private volatile Thread dispatchThread;
+  private volatile Thread sendThread;
+  private volatile int mergedMessages = 0;
+
+  ChatGameDispatcher(
+      final InboundHandler handler, final OutboundSender sender, final long sendInterval) {
+    this.handler = handler;
+    this.sender = sender;
+    this.sendInterval = sendInterval;
+  }
+
+  synchronized void start() {
+    if (this.running) {
+      return;
+    }
+
+    this.running = true;
+    this.dispatchThread = new Thread(this::dispatch, "ChatGameDispatcher");
+    this.dispatchThread.setDaemon(true);
+    this.dispatchThread.start();
+    this.sendThread = new Thread(this::sendAll, "ChatGameSender");
+    this.sendThread.setDaemon(true);
+    this.sendThread.start();
+  }
+
+  /** Stops dispatching. Lines not yet handled are dropped, but queued messages are still sent. */
+  synchronized void stop() {
+    if (!this.running) {
+      return;
+    }
+
+    this.running = false;
+    this.inbound.clear();
+    LockSupport.unpark(this.dispatchThread);
+    LockSupport.unpark(this.sendThread);
+  }
+
+  boolean isRunning() {
+    return this.running;
+  }
+
+  int getMergedMessages() {
+    return this.mergedMessages;
+  }
+
+  void receive(final String sender, final String message) {
+    this.inbound.offer(new Inbound(sender, message));
+    LockSupport.unpark(this.dispatchThread);
+  }
+
+  void send(final String contact, final String prefix, final String text) {
+    if (!this.running) {
+      // Nothing will drain the queue, so send it now
+      this.sender.send(contact, prefix == null ? text : prefix + text);
+      return;
+    }
+
+    this.outbound.offer(new Outbound(contact, prefix, text));
+    LockSupport.unpark(this.sendThread);
+  }
+
+  private void dispatch() {
+    Thread current = Thread.currentThread();
+    while (this.running && this.dispatchThread == current) {
+      Inbound next = this.inbound.poll();
+      if (next == null) {
+        LockSupport.park(this);
+        continue;
+      }
+
+      try {
+        this.handler.handle(next.sender(), next.message());
+      } catch (Exception e) {
+        StaticEntity.printStackTrace(e, "Error dispatching chat game message");
+      }
+    }
+  }
+
+  private void sendAll() {
+    Thread current = Thread.currentThread();
+    long nextSend = 0;
+
+    while (this.sendThread == current && (this.running || !this.outbound.isEmpty())) {
+      if (this.outbound.isEmpty()) {
+        LockSupport.park(this);
+        continue;
+      }
+
+      long wait = nextSend - System.currentTimeMillis();
+      if (wait > 0) {
+        // More messages may arrive while waiting, and can then be merged
+        LockSupport.parkNanos(this, wait * 1_000_000L);
+        continue;
+      }
+
+      Outbound batch = this.merge(this.outbound.poll());
+      try {
+        this.sender.send(batch.contact(), batch.message());
+      } catch (Exception e) {
+        StaticEntity.printStackTrace(e, "Error sending chat game message");
+      }
+      nextSend = System.currentTimeMillis() + this.sendInterval;
+    }
+  }
+
+  private Outbound merge(Outbound batch) {
+    Outbound following;
+    while (batch.prefix() != null && (following = this.outbound.peek()) != null) {
+      if (!batch.contact().equals(following.contact())
+          || !batch.prefix().equals(following.prefix())
+          || batch.message().length() + BATCH_SEPARATOR.length() + following.text().length()
+              > MAX_BATCH_LENGTH) {
+        break;
+      }
+
+      this.outbound.poll();
+      batch =
+          new Outbound(
+              batch.contact(), batch.prefix(), batch.text() + BATCH_SEPARATOR + following.text());
+      this.mergedMessages++;
+    }
+    return batch;
+  }
+}
@@ -13,6 +13,8 @@ import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.RequestLogger;
 import net.sourceforge.kolmafia.RequestThread;
 import net.sourceforge.kolmafia.StaticEntity;
+import net.sourceforge.kolmafia.chat.ChatCommandListener;
+import net.sourceforge.kolmafia.chat.ChatManager;
 import net.sourceforge.kolmafia.chat.ChatSender;
 import net.sourceforge.kolmafia.objectpool.EffectPool;
 import net.sourceforge.kolmafia.objectpool.ItemPool;
@@ -30,10 +32,38 @@ import net.sourceforge.kolmafia.session.MallPriceManager;
  * Manages chat games including raffles and Decoy's Dilemma. This is a native implementation of the
  * JavaScript chatbot functionality.
  */
-public class ChatGameManager {
+public class ChatGameManager implements ChatCommandListener {
   private static ChatGameManager instance;
   private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(2);
 
+  // Minimum time between chat requests made for the games
+  private static final long SEND_INTERVAL = 250;
+
+  private static final Pattern LEADING_TAG_PATTERN = Pattern.compile("^<[^>]+>");
+  private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\s+");
+  private static final Pattern KMAIL_FROM_PATTERN =
+      Pattern.compile("New message received from ([^\\s]+)");
+  private static final Pattern ROLL_PATTERN = Pattern.compile("^(\\d+)\\s*[dDxX]\\s*(\\d+)$");
+  private static final Pattern MEAT_GAIN_PATTERN = Pattern.compile(">You gain ([^<]*) Meat\\.<");
+  private static final Pattern KMAIL_DATE_PATTERN = Pattern.compile("!--([^<]*)-->");
+  private static final Pattern KMAIL_CONTENT_PATTERN =
+      Pattern.compile("<blockquote>(.*?)</blockquote>");
+
+  private static final String[] ANNOYING_EFFECT_MARKERS = {
+    " has hit you", " sent you a really", " plastered you", " has blessed"
+  };
+
+  private interface Command {
+    void run(String sender, String[] parts);
+  }
+
+  private final Map<String, Command> commands = new HashMap<>();
+  private final ChatGameDispatcher dispatcher =
+      new ChatGameDispatcher(
+          this::handleChatMessage,
+          (contact, message) -> ChatSender.sendMessage(contact, message, false),
+          SEND_INTERVAL);
+
   // Game state
   private volatile boolean isRunning = false;
   private RaffleGame currentRaffle = null;
@@ -47,9 +77,33 @@ public class ChatGameManager {
   private final Map<String, Integer> publicPoolUsage = new ConcurrentHashMap<>();
 
   private ChatGameManager() {
+    registerCommands();
     loadState();
   }
 
+  private void registerCommands() {
+    commands.put("host", this::handleHostCommand);
+    commands.put("decoy", this::handleDecoyCommand);
+    commands.put("roll", this::handleRollCommand);
+    commands.put("emergency", (sender, parts) -> handleEmergencyCommand(sender));
+    commands.put("games", this::handleGamesCommand);
+    commands.put("howmuchmeat", (sender, parts) -> handleHowMuchMeatCommand(sender));
+    commands.put("hostlimit", (sender, parts) -> handleHostLimitCommand(sender));
+    commands.put("howmanygames", (sender, parts) -> handleHowManyGamesCommand(sender));
+    commands.put("jackpot", (sender, parts) -> handleJackpotCommand(sender));
+    commands.put(
+        "help", (sender, parts) -> sendPrivateMessage(sender, "help me add this help message"));
+
+    // Admin commands
+    commands.put("exec", this::handleExecCommand);
+    commands.put("setdonorlevel", this::handleSetDonorLevelCommand);
+    commands.put("setjackpot", this::handleSetJackpotCommand);
+    commands.put("send", this::handleSendCommand);
+    commands.put("donor", this::handleDonorCommand);
+    commands.put("global", (sender, parts) -> handleGlobalCommand(sender));
+    commands.put("restock", this::handleRestockCommand);
+  }
+
   public static synchronized ChatGameManager getInstance() {
     if (instance == null) {
       instance = new ChatGameManager();
@@ -73,6 +127,8 @@ public class ChatGameManager {
     }
 
     isRunning = true;
+    dispatcher.start();
+    ChatManager.addCommandListener(this);
     RequestLogger.printLine("Chat Game Manager started");
 
     // Schedule periodic state saving
@@ -85,6 +141,7 @@ public class ChatGameManager {
     }
 
     isRunning = false;
+    ChatManager.removeCommandListener(this);
 
     // Stop any active games
     if (currentRaffle != null) {
@@ -97,10 +154,27 @@ public class ChatGameManager {
     }
 
     saveState();
+    // Anything the games queued while stopping is still sent
+    dispatcher.stop();
     scheduler.shutdown();
     RequestLogger.printLine("Chat Game Manager stopped");
   }
 
+  public boolean isRunning() {
+    return isRunning;
+  }
+
+  /** Queues the line for the dispatcher thread, so the chat poller never waits on a game. */
+  @Override
+  public boolean handleChatCommand(String sender, String content, String channel) {
+    if (!isRunning) {
+      return false;
+    }
+
+    dispatcher.receive(sender, content);
+    return true;
+  }
+
   /** Handle chat messages (equivalent to main() function) */
   public void handleChatMessage(String sender, String message) {
     if (!isRunning) {
@@ -124,7 +198,7 @@ public class ChatGameManager {
       }
 
       // Parse chat message
-      String text = message.replaceAll("^<[^>]+>", "").trim();
+      String text = LEADING_TAG_PATTERN.matcher(message).replaceFirst("").trim();
       if (text.isEmpty()) {
         return;
       }
@@ -147,7 +221,7 @@ public class ChatGameManager {
   }
 
   private void handleCommands(String sender, String text) {
-    String[] parts = text.split("\\s+");
+    String[] parts = WHITESPACE_PATTERN.split(text);
     if (parts.length == 0) {
       return;
     }
@@ -160,161 +234,129 @@ public class ChatGameManager {
       return;
     }
 
-    switch (command) {
-      case "host":
-        handleHostCommand(sender, parts);
-        break;
-
-      case "decoy":
-        handleDecoyCommand(sender, parts);
-        break;
-
-      case "roll":
-        handleRollCommand(sender, parts);
-        break;
-
-      case "emergency":
-        if (sender.equals("ggar")) { // Only allow emergency reset by bot owner
-          emergencyReset();
-        }
-        break;
-
-      case "games":
-        handleGamesCommand(sender, parts);
-        break;
-
-      case "howmuchmeat":
-        handleHowMuchMeatCommand(sender);
-        break;
-
-      case "hostlimit":
-        handleHostLimitCommand(sender);
-        break;
+    Command handler = commands.get(command);
+    if (handler == null) {
+      sendPrivateMessage(sender, "??? i dont know that command");
+      return;
+    }
 
-      case "howmanygames":
-        handleHowManyGamesCommand(sender);
-        break;
+    handler.run(sender, parts);
+  }
 
-      case "jackpot":
-        handleJackpotCommand(sender);
-        break;
+  private static boolean isAdmin(String sender) {
+    return sender.equals("ggar") || sender.equals("3118267");
+  }
 
-      case "help":
-        sendPrivateMessage(sender, "help me add this help message");
-        break;
+  private void handleEmergencyCommand(String sender) {
+    if (sender.equals("ggar")) { // Only allow emergency reset by bot owner
+      emergencyReset();
+    }
+  }
 
-        // Admin commands
-      case "exec":
-        if (sender.equals("ggar") || sender.equals("3118267")) {
-          if (parts.length > 1) {
-            String cliCommand = String.join(" ", Arrays.copyOfRange(parts, 1, parts.length));
-            String result = executeCliCommand(cliCommand);
-            sendPrivateMessage(sender, result);
-          }
-        } else {
-          sendPrivateMessage(sender, "hey hey hey wait.. you cant tell me what to do...");
-        }
-        break;
+  private void handleExecCommand(String sender, String[] parts) {
+    if (isAdmin(sender)) {
+      if (parts.length > 1) {
+        String cliCommand = String.join(" ", Arrays.copyOfRange(parts, 1, parts.length));
+        String result = executeCliCommand(cliCommand);
+        sendPrivateMessage(sender, result);
+      }
+    } else {
+      sendPrivateMessage(sender, "hey hey hey wait.. you cant tell me what to do...");
+    }
+  }
 
-      case "setdonorlevel":
-        if (sender.equals("ggar")) {
-          if (parts.length > 2) {
-            try {
-              int amount = Integer.parseInt(parts[1]);
-              String playerName =
-                  String.join(" ", Arrays.copyOfRange(parts, 2, parts.length)).toLowerCase();
-              donorTable.put(playerName, amount);
-              saveState();
-              sendPrivateMessage(
-                  "ggar", "set " + playerName + " donor level to " + formatMeat(amount));
-            } catch (NumberFormatException e) {
-              sendPrivateMessage(sender, "invalid amount");
-            }
-          }
+  private void handleSetDonorLevelCommand(String sender, String[] parts) {
+    if (sender.equals("ggar")) {
+      if (parts.length > 2) {
+        try {
+          int amount = Integer.parseInt(parts[1]);
+          String playerName =
+              String.join(" ", Arrays.copyOfRange(parts, 2, parts.length)).toLowerCase();
+          donorTable.put(playerName, amount);
+          saveState();
+          sendPrivateMessage("ggar", "set " + playerName + " donor level to " + formatMeat(amount));
+        } catch (NumberFormatException e) {
+          sendPrivateMessage(sender, "invalid amount");
         }
-        break;
+      }
+    }
+  }
 
-      case "setjackpot":
-        if (sender.equals("ggar")) {
-          if (parts.length == 2) {
-            try {
-              int amount = Integer.parseInt(parts[1]);
-              stats.jackpot = amount;
-              saveState();
-              sendPrivateMessage("ggar", "set jackpot to " + formatMeat(amount));
-            } catch (NumberFormatException e) {
-              sendPrivateMessage(sender, "invalid amount");
-            }
-          }
+  private void handleSetJackpotCommand(String sender, String[] parts) {
+    if (sender.equals("ggar")) {
+      if (parts.length == 2) {
+        try {
+          int amount = Integer.parseInt(parts[1]);
+          stats.jackpot = amount;
+          saveState();
+          sendPrivateMessage("ggar", "set jackpot to " + formatMeat(amount));
+        } catch (NumberFormatException e) {
+          sendPrivateMessage(sender, "invalid amount");
         }
-        break;
+      }
+    }
+  }
 
-      case "send":
-        if (sender.equals("ggar") || sender.equals("3118267")) {
-          if (parts.length > 1) {
-            try {
-              int amount = Integer.parseInt(parts[1]);
-              sendKmail("ggar", "debug", amount);
-            } catch (NumberFormatException e) {
-              sendPrivateMessage(sender, "invalid amount");
-            }
-          }
+  private void handleSendCommand(String sender, String[] parts) {
+    if (isAdmin(sender)) {
+      if (parts.length > 1) {
+        try {
+          int amount = Integer.parseInt(parts[1]);
+          sendKmail("ggar", "debug", amount);
+        } catch (NumberFormatException e) {
+          sendPrivateMessage(sender, "invalid amount");
         }
-        break;
+      }
+    }
+  }
 
-      case "donor":
-        if (sender.equals("ggar") || sender.equals("3118267")) {
-          if (parts.length > 1) {
-            String donorName =
-                String.join(" ", Arrays.copyOfRange(parts, 1, parts.length)).toLowerCase();
-            Integer allocated = donorTable.get(donorName);
-            if (allocated != null) {
-              // In simplified model, we assume total = allocated for display
-              sendPrivateMessage(
-                  sender,
-                  donorName
-                      + " has contributed a total of "
-                      + formatMeat(allocated)
-                      + " meat and has "
-                      + formatMeat(allocated)
-                      + " meat available for personal hosting.");
-            } else {
-              sendPrivateMessage(sender, donorName + " is not a donor.");
-            }
-          } else {
-            sendPrivateMessage(sender, "please provide a name");
-          }
+  private void handleDonorCommand(String sender, String[] parts) {
+    if (isAdmin(sender)) {
+      if (parts.length > 1) {
+        String donorName =
+            String.join(" ", Arrays.copyOfRange(parts, 1, parts.length)).toLowerCase();
+        Integer allocated = donorTable.get(donorName);
+        if (allocated != null) {
+          // In simplified model, we assume total = allocated for display
+          sendPrivateMessage(
+              sender,
+              donorName
+                  + " has contributed a total of "
+                  + formatMeat(allocated)
+                  + " meat and has "
+                  + formatMeat(allocated)
+                  + " meat available for personal hosting.");
+        } else {
+          sendPrivateMessage(sender, donorName + " is not a donor.");
         }
-        break;
+      } else {
+        sendPrivateMessage(sender, "please provide a name");
+      }
+    }
+  }
 
-      case "global":
-        if (sender.equals("ggar") || sender.equals("3118267")) {
-          String globalInfo = getGlobalStateString();
-          RequestLogger.printLine(globalInfo);
-          sendPrivateMessage(sender, globalInfo);
-          sendKmail(sender, globalInfo, 0);
-        }
-        break;
+  private void handleGlobalCommand(String sender) {
+    if (isAdmin(sender)) {
+      String globalInfo = getGlobalStateString();
+      RequestLogger.printLine(globalInfo);
+      sendPrivateMessage(sender, globalInfo);
+      sendKmail(sender, globalInfo, 0);
+    }
+  }
 
-      case "restock":
-        if (sender.equals("ggar") || sender.equals("3118267")) {
-          int buyAmount = 100;
-          if (parts.length > 1) {
-            try {
-              buyAmount = Integer.parseInt(parts[1]);
-            } catch (NumberFormatException e) {
-              // Use default
-            }
-          }
-          restockTickets(sender, buyAmount);
-        } else {
-          sendPrivateMessage(sender, "hey hey hey wait.. you cant tell me what to do...");
+  private void handleRestockCommand(String sender, String[] parts) {
+    if (isAdmin(sender)) {
+      int buyAmount = 100;
+      if (parts.length > 1) {
+        try {
+          buyAmount = Integer.parseInt(parts[1]);
+        } catch (NumberFormatException e) {
+          // Use default
         }
-        break;
-
-      default:
-        sendPrivateMessage(sender, "??? i dont know that command");
-        break;
+      }
+      restockTickets(sender, buyAmount);
+    } else {
+      sendPrivateMessage(sender, "hey hey hey wait.. you cant tell me what to do...");
     }
   }
 
@@ -511,8 +553,7 @@ public class ChatGameManager {
       }
     } else {
       // Handle NdM format for backwards compatibility but with original response
-      Pattern rollPattern = Pattern.compile("^(\\d+)\\s*[dDxX]\\s*(\\d+)$");
-      Matcher matcher = rollPattern.matcher(spec);
+      Matcher matcher = ROLL_PATTERN.matcher(spec);
 
       if (matcher.matches()) {
         int count = Integer.parseInt(matcher.group(1));
@@ -566,8 +607,7 @@ public class ChatGameManager {
 
   private void handleKmailNotification(String message) {
     // Extract sender from notification
-    Pattern fromPattern = Pattern.compile("New message received from ([^\\s]+)");
-    Matcher matcher = fromPattern.matcher(message);
+    Matcher matcher = KMAIL_FROM_PATTERN.matcher(message);
 
     if (matcher.find()) {
       String from = matcher.group(1);
@@ -645,8 +685,7 @@ public class ChatGameManager {
       String response = new GenericRequest("messages.php").responseText;
 
       // Parse for meat donation like original: />You gain (.*) Meat\.</
-      Pattern meatPattern = Pattern.compile(">You gain ([^<]*) Meat\\.<");
-      Matcher meatMatcher = meatPattern.matcher(response);
+      Matcher meatMatcher = MEAT_GAIN_PATTERN.matcher(response);
 
       if (meatMatcher.find()) {
         String meatStr = meatMatcher.group(1).replace(",", "");
@@ -693,11 +732,8 @@ public class ChatGameManager {
   private void forwardKmailToGgar(String originalSender, String messageContent) {
     try {
       // Extract date and content like original
-      Pattern datePattern = Pattern.compile("!--([^<]*)-->");
-      Pattern contentPattern = Pattern.compile("<blockquote>(.*?)</blockquote>");
-
-      Matcher dateMatcher = datePattern.matcher(messageContent);
-      Matcher contentMatcher = contentPattern.matcher(messageContent);
+      Matcher dateMatcher = KMAIL_DATE_PATTERN.matcher(messageContent);
+      Matcher contentMatcher = KMAIL_CONTENT_PATTERN.matcher(messageContent);
 
       if (dateMatcher.find() && contentMatcher.find()) {
         String date = dateMatcher.group(1);
@@ -779,7 +815,7 @@ public class ChatGameManager {
   // Communication methods
   public void sendGamesMessage(String message) {
     try {
-      ChatSender.sendMessage("", "/games " + message, false);
+      dispatcher.send("", "/games ", message);
     } catch (Exception e) {
       StaticEntity.printStackTrace(e, "Error sending games message");
     }
@@ -787,7 +823,7 @@ public class ChatGameManager {
 
   public void sendPrivateMessage(String recipient, String message) {
     try {
-      ChatSender.sendMessage(recipient, message, false);
+      dispatcher.send(recipient, "", message);
     } catch (Exception e) {
       StaticEntity.printStackTrace(e, "Error sending private message");
     }
@@ -1119,18 +1155,12 @@ public class ChatGameManager {
   private void handleAnnoyingEffects(String sender, String message) {
     // Extract the sender from the message like original
     String from = sender;
-    try {
-      if (message.contains("has hit you")) {
-        from = message.split(" has hit you")[0];
-      } else if (message.contains("sent you a really")) {
-        from = message.split(" sent you a really")[0];
-      } else if (message.contains("plastered you")) {
-        from = message.split(" plastered you")[0];
-      } else if (message.contains("has blessed")) {
-        from = message.split(" has blessed")[0];
+    for (String marker : ANNOYING_EFFECT_MARKERS) {
+      if (message.contains(marker.trim())) {
+        int index = message.indexOf(marker);
+        from = index == -1 ? message : message.substring(0, index);
+        break;
       }
-    } catch (Exception e) {
-      // Use original sender if parsing fails
     }
 
     sendPrivateMessage(from, "think you funny huh?");
@@ -1411,7 +1441,8 @@ public class ChatGameManager {
 
   public void sendChatMessage(String message) {
     try {
-      ChatSender.sendMessage("", message, false);
+      // Not merged with other messages, since it may be any chat command
+      dispatcher.send("", null, message);
     } catch (Exception e) {
       RequestLogger.printLine("Error sending chat message: " + e.getMessage());
     }
@@ -25,6 +25,11 @@ public class RaffleGame {
   private static final int WARNING_TIME_SECONDS = GAME_TIME_SECONDS - 60; // 1 minute warning
   private static final int FINAL_WARNING_SECONDS = GAME_TIME_SECONDS - 30; // 30 second warning
 
+  // The shop log is polled quickly while tickets are selling and backs off when it is quiet, but
+  // never to longer than the fixed five second poll this replaced
+  private static final long MIN_POLL_MILLIS = 2000;
+  private static final long MAX_POLL_MILLIS = 5000;
+
   // Ticket list from original JavaScript - exact same items
   private static final String[] TICKET_LIST = {
     "red drunki-bear",
@@ -92,6 +97,10 @@ public class RaffleGame {
   private ScheduledFuture<?> gameTask = null;
   private ScheduledFuture<?> warningTask1 = null;
   private ScheduledFuture<?> warningTask2 = null;
+  private ScheduledFuture<?> monitorTask = null;
+  private final StoreManager.StoreLogListener purchaseListener = this::recordPurchases;
+  private volatile long pollDelay = MIN_POLL_MILLIS;
+  private volatile boolean purchasesSeen = false;
   private long startTime;
   private int gameSize = 10; // Number of tickets in shop
 
@@ -130,6 +139,7 @@ public class RaffleGame {
 
     active = true;
     startTime = System.currentTimeMillis();
+    startMonitoring();
 
     // Announce game start like original
     manager.sendGamesMessage(
@@ -247,56 +257,66 @@ public class RaffleGame {
     return prizeAmount;
   }
 
+  private void startMonitoring() {
+    // Read the log once before listening, so that only purchases made from now on are reported
+    RequestThread.postRequest(new ManageStoreRequest(true));
+    StoreManager.addStoreLogListener(purchaseListener);
+    pollDelay = MIN_POLL_MILLIS;
+    monitorTask =
+        manager
+            .getScheduler()
+            .schedule(this::monitorShopPurchases, pollDelay, TimeUnit.MILLISECONDS);
+  }
+
+  private void stopMonitoring() {
+    StoreManager.removeStoreLogListener(purchaseListener);
+    if (monitorTask != null && !monitorTask.isDone()) {
+      monitorTask.cancel(false);
+    }
+  }
+
   /**
-   * Monitor shop purchases by checking shop log periodically This mimics how the original JS
-   * checked the shop every 5 seconds
+   * Fetch the shop log so that StoreManager reports any new purchases. The delay doubles each time
+   * nothing new turns up and drops back to the minimum as soon as something does.
    */
   private void monitorShopPurchases() {
     if (!active) return;
 
     try {
-      // Get current shop log
-      List<String> currentLog = getShopLogEntries();
-      // Process new purchases
-      for (int i = shopLog.size(); i < currentLog.size(); i++) {
-        String logEntry = currentLog.get(i);
-        processShopLogEntry(logEntry, i + 1);
-      }
-      // Schedule next check in 5 seconds
-      if (active) {
-        manager.getScheduler().schedule(this::monitorShopPurchases, 5, TimeUnit.SECONDS);
-      }
+      purchasesSeen = false;
+      RequestThread.postRequest(new ManageStoreRequest(true));
+      pollDelay = purchasesSeen ? MIN_POLL_MILLIS : Math.min(pollDelay * 2, MAX_POLL_MILLIS);
     } catch (Exception e) {
       RequestLogger.printLine("Error monitoring shop purchases: " + e.getMessage());
     }
+
+    if (active) {
+      monitorTask =
+          manager
+              .getScheduler()
+              .schedule(this::monitorShopPurchases, pollDelay, TimeUnit.MILLISECONDS);
+    }
   }
 
-  private void processShopLogEntry(String logEntry, int index) {
-    // Parse shop log entry format: "HH:MM:SS player bought quantity (itemname)"
-    // This matches the original JavaScript parsing
-    try {
-      String[] parts = logEntry.split(" ");
-      if (parts.length >= 4 && parts[2].equals("bought")) {
-        String time = parts[0];
-        String buyer = parts[1];
-        String quantityStr = parts[3];
-
-        // Extract item name from parentheses
-        int openParen = logEntry.indexOf('(');
-        int closeParen = logEntry.indexOf(')', openParen);
-        if (openParen > 0 && closeParen > openParen) {
-          String itemName = logEntry.substring(openParen + 1, closeParen);
-          int quantity = Integer.parseInt(quantityStr);
-
-          ShopPurchase purchase =
-              new ShopPurchase(buyer, quantity, itemName, System.currentTimeMillis());
-          shopLog.put(String.valueOf(index), purchase);
-
-          RequestLogger.printLine(buyer + " bought " + quantity + " " + itemName + " at " + time);
-        }
+  private synchronized void recordPurchases(List<StoreManager.StoreLogEntry> entries) {
+    if (!active) return;
+
+    for (StoreManager.StoreLogEntry entry : entries) {
+      if (!entry.isPurchase()) {
+        continue;
       }
-    } catch (Exception e) {
-      RequestLogger.printLine("Error parsing shop log entry: " + logEntry + " - " + e.getMessage());
+
+      ShopPurchase purchase =
+          new ShopPurchase(
+              entry.getBuyer(),
+              entry.getQuantity(),
+              entry.getItemName(),
+              System.currentTimeMillis());
+      shopLog.put(String.valueOf(shopLog.size() + 1), purchase);
+      purchasesSeen = true;
+
+      RequestLogger.printLine(
+          entry.getBuyer() + " bought " + entry.getQuantity() + " " + entry.getItemName());
     }
   }
 
@@ -306,6 +326,7 @@ public class RaffleGame {
     }
 
     active = false;
+    stopMonitoring();
 
     // Cancel any pending tasks
     if (gameTask != null && !gameTask.isDone()) {
@@ -519,6 +540,7 @@ public class RaffleGame {
     }
 
     active = false;
+    stopMonitoring();
 
     // Cancel all tasks
     if (gameTask != null && !gameTask.isDone()) {
@@ -643,29 +665,12 @@ public class RaffleGame {
   // Methods required by ChatGameManager
   public void handleChat(String sender, String message) {
     // Raffle games don't need to handle chat during the game
-    // Tickets are purchased through shop, not chat
-    // But we can start monitoring if this is the first interaction
-    if (active && shopLog.isEmpty()) {
-      // Start monitoring shop purchases
-      monitorShopPurchases();
-    }
+    // Tickets are purchased through shop, not chat, but chatter suggests
+    // players are about, so check the shop log sooner next time
+    pollDelay = MIN_POLL_MILLIS;
   }
 
   public String getStatus() {
     return getStatusMessage();
   }
-
-  private List<String> getShopLogEntries() {
-    // Use StoreManager.getStoreLog() to get the shop log, as in DecoyGame
-    List<String> entries = new ArrayList<>();
-    try {
-      var storeLog = StoreManager.getStoreLog();
-      for (int i = 0; i < storeLog.size(); i++) {
-        entries.add(storeLog.get(i).toString());
-      }
-    } catch (Exception e) {
-      RequestLogger.printLine("Error retrieving shop log: " + e.getMessage());
-    }
-    return entries;
-  }
 }
@@ -2,12 +2,18 @@ package net.sourceforge.kolmafia.listener;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 public class CharacterListenerRegistry {
   // Listener-driven container items
 
   private static final List<CharacterListener> listenerList = new ArrayList<>();
 
+  // While listeners are coalescing, status updates are batched like any other fire
+  private static final AtomicBoolean updatePending = new AtomicBoolean(false);
+  private static final ListenerCoalescer coalescer =
+      new ListenerCoalescer(CharacterListenerRegistry::fireUpdate);
+
   private CharacterListenerRegistry() {}
 
   /**
@@ -35,6 +41,18 @@ public class CharacterListenerRegistry {
   }
 
   public static final void updateStatus() {
+    if (ListenerCoalescer.isEnabled()) {
+      boolean duplicate = CharacterListenerRegistry.updatePending.getAndSet(true);
+      CharacterListenerRegistry.coalescer.request(duplicate);
+      return;
+    }
+
+    CharacterListenerRegistry.fireUpdate();
+  }
+
+  private static void fireUpdate() {
+    CharacterListenerRegistry.updatePending.set(false);
+
     CharacterListener[] listenerArray =
         new CharacterListener[CharacterListenerRegistry.listenerList.size()];
     CharacterListenerRegistry.listenerList.toArray(listenerArray);
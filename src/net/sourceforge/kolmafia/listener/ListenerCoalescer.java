@@ -0,0 +1,150 @@
+package net.sourceforge.kolmafia.listener;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import net.sourceforge.kolmafia.StaticEntity;
+
+/**
+ * Batches the fires of one registry while coalescing is on. The first fire after a batch schedules
+ * the next one; fires which arrive before it runs join it, and it runs no sooner than a frame after
+ * the previous batch, on the ListenerCoalescer thread rather than the thread which made the change.
+ */
+class ListenerCoalescer {
+  private static volatile boolean enabled = false;
+  private static volatile int frameInterval = 50;
+
+  private static final Object executorLock = new Object(); // guards executor
+  private static ScheduledExecutorService executor = null;
+
+  private static final AtomicLong requested = new AtomicLong();
+  private static final AtomicLong saved = new AtomicLong();
+
+  private final Runnable batch;
+  private final Object lock = new Object(); // guards pending, batches, latest and lastRun
+  private ScheduledFuture<?> pending = null;
+  // Counts batches scheduled, so that one which flush has already fired knows not to
+  private long batches = 0;
+  // The most recent batch, kept after it starts so that flush can wait for it
+  private ScheduledFuture<?> latest = null;
+  private long lastRun = 0;
+
+  ListenerCoalescer(final Runnable batch) {
+    this.batch = batch;
+  }
+
+  static void configure(final boolean enabled, final int frameInterval) {
+    ListenerCoalescer.frameInterval = Math.max(0, frameInterval);
+    ListenerCoalescer.enabled = enabled;
+  }
+
+  static boolean isEnabled() {
+    return ListenerCoalescer.enabled;
+  }
+
+  static long getRequested() {
+    return ListenerCoalescer.requested.get();
+  }
+
+  static long getSaved() {
+    return ListenerCoalescer.saved.get();
+  }
+
+  static void resetCounters() {
+    ListenerCoalescer.requested.set(0);
+    ListenerCoalescer.saved.set(0);
+  }
+
+  private static ScheduledExecutorService getExecutor() {
+    synchronized (ListenerCoalescer.executorLock) {
+      if (ListenerCoalescer.executor == null) {
+        ListenerCoalescer.executor =
+            Executors.newSingleThreadScheduledExecutor(
+                r -> {
+                  Thread thread = new Thread(r, "ListenerCoalescer");
+                  thread.setDaemon(true);
+                  return thread;
+                });
+      }
+      return ListenerCoalescer.executor;
+    }
+  }
+
+  /**
+   * Counts a fire and makes sure a batch is on its way. A fire which was already part of the next
+   * batch counts as saved.
+   */
+  void request(final boolean duplicate) {
+    ListenerCoalescer.requested.incrementAndGet();
+    if (duplicate) {
+      ListenerCoalescer.saved.incrementAndGet();
+    }
+
+    synchronized (this.lock) {
+      if (this.pending != null) {
+        return;
+      }
+
+      long now = System.currentTimeMillis();
+      long delay = Math.max(0, this.lastRun + ListenerCoalescer.frameInterval - now);
+      long number = ++this.batches;
+      this.pending =
+          ListenerCoalescer.getExecutor()
+              .schedule(() -> this.run(number), delay, TimeUnit.MILLISECONDS);
+      this.latest = this.pending;
+    }
+  }
+
+  private void run(final long number) {
+    // Clear the pending batch before firing, so that any change made by a listener schedules
+    // another batch rather than being left behind.
+    synchronized (this.lock) {
+      if (this.pending == null || this.batches != number) {
+        // Already fired by flush
+        return;
+      }
+      this.pending = null;
+      this.lastRun = System.currentTimeMillis();
+    }
+
+    this.batch.run();
+  }
+
+  /** Runs the next batch now, if one is waiting, or waits for one which is already running. */
+  void flush() {
+    ScheduledFuture<?> running;
+    boolean claimed = false;
+    synchronized (this.lock) {
+      running = this.latest;
+      if (this.pending != null) {
+        this.pending.cancel(false);
+        this.pending = null;
+        this.lastRun = System.currentTimeMillis();
+        claimed = true;
+      }
+    }
+
+    if (claimed) {
+      this.batch.run();
+      return;
+    }
+
+    if (running == null) {
+      return;
+    }
+
+    try {
+      running.get();
+    } catch (CancellationException e) {
+      // Fired by an earlier flush instead
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      StaticEntity.printStackTrace(e);
+    }
+  }
+}
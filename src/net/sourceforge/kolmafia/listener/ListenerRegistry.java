@@ -1,5 +1,6 @@
 package net.sourceforge.kolmafia.listener;
 
+import java.awt.Component;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -27,12 +28,64 @@ public class ListenerRegistry {
     ListenerRegistry.logging = logging;
   }
 
+  // Coalescing. When on, every registry gathers the keys fired since its last batch and fires
+  // each of them once, at most once a frame, off the thread which made the change. Only listeners
+  // which redraw the interface are batched; the rest still fire at once, on the thread which made
+  // the change, since later code on that thread may depend on what they do.
+  public static final void setCoalescing(final boolean coalescing, final int frameInterval) {
+    ListenerCoalescer.configure(coalescing, frameInterval);
+  }
+
+  public static final boolean isCoalescing() {
+    return ListenerCoalescer.isEnabled();
+  }
+
+  // How many fires have been asked for while coalescing, and how many of those were absorbed
+  // into a batch which was already going to fire them
+  public static final long getFiresRequested() {
+    return ListenerCoalescer.getRequested();
+  }
+
+  public static final long getFiresSaved() {
+    return ListenerCoalescer.getSaved();
+  }
+
+  public static final void resetFireCounters() {
+    ListenerCoalescer.resetCounters();
+  }
+
   // Deferring
   private final HashSet<Object> deferred = new HashSet<>();
   private int deferring = 0;
 
+  private final HashSet<Object> coalesced = new HashSet<>();
+  private final ListenerCoalescer coalescer = new ListenerCoalescer(this::fireCoalesced);
+
   public ListenerRegistry() {}
 
+  private static class ListenerReference extends WeakReference<Listener> {
+    private final boolean coalesced;
+
+    ListenerReference(final Listener listener, final boolean coalesced) {
+      super(listener);
+      this.coalesced = coalesced;
+    }
+  }
+
+  // Which listeners fireListeners notifies
+  private enum Fired {
+    ALL,
+    IMMEDIATE,
+    COALESCED
+  }
+
+  // Swing components and anything else in the swingui package only redraw, so they may wait for
+  // the next batch
+  private static boolean isInterfaceListener(final Listener listener) {
+    return listener instanceof Component
+        || listener.getClass().getName().startsWith("net.sourceforge.kolmafia.swingui.");
+  }
+
   public void deferListeners(boolean deferring) {
     // If we are deferring, increment defer level
     if (deferring) {
@@ -51,33 +104,54 @@ public class ListenerRegistry {
     }
 
     // We were deferred but are no longer deferred. Fire at Will!
+    this.fireKeys(this.deferred, Fired.ALL);
+  }
 
+  private void fireCoalesced() {
+    this.fireKeys(this.coalesced, Fired.COALESCED);
+  }
+
+  // Fires each key in a set gathered while deferring or coalescing, and empties it
+  private void fireKeys(final HashSet<Object> keys, final Fired fired) {
     boolean logit = ListenerRegistry.logging && RequestLogger.isDebugging();
 
-    synchronized (this.deferred) {
-      Object[] listenerArray = new Object[this.deferred.size()];
-      this.deferred.toArray(listenerArray);
-      this.deferred.clear();
+    Object[] listenerArray;
+    synchronized (keys) {
+      listenerArray = keys.toArray();
+      keys.clear();
+    }
 
-      for (Object key : listenerArray) {
-        ArrayList<WeakReference<Listener>> listenerList = this.listenerMap.get(key);
-        if (logit) {
-          int count = listenerList == null ? 0 : listenerList.size();
-          RequestLogger.updateDebugLog("Firing " + count + " listeners for \"" + key + "\"");
-        }
-        this.fireListeners(listenerList, null);
+    for (Object key : listenerArray) {
+      ArrayList<WeakReference<Listener>> listenerList;
+      synchronized (this.listenerMap) {
+        listenerList = this.listenerMap.get(key);
+      }
+      if (logit) {
+        int count = listenerList == null ? 0 : listenerList.size();
+        RequestLogger.updateDebugLog("Firing " + count + " listeners for \"" + key + "\"");
       }
+      this.fireListeners(listenerList, null, fired);
     }
   }
 
+  // Fires anything waiting for the next batch now, rather than when the frame is up
+  void flushCoalesced() {
+    this.coalescer.flush();
+  }
+
   public final void registerListener(final Object key, final Listener listener) {
+    this.registerListener(key, listener, ListenerRegistry.isInterfaceListener(listener));
+  }
+
+  // A listener registered with coalesced false always fires on the thread which made the change
+  final void registerListener(final Object key, final Listener listener, final boolean coalesced) {
     ArrayList<WeakReference<Listener>> listenerList = null;
 
     synchronized (this.listenerMap) {
       listenerList = this.listenerMap.computeIfAbsent(key, k -> new ArrayList<>());
     }
 
-    WeakReference<Listener> reference = new WeakReference<>(listener);
+    WeakReference<Listener> reference = new ListenerReference(listener, coalesced);
 
     synchronized (listenerList) {
       listenerList.add(reference);
@@ -116,7 +190,9 @@ public class ListenerRegistry {
     if (logit) {
       int count = listenerList.size();
       RequestLogger.updateDebugLog(
-          (this.deferring > 0 ? "Deferring " : "Firing ")
+          (this.deferring > 0
+                  ? "Deferring "
+                  : ListenerCoalescer.isEnabled() ? "Coalescing " : "Firing ")
               + count
               + " listeners for \""
               + key
@@ -130,7 +206,30 @@ public class ListenerRegistry {
       return;
     }
 
-    this.fireListeners(listenerList, null);
+    if (ListenerCoalescer.isEnabled()) {
+      this.fireListeners(listenerList, null, Fired.IMMEDIATE);
+      if (ListenerRegistry.hasCoalesced(listenerList)) {
+        boolean duplicate;
+        synchronized (this.coalesced) {
+          duplicate = !this.coalesced.add(key);
+        }
+        this.coalescer.request(duplicate);
+      }
+      return;
+    }
+
+    this.fireListeners(listenerList, null, Fired.ALL);
+  }
+
+  private static boolean hasCoalesced(final ArrayList<WeakReference<Listener>> listenerList) {
+    synchronized (listenerList) {
+      for (WeakReference<Listener> reference : listenerList) {
+        if (((ListenerReference) reference).coalesced) {
+          return true;
+        }
+      }
+    }
+    return false;
   }
 
   public final void fireAllListeners() {
@@ -151,6 +250,25 @@ public class ListenerRegistry {
       return;
     }
 
+    if (ListenerCoalescer.isEnabled()) {
+      Set<Object> keys;
+      Collection<ArrayList<WeakReference<Listener>>> values;
+      synchronized (this.listenerMap) {
+        keys = new HashSet<>(this.listenerMap.keySet());
+        values = new ArrayList<>(this.listenerMap.values());
+      }
+      HashSet<Listener> notified = new HashSet<>();
+      for (ArrayList<WeakReference<Listener>> listenerList : values) {
+        this.fireListeners(listenerList, notified, Fired.IMMEDIATE);
+      }
+      boolean duplicate;
+      synchronized (this.coalesced) {
+        duplicate = !this.coalesced.addAll(keys);
+      }
+      this.coalescer.request(duplicate);
+      return;
+    }
+
     HashSet<ArrayList<WeakReference<Listener>>> listeners = new HashSet<>();
 
     if (logit) {
@@ -180,12 +298,14 @@ public class ListenerRegistry {
     HashSet<Listener> notified = new HashSet<>();
 
     while (i2.hasNext()) {
-      this.fireListeners(i2.next(), notified);
+      this.fireListeners(i2.next(), notified, Fired.ALL);
     }
   }
 
   private void fireListeners(
-      final ArrayList<WeakReference<Listener>> listenerList, final HashSet<Listener> notified) {
+      final ArrayList<WeakReference<Listener>> listenerList,
+      final HashSet<Listener> notified,
+      final Fired fired) {
     if (listenerList == null) {
       return;
     }
@@ -203,6 +323,11 @@ public class ListenerRegistry {
           continue;
         }
 
+        if (fired != Fired.ALL
+            && ((ListenerReference) reference).coalesced != (fired == Fired.COALESCED)) {
+          continue;
+        }
+
         if (notified != null) {
           if (notified.contains(listener)) {
             continue;
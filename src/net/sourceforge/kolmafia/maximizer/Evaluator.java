@@ -1,6 +1,7 @@
 package net.sourceforge.kolmafia.maximizer;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.EnumSet;
@@ -113,6 +114,49 @@ public class Evaluator {
 
   record BonusFunction(Function<AdventureResult, Double> bonusFunction, Double weight) {}
 
+  // The parsed expression, compiled for getScore: only the modifiers which can affect the score,
+  // in DOUBLE_MODIFIERS order, with their weights and limits.
+  private DoubleModifier[] scoredModifiers = new DoubleModifier[0];
+  private double[] scoredWeights = new double[0];
+  private double[] scoredMins = new double[0];
+  private double[] scoredMaxes = new double[0];
+  private boolean scoreNeedsPrediction = false;
+  private AdventureResult[] bonusItems = new AdventureResult[0];
+  private double[] bonusWeights = new double[0];
+  private BonusTable[] bonusTables = new BonusTable[0];
+
+  /** The weighted value of a bonus function for each item, calculated as items are seen. */
+  private static class BonusTable {
+    private final BonusFunction func;
+    private double[] values = new double[0];
+
+    BonusTable(BonusFunction func) {
+      this.func = func;
+    }
+
+    double get(AdventureResult item) {
+      int itemId = item == null ? -1 : item.getItemId();
+      if (itemId <= 0) {
+        return this.func.bonusFunction.apply(item) * this.func.weight;
+      }
+
+      double[] values = this.values;
+      if (itemId >= values.length) {
+        int length = values.length;
+        values = Arrays.copyOf(values, Math.max(itemId + 1, length * 2));
+        Arrays.fill(values, length, values.length, Double.NaN);
+        this.values = values;
+      }
+
+      double value = values[itemId];
+      if (Double.isNaN(value)) {
+        value = this.func.bonusFunction.apply(item) * this.func.weight;
+        values[itemId] = value;
+      }
+      return value;
+    }
+  }
+
   private static final Pattern MUS_EXP_PERC_PATTERN =
       Pattern.compile("^mus(cle)? exp(erience)? perc(ent(age)?)?");
   private static final Pattern MUS_EXP_PATTERN = Pattern.compile("^mus(cle)? exp(erience)?");
@@ -211,9 +255,50 @@ public class Evaluator {
     }
     tiebreaker.parse(Evaluator.TIEBREAKER);
 
+    tiebreaker.compile();
+
     this.min = new EnumMap<>(tiebreaker.min);
     this.max = new EnumMap<>(tiebreaker.max);
     this.parse(expr);
+    this.compile();
+  }
+
+  private void compile() {
+    List<DoubleModifier> modifiers = new ArrayList<>();
+    for (var mod : DoubleModifier.DOUBLE_MODIFIERS) {
+      if (this.weight.get(mod) == 0.0 && this.min.get(mod) == Double.NEGATIVE_INFINITY) continue;
+      modifiers.add(mod);
+    }
+
+    int count = modifiers.size();
+    this.scoredModifiers = modifiers.toArray(new DoubleModifier[count]);
+    this.scoredWeights = new double[count];
+    this.scoredMins = new double[count];
+    this.scoredMaxes = new double[count];
+    this.scoreNeedsPrediction = false;
+    for (int i = 0; i < count; ++i) {
+      DoubleModifier mod = this.scoredModifiers[i];
+      this.scoredWeights[i] = this.weight.get(mod);
+      this.scoredMins[i] = this.min.get(mod);
+      this.scoredMaxes[i] = this.max.get(mod);
+      switch (mod) {
+        case MUS, MYS, MOX, HP, MP -> this.scoreNeedsPrediction = true;
+      }
+    }
+
+    this.bonusItems = new AdventureResult[this.bonuses.size()];
+    this.bonusWeights = new double[this.bonuses.size()];
+    int index = 0;
+    for (Entry<AdventureResult, Double> entry : this.bonuses.entrySet()) {
+      this.bonusItems[index] = entry.getKey();
+      this.bonusWeights[index] = entry.getValue();
+      index++;
+    }
+
+    this.bonusTables = new BonusTable[this.bonusFunc.size()];
+    for (int i = 0; i < this.bonusTables.length; ++i) {
+      this.bonusTables[i] = new BonusTable(this.bonusFunc.get(i));
+    }
   }
 
   private void parse(String expr) {
@@ -751,6 +836,44 @@ public class Evaluator {
   }
 
   public double getScore(Modifiers mods, Map<Slot, AdventureResult> equipment) {
+    this.failed = false;
+    this.exceeded = false;
+    var predicted = this.scoreNeedsPrediction ? mods.predict() : null;
+
+    double score = 0.0;
+    for (int i = 0; i < this.scoredModifiers.length; ++i) {
+      double val = this.getScoredValue(this.scoredModifiers[i], mods, predicted);
+      if (val < this.scoredMins[i]) this.failed = true;
+      score += this.scoredWeights[i] * Math.min(val, this.scoredMaxes[i]);
+    }
+    if (this.stinkycheese > 0) {
+      int val = mods.getBitmap(BitmapModifier.STINKYCHEESE);
+      score += this.stinkycheese * val;
+    }
+    if (this.bonusItems.length > 0) {
+      for (AdventureResult item : equipment.values()) {
+        if (item == null) continue;
+        for (int i = 0; i < this.bonusItems.length; ++i) {
+          if (item.equals(this.bonusItems[i])) {
+            score += this.bonusWeights[i];
+            break;
+          }
+        }
+      }
+    }
+    for (BonusTable table : this.bonusTables) {
+      for (AdventureResult item : equipment.values()) {
+        score += table.get(item);
+      }
+    }
+    return this.finishScore(mods, score);
+  }
+
+  /**
+   * Scores mods the way getScore did before the expression was compiled, walking every modifier
+   * and looking up its weight and limits. Kept to check and measure the compiled path against.
+   */
+  double getUncompiledScore(Modifiers mods, Map<Slot, AdventureResult> equipment) {
     this.failed = false;
     this.exceeded = false;
     var predicted = mods.predict();
@@ -760,113 +883,8 @@ public class Evaluator {
       double weight = this.weight.get(mod);
       double min = this.min.get(mod);
       if (weight == 0.0 && min == Double.NEGATIVE_INFINITY) continue;
-      double val = mods.getDouble(mod);
+      double val = this.getScoredValue(mod, mods, predicted);
       double max = this.max.get(mod);
-      switch (mod) {
-        case MUS:
-          val = predicted.get(DerivedModifier.BUFFED_MUS);
-          break;
-        case MYS:
-          val = predicted.get(DerivedModifier.BUFFED_MYS);
-          break;
-        case MOX:
-          val = predicted.get(DerivedModifier.BUFFED_MOX);
-          break;
-        case FAMILIAR_WEIGHT:
-          val += mods.getDouble(DoubleModifier.HIDDEN_FAMILIAR_WEIGHT);
-          if (mods.getDouble(DoubleModifier.FAMILIAR_WEIGHT_PCT) < 0.0) {
-            val *= 0.5f;
-          }
-          break;
-        case MANA_COST:
-          val += mods.getDouble(DoubleModifier.STACKABLE_MANA_COST);
-          break;
-        case INITIATIVE:
-          val += Math.min(0.0, mods.getDouble(DoubleModifier.INITIATIVE_PENALTY));
-          break;
-        case MEATDROP:
-          val +=
-              100.0
-                  + Math.min(0.0, mods.getDouble(DoubleModifier.MEATDROP_PENALTY))
-                  + mods.getDouble(DoubleModifier.SPORADIC_MEATDROP)
-                  + mods.getDouble(DoubleModifier.MEAT_BONUS) / 10000.0;
-          break;
-        case ITEMDROP:
-          val +=
-              100.0
-                  + Math.min(0.0, mods.getDouble(DoubleModifier.ITEMDROP_PENALTY))
-                  + mods.getDouble(DoubleModifier.SPORADIC_ITEMDROP);
-          break;
-        case HP:
-          val = predicted.get(DerivedModifier.BUFFED_HP);
-          break;
-        case MP:
-          val = predicted.get(DerivedModifier.BUFFED_MP);
-          break;
-        case WEAPON_DAMAGE:
-          // Incorrect - needs to estimate base damage
-          val += mods.getDouble(DoubleModifier.WEAPON_DAMAGE_PCT);
-          break;
-        case RANGED_DAMAGE:
-          // Incorrect - needs to estimate base damage
-          val += mods.getDouble(DoubleModifier.RANGED_DAMAGE_PCT);
-          break;
-        case SPELL_DAMAGE:
-          // Incorrect - base damage depends on spell used
-          val += mods.getDouble(DoubleModifier.SPELL_DAMAGE_PCT);
-          break;
-        case COLD_RESISTANCE:
-          if (mods.getBoolean(BooleanModifier.COLD_IMMUNITY)) {
-            val = 100.0;
-          } else if (mods.getBoolean(BooleanModifier.COLD_VULNERABILITY)) {
-            val -= 100.0;
-          }
-          break;
-        case HOT_RESISTANCE:
-          if (mods.getBoolean(BooleanModifier.HOT_IMMUNITY)) {
-            val = 100.0;
-          } else if (mods.getBoolean(BooleanModifier.HOT_VULNERABILITY)) {
-            val -= 100.0;
-          }
-          break;
-        case SLEAZE_RESISTANCE:
-          if (mods.getBoolean(BooleanModifier.SLEAZE_IMMUNITY)) {
-            val = 100.0;
-          } else if (mods.getBoolean(BooleanModifier.SLEAZE_VULNERABILITY)) {
-            val -= 100.0;
-          }
-          break;
-        case SPOOKY_RESISTANCE:
-          if (mods.getBoolean(BooleanModifier.SPOOKY_IMMUNITY)) {
-            val = 100.0;
-          } else if (mods.getBoolean(BooleanModifier.SPOOKY_VULNERABILITY)) {
-            val -= 100.0;
-          }
-          break;
-        case STENCH_RESISTANCE:
-          if (mods.getBoolean(BooleanModifier.STENCH_IMMUNITY)) {
-            val = 100.0;
-          } else if (mods.getBoolean(BooleanModifier.STENCH_VULNERABILITY)) {
-            val -= 100.0;
-          }
-          break;
-        case EXPERIENCE:
-          double baseExp =
-              KoLCharacter.estimatedBaseExp(
-                  mods.getDouble(DoubleModifier.MONSTER_LEVEL)
-                      * (1 + mods.getDouble(DoubleModifier.MONSTER_LEVEL_PERCENT) / 100));
-          double expPct = mods.getDouble(DoubleModifier.primeStatExpPercent()) / 100.0f;
-          double exp = mods.getDouble(DoubleModifier.primeStatExp());
-
-          val = ((baseExp + exp) * (1 + expPct)) / 2.0f;
-          break;
-        case DAMAGE_AURA:
-          val += mods.getDouble(DoubleModifier.SPORADIC_DAMAGE_AURA);
-          break;
-        case THORNS:
-          val += mods.getDouble(DoubleModifier.SPORADIC_THORNS);
-          break;
-      }
       if (val < min) this.failed = true;
       score += weight * Math.min(val, max);
     }
@@ -888,6 +906,121 @@ public class Evaluator {
         }
       }
     }
+    return this.finishScore(mods, score);
+  }
+
+  private double getScoredValue(
+      DoubleModifier mod, Modifiers mods, Map<DerivedModifier, Integer> predicted) {
+    double val = mods.getDouble(mod);
+    switch (mod) {
+      case MUS:
+        val = predicted.get(DerivedModifier.BUFFED_MUS);
+        break;
+      case MYS:
+        val = predicted.get(DerivedModifier.BUFFED_MYS);
+        break;
+      case MOX:
+        val = predicted.get(DerivedModifier.BUFFED_MOX);
+        break;
+      case FAMILIAR_WEIGHT:
+        val += mods.getDouble(DoubleModifier.HIDDEN_FAMILIAR_WEIGHT);
+        if (mods.getDouble(DoubleModifier.FAMILIAR_WEIGHT_PCT) < 0.0) {
+          val *= 0.5f;
+        }
+        break;
+      case MANA_COST:
+        val += mods.getDouble(DoubleModifier.STACKABLE_MANA_COST);
+        break;
+      case INITIATIVE:
+        val += Math.min(0.0, mods.getDouble(DoubleModifier.INITIATIVE_PENALTY));
+        break;
+      case MEATDROP:
+        val +=
+            100.0
+                + Math.min(0.0, mods.getDouble(DoubleModifier.MEATDROP_PENALTY))
+                + mods.getDouble(DoubleModifier.SPORADIC_MEATDROP)
+                + mods.getDouble(DoubleModifier.MEAT_BONUS) / 10000.0;
+        break;
+      case ITEMDROP:
+        val +=
+            100.0
+                + Math.min(0.0, mods.getDouble(DoubleModifier.ITEMDROP_PENALTY))
+                + mods.getDouble(DoubleModifier.SPORADIC_ITEMDROP);
+        break;
+      case HP:
+        val = predicted.get(DerivedModifier.BUFFED_HP);
+        break;
+      case MP:
+        val = predicted.get(DerivedModifier.BUFFED_MP);
+        break;
+      case WEAPON_DAMAGE:
+        // Incorrect - needs to estimate base damage
+        val += mods.getDouble(DoubleModifier.WEAPON_DAMAGE_PCT);
+        break;
+      case RANGED_DAMAGE:
+        // Incorrect - needs to estimate base damage
+        val += mods.getDouble(DoubleModifier.RANGED_DAMAGE_PCT);
+        break;
+      case SPELL_DAMAGE:
+        // Incorrect - base damage depends on spell used
+        val += mods.getDouble(DoubleModifier.SPELL_DAMAGE_PCT);
+        break;
+      case COLD_RESISTANCE:
+        if (mods.getBoolean(BooleanModifier.COLD_IMMUNITY)) {
+          val = 100.0;
+        } else if (mods.getBoolean(BooleanModifier.COLD_VULNERABILITY)) {
+          val -= 100.0;
+        }
+        break;
+      case HOT_RESISTANCE:
+        if (mods.getBoolean(BooleanModifier.HOT_IMMUNITY)) {
+          val = 100.0;
+        } else if (mods.getBoolean(BooleanModifier.HOT_VULNERABILITY)) {
+          val -= 100.0;
+        }
+        break;
+      case SLEAZE_RESISTANCE:
+        if (mods.getBoolean(BooleanModifier.SLEAZE_IMMUNITY)) {
+          val = 100.0;
+        } else if (mods.getBoolean(BooleanModifier.SLEAZE_VULNERABILITY)) {
+          val -= 100.0;
+        }
+        break;
+      case SPOOKY_RESISTANCE:
+        if (mods.getBoolean(BooleanModifier.SPOOKY_IMMUNITY)) {
+          val = 100.0;
+        } else if (mods.getBoolean(BooleanModifier.SPOOKY_VULNERABILITY)) {
+          val -= 100.0;
+        }
+        break;
+      case STENCH_RESISTANCE:
+        if (mods.getBoolean(BooleanModifier.STENCH_IMMUNITY)) {
+          val = 100.0;
+        } else if (mods.getBoolean(BooleanModifier.STENCH_VULNERABILITY)) {
+          val -= 100.0;
+        }
+        break;
+      case EXPERIENCE:
+        double baseExp =
+            KoLCharacter.estimatedBaseExp(
+                mods.getDouble(DoubleModifier.MONSTER_LEVEL)
+                    * (1 + mods.getDouble(DoubleModifier.MONSTER_LEVEL_PERCENT) / 100));
+        double expPct = mods.getDouble(DoubleModifier.primeStatExpPercent()) / 100.0f;
+        double exp = mods.getDouble(DoubleModifier.primeStatExp());
+
+        val = ((baseExp + exp) * (1 + expPct)) / 2.0f;
+        break;
+      case DAMAGE_AURA:
+        val += mods.getDouble(DoubleModifier.SPORADIC_DAMAGE_AURA);
+        break;
+      case THORNS:
+        val += mods.getDouble(DoubleModifier.SPORADIC_THORNS);
+        break;
+    }
+    return val;
+  }
+
+  private double finishScore(Modifiers mods, double score) {
     // Add fudge factor for Rollover Effect
     if (!mods.getStrings(MultiStringModifier.ROLLOVER_EFFECT).isEmpty()) {
       score += 0.01f;
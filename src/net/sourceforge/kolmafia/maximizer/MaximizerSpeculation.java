@@ -39,12 +39,14 @@ public class MaximizerSpeculation extends Speculation
   public boolean failed = false;
   public CheckedItem attachment;
   private boolean foldables = false;
+  private ParallelSearch.Partition partition;
 
   @Override
   public MaximizerSpeculation clone() {
     try {
       MaximizerSpeculation copy = (MaximizerSpeculation) super.clone();
       copy.equipment = this.equipment.clone();
+      copy.partition = null;
       return copy;
     } catch (CloneNotSupportedException e) {
       return null;
@@ -67,19 +69,24 @@ public class MaximizerSpeculation extends Speculation
   public double getScore() {
     if (this.scored) return this.score;
     if (!this.calculated) this.calculate();
-    this.score = Maximizer.eval.getScore(this.mods, this.equipment);
     if (KoLCharacter.inBeecore()) {
       this.beeosity = KoLCharacter.getBeeosity(this.equipment);
     }
-    Maximizer.eval.checkEquipment(this.mods, this.equipment, this.beeosity);
-    this.failed = Maximizer.eval.failed;
+    // The evaluator reports failure through its own fields, so a parallel search must not score
+    // two speculations with it at once.
+    Evaluator eval = Maximizer.eval;
+    synchronized (eval) {
+      this.score = eval.getScore(this.mods, this.equipment);
+      eval.checkEquipment(this.mods, this.equipment, this.beeosity);
+      this.failed = eval.failed;
+      this.exceeded = eval.exceeded;
+    }
     if ((this.mods.getRawBitmap(BitmapModifier.MUTEX_VIOLATIONS)
             & ~KoLCharacter.currentRawBitmapModifier(BitmapModifier.MUTEX_VIOLATIONS))
         != 0) { // We're speculating about something that would create a
       // mutex problem that the player didn't already have.
       this.failed = true;
     }
-    this.exceeded = Maximizer.eval.exceeded;
     this.scored = true;
     return this.score;
   }
@@ -211,6 +218,18 @@ public class MaximizerSpeculation extends Speculation
       FamiliarData useBjornFamiliar)
       throws MaximizerInterruptedException {
     this.foldables = Preferences.getBoolean("maximizerFoldables");
+    if (Preferences.getBoolean("maximizerParallel") && !familiars.isEmpty()) {
+      this.tryAllInParallel(
+          familiars,
+          enthronedFamiliars,
+          usefulOutfits,
+          outfitPieces,
+          possibles,
+          bestCard,
+          useCrownFamiliar,
+          useBjornFamiliar);
+      return;
+    }
     this.tryOutfits(
         enthronedFamiliars,
         usefulOutfits,
@@ -233,6 +252,41 @@ public class MaximizerSpeculation extends Speculation
     }
   }
 
+  private void tryAllInParallel(
+      List<FamiliarData> familiars,
+      List<FamiliarData> enthronedFamiliars,
+      Map<Integer, Boolean> usefulOutfits,
+      Map<AdventureResult, AdventureResult> outfitPieces,
+      SlotList<CheckedItem> possibles,
+      AdventureResult bestCard,
+      FamiliarData useCrownFamiliar,
+      FamiliarData useBjornFamiliar)
+      throws MaximizerInterruptedException {
+    // One partition for the current familiar, then one for each familiar being considered,
+    // in the same order as the serial search.
+    ParallelSearch search = new ParallelSearch();
+    for (int i = -1; i < familiars.size(); ++i) {
+      MaximizerSpeculation spec = this.clone();
+      SlotList<CheckedItem> partitionPossibles = new SlotList<>(possibles);
+      if (i >= 0) {
+        spec.setFamiliar(familiars.get(i));
+        partitionPossibles.set(Slot.FAMILIAR, possibles.getFamiliar(i));
+      }
+      spec.partition =
+          search.addPartition(
+              () ->
+                  spec.tryOutfits(
+                      enthronedFamiliars,
+                      usefulOutfits,
+                      outfitPieces,
+                      partitionPossibles,
+                      bestCard,
+                      useCrownFamiliar,
+                      useBjornFamiliar));
+    }
+    search.run();
+  }
+
   public void tryOutfits(
       List<FamiliarData> enthronedFamiliars,
       Map<Integer, Boolean> usefulOutfits,
@@ -795,30 +849,38 @@ public class MaximizerSpeculation extends Speculation
     this.calculated = false;
     this.scored = false;
     this.tiebreakered = false;
-    if (Maximizer.best == null) {
-      RequestLogger.updateSessionLog(
-          "Maximizer about to throw LimitExceeded because of null best.");
-      // this isn't really what is happening but trying to understand why this is happening, first.
-      throw new MaximizerLimitException();
-    }
-    if (this.compareTo(Maximizer.best) > 0) {
-      Maximizer.best = this.clone();
-    }
-    Maximizer.bestChecked++;
-    long t = System.currentTimeMillis();
-    if (t > Maximizer.bestUpdate) {
-      MaximizerSpeculation.showProgress();
-      Maximizer.bestUpdate = t + 5000;
-    }
-    this.restore(mark);
-    if (!KoLmafia.permitsContinue()) {
-      throw new MaximizerInterruptedException();
+    if (this.partition != null) {
+      this.partition.record(this);
+      this.restore(mark);
+      this.partition.checkContinue();
+    } else {
+      if (Maximizer.best == null) {
+        RequestLogger.updateSessionLog(
+            "Maximizer about to throw LimitExceeded because of null best.");
+        // this isn't really what is happening but trying to understand why this is happening,
+        // first.
+        throw new MaximizerLimitException();
+      }
+      if (this.compareTo(Maximizer.best) > 0) {
+        Maximizer.best = this.clone();
+      }
+      Maximizer.bestChecked++;
+      long t = System.currentTimeMillis();
+      if (t > Maximizer.bestUpdate) {
+        MaximizerSpeculation.showProgress();
+        Maximizer.bestUpdate = t + 5000;
+      }
+      this.restore(mark);
+      if (!KoLmafia.permitsContinue()) {
+        throw new MaximizerInterruptedException();
+      }
     }
     if (this.exceeded) {
       throw new MaximizerExceededException();
     }
+    long checked = this.partition != null ? this.partition.getChecked() : Maximizer.bestChecked;
     long comboLimit = Preferences.getLong("maximizerCombinationLimit");
-    if (comboLimit != 0 && Maximizer.bestChecked >= comboLimit) {
+    if (comboLimit != 0 && checked >= comboLimit) {
       throw new MaximizerLimitException();
     }
   }
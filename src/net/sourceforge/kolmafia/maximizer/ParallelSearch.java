@@ -0,0 +1,181 @@
+package net.sourceforge.kolmafia.maximizer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import net.sourceforge.kolmafia.KoLConstants;
+import net.sourceforge.kolmafia.KoLmafia;
+import net.sourceforge.kolmafia.Modifiers;
+
+/**
+ * Runs independent partitions of the maximizer search (one per familiar) on a ForkJoin pool.
+ *
+ * <p>Each partition keeps its own best speculation, starting from the best known before the search
+ * began. Once every partition is done the bests are merged in partition order, replacing only on a
+ * strictly better score, which is exactly what the serial search would have found.
+ *
+ * <p>If a partition exceeds the target score, later partitions are abandoned and discarded, as the
+ * serial search would never have reached them. An interrupt or the combination limit stops every
+ * partition; the best found so far is kept, but with a combination limit it need not be the same
+ * combination the serial search would have stopped at.
+ */
+class ParallelSearch {
+  interface Task {
+    void run() throws MaximizerInterruptedException;
+  }
+
+  class Partition {
+    private final int index;
+    private final Task task;
+    private volatile MaximizerSpeculation best;
+    private MaximizerInterruptedException thrown;
+    private RuntimeException failure;
+
+    private Partition(final int index, final MaximizerSpeculation best, final Task task) {
+      this.index = index;
+      this.best = best;
+      this.task = task;
+    }
+
+    void record(final MaximizerSpeculation spec) {
+      if (spec.compareTo(this.best) > 0) {
+        this.best = spec.clone();
+        double score = this.best.getScore();
+        ParallelSearch.this.bestScore.accumulateAndGet(
+            Double.doubleToLongBits(score),
+            (prev, next) ->
+                Double.longBitsToDouble(next) > Double.longBitsToDouble(prev) ? next : prev);
+      }
+      ParallelSearch.this.checked.incrementAndGet();
+    }
+
+    int getChecked() {
+      return ParallelSearch.this.checked.get();
+    }
+
+    void checkContinue() throws MaximizerInterruptedException {
+      if (ParallelSearch.this.stopped || this.index > ParallelSearch.this.horizon.get()) {
+        throw new MaximizerInterruptedException();
+      }
+    }
+
+    private void run() {
+      try {
+        this.task.run();
+      } catch (MaximizerExceededException e) {
+        this.thrown = e;
+        ParallelSearch.this.horizon.accumulateAndGet(this.index, Math::min);
+      } catch (MaximizerLimitException e) {
+        this.thrown = e;
+        ParallelSearch.this.stopped = true;
+      } catch (MaximizerInterruptedException e) {
+        this.thrown = e;
+      } catch (RuntimeException e) {
+        this.failure = e;
+        ParallelSearch.this.stopped = true;
+      }
+    }
+  }
+
+  private final MaximizerSpeculation initialBest;
+  private final List<Partition> partitions = new ArrayList<>();
+  private final AtomicInteger checked = new AtomicInteger();
+  private final AtomicLong bestScore;
+  // Partitions after this one were made unreachable by a partition exceeding the target
+  private final AtomicInteger horizon = new AtomicInteger(Integer.MAX_VALUE);
+  private volatile boolean stopped = false;
+  private boolean interrupted = false;
+
+  ParallelSearch() {
+    this.initialBest = Maximizer.best;
+    this.checked.set(Maximizer.bestChecked);
+    this.bestScore = new AtomicLong(Double.doubleToLongBits(this.initialBest.getScore()));
+  }
+
+  Partition addPartition(final Task task) {
+    Partition partition = new Partition(this.partitions.size(), this.initialBest.clone(), task);
+    this.partitions.add(partition);
+    return partition;
+  }
+
+  void run() throws MaximizerInterruptedException {
+    int threads = Math.min(this.partitions.size(), Runtime.getRuntime().availableProcessors());
+    ForkJoinPool pool = new ForkJoinPool(Math.max(1, threads));
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (Partition partition : this.partitions) {
+        futures.add(pool.submit(() -> Modifiers.withPrivateContext(partition::run)));
+      }
+
+      // Wait by polling rather than joining, so that this thread never runs a partition itself
+      // and can keep watching for interrupts and reporting progress.
+      while (!futures.stream().allMatch(Future::isDone)) {
+        if (!KoLmafia.permitsContinue()) {
+          this.interrupted = true;
+          this.stopped = true;
+        }
+
+        long t = System.currentTimeMillis();
+        if (t > Maximizer.bestUpdate) {
+          this.showProgress();
+          Maximizer.bestUpdate = t + 5000;
+        }
+
+        try {
+          Thread.sleep(50);
+        } catch (InterruptedException e) {
+          this.interrupted = true;
+          this.stopped = true;
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+    }
+
+    this.merge();
+  }
+
+  private void merge() throws MaximizerInterruptedException {
+    MaximizerSpeculation best = this.initialBest;
+    MaximizerInterruptedException thrown = null;
+    int horizon = this.horizon.get();
+
+    for (Partition partition : this.partitions) {
+      if (partition.index > horizon) {
+        break;
+      }
+      if (partition.failure != null) {
+        throw partition.failure;
+      }
+      if (partition.best.compareTo(best) > 0) {
+        best = partition.best;
+      }
+      if (thrown == null
+          && (partition.thrown instanceof MaximizerExceededException
+              || partition.thrown instanceof MaximizerLimitException)) {
+        thrown = partition.thrown;
+      }
+    }
+
+    Maximizer.best = best;
+    Maximizer.bestChecked = this.checked.get();
+
+    if (this.interrupted) {
+      throw new MaximizerInterruptedException();
+    }
+    if (thrown != null) {
+      throw thrown;
+    }
+  }
+
+  private void showProgress() {
+    StringBuilder msg = new StringBuilder();
+    msg.append(this.checked.get());
+    msg.append(" combinations checked, best score ");
+    msg.append(KoLConstants.FLOAT_FORMAT.format(Double.longBitsToDouble(this.bestScore.get())));
+    KoLmafia.updateDisplay(msg.toString());
+  }
+}
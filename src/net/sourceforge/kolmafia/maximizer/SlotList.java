@@ -32,6 +32,12 @@ public class SlotList<T> {
     }
   }
 
+  /** Copies other, sharing its interior lists, so that slots can be replaced independently. */
+  public SlotList(SlotList<T> other) {
+    slotList = new EnumMap<>(other.slotList);
+    familiarList = new ArrayList<>(other.familiarList);
+  }
+
   public List<T> get(Slot key) {
     return slotList.computeIfAbsent(key, k -> new ArrayList<>());
   }
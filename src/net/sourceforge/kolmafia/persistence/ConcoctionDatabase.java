@@ -14,6 +14,7 @@ import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import net.java.dev.spellcast.utilities.LockableListModel;
 import net.java.dev.spellcast.utilities.SortedListModel;
@@ -80,6 +81,13 @@ public class ConcoctionDatabase {
   public static String excuse; // reason why creation is impossible
 
   private static boolean refreshNeeded = true;
+  // Set when something other than an item count (meat, adventures, the queue, ...) has changed,
+  // so every concoction must be recalculated.
+  private static boolean fullRefreshNeeded = true;
+  // Items whose counts changed since the last refresh. If nothing else changed, only the
+  // concoctions which use them, directly or through intermediate concoctions, need to be
+  // recalculated.
+  private static final Set<Integer> changedItems = ConcurrentHashMap.newKeySet();
   private static boolean recalculateAdventureRange = false;
   public static int refreshLevel = 0;
 
@@ -1144,19 +1152,15 @@ public class ConcoctionDatabase {
   }
 
   public static final void setRefreshNeeded(int itemId) {
-    switch (ItemDatabase.getConsumptionType(itemId)) {
-      case EAT, DRINK, SPLEEN, USE, USE_MULTIPLE, FOOD_HELPER, DRINK_HELPER -> {
-        ConcoctionDatabase.setRefreshNeeded(false);
-        return;
-      }
-    }
-
     switch (itemId) {
         // Items that affect creatability of other items, but
         // aren't explicitly listed in their recipes:
       case ItemPool.WORTHLESS_TRINKET:
       case ItemPool.WORTHLESS_GEWGAW:
       case ItemPool.WORTHLESS_KNICK_KNACK:
+      case ItemPool.MEAT_PASTE:
+      case ItemPool.MEAT_STACK:
+      case ItemPool.DENSE_STACK:
 
         // Interchangeable ingredients, which might have been missed
         // by the getKnownUses check because the recipes are set to
@@ -1173,13 +1177,20 @@ public class ConcoctionDatabase {
         return;
     }
 
+    switch (ItemDatabase.getConsumptionType(itemId)) {
+      case EAT, DRINK, SPLEEN, USE, USE_MULTIPLE, FOOD_HELPER, DRINK_HELPER -> {
+        ConcoctionDatabase.setItemRefreshNeeded(itemId);
+        return;
+      }
+    }
+
     for (AdventureResult use : ConcoctionDatabase.getKnownUses(itemId)) {
       CraftingType method = ConcoctionDatabase.getMixingMethod(use.getItemId());
       EnumSet<CraftingRequirements> requirements =
           ConcoctionDatabase.getRequirements(use.getItemId());
 
       if (ConcoctionDatabase.isPermittedMethod(method, requirements)) {
-        ConcoctionDatabase.setRefreshNeeded(false);
+        ConcoctionDatabase.setItemRefreshNeeded(itemId);
         return;
       }
     }
@@ -1193,8 +1204,14 @@ public class ConcoctionDatabase {
     }
   }
 
+  private static void setItemRefreshNeeded(int itemId) {
+    ConcoctionDatabase.changedItems.add(itemId);
+    ConcoctionDatabase.refreshNeeded = true;
+  }
+
   public static final void setRefreshNeeded(boolean recalculateAdventureRange) {
     ConcoctionDatabase.refreshNeeded = true;
+    ConcoctionDatabase.fullRefreshNeeded = true;
 
     if (recalculateAdventureRange) {
       ConcoctionDatabase.recalculateAdventureRange = true;
@@ -1213,6 +1230,7 @@ public class ConcoctionDatabase {
     if (force) {
       // Remember that refresh is forced, even if deferred
       ConcoctionDatabase.refreshNeeded = true;
+      ConcoctionDatabase.fullRefreshNeeded = true;
     }
 
     if (!ConcoctionDatabase.refreshNeeded) {
@@ -1237,6 +1255,11 @@ public class ConcoctionDatabase {
     Preferences.increment("_concoctionDatabaseRefreshes");
     ConcoctionDatabase.refreshNeeded = false;
 
+    Set<Integer> changed = new HashSet<>(ConcoctionDatabase.changedItems);
+    ConcoctionDatabase.changedItems.removeAll(changed);
+    boolean full = ConcoctionDatabase.fullRefreshNeeded || changed.isEmpty();
+    ConcoctionDatabase.fullRefreshNeeded = false;
+
     List<AdventureResult> availableIngredientsList = ConcoctionDatabase.getAvailableIngredients();
 
     // In addition to the list, we create a second data structure here for better performance.
@@ -1249,65 +1272,45 @@ public class ConcoctionDatabase {
       availableIngredients.put(item.getItemId(), item);
     }
 
-    // Iterate through the concoction table, Initialize each one
-    // appropriately depending on whether it is an NPC item, a Coin
-    // Master item, or anything else.
-
     boolean useNPCStores = InventoryManager.canUseNPCStores();
     boolean useCoinmasters = InventoryManager.canUseCoinmasters();
 
-    for (Concoction item : ConcoctionPool.concoctions()) {
-      // Initialize all the variables
-      item.resetCalculations();
-
-      if (item.speakeasy != null) {
-        // Has an item number, but can't appear in inventory
-        continue;
-      }
+    if (!full) {
+      // Only item counts have changed. Recalculate the concoctions
+      // which depend on those items, unless the change also altered
+      // which crafting methods are available.
 
-      AdventureResult concoction = item.concoction;
-      if (concoction == null) {
-        continue;
-      }
+      Set<Concoction> affected = ConcoctionDatabase.getDependentConcoctions(changed);
 
-      int itemId = concoction.getItemId();
+      // cachePermitted resets these from the meat on hand, so they
+      // always need to be calculated again.
+      affected.add(ConcoctionPool.get(ItemPool.MEAT_PASTE));
+      affected.add(ConcoctionPool.get(ItemPool.MEAT_STACK));
+      affected.add(ConcoctionPool.get(ItemPool.DENSE_STACK));
 
-      if (useNPCStores && NPCStoreDatabase.contains(itemId, true)) {
-        if (itemId != ItemPool.FLAT_DOUGH) {
-          // Don't buy flat dough from Degrassi Knoll Bakery -
-          // buy wads of dough for 20 meat less, instead.
+      PermittedState before = PermittedState.current();
 
-          item.price = NPCStoreDatabase.price(itemId);
-          item.initial = concoction.getCount(availableIngredients);
-          item.creatable = 0;
-          item.total = item.initial;
-          item.visibleTotal = item.total;
-          continue;
-        }
+      for (Concoction item : affected) {
+        ConcoctionDatabase.initializeConcoction(
+            item, availableIngredients, availableIngredientsList, useNPCStores, useCoinmasters);
       }
 
-      PurchaseRequest purchaseRequest = item.getPurchaseRequest();
-      if (purchaseRequest != null) {
-        purchaseRequest.setCanPurchase(useCoinmasters);
-        int acquirable = purchaseRequest.canPurchase() ? purchaseRequest.affordableCount() : 0;
-        item.price = 0;
-        item.initial = concoction.getCount(availableIngredients);
-        item.creatable = acquirable;
-        item.total = item.initial + acquirable;
-        item.visibleTotal = item.total;
-        continue;
-      }
+      ConcoctionDatabase.cachePermitted(availableIngredientsList);
 
-      // Set initial quantity of all remaining items.
+      if (before.equals(PermittedState.current())) {
+        ConcoctionDatabase.calculateConcoctions(affected);
+        ConcoctionDatabase.updateCreatables(affected);
+        return;
+      }
+    }
 
-      // Switch to the better of any interchangeable ingredients. Only mutates the first argument.
-      ConcoctionDatabase.getIngredients(item, item.getIngredients(), availableIngredientsList);
+    // Iterate through the concoction table, Initialize each one
+    // appropriately depending on whether it is an NPC item, a Coin
+    // Master item, or anything else.
 
-      item.initial = concoction.getCount(availableIngredients);
-      item.price = 0;
-      item.creatable = 0;
-      item.total = item.initial;
-      item.visibleTotal = item.total;
+    for (Concoction item : ConcoctionPool.concoctions()) {
+      ConcoctionDatabase.initializeConcoction(
+          item, availableIngredients, availableIngredientsList, useNPCStores, useCoinmasters);
     }
 
     // Make assessment of availability of mixing methods.
@@ -1321,11 +1324,106 @@ public class ConcoctionDatabase {
     // created any other way, making sure that it's a permitted
     // mixture before doing the calculation.
 
-    for (Concoction item : ConcoctionPool.concoctions()) {
+    ConcoctionDatabase.calculateConcoctions(ConcoctionPool.concoctions());
+    ConcoctionDatabase.updateCreatables(ConcoctionPool.concoctions());
+  }
+
+  /**
+   * Returns the concoctions whose availability depends on any of the given items: the items
+   * themselves, anything which uses them as an ingredient, anything which uses those, and so on.
+   */
+  private static Set<Concoction> getDependentConcoctions(final Set<Integer> itemIds) {
+    Set<Concoction> dependents = new HashSet<>();
+    Set<Integer> seen = new HashSet<>(itemIds);
+    Stack<Integer> pending = new Stack<>();
+    pending.addAll(itemIds);
+
+    while (!pending.isEmpty()) {
+      int itemId = pending.pop();
+
+      Concoction item = ConcoctionPool.get(itemId);
+      if (item != null) {
+        dependents.add(item);
+      }
+
+      for (AdventureResult use : ConcoctionDatabase.getKnownUses(itemId)) {
+        int useId = use.getItemId();
+        if (seen.add(useId)) {
+          pending.push(useId);
+        }
+      }
+    }
+
+    return dependents;
+  }
+
+  private static void initializeConcoction(
+      final Concoction item,
+      final Map<Integer, AdventureResult> availableIngredients,
+      final List<AdventureResult> availableIngredientsList,
+      final boolean useNPCStores,
+      final boolean useCoinmasters) {
+    // Initialize all the variables
+    item.resetCalculations();
+
+    if (item.speakeasy != null) {
+      // Has an item number, but can't appear in inventory
+      return;
+    }
+
+    AdventureResult concoction = item.concoction;
+    if (concoction == null) {
+      return;
+    }
+
+    int itemId = concoction.getItemId();
+
+    if (useNPCStores && NPCStoreDatabase.contains(itemId, true)) {
+      if (itemId != ItemPool.FLAT_DOUGH) {
+        // Don't buy flat dough from Degrassi Knoll Bakery -
+        // buy wads of dough for 20 meat less, instead.
+
+        item.price = NPCStoreDatabase.price(itemId);
+        item.initial = concoction.getCount(availableIngredients);
+        item.creatable = 0;
+        item.total = item.initial;
+        item.visibleTotal = item.total;
+        return;
+      }
+    }
+
+    PurchaseRequest purchaseRequest = item.getPurchaseRequest();
+    if (purchaseRequest != null) {
+      purchaseRequest.setCanPurchase(useCoinmasters);
+      int acquirable = purchaseRequest.canPurchase() ? purchaseRequest.affordableCount() : 0;
+      item.price = 0;
+      item.initial = concoction.getCount(availableIngredients);
+      item.creatable = acquirable;
+      item.total = item.initial + acquirable;
+      item.visibleTotal = item.total;
+      return;
+    }
+
+    // Set initial quantity of all remaining items.
+
+    // Switch to the better of any interchangeable ingredients. Only mutates the first argument.
+    ConcoctionDatabase.getIngredients(item, item.getIngredients(), availableIngredientsList);
+
+    item.initial = concoction.getCount(availableIngredients);
+    item.price = 0;
+    item.creatable = 0;
+    item.total = item.initial;
+    item.visibleTotal = item.total;
+  }
+
+  private static void calculateConcoctions(final Collection<Concoction> concoctions) {
+    for (Concoction item : concoctions) {
       item.calculate2();
       item.calculate3();
     }
+  }
 
+  private static void updateCreatables(final Collection<Concoction> concoctions) {
     // Now, to update the list of creatables without removing
     // all creatable items.	 We do this by determining the
     // number of items inside of the old list.
@@ -1336,7 +1434,7 @@ public class ConcoctionDatabase {
             && !KoLCharacter.isHardcore()
             && ConcoctionDatabase.getPullsBudgeted() > ConcoctionDatabase.queuedPullsUsed;
 
-    for (Concoction item : ConcoctionPool.concoctions()) {
+    for (Concoction item : concoctions) {
       AdventureResult ar = item.getItem();
       if (ar == null) {
         continue;
@@ -1401,6 +1499,38 @@ public class ConcoctionDatabase {
     ConcoctionDatabase.queuedPotions.updateFilter(changeDetected);
   }
 
+  /**
+   * Everything cachePermitted decides which can affect concoctions other than the ones whose
+   * ingredients changed. If this is unchanged by a refresh, untouched concoctions are still valid.
+   */
+  private record PermittedState(
+      EnumSet<CraftingType> permitted,
+      Map<CraftingType, Integer> adventureUsage,
+      Map<CraftingType, Long> creationCost,
+      EnumSet<CraftingRequirements> requirementsMet,
+      List<Integer> limits) {
+    static PermittedState current() {
+      return new PermittedState(
+          EnumSet.copyOf(ConcoctionDatabase.PERMIT_METHOD),
+          new EnumMap<>(ConcoctionDatabase.ADVENTURE_USAGE),
+          new EnumMap<>(ConcoctionDatabase.CREATION_COST),
+          EnumSet.copyOf(ConcoctionDatabase.REQUIREMENT_MET),
+          List.of(
+              ConcoctionDatabase.stillsLimit.initial,
+              ConcoctionDatabase.clipArtLimit.initial,
+              ConcoctionDatabase.extrudeLimit.initial,
+              ConcoctionDatabase.adventureLimit.initial,
+              ConcoctionDatabase.adventureSmithingLimit.initial,
+              ConcoctionDatabase.cookingLimit.initial,
+              ConcoctionDatabase.cocktailcraftingLimit.initial,
+              ConcoctionDatabase.turnFreeLimit.initial,
+              ConcoctionDatabase.turnFreeCookingLimit.initial,
+              ConcoctionDatabase.turnFreeCocktailcraftingLimit.initial,
+              ConcoctionDatabase.turnFreeSmithingLimit.initial,
+              ConcoctionDatabase.meatLimit.initial));
+    }
+  }
+
   /** Reset concoction stat gains when you've logged in a new character. */
   public static final void resetConcoctionStatGains() {
     for (Concoction item : ConcoctionPool.concoctions()) {
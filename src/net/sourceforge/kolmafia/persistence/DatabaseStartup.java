@@ -0,0 +1,263 @@
+package net.sourceforge.kolmafia.persistence;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import net.sourceforge.kolmafia.KoLConstants;
+import net.sourceforge.kolmafia.StaticEntity;
+import net.sourceforge.kolmafia.preferences.Preferences;
+import net.sourceforge.kolmafia.shop.ShopDatabase;
+import net.sourceforge.kolmafia.utilities.DataSnapshot;
+import net.sourceforge.kolmafia.utilities.FileUtilities;
+
+/**
+ * Loads the static databases at startup rather than on first use. Every data file is read and
+ * split on the fork-join pool at once, while the databases are built from them in dependency order
+ * on the calling thread, each one waiting only for its own files.
+ *
+ * <p>Files which were read as text are saved together in a DataSnapshot, which later launches
+ * load instead of reading them again for as long as it stays valid.
+ *
+ * <p>The databases themselves are not built in parallel: their static initializers refer to one
+ * another, and two threads initializing classes which each need the other would deadlock.
+ */
+public class DatabaseStartup {
+  private record DataFile(String name, int version) {}
+
+  private record Database(
+      String name, Class<?> loads, List<String> dependencies, List<DataFile> files) {}
+
+  public record Timing(String name, String thread, long start, long elapsed) {}
+
+  private static final List<Database> GRAPH =
+      List.of(
+          new Database(
+              "items",
+              ItemDatabase.class,
+              List.of(),
+              List.of(
+                  new DataFile("items.txt", KoLConstants.ITEMS_VERSION),
+                  new DataFile("foldgroups.txt", KoLConstants.FOLDGROUPS_VERSION))),
+          new Database(
+              "consumables",
+              ConsumablesDatabase.class,
+              List.of("items"),
+              List.of(
+                  new DataFile("fullness.txt", KoLConstants.FULLNESS_VERSION),
+                  new DataFile("inebriety.txt", KoLConstants.INEBRIETY_VERSION),
+                  new DataFile("spleenhit.txt", KoLConstants.SPLEENHIT_VERSION),
+                  new DataFile("nonfilling.txt", KoLConstants.NONFILLING_VERSION))),
+          new Database(
+              "equipment",
+              EquipmentDatabase.class,
+              List.of("items"),
+              List.of(
+                  new DataFile("equipment.txt", KoLConstants.EQUIPMENT_VERSION),
+                  new DataFile("outfits.txt", KoLConstants.OUTFITS_VERSION),
+                  new DataFile("pulverize.txt", KoLConstants.PULVERIZE_VERSION))),
+          new Database(
+              "effects",
+              EffectDatabase.class,
+              List.of(),
+              List.of(new DataFile("statuseffects.txt", KoLConstants.STATUSEFFECTS_VERSION))),
+          new Database(
+              "skills",
+              SkillDatabase.class,
+              List.of(),
+              List.of(new DataFile("classskills.txt", KoLConstants.CLASSSKILLS_VERSION))),
+          new Database(
+              "familiars",
+              FamiliarDatabase.class,
+              List.of("items"),
+              List.of(
+                  new DataFile("familiars.txt", KoLConstants.FAMILIARS_VERSION),
+                  new DataFile("fambattle.txt", KoLConstants.FAMBATTLE_VERSION))),
+          new Database(
+              "modifiers",
+              ModifierDatabase.class,
+              List.of("items", "equipment", "effects", "skills", "familiars"),
+              List.of(new DataFile("modifiers.txt", KoLConstants.MODIFIERS_VERSION))),
+          new Database(
+              "monsters",
+              MonsterDatabase.class,
+              List.of("items"),
+              List.of(
+                  new DataFile("monsters.txt", KoLConstants.MONSTERS_VERSION),
+                  new DataFile("monsterparts.txt", KoLConstants.MONSTER_PARTS_VERSION))),
+          new Database(
+              "adventures",
+              AdventureDatabase.class,
+              List.of("items", "monsters"),
+              List.of(
+                  new DataFile("zonelist.txt", KoLConstants.ZONELIST_VERSION),
+                  new DataFile("adventures.txt", KoLConstants.ADVENTURES_VERSION),
+                  new DataFile("combats.txt", KoLConstants.COMBATS_VERSION))),
+          new Database(
+              "npcstores",
+              NPCStoreDatabase.class,
+              List.of("items"),
+              List.of(new DataFile("npcstores.txt", KoLConstants.NPCSTORES_VERSION))),
+          new Database(
+              "coinmasters",
+              CoinmastersDatabase.class,
+              List.of("items"),
+              List.of(new DataFile("coinmasters.txt", KoLConstants.COINMASTERS_VERSION))),
+          new Database(
+              "shops",
+              ShopDatabase.class,
+              List.of("items", "npcstores", "coinmasters"),
+              List.of(new DataFile("shops.txt", KoLConstants.SHOPS_VERSION))),
+          new Database(
+              "concoctions",
+              ConcoctionDatabase.class,
+              List.of("items", "consumables", "equipment", "skills"),
+              List.of(new DataFile("concoctions.txt", KoLConstants.CONCOCTIONS_VERSION))),
+          new Database(
+              "restores",
+              RestoresDatabase.class,
+              List.of("items", "skills"),
+              List.of(new DataFile("restores.txt", KoLConstants.RESTORES_VERSION))));
+
+  private static final ConcurrentLinkedQueue<Timing> timings = new ConcurrentLinkedQueue<>();
+  private static long started = 0;
+  private static long finished = 0;
+
+  private DatabaseStartup() {}
+
+  /** Returns the databases in an order in which each comes after everything it depends on. */
+  static List<String> getLoadOrder() {
+    Map<String, Database> byName = new HashMap<>();
+    for (Database database : GRAPH) {
+      byName.put(database.name(), database);
+    }
+
+    Set<String> order = new LinkedHashSet<>();
+    Set<String> visiting = new LinkedHashSet<>();
+    for (Database database : GRAPH) {
+      DatabaseStartup.visit(database, byName, order, visiting);
+    }
+    return new ArrayList<>(order);
+  }
+
+  private static void visit(
+      final Database database,
+      final Map<String, Database> byName,
+      final Set<String> order,
+      final Set<String> visiting) {
+    if (order.contains(database.name())) {
+      return;
+    }
+    if (!visiting.add(database.name())) {
+      throw new IllegalStateException("Startup dependency cycle: " + visiting);
+    }
+    for (String dependency : database.dependencies()) {
+      Database other = byName.get(dependency);
+      if (other == null) {
+        throw new IllegalStateException(database.name() + " depends on unknown " + dependency);
+      }
+      DatabaseStartup.visit(other, byName, order, visiting);
+    }
+    visiting.remove(database.name());
+    order.add(database.name());
+  }
+
+  /** Loads every database in the startup graph. Only the first call does anything. */
+  public static synchronized void run() {
+    if (DatabaseStartup.started != 0) {
+      return;
+    }
+    DatabaseStartup.started = System.nanoTime();
+
+    boolean useSnapshot = Preferences.getBoolean("useDataSnapshot");
+    if (useSnapshot) {
+      DatabaseStartup.time(
+          DataSnapshot.SNAPSHOT_FILE, () -> DataSnapshot.load(DataSnapshot.getFile()));
+    }
+
+    Map<String, Database> byName = new HashMap<>();
+    Map<String, ForkJoinTask<?>> reads = new HashMap<>();
+    for (Database database : GRAPH) {
+      byName.put(database.name(), database);
+      for (DataFile file : database.files()) {
+        if (FileUtilities.isPreloaded(file.name(), file.version())) {
+          continue;
+        }
+        reads.computeIfAbsent(
+            file.name(),
+            name ->
+                ForkJoinPool.commonPool()
+                    .submit(
+                        () ->
+                            DatabaseStartup.time(
+                                name,
+                                () -> FileUtilities.preloadVersionedFile(name, file.version()))));
+      }
+    }
+
+    try {
+      for (String name : DatabaseStartup.getLoadOrder()) {
+        Database database = byName.get(name);
+        for (DataFile file : database.files()) {
+          ForkJoinTask<?> read = reads.get(file.name());
+          if (read != null) {
+            read.join();
+          }
+        }
+        DatabaseStartup.time(name, () -> DatabaseStartup.initialize(database.loads()));
+      }
+
+      // Anything which had to be read as text goes into the snapshot for next time
+      if (useSnapshot && !reads.isEmpty()) {
+        DatabaseStartup.time(
+            DataSnapshot.SNAPSHOT_FILE, () -> DataSnapshot.save(DataSnapshot.getFile()));
+      }
+    } finally {
+      // Anything not yet read is read from disk as usual
+      reads.values().forEach(task -> task.cancel(false));
+      FileUtilities.clearPreloadedFiles();
+      DatabaseStartup.finished = System.nanoTime();
+    }
+  }
+
+  private static void initialize(final Class<?> loads) {
+    try {
+      Class.forName(loads.getName(), true, loads.getClassLoader());
+    } catch (ClassNotFoundException e) {
+      StaticEntity.printStackTrace(e);
+    }
+    if (loads == ModifierDatabase.class) {
+      // Modifiers are only loaded when first asked for
+      ModifierDatabase.ensureModifierDatabaseInitialised();
+    }
+  }
+
+  private static void time(final String name, final Runnable action) {
+    long start = System.nanoTime();
+    try {
+      action.run();
+    } finally {
+      DatabaseStartup.timings.add(
+          new Timing(
+              name,
+              Thread.currentThread().getName(),
+              start - DatabaseStartup.started,
+              System.nanoTime() - start));
+    }
+  }
+
+  /** Returns how long each data file took to read and each database took to build. */
+  public static List<Timing> getTimings() {
+    return new ArrayList<>(DatabaseStartup.timings);
+  }
+
+  /** Returns how long startup took from start to finish, in nanoseconds, or 0 if it hasn't run. */
+  public static long getElapsed() {
+    return DatabaseStartup.finished == 0 ? 0 : DatabaseStartup.finished - DatabaseStartup.started;
+  }
+}
@@ -4,7 +4,10 @@ import static net.sourceforge.kolmafia.session.StoreManager.MALL_MAX;
 
 import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.net.URI;
@@ -15,11 +18,15 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpRequest.BodyPublishers;
 import java.net.http.HttpResponse;
 import java.net.http.HttpResponse.BodyHandlers;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
+import java.util.Arrays;
 import java.util.HashSet;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import net.java.dev.spellcast.utilities.DataUtilities;
@@ -37,22 +44,110 @@ public class MallPriceDatabase {
   // If false, blocks saving of mall prices. Do not modify outside of tests.
   public static boolean savePricesToFile = true;
 
-  private static final SortedMap<Integer, Price> prices = new TreeMap<>();
+  // Each item's price and the time it was found, in seconds, as two longs indexed by item id. An
+  // item with no price has a price of 0.
+  private static long[] prices = new long[0];
+  // Items whose prices have changed since they were last written
+  private static final Set<Integer> pending = new TreeSet<>();
   private static final HashSet<String> updated = new HashSet<>();
   private static final HashSet<String> submitted = new HashSet<>();
   private static int modCount = 0;
 
-  public static final File PRICE_FILE = new File(KoLConstants.DATA_LOCATION, "mallprices.txt");
+  // The prices, as fixed-width records keyed by item id
+  public static final File PRICE_FILE = new File(KoLConstants.DATA_LOCATION, "mallprices.bin");
+  // Prices recorded since the price file was last written, as (id, timestamp, price) records
+  public static final File LOG_FILE = new File(KoLConstants.DATA_LOCATION, "mallprices.log");
+  // The text file which older versions kept prices in
+  private static final String TEXT_FILE = "mallprices.txt";
+
+  private static final int MAGIC = 0x4B4D5042; // "KMPB"
+  private static final int HEADER_SIZE = 3 * Integer.BYTES;
+  private static final int LOG_RECORD_SIZE = Integer.BYTES + 2 * Long.BYTES;
+  // Fold the log into the price file once it holds this many records
+  private static final int COMPACT_THRESHOLD = 1024;
 
   private static final int CONNECT_TIMEOUT = 15 * 1000;
 
   static {
-    updatePricesFromSource("mallprices.txt");
+    if (!MallPriceDatabase.loadPrices(PRICE_FILE, LOG_FILE)) {
+      MallPriceDatabase.updatePricesFromSource(TEXT_FILE);
+      MallPriceDatabase.pending.clear();
+    }
     MallPriceDatabase.modCount = 0;
   }
 
   private MallPriceDatabase() {}
 
+  private static synchronized long getTimestamp(final int itemId) {
+    int index = itemId * 2;
+    return index + 1 < MallPriceDatabase.prices.length ? MallPriceDatabase.prices[index + 1] : 0;
+  }
+
+  private static synchronized void setPrice(
+      final int itemId, final long price, final long timestamp) {
+    int index = itemId * 2;
+    if (index + 1 >= MallPriceDatabase.prices.length) {
+      int size = Math.max(index + 2, ItemDatabase.maxItemId() * 2 + 2);
+      MallPriceDatabase.prices = Arrays.copyOf(MallPriceDatabase.prices, size);
+    }
+    MallPriceDatabase.prices[index] = price;
+    MallPriceDatabase.prices[index + 1] = timestamp;
+    MallPriceDatabase.pending.add(itemId);
+  }
+
+  // Loads the price file, then replays the log on top of it. Returns false if there is no usable
+  // price file. Both are read onto the heap rather than mapped, since a mapping would keep them
+  // open and stop them being replaced or deleted on Windows.
+  static synchronized boolean loadPrices(final File priceFile, final File logFile) {
+    if (!priceFile.exists()) {
+      return false;
+    }
+
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(priceFile.toPath()));
+      if (buffer.remaining() < HEADER_SIZE
+          || buffer.getInt() != MAGIC
+          || buffer.getInt() != KoLConstants.MALLPRICES_VERSION) {
+        return false;
+      }
+      int records = buffer.getInt();
+      if (records < 0 || buffer.remaining() < records * 2L * Long.BYTES) {
+        return false;
+      }
+      long[] data = new long[records * 2];
+      buffer.asLongBuffer().get(data);
+      MallPriceDatabase.prices = data;
+    } catch (IOException e) {
+      StaticEntity.printStackTrace(e);
+      return false;
+    }
+
+    MallPriceDatabase.replayLog(logFile);
+    MallPriceDatabase.pending.clear();
+    return true;
+  }
+
+  private static void replayLog(final File logFile) {
+    if (!logFile.exists()) {
+      return;
+    }
+
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(logFile.toPath()));
+      // A record cut short by a crash is ignored
+      while (buffer.remaining() >= LOG_RECORD_SIZE) {
+        int id = buffer.getInt();
+        long timestamp = buffer.getLong();
+        long price = buffer.getLong();
+        if (id > 0 && timestamp >= MallPriceDatabase.getTimestamp(id)) {
+          MallPriceDatabase.setPrice(id, price, timestamp);
+        }
+      }
+    } catch (IOException e) {
+      StaticEntity.printStackTrace(e);
+    }
+  }
+
   private static int updatePricesFromSource(String filename) {
     int count = 0;
     try (BufferedReader reader = FileUtilities.getReader(filename)) {
@@ -68,36 +163,38 @@ public class MallPriceDatabase {
         return 0;
       }
 
-      String[] data;
       long now = MallPriceManager.currentTimeMillis() / 1000L;
+      int maxItemId = ItemDatabase.maxItemId();
 
-      while ((data = FileUtilities.readData(reader)) != null) {
-        if (data.length < 3) {
+      while ((line = FileUtilities.readLine(reader)) != null) {
+        // Only look at the price of an entry newer than the one we have
+        int tab1 = line.indexOf('\t');
+        int tab2 = tab1 == -1 ? -1 : line.indexOf('\t', tab1 + 1);
+        if (tab2 == -1) {
           continue;
         }
+        int tab3 = line.indexOf('\t', tab2 + 1);
 
-        int id = StringUtilities.parseInt(data[0]);
-        long timestamp = Math.min(now, Long.parseLong(data[1]));
-        long price = StringUtilities.parseLong(data[2]);
-        if (id < 1
-            || id > ItemDatabase.maxItemId()
-            || price < 1
-            || price > MALL_MAX
-            || timestamp <= 0) { // Something's fishy with this file...
+        int id = StringUtilities.parseInt(line.substring(0, tab1));
+        if (id < 1 || id > maxItemId) {
           continue;
         }
 
-        if (!ItemDatabase.isTradeable(id)) continue;
-        Price p = MallPriceDatabase.prices.get(id);
-        if (p == null) {
-          MallPriceDatabase.prices.put(id, new Price(id, price, timestamp));
-          ++count;
-          ++MallPriceDatabase.modCount;
-        } else if (timestamp > p.timestamp) {
-          p.update(price, timestamp);
-          ++count;
-          ++MallPriceDatabase.modCount;
+        long timestamp = Math.min(now, StringUtilities.parseLong(line.substring(tab1 + 1, tab2)));
+        if (timestamp <= 0 || timestamp <= MallPriceDatabase.getTimestamp(id)) {
+          continue;
         }
+
+        long price =
+            StringUtilities.parseLong(line.substring(tab2 + 1, tab3 == -1 ? line.length() : tab3));
+        if (price < 1 || price > MALL_MAX) { // Something's fishy with this file...
+          continue;
+        }
+
+        if (!ItemDatabase.isTradeable(id)) continue;
+        MallPriceDatabase.setPrice(id, price, timestamp);
+        ++count;
+        ++MallPriceDatabase.modCount;
       }
     } catch (IOException e) {
       StaticEntity.printStackTrace(e);
@@ -146,41 +243,93 @@ public class MallPriceDatabase {
 
   public static void recordPrice(int itemId, long price, boolean deferred) {
     long timestamp = MallPriceManager.currentTimeMillis() / 1000L;
-    Price p = MallPriceDatabase.prices.get(itemId);
-    if (p == null) {
-      MallPriceDatabase.prices.put(itemId, new Price(itemId, price, timestamp));
-    } else {
-      p.update(price, timestamp);
-    }
+    MallPriceDatabase.setPrice(itemId, price, timestamp);
     ++MallPriceDatabase.modCount;
     if (!deferred) {
       MallPriceDatabase.writePrices();
     }
   }
 
+  // Appends the prices which have changed to the log, and folds the log into the price file in
+  // the background once it has grown large. Many changes at once go straight to the price file.
   public static void writePrices() {
     if (!MallPriceDatabase.savePricesToFile) {
       return;
     }
 
-    try (PrintStream writer =
-        new PrintStream(
-            new BufferedOutputStream(DataUtilities.getOutputStream(PRICE_FILE)), false)) {
-      writePrices(writer);
+    boolean compact;
+    synchronized (MallPriceDatabase.class) {
+      if (MallPriceDatabase.pending.size() >= COMPACT_THRESHOLD || !PRICE_FILE.exists()) {
+        compact = true;
+      } else {
+        MallPriceDatabase.appendLog(LOG_FILE);
+        compact = LOG_FILE.length() >= (long) COMPACT_THRESHOLD * LOG_RECORD_SIZE;
+      }
+    }
+
+    if (compact) {
+      RequestThread.runInParallel(() -> MallPriceDatabase.compact(PRICE_FILE, LOG_FILE), false);
+    }
+  }
+
+  static synchronized void appendLog(final File logFile) {
+    if (MallPriceDatabase.pending.isEmpty()) {
+      return;
+    }
+
+    try (DataOutputStream writer =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(logFile, true)))) {
+      for (int id : MallPriceDatabase.pending) {
+        writer.writeInt(id);
+        writer.writeLong(MallPriceDatabase.prices[id * 2 + 1]);
+        writer.writeLong(MallPriceDatabase.prices[id * 2]);
+      }
+      MallPriceDatabase.pending.clear();
+    } catch (IOException e) {
+      StaticEntity.printStackTrace(e);
+    }
+  }
+
+  // Rewrites the price file with every price we have, and then removes the log.
+  static synchronized void compact(final File priceFile, final File logFile) {
+    long[] data = MallPriceDatabase.prices;
+    File temp = new File(priceFile.getPath() + ".tmp");
+
+    try (DataOutputStream writer =
+        new DataOutputStream(new BufferedOutputStream(DataUtilities.getOutputStream(temp)))) {
+      writer.writeInt(MAGIC);
+      writer.writeInt(KoLConstants.MALLPRICES_VERSION);
+      writer.writeInt(data.length / 2);
+      for (long value : data) {
+        writer.writeLong(value);
+      }
+    } catch (IOException e) {
+      StaticEntity.printStackTrace(e);
+      return;
+    }
+
+    try {
+      Files.move(temp.toPath(), priceFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      // Keep the log, which still holds everything the old price file lacks
+      temp.delete();
+      return;
     }
+
+    logFile.delete();
+    MallPriceDatabase.pending.clear();
   }
 
   static void writePrices(PrintStream writer) {
     writer.println(KoLConstants.MALLPRICES_VERSION);
 
-    MallPriceDatabase.prices.entrySet().stream()
-        .forEach(
-            entry -> {
-              Price p = entry.getValue();
-              if (p != null) {
-                writer.writeBytes(p.encoded);
-              }
-            });
+    long[] data = MallPriceDatabase.prices;
+    for (int index = 2; index + 1 < data.length; index += 2) {
+      if (data[index] != 0) {
+        writer.print(index / 2 + "\t" + data[index + 1] + "\t" + data[index]);
+        writer.print(KoLConstants.LINE_BREAK);
+      }
+    }
   }
 
   public static void submitPrices(String url) {
@@ -241,48 +390,36 @@ public class MallPriceDatabase {
     builder.append(
         "Content-Disposition: form-data; name=\"upload\"; filename=\"mallprices.txt\"\r\n\r\n");
 
-    try (BufferedReader reader = FileUtilities.getReader("mallprices.txt")) {
-      String line;
-      while ((line = FileUtilities.readLine(reader)) != null) {
-        builder.append(line);
-        builder.append('\n');
-      }
-    } catch (IOException e) {
-      StaticEntity.printStackTrace(e);
+    ByteArrayOutputStream text = new ByteArrayOutputStream();
+    try (PrintStream writer = new PrintStream(text, false, StandardCharsets.UTF_8)) {
+      MallPriceDatabase.writePrices(writer);
     }
+    builder.append(text.toString(StandardCharsets.UTF_8));
     builder.append("\r\n----blahblahfishcakes--\r\n");
     return builder.toString();
   }
 
   public static long getPrice(int itemId) {
-    Price p = MallPriceDatabase.prices.get(itemId);
-    return p == null ? 0 : p.price;
+    long[] data = MallPriceDatabase.prices;
+    int index = itemId * 2;
+    return index >= 0 && index + 1 < data.length ? data[index] : 0;
   }
 
   // Return age of price data, in fractional days
   public static float getAge(int itemId) {
-    Price p = MallPriceDatabase.prices.get(itemId);
+    long[] data = MallPriceDatabase.prices;
+    int index = itemId * 2;
+    if (index < 0 || index + 1 >= data.length || data[index] == 0) {
+      return Float.POSITIVE_INFINITY;
+    }
     long now = MallPriceManager.currentTimeMillis() / 1000L;
-    return p == null ? Float.POSITIVE_INFINITY : (now - p.timestamp) / 86400.0f;
+    return (now - data[index + 1]) / 86400.0f;
   }
 
-  private static class Price {
-    int id;
-    long price;
-    long timestamp;
-    byte[] encoded;
-
-    public Price(int id, long price, long timestamp) {
-      this.id = id;
-      this.update(price, timestamp);
-    }
-
-    public void update(long price, long timestamp) {
-      this.price = price;
-      this.timestamp = timestamp;
-      this.encoded =
-          (this.id + "\t" + this.timestamp + "\t" + this.price + KoLConstants.LINE_BREAK)
-              .getBytes(StandardCharsets.UTF_8);
-    }
+  // Forget every price. Only for tests.
+  static synchronized void reset() {
+    MallPriceDatabase.prices = new long[0];
+    MallPriceDatabase.pending.clear();
+    MallPriceDatabase.modCount = 0;
   }
 }
@@ -388,6 +388,32 @@ public class ModifierDatabase {
 
     Modifiers modifiers = modifiersByName.get(type, key);
 
+    // Threads with a private context neither add to the shared cache nor override the shared
+    // copies of variable modifiers; they keep copies of their own instead.
+    Modifiers.Context context = Modifiers.getPrivateContext();
+    if (context != null && (modifiers == null || modifiers.variable)) {
+      var privateModifiersByName = context.getModifiersByName();
+      modifiers = privateModifiersByName.get(type, key);
+
+      if (modifiers == null) {
+        String modifierString = getModifierString(new Lookup(type, key));
+
+        if (modifierString == null) {
+          return null;
+        }
+
+        modifiers = parseModifiers(lookup, modifierString);
+
+        if (originalType != null) {
+          modifiers.setLookup(new Lookup(originalType, key));
+        }
+
+        modifiers.variable = modifiers.override(lookup);
+        modifiers.applyPathModifiers();
+        privateModifiersByName.put(type, key, modifiers);
+      }
+    }
+
     if (modifiers == null) {
       String modifierString = getModifierString(new Lookup(type, key));
 
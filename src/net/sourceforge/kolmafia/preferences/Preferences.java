@@ -7,6 +7,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
 import java.util.Collections;
@@ -22,6 +23,11 @@ import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.UnaryOperator;
 import net.java.dev.spellcast.utilities.DataUtilities;
 import net.sourceforge.kolmafia.KoLCharacter;
@@ -60,6 +66,15 @@ public class Preferences {
       Collections.synchronizedSortedMap(new TreeMap<>());
   private static File userPropertiesFile = null;
 
+  // When saveSettingsInBackground is on, setting a preference only marks its file as dirty. A
+  // single background flush, scheduled by the first change after the previous flush, writes out
+  // every change made in the meantime.
+  private static final AtomicBoolean globalDirty = new AtomicBoolean(false);
+  private static final AtomicBoolean userDirty = new AtomicBoolean(false);
+  private static final Object flushLock = new Object(); // guards flusher and pendingFlush
+  private static ScheduledExecutorService flusher = null;
+  private static ScheduledFuture<?> pendingFlush = null;
+
   private static final Set<String> defaultsSet = new HashSet<>();
   private static final Set<String> perUserGlobalSet = new HashSet<>();
   private static final Set<String> onlyResetOnRollover =
@@ -156,6 +171,9 @@ public class Preferences {
 
   /** Resets all settings so that the given user is represented whenever settings are modified. */
   public static synchronized void reset(String username) {
+    // Anything waiting on the background flusher belongs to the outgoing files.
+    Preferences.flush();
+
     // We might not have been tracking encoded values here before this save. Fix that.
     Preferences.reinitializeEncodedValues();
     Preferences.saveToFile(Preferences.globalPropertiesFile, Preferences.globalEncodedValues);
@@ -871,15 +889,76 @@ public class Preferences {
   }
 
   private static void maybeSaveToFileAfterUpdating(boolean enable, String updatedProperty) {
-    if (enable) {
-      if (Preferences.isGlobalProperty(updatedProperty)) {
+    if (!enable) {
+      return;
+    }
+
+    boolean global = Preferences.isGlobalProperty(updatedProperty);
+    if (!global && Preferences.userPropertiesFile == null) {
+      return;
+    }
+
+    if (Preferences.getBoolean("saveSettingsInBackground")) {
+      (global ? Preferences.globalDirty : Preferences.userDirty).set(true);
+      Preferences.scheduleFlush();
+    } else if (global) {
+      Preferences.saveToFile(Preferences.globalPropertiesFile, Preferences.globalEncodedValues);
+    } else {
+      Preferences.saveToFile(Preferences.userPropertiesFile, Preferences.userEncodedValues);
+    }
+  }
+
+  private static void scheduleFlush() {
+    synchronized (Preferences.flushLock) {
+      if (Preferences.pendingFlush != null) {
+        return;
+      }
+
+      if (Preferences.flusher == null) {
+        Preferences.flusher =
+            Executors.newSingleThreadScheduledExecutor(
+                r -> {
+                  Thread thread = new Thread(r, "PreferencesFlusher");
+                  thread.setDaemon(true);
+                  return thread;
+                });
+        Runtime.getRuntime()
+            .addShutdownHook(new Thread(Preferences::flush, "PreferencesShutdownFlush"));
+      }
+
+      int delay = Math.max(0, Preferences.getInteger("saveSettingsInBackgroundDelay"));
+      Preferences.pendingFlush =
+          Preferences.flusher.schedule(
+              Preferences::backgroundFlush, delay, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  private static void backgroundFlush() {
+    // Clear the pending flush before writing, so that any change made while we write schedules
+    // another flush rather than being left behind.
+    synchronized (Preferences.flushLock) {
+      Preferences.pendingFlush = null;
+    }
+
+    Preferences.flush();
+  }
+
+  /** Writes out any preference changes that the background flusher has not yet saved. */
+  public static void flush() {
+    synchronized (lock) {
+      if (Preferences.globalDirty.getAndSet(false)) {
         Preferences.saveToFile(Preferences.globalPropertiesFile, Preferences.globalEncodedValues);
-      } else if (Preferences.userPropertiesFile != null) {
+      }
+      if (Preferences.userDirty.getAndSet(false) && Preferences.userPropertiesFile != null) {
         Preferences.saveToFile(Preferences.userPropertiesFile, Preferences.userEncodedValues);
       }
     }
   }
 
+  public static boolean hasUnsavedChanges() {
+    return Preferences.globalDirty.get() || Preferences.userDirty.get();
+  }
+
   private static String propertyName(final String user, final String name) {
     return user == null ? name : name + "." + Preferences.baseUserName(user);
   }
@@ -896,10 +975,11 @@ public class Preferences {
     // the file in synch atomically
 
     synchronized (lock) {
-      // Determine the contents of the file by
-      // actually printing them.
+      // Write the contents to a temporary file and move it into
+      // place, so that the file on disk is never half written.
 
-      OutputStream fstream = new BufferedOutputStream(DataUtilities.getOutputStream(file));
+      File temp = new File(file.getPath() + ".tmp");
+      OutputStream fstream = new BufferedOutputStream(DataUtilities.getOutputStream(temp));
 
       try {
         synchronized (encodedData) {
@@ -916,6 +996,20 @@ public class Preferences {
       } catch (IOException e) {
         System.out.println(e.getMessage() + " trying to close preferences stream.");
       }
+
+      try {
+        try {
+          Files.move(
+              temp.toPath(),
+              file.toPath(),
+              StandardCopyOption.REPLACE_EXISTING,
+              StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+          Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+      } catch (IOException e) {
+        System.out.println(e.getMessage() + " trying to replace preferences file.");
+      }
     }
   }
 
@@ -2,7 +2,9 @@ package net.sourceforge.kolmafia.request;
 
 import com.alibaba.fastjson2.JSONException;
 import com.alibaba.fastjson2.JSONObject;
+import com.alibaba.fastjson2.JSONReader;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.regex.Matcher;
@@ -18,6 +20,7 @@ import net.sourceforge.kolmafia.preferences.Preferences;
 import net.sourceforge.kolmafia.session.EquipmentManager;
 import net.sourceforge.kolmafia.session.InventoryManager;
 import net.sourceforge.kolmafia.utilities.LockableListFactory;
+import net.sourceforge.kolmafia.utilities.StringUtilities;
 
 public class ApiRequest extends GenericRequest {
   private static final ApiRequest INSTANCE = new ApiRequest("status");
@@ -154,8 +157,12 @@ public class ApiRequest extends GenericRequest {
 
     super.run();
 
-    // Save the JSON object so caller can look further at it
-    this.json = ApiRequest.getJSON(this.responseText, this.what);
+    // Save the JSON object so caller can look further at it. Item lists are streamed straight
+    // into their lists instead, and nobody looks at them again.
+    switch (this.what) {
+      case "inventory", "closet", "storage" -> {}
+      default -> this.json = ApiRequest.getJSON(this.responseText, this.what);
+    }
   }
 
   @Override
@@ -504,15 +511,46 @@ public class ApiRequest extends GenericRequest {
   }
 
   public static final void parseInventory(final String responseText) {
-    InventoryManager.parseInventory(ApiRequest.getJSON(responseText, "inventory"));
+    InventoryManager.parseInventory(ApiRequest.getItemCounts(responseText, "inventory"));
   }
 
   public static final void parseCloset(final String responseText) {
-    ClosetRequest.parseCloset(ApiRequest.getJSON(responseText, "closet"));
+    ClosetRequest.parseCloset(ApiRequest.getItemCounts(responseText, "closet"));
   }
 
   public static final void parseStorage(final String responseText) {
-    StorageRequest.parseStorage(ApiRequest.getJSON(responseText, "storage"));
+    StorageRequest.parseStorage(ApiRequest.getItemCounts(responseText, "storage"));
+  }
+
+  /**
+   * Reads a list of items, {"1":"1","2":"1" ... }, as a map from item id to count, in the order
+   * given. The text is read a token at a time, without building a JSON object.
+   */
+  public static final Map<Integer, Integer> getItemCounts(final String text, final String what) {
+    String str = ApiRequest.getJSONString(text);
+    if (str == null) {
+      return null;
+    }
+
+    Map<Integer, Integer> counts = new LinkedHashMap<>();
+    try (JSONReader reader = JSONReader.of(str)) {
+      if (!reader.nextIfObjectStart()) {
+        throw new JSONException("expected an object of item counts");
+      }
+      while (!reader.nextIfObjectEnd()) {
+        int itemId = StringUtilities.parseInt(reader.readFieldName());
+        int count =
+            reader.isString()
+                ? StringUtilities.parseInt(reader.readString())
+                : reader.readInt32Value();
+        counts.put(itemId, count);
+      }
+    } catch (JSONException e) {
+      ApiRequest.reportParseError(what, text, e);
+      return null;
+    }
+
+    return counts;
   }
 
   public static final JSONObject getJSON(final String text, final String what) {
@@ -155,7 +155,8 @@ public class ClanStashRequest extends TransferItemRequest {
 
   @Override
   public boolean parseTransfer() {
-    return ClanStashRequest.parseTransfer(this.getURLString(), this.responseText);
+    return ClanStashRequest.parseTransfer(
+        this.getURLString(), this.responseText, this.getResponseView());
   }
 
   public static final Pattern ITEM_PATTERN1 = Pattern.compile("You add (.*?) to the Goodies Hoard");
@@ -163,6 +164,11 @@ public class ClanStashRequest extends TransferItemRequest {
       Pattern.compile("(\\d+) (.+?)(?:, (?=\\d)|, and| and (?=\\d)|$)");
 
   public static boolean parseTransfer(final String urlString, final String responseText) {
+    return ClanStashRequest.parseTransfer(urlString, responseText, responseText);
+  }
+
+  private static boolean parseTransfer(
+      final String urlString, final String responseText, final CharSequence page) {
     if (urlString.contains("takegoodies")) {
       // If you ask for too many of an item:
       //     There aren't that many of that item in the stash.
@@ -208,11 +214,11 @@ public class ClanStashRequest extends TransferItemRequest {
       return true;
     }
 
-    ClanStashRequest.parseStash(responseText);
+    ClanStashRequest.parseStash(page);
     return true;
   }
 
-  private static void parseStash(final String responseText) {
+  private static void parseStash(final CharSequence responseText) {
     // In the event that the request was broken up into pieces,
     // there's nothing to look at. Return from the function call.
 
@@ -236,11 +242,13 @@ public class ClanStashRequest extends TransferItemRequest {
 
     ArrayList<AdventureResult> items = new ArrayList<>();
 
-    Matcher matcher = ClanStashRequest.ITEM_PATTERN.matcher(stashMatcher.group());
-    int lastFindIndex = 0;
+    // The stash list is most of the page, so match within it rather than copying it out
+    Matcher matcher =
+        ClanStashRequest.ITEM_PATTERN
+            .matcher(responseText)
+            .region(stashMatcher.start(), stashMatcher.end());
 
-    while (matcher.find(lastFindIndex)) {
-      lastFindIndex = matcher.end();
+    while (matcher.find()) {
       int itemId = StringUtilities.parseInt(matcher.group(1));
       String descId = matcher.group(2);
       String itemName = matcher.group(3).trim();
@@ -1,11 +1,12 @@
 package net.sourceforge.kolmafia.request;
 
-import com.alibaba.fastjson2.JSONException;
-import com.alibaba.fastjson2.JSONObject;
 import java.util.ArrayList;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import net.sourceforge.kolmafia.AdventureResult;
@@ -14,7 +15,6 @@ import net.sourceforge.kolmafia.KoLCharacter;
 import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.RequestLogger;
 import net.sourceforge.kolmafia.RequestThread;
-import net.sourceforge.kolmafia.objectpool.ItemPool;
 import net.sourceforge.kolmafia.persistence.ConcoctionDatabase;
 import net.sourceforge.kolmafia.persistence.ItemDatabase;
 import net.sourceforge.kolmafia.session.InventoryManager;
@@ -40,39 +40,29 @@ public class ClosetRequest extends TransferItemRequest {
     ApiRequest.updateCloset();
   }
 
-  public static final void parseCloset(final JSONObject json) {
-    if (json == null) {
+  public static final void parseCloset(final Map<Integer, Integer> counts) {
+    if (counts == null) {
       return;
     }
 
-    ArrayList<AdventureResult> items = new ArrayList<>();
+    Map<Integer, Integer> items = new HashMap<>();
 
-    try {
-      // {"1":"1","2":"1" ... }
-      Iterator<String> keys = json.keySet().iterator();
-
-      while (keys.hasNext()) {
-        String key = keys.next();
-        int itemId = StringUtilities.parseInt(key);
-        int count = json.getIntValue(key);
-        String name = ItemDatabase.getItemDataName(itemId);
-        if (name == null) {
-          // Fetch descid from api.php?what=item
-          // and register new item.
-          ItemDatabase.registerItem(itemId);
-        }
-
-        items.add(ItemPool.get(itemId, count));
+    for (var entry : counts.entrySet()) {
+      int itemId = entry.getKey();
+      String name = ItemDatabase.getItemDataName(itemId);
+      if (name == null) {
+        // Fetch descid from api.php?what=item
+        // and register new item.
+        ItemDatabase.registerItem(itemId);
       }
-    } catch (JSONException e) {
-      ApiRequest.reportParseError("closet", json.toString(), e);
-      return;
+
+      items.put(itemId, entry.getValue());
     }
 
-    KoLConstants.closet.clear();
-    KoLConstants.closet.addAll(items);
-    if (InventoryManager.canUseCloset()) {
-      ConcoctionDatabase.refreshConcoctions();
+    Set<Integer> changed = new HashSet<>();
+    InventoryManager.updateItemList(KoLConstants.closet, items, changed);
+    if (!changed.isEmpty() && InventoryManager.canUseCloset()) {
+      InventoryManager.refreshConcoctions(changed);
     }
   }
 
@@ -112,7 +112,12 @@ public class DisplayCaseRequest extends TransferItemRequest {
 
   @Override
   public boolean parseTransfer() {
-    return DisplayCaseRequest.parseTransfer(this.getURLString(), this.responseText);
+    String urlString = this.getURLString();
+    if (urlString.startsWith("managecollectionshelves.php")) {
+      // The shelf page lists the whole collection, so parse it from the response view
+      return DisplayCaseRequest.parseDisplayArrangement(urlString, this.getResponseView());
+    }
+    return DisplayCaseRequest.parseTransfer(urlString, this.responseText);
   }
 
   public static final boolean parseTransfer(final String urlString, final String responseText) {
@@ -179,7 +184,7 @@ public class DisplayCaseRequest extends TransferItemRequest {
   }
 
   public static final boolean parseDisplayArrangement(
-      final String urlString, final String responseText) {
+      final String urlString, final CharSequence responseText) {
     if (urlString.indexOf("action=arrange") == -1) {
       DisplayCaseManager.update(responseText);
     }
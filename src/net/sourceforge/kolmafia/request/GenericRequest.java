@@ -75,6 +75,8 @@ import net.sourceforge.kolmafia.session.EventManager;
 import net.sourceforge.kolmafia.session.InventoryManager;
 import net.sourceforge.kolmafia.session.LightsOutManager;
 import net.sourceforge.kolmafia.session.OceanManager;
+import net.sourceforge.kolmafia.session.PageTimings;
+import net.sourceforge.kolmafia.session.PageTimings.Phase;
 import net.sourceforge.kolmafia.session.QuestManager;
 import net.sourceforge.kolmafia.session.ResponseTextParser;
 import net.sourceforge.kolmafia.session.ResultProcessor;
@@ -83,12 +85,12 @@ import net.sourceforge.kolmafia.session.ValhallaManager;
 import net.sourceforge.kolmafia.swingui.RequestSynchFrame;
 import net.sourceforge.kolmafia.textui.ScriptRuntime;
 import net.sourceforge.kolmafia.textui.parsetree.Value;
-import net.sourceforge.kolmafia.utilities.ByteBufferUtilities;
 import net.sourceforge.kolmafia.utilities.FileUtilities;
 import net.sourceforge.kolmafia.utilities.HttpUtilities;
 import net.sourceforge.kolmafia.utilities.InputFieldUtilities;
 import net.sourceforge.kolmafia.utilities.PauseObject;
 import net.sourceforge.kolmafia.utilities.ResettingHttpClient;
+import net.sourceforge.kolmafia.utilities.ResponseBuffer;
 import net.sourceforge.kolmafia.utilities.StringUtilities;
 import net.sourceforge.kolmafia.webui.RelayAgent;
 import net.sourceforge.kolmafia.webui.RelayServer;
@@ -157,12 +159,15 @@ public class GenericRequest implements Runnable {
 
   public int responseCode;
   public String responseText;
+  private ResponseBuffer responseView;
   public String redirectLocation;
   public String redirectMethod;
 
   private static ResettingHttpClient client;
   private HttpRequest request;
   protected HttpResponse<InputStream> response;
+  // When the current attempt was sent, for timing the server's reply
+  private long sendStart;
 
   // Per-login data
 
@@ -1155,6 +1160,8 @@ public class GenericRequest implements Runnable {
       RequestLogger.updateDebugLog(this.getClass());
     }
 
+    long start = System.nanoTime();
+
     if (this.isExternalRequest) {
       this.externalExecute();
     } else if (!this.prepareForURL(location)) {
@@ -1168,9 +1175,13 @@ public class GenericRequest implements Runnable {
       // Call central dispatch method for locations that require
       // special handling
 
+      long questStart = System.nanoTime();
       QuestManager.handleQuestChange(this);
+      PageTimings.record(this, Phase.QUEST, questStart);
     }
 
+    PageTimings.record(this, Phase.TOTAL, start);
+
     // Normal response?
     if (this.responseCode == 200) {
       if (this.responseText == null) {
@@ -1370,7 +1381,9 @@ public class GenericRequest implements Runnable {
     }
 
     if (this.hasResult) {
+      long registerStart = System.nanoTime();
       RequestLogger.registerRequest(this, urlString);
+      PageTimings.record(this, Phase.REGISTER, registerStart);
     }
 
     if (urlString.startsWith("ascend.php") && urlString.contains("action=ascend")) {
@@ -1587,6 +1600,7 @@ public class GenericRequest implements Runnable {
     }
 
     try {
+      this.sendStart = System.nanoTime();
       response = getClient().send(request, BodyHandlers.ofInputStream());
       return false;
     } catch (SocketTimeoutException | InterruptedException e) {
@@ -2109,56 +2123,82 @@ public class GenericRequest implements Runnable {
       RequestLogger.updateDebugLog("Retrieving server reply");
     }
 
-    this.responseText = new String(ByteBufferUtilities.read(istream), StandardCharsets.UTF_8);
+    // Read into this thread's pooled buffer, so that the only thing allocated for the body is the
+    // String made from it. The buffer stays checked out until the response has been processed, so
+    // that parsers can read it through getResponseView() rather than copying out of the String.
+    ResponseBuffer body = ResponseBuffer.acquire();
+    String redirect = null;
+    try {
+      body.readFrom(istream);
+      PageTimings.record(this, Phase.SERVER, this.sendStart);
 
-    if (this.responseCode == 200 && RequestLogger.isTracing()) {
-      String buffer =
-          "Retrieved: "
-              + this.requestURL()
-              + " ("
-              + (this.responseText == null ? "0" : this.responseText.length())
-              + " bytes)";
-      RequestLogger.trace(buffer);
-    }
+      if (this.responseCode == 200 && RequestLogger.isTracing()) {
+        RequestLogger.trace(
+            "Retrieved: " + this.requestURL() + " (" + body.byteLength() + " bytes)");
+      }
 
-    if (this.responseText == null) {
-      if (this.shouldUpdateDebugLog()) {
-        RequestLogger.updateDebugLog("ResponseText is null");
+      // This may be a JavaScript redirect, which we can look for in place. No character takes
+      // more than four bytes, so the byte count rules out long responses without decoding them.
+      if (body.byteLength() < 800 && body.length() < 200) {
+        Matcher m = GenericRequest.JS_REDIRECT_PATTERN.matcher(body);
+        if (m.find()) {
+          redirect = m.group(1);
+        }
       }
-      return true;
-    }
 
-    if (this.shouldUpdateDebugLog()) {
-      RequestLogger.updateDebugLog("ResponseText has " + responseText.length() + " characters.");
-    }
+      // processResponse and most of its parsers read responseText directly, so it is still built
+      // here rather than on demand.
+      this.responseText = body.toString();
 
-    if (this.responseText.length() < 200) {
-      // This may be a JavaScript redirect.
-      Matcher m = GenericRequest.JS_REDIRECT_PATTERN.matcher(this.responseText);
-      if (m.find()) {
-        // Do NOT call processResults for a redirection
-        // But do log the redirection
+      if (redirect == null) {
         if (this.shouldUpdateDebugLog()) {
-          RequestLogger.updateDebugLog(this.responseText);
+          RequestLogger.updateDebugLog(
+              "ResponseText has " + responseText.length() + " characters.");
+        }
+
+        try {
+          PreferenceListenerRegistry.deferPreferenceListeners(true);
+          this.responseView = body;
+          this.processResponse();
+        } catch (Exception e) {
+          StaticEntity.printStackTrace(e);
+        } finally {
+          this.responseView = null;
+          PreferenceListenerRegistry.deferPreferenceListeners(false);
         }
-        this.redirectLocation = m.group(1);
-        this.redirectMethod = "GET";
-        return this.handleServerRedirect();
       }
+    } finally {
+      body.release();
     }
 
-    try {
-      PreferenceListenerRegistry.deferPreferenceListeners(true);
-      this.processResponse();
-    } catch (Exception e) {
-      StaticEntity.printStackTrace(e);
-    } finally {
-      PreferenceListenerRegistry.deferPreferenceListeners(false);
+    if (redirect != null) {
+      // Do NOT call processResults for a redirection
+      // But do log the redirection
+      if (this.shouldUpdateDebugLog()) {
+        RequestLogger.updateDebugLog(this.responseText);
+      }
+      this.redirectLocation = redirect;
+      this.redirectMethod = "GET";
+      return this.handleServerRedirect();
     }
 
     return true;
   }
 
+  /**
+   * Returns the response text for parsers which only need to read it. While the response is being
+   * processed this is the buffer it was read into, which matches without the copies that
+   * substrings of responseText would make. Once processing is over, or if responseText has been
+   * replaced, it is responseText itself.
+   */
+  public CharSequence getResponseView() {
+    ResponseBuffer view = this.responseView;
+    if (view != null && this.responseText != null && view.toString() == this.responseText) {
+      return view;
+    }
+    return this.responseText;
+  }
+
   /** This method allows classes to process a raw, unfiltered server response. */
   public void processResponse() {
     if (this.responseText == null) {
@@ -2228,7 +2268,9 @@ public class GenericRequest implements Runnable {
 
     if (this.hasResult) {
       long initialHP = KoLCharacter.getCurrentHP();
+      long resultsStart = System.nanoTime();
       this.parseResults();
+      PageTimings.record(this, Phase.RESULTS, resultsStart);
 
       if (initialHP != 0 && KoLCharacter.getCurrentHP() == 0) {
         KoLConstants.activeEffects.remove(KoLAdventure.BEATEN_UP);
@@ -385,6 +385,7 @@ public class MallSearchRequest extends GenericRequest {
   private static final Pattern STOREDETAIL_PATTERN =
       Pattern.compile("<tr class=\"graybelow.+?</tr>", Pattern.DOTALL);
   private static final Pattern LISTQUANTITY_PATTERN = Pattern.compile("stock\">([\\d,]+)<");
+  private static final Pattern LIMITED_PATTERN = Pattern.compile("graybelow limited");
   private static final Pattern LISTLIMIT_PATTERN =
       Pattern.compile("([\\d,]+)\\&nbsp;\\/\\&nbsp;day");
   private static final Pattern LISTDETAIL_PATTERN =
@@ -404,11 +405,14 @@ public class MallSearchRequest extends GenericRequest {
     // been greyed out), and then remove all non-anchor tags to
     // make everything easy to parse.
 
-    int startIndex = this.responseText.indexOf("Search Results:");
-    String storeListResult = this.responseText.substring(Math.max(startIndex, 0));
+    // Search results can run to hundreds of kilobytes, so match against the response view, and
+    // confine each matcher to the part of the page it is parsing rather than copying that out.
+    CharSequence page = this.getResponseView();
+    int startIndex = Math.max(this.responseText.indexOf("Search Results:"), 0);
 
     int previousItemId = -1;
-    Matcher itemMatcher = MallSearchRequest.ITEMDETAIL_PATTERN.matcher(storeListResult);
+    Matcher itemMatcher =
+        MallSearchRequest.ITEMDETAIL_PATTERN.matcher(page).region(startIndex, page.length());
     while (itemMatcher.find()) {
       int itemId = StringUtilities.parseInt(itemMatcher.group(1));
       String itemName = itemMatcher.group(3).trim();
@@ -417,12 +421,16 @@ public class MallSearchRequest extends GenericRequest {
         ItemDatabase.registerItem(itemId, itemName, descId);
       }
 
-      String itemListResult = itemMatcher.group(4);
-      Matcher linkMatcher = MallSearchRequest.STOREDETAIL_PATTERN.matcher(itemListResult);
+      Matcher linkMatcher =
+          MallSearchRequest.STOREDETAIL_PATTERN
+              .matcher(page)
+              .region(itemMatcher.start(4), itemMatcher.end(4));
 
       while (linkMatcher.find()) {
-        String linkText = linkMatcher.group();
-        Matcher quantityMatcher = MallSearchRequest.LISTQUANTITY_PATTERN.matcher(linkText);
+        int linkStart = linkMatcher.start();
+        int linkEnd = linkMatcher.end();
+        Matcher quantityMatcher =
+            MallSearchRequest.LISTQUANTITY_PATTERN.matcher(page).region(linkStart, linkEnd);
         int quantity = 0;
 
         if (quantityMatcher.find()) {
@@ -432,17 +440,20 @@ public class MallSearchRequest extends GenericRequest {
         int limit = quantity;
         boolean canPurchase = true;
 
-        Matcher limitMatcher = MallSearchRequest.LISTLIMIT_PATTERN.matcher(linkText);
+        Matcher limitMatcher =
+            MallSearchRequest.LISTLIMIT_PATTERN.matcher(page).region(linkStart, linkEnd);
         if (limitMatcher.find()) {
           limit = StringUtilities.parseInt(limitMatcher.group(1));
-          canPurchase = linkText.indexOf("graybelow limited") == -1;
+          canPurchase =
+              !MallSearchRequest.LIMITED_PATTERN.matcher(page).region(linkStart, linkEnd).find();
         }
 
         // The next token contains data which identifies the shop
         // and the item (which will be used later), and the price!
         // which means you don't need to consult the next token.
 
-        Matcher detailsMatcher = MallSearchRequest.LISTDETAIL_PATTERN.matcher(linkText);
+        Matcher detailsMatcher =
+            MallSearchRequest.LISTDETAIL_PATTERN.matcher(page).region(linkStart, linkEnd);
         if (!detailsMatcher.find()) {
           continue;
         }
@@ -479,22 +490,27 @@ public class MallSearchRequest extends GenericRequest {
   public List<Integer> extractShopIds(int itemId) {
     List<Integer> shopIds = new ArrayList<>();
 
-    int startIndex = this.responseText.indexOf("Search Results:");
-    String storeListResult = this.responseText.substring(Math.max(startIndex, 0));
+    CharSequence page = this.getResponseView();
+    int startIndex = Math.max(this.responseText.indexOf("Search Results:"), 0);
 
-    Matcher itemMatcher = MallSearchRequest.ITEMDETAIL_PATTERN.matcher(storeListResult);
+    Matcher itemMatcher =
+        MallSearchRequest.ITEMDETAIL_PATTERN.matcher(page).region(startIndex, page.length());
     while (itemMatcher.find()) {
       int foundItemId = StringUtilities.parseInt(itemMatcher.group(1));
       if (foundItemId != itemId) {
         continue;
       }
 
-      String itemListResult = itemMatcher.group(4);
-      Matcher linkMatcher = MallSearchRequest.STOREDETAIL_PATTERN.matcher(itemListResult);
+      Matcher linkMatcher =
+          MallSearchRequest.STOREDETAIL_PATTERN
+              .matcher(page)
+              .region(itemMatcher.start(4), itemMatcher.end(4));
 
       while (linkMatcher.find()) {
-        String linkText = linkMatcher.group();
-        Matcher detailsMatcher = MallSearchRequest.LISTDETAIL_PATTERN.matcher(linkText);
+        Matcher detailsMatcher =
+            MallSearchRequest.LISTDETAIL_PATTERN
+                .matcher(page)
+                .region(linkMatcher.start(), linkMatcher.end());
         if (!detailsMatcher.find()) {
           continue;
         }
@@ -78,6 +78,7 @@ import net.sourceforge.kolmafia.session.EquipmentRequirement;
 import net.sourceforge.kolmafia.session.InventoryManager;
 import net.sourceforge.kolmafia.session.IslandManager;
 import net.sourceforge.kolmafia.session.LightsOutManager;
+import net.sourceforge.kolmafia.session.PageTimings;
 import net.sourceforge.kolmafia.session.SorceressLairManager;
 import net.sourceforge.kolmafia.session.TavernManager;
 import net.sourceforge.kolmafia.session.TurnCounter;
@@ -122,6 +123,10 @@ public class RelayRequest extends PasswordHashRequest {
   public Set<ServerCookie> serverCookies = null;
   public String cookies = null;
   public byte[] rawByteBuffer = null;
+
+  // When set, local images and binary relay files are left on disk for the relay agent to send
+  public boolean streamLocalFiles = false;
+  public File localFile = null;
   public String contentType = null;
   public long lastModified = 0;
   public String statusLine = "HTTP/1.1 302 Found";
@@ -229,6 +234,7 @@ public class RelayRequest extends PasswordHashRequest {
     super.constructURLString(newURLString, usePostMethod, encoded);
 
     this.rawByteBuffer = null;
+    this.localFile = null;
     this.headers.clear();
 
     String path = this.getBasePath();
@@ -696,7 +702,11 @@ public class RelayRequest extends PasswordHashRequest {
     }
 
     this.lastModified = imageFile.lastModified();
-    this.rawByteBuffer = ByteBufferUtilities.read(imageFile);
+    if (this.streamLocalFiles) {
+      this.localFile = imageFile;
+    } else {
+      this.rawByteBuffer = ByteBufferUtilities.read(imageFile);
+    }
     this.headers.add("Access-Control-Allow-Origin: *");
     this.pseudoResponse("HTTP/1.1 200 OK", "");
   }
@@ -742,10 +752,14 @@ public class RelayRequest extends PasswordHashRequest {
 
     // If it's a binary file, send it back without loading it as a string.
     if (!this.contentType.startsWith("text/") && !this.contentType.equals("application/json")) {
-      this.rawByteBuffer = ByteBufferUtilities.read(override);
-      if (this.rawByteBuffer.length == 0) {
-        this.sendNotFound();
-        return;
+      if (this.streamLocalFiles && override.length() > 0) {
+        this.localFile = override;
+      } else {
+        this.rawByteBuffer = ByteBufferUtilities.read(override);
+        if (this.rawByteBuffer.length == 0) {
+          this.sendNotFound();
+          return;
+        }
       }
       this.statusLine = "HTTP/1.1 200 OK";
       this.responseCode = 200;
@@ -3499,6 +3513,11 @@ public class RelayRequest extends PasswordHashRequest {
       }
     } else if (path.endsWith("jsonApi")) {
       this.handleJsonApi(this.getFormField("body"));
+    } else if (path.endsWith("pageTimings")) {
+      this.statusLine = "HTTP/1.1 200 OK";
+      this.contentType = "application/json";
+      this.responseCode = 200;
+      this.responseText = JSON.toJSONString(PageTimings.getSummary());
     } else if (path.endsWith("logout")) {
       submitCommand("logout");
       this.pseudoResponse("HTTP/1.1 302 Found", "/loggedout.php");
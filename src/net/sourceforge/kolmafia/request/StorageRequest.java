@@ -1,10 +1,10 @@
 package net.sourceforge.kolmafia.request;
 
-import com.alibaba.fastjson2.JSONException;
-import com.alibaba.fastjson2.JSONObject;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -121,54 +121,44 @@ public class StorageRequest extends TransferItemRequest {
     RequestThread.postRequest(new StorageRequest(StorageRequestType.EMPTY_STORAGE));
   }
 
-  public static final void parseStorage(final JSONObject json) {
-    if (json == null) {
+  public static final void parseStorage(final Map<Integer, Integer> counts) {
+    if (counts == null) {
       return;
     }
 
-    ArrayList<AdventureResult> items = new ArrayList<>();
-    ArrayList<AdventureResult> freepulls = new ArrayList<>();
-    ArrayList<AdventureResult> nopulls = new ArrayList<>();
-
-    try {
-      // {"1":"1","2":"1" ... }
-      for (String key : json.keySet()) {
-        int itemId = StringUtilities.parseInt(key);
-        int count = json.getIntValue(key);
-        String name = ItemDatabase.getItemDataName(itemId);
-        if (name == null) {
-          // api.php?what=item does not work for
-          // items in storage:
-          // "You don't own that item."
-          // ItemDatabase.registerItem( itemId );
-          continue;
-        }
+    Map<Integer, Integer> items = new HashMap<>();
+    Map<Integer, Integer> freepulls = new HashMap<>();
+    Map<Integer, Integer> nopulls = new HashMap<>();
 
-        AdventureResult item = ItemPool.get(itemId, count);
-        List<AdventureResult> list =
-            KoLCharacter.canInteract()
-                ? items
-                : StorageRequest.isFreePull(item)
-                    ? freepulls
-                    : StorageRequest.isNoPull(item) ? nopulls : items;
-        list.add(item);
+    for (var entry : counts.entrySet()) {
+      int itemId = entry.getKey();
+      int count = entry.getValue();
+      String name = ItemDatabase.getItemDataName(itemId);
+      if (name == null) {
+        // api.php?what=item does not work for
+        // items in storage:
+        // "You don't own that item."
+        // ItemDatabase.registerItem( itemId );
+        continue;
       }
-    } catch (JSONException e) {
-      ApiRequest.reportParseError("storage", json.toString(), e);
-      return;
-    }
 
-    KoLConstants.storage.clear();
-    KoLConstants.storage.addAll(items);
-
-    KoLConstants.freepulls.clear();
-    KoLConstants.freepulls.addAll(freepulls);
-
-    KoLConstants.nopulls.clear();
-    KoLConstants.nopulls.addAll(nopulls);
-
-    if (InventoryManager.canUseStorage()) {
-      ConcoctionDatabase.refreshConcoctions();
+      AdventureResult item = ItemPool.get(itemId, count);
+      Map<Integer, Integer> list =
+          KoLCharacter.canInteract()
+              ? items
+              : StorageRequest.isFreePull(item)
+                  ? freepulls
+                  : StorageRequest.isNoPull(item) ? nopulls : items;
+      list.put(itemId, count);
+    }
+
+    Set<Integer> changed = new HashSet<>();
+    InventoryManager.updateItemList(KoLConstants.storage, items, changed);
+    InventoryManager.updateItemList(KoLConstants.freepulls, freepulls, changed);
+    InventoryManager.updateItemList(KoLConstants.nopulls, nopulls, changed);
+
+    if (!changed.isEmpty() && InventoryManager.canUseStorage()) {
+      InventoryManager.refreshConcoctions(changed);
     }
   }
 
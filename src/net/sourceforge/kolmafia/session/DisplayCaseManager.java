@@ -151,7 +151,7 @@ public abstract class DisplayCaseManager {
     RequestThread.postRequest(new DisplayCaseRequest(newItems, newShelves));
   }
 
-  public static final void update(final String data) {
+  public static final void update(final CharSequence data) {
     DisplayCaseManager.updateShelves(data);
 
     ArrayList<AdventureResult> items = new ArrayList<>();
@@ -193,12 +193,15 @@ public abstract class DisplayCaseManager {
     DisplayCaseManager.collectionRetrieved = true;
   }
 
-  private static void updateShelves(final String data) {
+  private static void updateShelves(final CharSequence data) {
     DisplayCaseManager.clearCache();
 
     Matcher caseMatcher = DisplayCaseManager.SHELVES_PATTERN.matcher(data);
     if (caseMatcher.find()) {
-      Matcher shelfMatcher = DisplayCaseManager.SHELF_PATTERN.matcher(caseMatcher.group(1));
+      Matcher shelfMatcher =
+          DisplayCaseManager.SHELF_PATTERN
+              .matcher(data)
+              .region(caseMatcher.start(1), caseMatcher.end(1));
       while (shelfMatcher.find()) {
         int shelf = StringUtilities.parseInt(shelfMatcher.group(1));
         String name = CharacterEntities.unescape(shelfMatcher.group(2));
@@ -1,10 +1,9 @@
 package net.sourceforge.kolmafia.session;
 
-import com.alibaba.fastjson2.JSONException;
-import com.alibaba.fastjson2.JSONObject;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -69,7 +68,6 @@ import net.sourceforge.kolmafia.swingui.GenericFrame;
 import net.sourceforge.kolmafia.textui.ScriptRuntime;
 import net.sourceforge.kolmafia.textui.parsetree.Value;
 import net.sourceforge.kolmafia.utilities.InputFieldUtilities;
-import net.sourceforge.kolmafia.utilities.StringUtilities;
 
 @SuppressWarnings("incomplete-switch")
 public abstract class InventoryManager {
@@ -92,53 +90,101 @@ public abstract class InventoryManager {
     KoLCharacter.recalculateAdjustments();
   }
 
-  public static final void parseInventory(final JSONObject json) {
-    if (json == null) {
+  public static final void parseInventory(final Map<Integer, Integer> counts) {
+    if (counts == null) {
       return;
     }
 
-    List<AdventureResult> items = new ArrayList<>();
-    List<AdventureResult> unlimited = new ArrayList<>();
+    Map<Integer, Integer> items = new HashMap<>();
+    Map<Integer, Integer> unlimited = new HashMap<>();
 
-    try {
-      // {"1":"1","2":"1" ... }
-      for (String key : json.keySet()) {
-        int itemId = StringUtilities.parseInt(key);
-        int count = json.getIntValue(key);
-        String name = ItemDatabase.getItemDataName(itemId);
-        if (name == null) {
-          // Fetch descid from api.php?what=item
-          // and register new item.
-          ItemDatabase.registerItem(itemId);
-        }
+    for (var entry : counts.entrySet()) {
+      int itemId = entry.getKey();
+      int count = entry.getValue();
+      String name = ItemDatabase.getItemDataName(itemId);
+      if (name == null) {
+        // Fetch descid from api.php?what=item
+        // and register new item.
+        ItemDatabase.registerItem(itemId);
+      }
 
-        if (KoLCharacter.getLimitMode().limitItem(itemId)) {
-          unlimited.add(ItemPool.get(itemId, count));
-        } else {
-          items.add(ItemPool.get(itemId, count));
-          switch (itemId) {
-            case ItemPool.BOOMBOX:
-              if (!Preferences.getString("boomBoxSong").equals("")) {
-                KoLCharacter.addAvailableSkill(SkillPool.SING_ALONG);
-              }
-              break;
-          }
+      if (KoLCharacter.getLimitMode().limitItem(itemId)) {
+        unlimited.put(itemId, count);
+      } else {
+        items.put(itemId, count);
+        switch (itemId) {
+          case ItemPool.BOOMBOX:
+            if (!Preferences.getString("boomBoxSong").equals("")) {
+              KoLCharacter.addAvailableSkill(SkillPool.SING_ALONG);
+            }
+            break;
         }
       }
-    } catch (JSONException e) {
-      ApiRequest.reportParseError("inventory", json.toString(), e);
+    }
+
+    Set<Integer> changed = new HashSet<>();
+    InventoryManager.updateItemList(KoLConstants.inventory, items, changed);
+    InventoryManager.updateItemList(KoLConstants.unlimited, unlimited, changed);
+    if (changed.isEmpty()) {
       return;
     }
 
-    KoLConstants.inventory.clear();
-    KoLConstants.inventory.addAll(items);
-    KoLConstants.unlimited.clear();
-    KoLConstants.unlimited.addAll(unlimited);
     EquipmentManager.updateEquipmentLists();
-    ConcoctionDatabase.refreshConcoctions();
+    InventoryManager.refreshConcoctions(changed);
     PreferenceListenerRegistry.firePreferenceChanged("(hats)");
   }
 
+  /**
+   * Makes a list of items hold exactly the given counts. Only the items whose count has changed
+   * are replaced, so an unchanged list fires no events, and their ids are added to changed.
+   */
+  public static final void updateItemList(
+      final List<AdventureResult> list,
+      final Map<Integer, Integer> counts,
+      final Set<Integer> changed) {
+    Map<Integer, Integer> current = new HashMap<>();
+    List<AdventureResult> removed = new ArrayList<>();
+
+    for (AdventureResult item : list.toArray(new AdventureResult[0])) {
+      int itemId = item.getItemId();
+      current.put(itemId, item.getCount());
+      Integer count = counts.get(itemId);
+      if (count == null || count != item.getCount()) {
+        removed.add(item);
+        changed.add(itemId);
+      }
+    }
+
+    List<AdventureResult> added = new ArrayList<>();
+    for (var entry : counts.entrySet()) {
+      int itemId = entry.getKey();
+      int count = entry.getValue();
+      Integer have = current.get(itemId);
+      if (have == null || have != count) {
+        added.add(ItemPool.get(itemId, count));
+        changed.add(itemId);
+      }
+    }
+
+    for (AdventureResult item : removed) {
+      list.remove(item);
+    }
+    if (!added.isEmpty()) {
+      list.addAll(added);
+    }
+  }
+
+  /**
+   * Marks the concoctions which use any of the given items as needing a refresh, and does it. Items
+   * which stand in for others, such as interchangeable ingredients, refresh every concoction.
+   */
+  public static final void refreshConcoctions(final Set<Integer> changed) {
+    for (int itemId : changed) {
+      ConcoctionDatabase.setRefreshNeeded(itemId);
+    }
+    ConcoctionDatabase.refreshConcoctions(false);
+  }
+
   public static final int getCount(final int itemId) {
     return InventoryManager.getCount(ItemPool.get(itemId, 1));
   }
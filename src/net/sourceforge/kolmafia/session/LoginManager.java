@@ -403,6 +403,9 @@ public class LoginManager {
     AdventureQueueDatabase.deserialize();
     AdventureSpentDatabase.deserialize();
 
+    // Load mall prices found in earlier sessions
+    MallPriceManager.loadCache();
+
     // Reset all per-player information
 
     ChatManager.reset();
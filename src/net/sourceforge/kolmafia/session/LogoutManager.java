@@ -133,6 +133,9 @@ public class LogoutManager {
     AdventureQueueDatabase.serialize();
     AdventureSpentDatabase.serialize();
 
+    // Save mall prices for the next session
+    MallPriceManager.saveCache();
+
     // Log the user session is ending
 
     RequestLogger.updateSessionLog();
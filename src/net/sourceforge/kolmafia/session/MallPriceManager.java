@@ -1,25 +1,39 @@
 package net.sourceforge.kolmafia.session;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
 import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumSet;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
 import java.util.stream.Collectors;
+import net.java.dev.spellcast.utilities.DataUtilities;
 import net.sourceforge.kolmafia.AdventureResult;
+import net.sourceforge.kolmafia.KoLCharacter;
 import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.KoLmafia;
 import net.sourceforge.kolmafia.RequestLogger;
 import net.sourceforge.kolmafia.RequestThread;
+import net.sourceforge.kolmafia.StaticEntity;
 import net.sourceforge.kolmafia.objectpool.ItemPool;
 import net.sourceforge.kolmafia.persistence.ItemDatabase;
+import net.sourceforge.kolmafia.persistence.ItemDatabase.Attribute;
 import net.sourceforge.kolmafia.persistence.MallPriceDatabase;
 import net.sourceforge.kolmafia.persistence.NPCStoreDatabase;
 import net.sourceforge.kolmafia.preferences.Preferences;
@@ -28,6 +42,8 @@ import net.sourceforge.kolmafia.request.GenericRequest;
 import net.sourceforge.kolmafia.request.MallPurchaseRequest;
 import net.sourceforge.kolmafia.request.MallSearchRequest;
 import net.sourceforge.kolmafia.request.PurchaseRequest;
+import net.sourceforge.kolmafia.utilities.FileUtilities;
+import net.sourceforge.kolmafia.utilities.StringUtilities;
 
 public abstract class MallPriceManager {
 
@@ -132,11 +148,49 @@ public abstract class MallPriceManager {
 
   // The data structures that this package "manages".
 
+  // A map which forgets its least recently used entries once it holds more than its limit.
+  private static class BoundedMap<K, V> extends LinkedHashMap<K, V> {
+    private final IntSupplier limit;
+    private long evictions = 0;
+
+    BoundedMap(final IntSupplier limit) {
+      super(16, 0.75f, true);
+      this.limit = limit;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+      if (this.size() <= this.limit.getAsInt()) {
+        return false;
+      }
+      ++this.evictions;
+      return true;
+    }
+  }
+
+  // A mall price, and when we found it
+  private record CachedPrice(long price, long timestamp) {}
+
   // a Map from itemId -> current mall price (as visible to a scripter.)
-  private static final Map<Integer, Long> mallPrices = new HashMap<>();
+  private static final BoundedMap<Integer, CachedPrice> priceCache =
+      new BoundedMap<>(() -> MallPriceManager.MALL_PRICE_CACHE_SIZE);
+  private static final Map<Integer, CachedPrice> mallPrices =
+      Collections.synchronizedMap(priceCache);
 
   // a Map from itemId -> the most resent mall search results.
-  private static final Map<Integer, List<PurchaseRequest>> mallSearches = new HashMap<>();
+  private static final Map<Integer, List<PurchaseRequest>> mallSearches =
+      Collections.synchronizedMap(
+          new BoundedMap<>(() -> MallPriceManager.MALL_SEARCH_CACHE_SIZE));
+
+  // If false, blocks saving of the price cache. Do not modify outside of tests. This is separate
+  // from MallPriceDatabase.savePricesToFile: that shared price file is written as prices come in,
+  // while this per-character cache is only written at logout.
+  public static boolean saveCacheToFile = true;
+
+  // How the price cache has been doing, for scripts which want to know
+  private static final AtomicLong cacheHits = new AtomicLong();
+  private static final AtomicLong cacheMisses = new AtomicLong();
+  private static final AtomicLong cacheExpired = new AtomicLong();
 
   // Constants controlling how we manage those data
 
@@ -158,10 +212,123 @@ public abstract class MallPriceManager {
   // How many seconds before a before a "saved search" is "stale"
   public static int MALL_SEARCH_FRESHNESS = 60;
 
+  // How many seconds before a cached mall price is "stale". Prices are saved across sessions, so
+  // this is what keeps yesterday's prices from being used today.
+  public static int MALL_PRICE_FRESHNESS = 24 * 60 * 60;
+
+  // How many mall prices and saved searches to keep. The least recently used are forgotten first.
+  public static int MALL_PRICE_CACHE_SIZE = 10000;
+  public static int MALL_SEARCH_CACHE_SIZE = 1000;
+
+  // KoL shows this many items per page of a category search
+  private static final int CATEGORY_ITEMS_PER_PAGE = 30;
+
   // For testing
   public static void reset() {
     mallPrices.clear();
     mallSearches.clear();
+    synchronized (mallPrices) {
+      priceCache.evictions = 0;
+    }
+    cacheHits.set(0);
+    cacheMisses.set(0);
+    cacheExpired.set(0);
+  }
+
+  // Returns the cached price of an item, or 0 if it has none or it is stale.
+  private static long getCachedPrice(final int itemId) {
+    CachedPrice cached = MallPriceManager.mallPrices.get(itemId);
+    if (cached == null) {
+      MallPriceManager.cacheMisses.incrementAndGet();
+      return 0;
+    }
+
+    long freshnessLimit = MallPriceManager.currentTimeMillis() - MALL_PRICE_FRESHNESS * 1000L;
+    if (cached.timestamp() < freshnessLimit) {
+      MallPriceManager.mallPrices.remove(itemId);
+      MallPriceManager.cacheExpired.incrementAndGet();
+      MallPriceManager.cacheMisses.incrementAndGet();
+      return 0;
+    }
+
+    MallPriceManager.cacheHits.incrementAndGet();
+    return cached.price();
+  }
+
+  private static long peekCachedPrice(final int itemId) {
+    CachedPrice cached = MallPriceManager.mallPrices.get(itemId);
+    return cached == null ? 0 : cached.price();
+  }
+
+  /** Returns the hits, misses, expirations, evictions and size of the mall price cache. */
+  public static Map<String, Long> getCacheStatistics() {
+    Map<String, Long> stats = new TreeMap<>();
+    stats.put("hits", MallPriceManager.cacheHits.get());
+    stats.put("misses", MallPriceManager.cacheMisses.get());
+    stats.put("expired", MallPriceManager.cacheExpired.get());
+    synchronized (MallPriceManager.mallPrices) {
+      stats.put("evictions", MallPriceManager.priceCache.evictions);
+      stats.put("size", (long) MallPriceManager.priceCache.size());
+    }
+    stats.put("searches", (long) MallPriceManager.mallSearches.size());
+    return stats;
+  }
+
+  private static File getCacheFile() {
+    return new File(KoLConstants.DATA_LOCATION, KoLCharacter.baseUserName() + "_mallcache.txt");
+  }
+
+  /** Loads the mall prices saved by the last session which are not yet stale. */
+  public static void loadCache() {
+    File file = MallPriceManager.getCacheFile();
+    if (!file.exists()) {
+      return;
+    }
+
+    long freshnessLimit = MallPriceManager.currentTimeMillis() - MALL_PRICE_FRESHNESS * 1000L;
+    try (BufferedReader reader = FileUtilities.getReader(file)) {
+      String[] data;
+      while ((data = FileUtilities.readData(reader)) != null) {
+        if (data.length < 3) {
+          continue;
+        }
+
+        int itemId = StringUtilities.parseInt(data[0]);
+        long timestamp = StringUtilities.parseLong(data[1]);
+        long price = StringUtilities.parseLong(data[2]);
+        if (itemId < 1 || price == 0 || timestamp < freshnessLimit) {
+          continue;
+        }
+
+        MallPriceManager.mallPrices.putIfAbsent(itemId, new CachedPrice(price, timestamp));
+      }
+    } catch (IOException e) {
+      StaticEntity.printStackTrace(e);
+    }
+  }
+
+  /** Saves the cached mall prices, oldest first, so that the next session can use them. */
+  public static void saveCache() {
+    if (!MallPriceManager.saveCacheToFile) {
+      return;
+    }
+
+    List<Entry<Integer, CachedPrice>> entries;
+    synchronized (MallPriceManager.mallPrices) {
+      entries = new ArrayList<>(MallPriceManager.mallPrices.entrySet());
+    }
+    entries.sort((a, b) -> Long.compare(a.getValue().timestamp(), b.getValue().timestamp()));
+
+    try (PrintStream writer =
+        new PrintStream(
+            new BufferedOutputStream(
+                DataUtilities.getOutputStream(MallPriceManager.getCacheFile())),
+            false)) {
+      for (Entry<Integer, CachedPrice> entry : entries) {
+        CachedPrice cached = entry.getValue();
+        writer.println(entry.getKey() + "\t" + cached.timestamp() + "\t" + cached.price());
+      }
+    }
   }
 
   private static boolean removeShopPurchaseRequest(
@@ -193,15 +360,17 @@ public abstract class MallPriceManager {
     }
 
     // Remove shop from search results for all items
-    Iterator<Entry<Integer, List<PurchaseRequest>>> i =
-        MallPriceManager.mallSearches.entrySet().iterator();
-    while (i.hasNext()) {
-      Entry<Integer, List<PurchaseRequest>> entry = i.next();
-      int key = entry.getKey();
-      List<PurchaseRequest> search = entry.getValue();
-      if (MallPriceManager.removeShopPurchaseRequest(key, shopId, search)) {
-        if (search.size() == 0) {
-          i.remove();
+    synchronized (MallPriceManager.mallSearches) {
+      Iterator<Entry<Integer, List<PurchaseRequest>>> i =
+          MallPriceManager.mallSearches.entrySet().iterator();
+      while (i.hasNext()) {
+        Entry<Integer, List<PurchaseRequest>> entry = i.next();
+        int key = entry.getKey();
+        List<PurchaseRequest> search = entry.getValue();
+        if (MallPriceManager.removeShopPurchaseRequest(key, shopId, search)) {
+          if (search.size() == 0) {
+            i.remove();
+          }
         }
       }
     }
@@ -211,7 +380,11 @@ public abstract class MallPriceManager {
   // disabled status, reset save mall prices to force new mall searchs
   public static final void resetMallPrices(final int shopId) {
     // Reset saved mall prices for all items with this shopId
-    for (List<PurchaseRequest> search : new ArrayList<>(mallSearches.values())) {
+    List<List<PurchaseRequest>> searches;
+    synchronized (mallSearches) {
+      searches = new ArrayList<>(mallSearches.values());
+    }
+    for (List<PurchaseRequest> search : searches) {
       for (PurchaseRequest request : search) {
         if (request instanceof MallPurchaseRequest mpr) {
           if (shopId == mpr.getShopId()) {
@@ -228,7 +401,7 @@ public abstract class MallPriceManager {
     List<PurchaseRequest> search = MallPriceManager.mallSearches.get(itemId);
     if (search != null) {
       MallPriceManager.mallSearches.remove(itemId);
-      MallPriceManager.mallPrices.put(itemId, 0L);
+      MallPriceManager.mallPrices.remove(itemId);
     }
   }
 
@@ -473,7 +646,8 @@ public abstract class MallPriceManager {
     }
 
     long price = MallPriceManager.nthCheapestPrice(NTH_CHEAPEST_COUNT, results);
-    MallPriceManager.mallPrices.put(itemId, price);
+    MallPriceManager.mallPrices.put(
+        itemId, new CachedPrice(price, MallPriceManager.currentTimeMillis()));
     if (price > 0) {
       MallPriceDatabase.recordPrice(itemId, price, deferred);
     }
@@ -501,12 +675,16 @@ public abstract class MallPriceManager {
       return 0;
     }
 
-    long price = MallPriceManager.mallPrices.getOrDefault(itemId, 0L);
+    long price = MallPriceManager.getCachedPrice(itemId);
 
     if (price == 0L) {
       AdventureResult search = ItemPool.get(itemId, NTH_CHEAPEST_COUNT);
-      MallPriceManager.searchMall(search);
-      price = MallPriceManager.mallPrices.getOrDefault(itemId, 0L);
+      List<PurchaseRequest> results = MallPriceManager.searchMall(search);
+      price = MallPriceManager.peekCachedPrice(itemId);
+      if (price == 0L) {
+        // The price was forgotten, but the search it came from was not
+        price = MallPriceManager.updateMallPrice(itemId, results);
+      }
     }
 
     return price;
@@ -626,11 +804,56 @@ public abstract class MallPriceManager {
     return price;
   }
 
+  // Returns the mall category an item is listed under, or null if we can't tell
+
+  public static String getMallCategory(final int itemId) {
+    if (ItemDatabase.isHat(itemId)) return "hats";
+    if (ItemDatabase.isShirt(itemId)) return "shirts";
+    if (ItemDatabase.isContainer(itemId)) return "container";
+    if (ItemDatabase.isPants(itemId)) return "pants";
+    if (ItemDatabase.isAccessory(itemId)) return "acc";
+    if (ItemDatabase.isOffHand(itemId)) return "offhand";
+    if (ItemDatabase.isWeapon(itemId)) return "weapons";
+    if (ItemDatabase.isFamiliarEquipment(itemId)) return "famequip";
+    if (ItemDatabase.isFood(itemId)) return "food";
+    if (ItemDatabase.isBooze(itemId)) return "booze";
+    if (ItemDatabase.isSpleen(itemId)) return "othercon";
+    if (ItemDatabase.isFamiliarHatchling(itemId)) return "familiars";
+    if (ItemDatabase.isPotion(itemId)) return "potions";
+    boolean combat =
+        ItemDatabase.getAttribute(itemId, EnumSet.of(Attribute.COMBAT, Attribute.COMBAT_REUSABLE));
+    return combat ? "combat" : null;
+  }
+
+  // How many tradeable items are listed under each category
+  private static final Map<String, Integer> categorySizes = new ConcurrentHashMap<>();
+
+  private static int categoryPages(final String category) {
+    int size =
+        MallPriceManager.categorySizes.computeIfAbsent(
+            category,
+            c -> {
+              int count = 0;
+              for (int itemId = 1; itemId <= ItemDatabase.maxItemId(); ++itemId) {
+                if (ItemDatabase.isTradeable(itemId) && c.equals(getMallCategory(itemId))) {
+                  ++count;
+                }
+              }
+              return count;
+            });
+    return (size + CATEGORY_ITEMS_PER_PAGE - 1) / CATEGORY_ITEMS_PER_PAGE;
+  }
+
+  // Refresh the prices of all the items which don't have a recent enough price. Items which share
+  // a mall category are found with a single category search, if that takes fewer pages than
+  // searching for each of them; the rest are searched for one at a time.
+
   public static int getMallPrices(AdventureResult[] items, float maxAge) {
     // Count how many items we retrieved
     int count = 0;
 
     try {
+      Set<Integer> stale = new LinkedHashSet<>();
       for (AdventureResult item : items) {
         int itemId = item.getItemId();
         if (!validMallItem(itemId)) {
@@ -640,15 +863,43 @@ public abstract class MallPriceManager {
         if (price > 0 && MallPriceDatabase.getAge(itemId) <= maxAge) {
           continue;
         }
-        if (MallPriceManager.mallPrices.getOrDefault(itemId, 0L) == 0) {
-          AdventureResult search = item.getInstance(NTH_CHEAPEST_COUNT);
-          List<PurchaseRequest> results = MallPriceManager.searchMall(search);
-          MallPriceManager.flushCache(itemId);
-          MallPriceManager.updateMallPrice(itemId, results, true);
-          MallPriceManager.mallSearches.put(itemId, results);
-          ++count;
+        if (MallPriceManager.getCachedPrice(itemId) == 0) {
+          stale.add(itemId);
+        }
+      }
+
+      Map<String, List<Integer>> byCategory = new TreeMap<>();
+      for (int itemId : stale) {
+        String category = MallPriceManager.getMallCategory(itemId);
+        if (category != null) {
+          byCategory.computeIfAbsent(category, k -> new ArrayList<>()).add(itemId);
         }
       }
+
+      for (var entry : byCategory.entrySet()) {
+        List<Integer> itemIds = entry.getValue();
+        if (MallPriceManager.categoryPages(entry.getKey()) >= itemIds.size()) {
+          continue;
+        }
+        long now = MallPriceManager.currentTimeMillis();
+        MallPriceManager.searchCategory(entry.getKey(), "");
+        for (int itemId : itemIds) {
+          CachedPrice cached = MallPriceManager.mallPrices.get(itemId);
+          if (cached != null && cached.timestamp() >= now) {
+            stale.remove(itemId);
+            ++count;
+          }
+        }
+      }
+
+      for (int itemId : stale) {
+        AdventureResult search = ItemPool.get(itemId, NTH_CHEAPEST_COUNT);
+        List<PurchaseRequest> results = MallPriceManager.searchMall(search);
+        MallPriceManager.flushCache(itemId);
+        MallPriceManager.updateMallPrice(itemId, results, true);
+        MallPriceManager.mallSearches.put(itemId, results);
+        ++count;
+      }
     } finally {
       RequestLogger.printLine("Updating mallprices.txt with " + count + " prices.");
       MallPriceDatabase.writePrices();
@@ -662,6 +913,22 @@ public abstract class MallPriceManager {
   }
 
   public static int getMallPrices(String category, String tiers) {
+    // Count how many items we retrieved
+    int count = 0;
+
+    try {
+      count = MallPriceManager.searchCategory(category, tiers);
+    } finally {
+      if (count > 0) {
+        RequestLogger.printLine("Updating mallprices.txt with " + count + " prices.");
+        MallPriceDatabase.writePrices();
+      }
+    }
+
+    return count;
+  }
+
+  private static int searchCategory(String category, String tiers) {
     // Validate the category. KoL will accept any category, but unknown
     // categories are the same as "allItems"
     // That takes a long time - and if the caller really wants it, so be it -
@@ -687,46 +954,41 @@ public abstract class MallPriceManager {
     // Count how many items we retrieved
     int count = 0;
 
-    try {
-      // Iterate over results and handle by item
-      int itemId = -1;
-      List<PurchaseRequest> itemResults = null;
+    // Iterate over results and handle by item
+    int itemId = -1;
+    List<PurchaseRequest> itemResults = null;
 
-      for (PurchaseRequest pr : results) {
-        if (pr instanceof CoinMasterPurchaseRequest) {
-          continue;
-        }
-
-        int newItemId = pr.getItemId();
-        if (itemId != newItemId) {
-          // Handle previous item, if any
-          if (itemResults != null) {
-            MallPriceManager.flushCache(itemId);
-            Collections.sort(itemResults, PurchaseRequest.priceComparator);
-            MallPriceManager.updateMallPrice(itemId, itemResults, true);
-            MallPriceManager.mallSearches.put(itemId, itemResults);
-            ++count;
-          }
+    for (PurchaseRequest pr : results) {
+      if (pr instanceof CoinMasterPurchaseRequest) {
+        continue;
+      }
 
-          // Setup for new item
-          itemId = newItemId;
-          itemResults = new ArrayList<>();
+      int newItemId = pr.getItemId();
+      if (itemId != newItemId) {
+        // Handle previous item, if any
+        if (itemResults != null) {
+          MallPriceManager.flushCache(itemId);
+          Collections.sort(itemResults, PurchaseRequest.priceComparator);
+          MallPriceManager.updateMallPrice(itemId, itemResults, true);
+          MallPriceManager.mallSearches.put(itemId, itemResults);
+          ++count;
         }
 
-        itemResults.add(pr);
+        // Setup for new item
+        itemId = newItemId;
+        itemResults = new ArrayList<>();
       }
 
-      // Handle final item
-      if (itemResults != null) {
-        MallPriceManager.flushCache(itemId);
-        Collections.sort(itemResults, PurchaseRequest.priceComparator);
-        MallPriceManager.updateMallPrice(itemId, itemResults, true);
-        MallPriceManager.mallSearches.put(itemId, itemResults);
-        ++count;
-      }
-    } finally {
-      RequestLogger.printLine("Updating mallprices.txt with " + count + " prices.");
-      MallPriceDatabase.writePrices();
+      itemResults.add(pr);
+    }
+
+    // Handle final item
+    if (itemResults != null) {
+      MallPriceManager.flushCache(itemId);
+      Collections.sort(itemResults, PurchaseRequest.priceComparator);
+      MallPriceManager.updateMallPrice(itemId, itemResults, true);
+      MallPriceManager.mallSearches.put(itemId, itemResults);
+      ++count;
     }
 
     return count;
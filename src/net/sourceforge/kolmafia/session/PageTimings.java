@@ -0,0 +1,145 @@
+package net.sourceforge.kolmafia.session;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+import net.sourceforge.kolmafia.preferences.Preferences;
+import net.sourceforge.kolmafia.request.GenericRequest;
+import net.sourceforge.kolmafia.utilities.LatencyHistogram;
+
+/**
+ * Keeps a latency histogram for each phase of handling a request, keyed by page, so that time spent
+ * waiting on the server can be told apart from time spent processing the response.
+ *
+ * <p>If recordPageTimingEvents is set, each measurement is also committed as a JFR event, to be
+ * picked up by any flight recording that is running.
+ */
+public class PageTimings {
+  public enum Phase {
+    TOTAL("total"),
+    SERVER("server"),
+    REGISTER("register"),
+    PARSE("parse"),
+    RESULTS("results"),
+    QUEST("quest");
+
+    private final String name;
+
+    Phase(final String name) {
+      this.name = name;
+    }
+
+    @Override
+    public String toString() {
+      return this.name;
+    }
+  }
+
+  @Name("net.sourceforge.kolmafia.PageTiming")
+  @Label("Page Timing")
+  @Category("KoLmafia")
+  @Description("Time spent in one phase of handling a request")
+  public static class PageTimingEvent extends Event {
+    @Label("Page")
+    String page;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Elapsed")
+    @Timespan(Timespan.NANOSECONDS)
+    long elapsed;
+  }
+
+  // Anything past this many distinct pages is counted together
+  private static final int MAX_PAGES = 256;
+  private static final String OTHER_PAGES = "(other)";
+
+  private static final Map<String, LatencyHistogram[]> timings = new ConcurrentHashMap<>();
+
+  private PageTimings() {}
+
+  public static void record(final GenericRequest request, final Phase phase, final long start) {
+    long elapsed = System.nanoTime() - start;
+    String page = request.getPage();
+    if (page == null || request.isExternalRequest) {
+      return;
+    }
+
+    PageTimings.histograms(page)[phase.ordinal()].record(elapsed / 1000);
+
+    if (Preferences.getBoolean("recordPageTimingEvents")) {
+      PageTimingEvent event = new PageTimingEvent();
+      if (event.isEnabled()) {
+        event.page = page;
+        event.phase = phase.toString();
+        event.elapsed = elapsed;
+        event.commit();
+      }
+    }
+  }
+
+  private static LatencyHistogram[] histograms(final String page) {
+    LatencyHistogram[] histograms = PageTimings.timings.get(page);
+    if (histograms != null) {
+      return histograms;
+    }
+
+    String key = PageTimings.timings.size() < MAX_PAGES ? page : OTHER_PAGES;
+    return PageTimings.timings.computeIfAbsent(
+        key,
+        k -> {
+          LatencyHistogram[] created = new LatencyHistogram[Phase.values().length];
+          for (int i = 0; i < created.length; ++i) {
+            created[i] = new LatencyHistogram();
+          }
+          return created;
+        });
+  }
+
+  public static void reset() {
+    PageTimings.timings.clear();
+  }
+
+  /** Returns the histogram for a page and phase, or null if that page has never been timed. */
+  public static LatencyHistogram getHistogram(final String page, final Phase phase) {
+    LatencyHistogram[] histograms = PageTimings.timings.get(page);
+    return histograms == null ? null : histograms[phase.ordinal()];
+  }
+
+  /**
+   * Summarizes every page and phase that has been timed, as page -> phase -> statistic ->
+   * microseconds. The statistics are count, mean, p50, p90, p99 and max.
+   */
+  public static Map<String, Map<String, Map<String, Long>>> getSummary() {
+    Map<String, Map<String, Map<String, Long>>> summary = new TreeMap<>();
+    for (var entry : PageTimings.timings.entrySet()) {
+      Map<String, Map<String, Long>> phases = new TreeMap<>();
+      for (Phase phase : Phase.values()) {
+        LatencyHistogram histogram = entry.getValue()[phase.ordinal()];
+        if (histogram.getCount() > 0) {
+          phases.put(phase.toString(), PageTimings.summarize(histogram));
+        }
+      }
+      summary.put(entry.getKey(), phases);
+    }
+    return summary;
+  }
+
+  private static Map<String, Long> summarize(final LatencyHistogram histogram) {
+    Map<String, Long> stats = new TreeMap<>();
+    stats.put("count", histogram.getCount());
+    stats.put("mean", histogram.getMean());
+    stats.put("p50", histogram.getPercentile(50));
+    stats.put("p90", histogram.getPercentile(90));
+    stats.put("p99", histogram.getPercentile(99));
+    stats.put("max", histogram.getMax());
+    return stats;
+  }
+}
@@ -1,5 +1,7 @@
 package net.sourceforge.kolmafia.session;
 
+import java.util.Map;
+import java.util.function.BiConsumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import net.sourceforge.kolmafia.AdventureResult;
@@ -110,6 +112,7 @@ import net.sourceforge.kolmafia.request.concoction.GnomeTinkerRequest;
 import net.sourceforge.kolmafia.request.concoction.PhineasRequest;
 import net.sourceforge.kolmafia.request.concoction.SushiRequest;
 import net.sourceforge.kolmafia.shop.ShopRequest;
+import net.sourceforge.kolmafia.utilities.ChoiceUtilities;
 import net.sourceforge.kolmafia.utilities.LockableListFactory;
 import net.sourceforge.kolmafia.utilities.StringUtilities;
 import net.sourceforge.kolmafia.webui.DiscoCombatHelper;
@@ -131,6 +134,14 @@ public class ResponseTextParser {
   private static final Pattern DESCITEM_PATTERN = Pattern.compile("whichitem=(\\d+)");
   private static final Pattern DESCEFFECT_PATTERN = Pattern.compile("whicheffect=([0-9a-zA-Z]+)");
 
+  // *** Seems like all of these could be in postChoice1
+  private static final Map<Integer, BiConsumer<String, String>> CHOICE_PARSERS =
+      Map.of(
+          562, FudgeWandRequest::parseResponse,
+          585, ClanLoungeSwimmingPoolRequest::parseResponse,
+          922, SummoningChamberRequest::parseResponse,
+          1278, ClanFortuneRequest::parseResponse);
+
   private ResponseTextParser() {}
 
   public static boolean hasResult(final String location) {
@@ -237,6 +248,15 @@ public class ResponseTextParser {
   }
 
   public static final void externalUpdate(final GenericRequest request) {
+    long start = System.nanoTime();
+    try {
+      ResponseTextParser.updateFromResponse(request);
+    } finally {
+      PageTimings.record(request, PageTimings.Phase.PARSE, start);
+    }
+  }
+
+  private static void updateFromResponse(final GenericRequest request) {
     String responseText = request.responseText;
     if (responseText == null || responseText.length() == 0) {
       return;
@@ -311,15 +331,9 @@ public class ResponseTextParser {
         }
       }
       case "choice.php" -> {
-        // *** Seems like all of these could be in postChoice1
-        if (location.contains("whichchoice=562")) {
-          FudgeWandRequest.parseResponse(location, responseText);
-        } else if (location.contains("whichchoice=585")) {
-          ClanLoungeSwimmingPoolRequest.parseResponse(location, responseText);
-        } else if (location.contains("whichchoice=922")) {
-          SummoningChamberRequest.parseResponse(location, responseText);
-        } else if (location.contains("whichchoice=1278")) {
-          ClanFortuneRequest.parseResponse(location, responseText);
+        var parser = CHOICE_PARSERS.get(ChoiceUtilities.extractChoiceFromURL(location));
+        if (parser != null) {
+          parser.accept(location, responseText);
         }
       }
       case "clan_hall.php" -> {
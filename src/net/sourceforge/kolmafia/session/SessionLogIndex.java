@@ -0,0 +1,356 @@
+package net.sourceforge.kolmafia.session;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import net.sourceforge.kolmafia.KoLConstants;
+import net.sourceforge.kolmafia.StaticEntity;
+import net.sourceforge.kolmafia.utilities.FileUtilities;
+import net.sourceforge.kolmafia.utilities.LogStream;
+import net.sourceforge.kolmafia.utilities.StringUtilities;
+
+/**
+ * An index of where each turn, encounter, fight, item and meat change begins in a day's session
+ * log. The index is written as the log is, and lets scripts read the events they want by seeking
+ * to them rather than loading and searching the whole log.
+ *
+ * <p>The index is a text file beside the log, with one line for each event: the offset of the
+ * event in the log, its type and the turn it happened on. A log without an index, or whose index
+ * is older than it, is indexed the first time it is asked about.
+ */
+public class SessionLogIndex {
+  public enum Event {
+    TURN("turn"),
+    ENCOUNTER("encounter"),
+    FIGHT("fight"),
+    ITEM("item"),
+    MEAT("meat");
+
+    private final String name;
+
+    Event(final String name) {
+      this.name = name;
+    }
+
+    // Turns and fights run until the next turn; everything else is one line
+    private boolean isBlock() {
+      return this == TURN || this == FIGHT;
+    }
+
+    public static Event find(final String name) {
+      for (Event event : Event.values()) {
+        if (event.name.equalsIgnoreCase(name)) {
+          return event;
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public String toString() {
+      return this.name;
+    }
+  }
+
+  public record Entry(long offset, Event event, int turn) {}
+
+  private static final Pattern TURN_PATTERN = Pattern.compile("^\\[(\\d+)\\] ");
+
+  // The index being written alongside the open session log
+  private static SessionLogIndex active = null;
+
+  private final File log;
+  private final PrintStream stream;
+  private int turn;
+
+  private SessionLogIndex(final File log, final PrintStream stream, final int turn) {
+    this.log = log;
+    this.stream = stream;
+    this.turn = turn;
+  }
+
+  public static Event classify(final String line) {
+    if (line.startsWith("[")) {
+      return TURN_PATTERN.matcher(line).find() ? Event.TURN : null;
+    }
+    if (line.startsWith("Encounter: ")) {
+      return Event.ENCOUNTER;
+    }
+    if (line.startsWith("Round 0: ")) {
+      return Event.FIGHT;
+    }
+    if (line.startsWith("You acquire ")) {
+      return line.startsWith("You acquire an effect") ? null : Event.ITEM;
+    }
+    if (line.endsWith(" Meat")
+        && (line.startsWith("You gain ")
+            || line.startsWith("You lose ")
+            || line.startsWith("You spent "))) {
+      return Event.MEAT;
+    }
+    return null;
+  }
+
+  /** Returns the session log for the given player and day, which may have been gzipped. */
+  public static File getLogFile(final String playerName, final String date) {
+    String filename =
+        StringUtilities.globalStringReplace(playerName, " ", "_") + "_" + date + ".txt";
+    File log = new File(KoLConstants.SESSIONS_LOCATION, filename);
+    if (!log.exists()) {
+      File compressed = new File(KoLConstants.SESSIONS_LOCATION, filename + ".gz");
+      if (compressed.exists()) {
+        return compressed;
+      }
+    }
+    return log;
+  }
+
+  public static File getIndexFile(final File log) {
+    String name = log.getName();
+    int dot = name.indexOf(".txt");
+    return new File(log.getParentFile(), (dot == -1 ? name : name.substring(0, dot)) + ".idx");
+  }
+
+  /** Starts indexing a session log which is about to be written to. */
+  public static synchronized SessionLogIndex open(final File log) {
+    File file = SessionLogIndex.getIndexFile(log);
+    if (!log.exists()) {
+      // Whatever this indexed is gone
+      file.delete();
+    }
+
+    List<Entry> entries = SessionLogIndex.read(log);
+    int turn = entries.isEmpty() ? 0 : entries.get(entries.size() - 1).turn();
+    PrintStream stream = LogStream.openAsyncStream(file);
+    SessionLogIndex.active = new SessionLogIndex(log, stream, turn);
+    return SessionLogIndex.active;
+  }
+
+  public synchronized void close() {
+    this.stream.close();
+    synchronized (SessionLogIndex.class) {
+      if (SessionLogIndex.active == this) {
+        SessionLogIndex.active = null;
+      }
+    }
+  }
+
+  public void flush() {
+    this.stream.flush();
+  }
+
+  /** Notes the line about to be written at the given offset in the log, if it is an event. */
+  public synchronized void record(final long offset, final String line) {
+    Event event = SessionLogIndex.classify(line);
+    if (event == null || offset < 0) {
+      return;
+    }
+
+    if (event == Event.TURN) {
+      Matcher matcher = TURN_PATTERN.matcher(line);
+      if (matcher.find()) {
+        this.turn = StringUtilities.parseInt(matcher.group(1));
+      }
+    }
+
+    this.stream.println(offset + "\t" + event + "\t" + this.turn);
+  }
+
+  /** Returns every event in the log, indexing it first if its index is missing or out of date. */
+  public static List<Entry> read(final File log) {
+    File file = SessionLogIndex.getIndexFile(log);
+    boolean isActive;
+    synchronized (SessionLogIndex.class) {
+      isActive = SessionLogIndex.active != null && SessionLogIndex.active.log.equals(log);
+      if (isActive) {
+        SessionLogIndex.active.flush();
+      }
+    }
+
+    if (!log.exists()) {
+      return new ArrayList<>();
+    }
+
+    if (isActive || file.exists() && file.lastModified() >= log.lastModified()) {
+      return SessionLogIndex.readIndex(file);
+    }
+
+    List<Entry> entries = SessionLogIndex.build(log);
+    try (PrintStream writer = LogStream.openStream(file, true)) {
+      for (Entry entry : entries) {
+        writer.println(entry.offset() + "\t" + entry.event() + "\t" + entry.turn());
+      }
+    }
+    return entries;
+  }
+
+  private static List<Entry> readIndex(final File file) {
+    List<Entry> entries = new ArrayList<>();
+    try (BufferedReader reader = FileUtilities.getReader(file)) {
+      String[] data;
+      while ((data = FileUtilities.readData(reader)) != null) {
+        if (data.length < 3) {
+          continue;
+        }
+        Event event = Event.find(data[1]);
+        if (event != null) {
+          entries.add(
+              new Entry(
+                  StringUtilities.parseLong(data[0]), event, StringUtilities.parseInt(data[2])));
+        }
+      }
+    } catch (IOException e) {
+      StaticEntity.printStackTrace(e);
+    }
+    return entries;
+  }
+
+  // Indexes a log by reading through it once
+  static List<Entry> build(final File log) {
+    List<Entry> entries = new ArrayList<>();
+    int turn = 0;
+
+    try (InputStream istream = SessionLogIndex.openLog(log)) {
+      ByteArrayOutputStream line = new ByteArrayOutputStream();
+      long offset = 0;
+      long start = 0;
+      int b;
+      while ((b = istream.read()) != -1) {
+        ++offset;
+        if (b != '\n') {
+          line.write(b);
+          continue;
+        }
+
+        String text = line.toString(StandardCharsets.UTF_8).stripTrailing();
+        Event event = SessionLogIndex.classify(text);
+        if (event == Event.TURN) {
+          Matcher matcher = TURN_PATTERN.matcher(text);
+          matcher.find();
+          turn = StringUtilities.parseInt(matcher.group(1));
+        }
+        if (event != null) {
+          entries.add(new Entry(start, event, turn));
+        }
+
+        line.reset();
+        start = offset;
+      }
+    } catch (IOException e) {
+      StaticEntity.printStackTrace(e);
+    }
+    return entries;
+  }
+
+  private static InputStream openLog(final File log) throws IOException {
+    InputStream istream = new FileInputStream(log);
+    if (log.getName().endsWith(".gz")) {
+      istream = new GZIPInputStream(istream);
+    }
+    return new BufferedInputStream(istream);
+  }
+
+  /**
+   * Returns the text of each event of the given types between the given turns, inclusive, in the
+   * order they appear in the log. A turn or fight runs until the next turn begins; anything else
+   * is a single line.
+   */
+  public static List<String> query(
+      final File log, final Set<Event> events, final int fromTurn, final int toTurn) {
+    List<Entry> entries = SessionLogIndex.read(log);
+    List<String> results = new ArrayList<>();
+    if (entries.isEmpty()) {
+      return results;
+    }
+
+    // Where each entry's block ends: the start of the next turn, or the end of the log
+    long[] ends = new long[entries.size()];
+    long nextTurn = Long.MAX_VALUE;
+    for (int i = entries.size() - 1; i >= 0; --i) {
+      ends[i] = nextTurn;
+      if (entries.get(i).event() == Event.TURN) {
+        nextTurn = entries.get(i).offset();
+      }
+    }
+
+    InputStream istream = null;
+    long position = 0;
+    try {
+      for (int i = 0; i < entries.size(); ++i) {
+        Entry entry = entries.get(i);
+        if (!events.contains(entry.event())
+            || entry.turn() < fromTurn
+            || entry.turn() > toTurn) {
+          continue;
+        }
+
+        // A fight lies within its turn, so reading both means going back
+        if (istream == null || entry.offset() < position) {
+          if (istream != null) {
+            istream.close();
+          }
+          istream = SessionLogIndex.openLog(log);
+          position = 0;
+        }
+
+        position += istream.skip(entry.offset() - position);
+        while (position < entry.offset() && istream.read() != -1) {
+          ++position;
+        }
+
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        long end = entry.event().isBlock() ? ends[i] : Long.MAX_VALUE;
+        int b;
+        while (position < end && (b = istream.read()) != -1) {
+          ++position;
+          if (b == '\n' && !entry.event().isBlock()) {
+            break;
+          }
+          text.write(b);
+        }
+        results.add(text.toString(StandardCharsets.UTF_8).stripTrailing());
+      }
+    } catch (IOException e) {
+      StaticEntity.printStackTrace(e);
+    } finally {
+      if (istream != null) {
+        try {
+          istream.close();
+        } catch (IOException e) {
+          StaticEntity.printStackTrace(e);
+        }
+      }
+    }
+
+    return results;
+  }
+
+  /** Parses a comma-separated list of event types. An empty list means every type. */
+  public static Set<Event> parseEvents(final String types) {
+    if (types.isBlank()) {
+      return EnumSet.allOf(Event.class);
+    }
+
+    Set<Event> events = EnumSet.noneOf(Event.class);
+    for (String type : types.split(",")) {
+      Event event = Event.find(type.trim());
+      if (event != null) {
+        events.add(event);
+      }
+    }
+    return events;
+  }
+}
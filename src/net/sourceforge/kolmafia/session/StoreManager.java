@@ -8,6 +8,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Vector;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import net.java.dev.spellcast.utilities.LockableListModel;
@@ -82,6 +83,12 @@ public abstract class StoreManager {
   private static long potentialEarnings = 0;
 
   private static final LockableListModel<StoreLogEntry> storeLog = new LockableListModel<>();
+  // The most recent entry seen in the store log, or null if it has not been read since the last
+  // reset. Entries above it on the next fetch are new.
+  private static String newestLogEntry = null;
+  // How many entries the store log held when it was last read
+  private static int logEntryCount = 0;
+  private static final List<StoreLogListener> storeLogListeners = new CopyOnWriteArrayList<>();
   private static final LockableListModel<SoldItem> soldItemList = new LockableListModel<>();
   private static final LockableListModel<SoldItem> sortedSoldItemList = new LockableListModel<>();
 
@@ -90,6 +97,8 @@ public abstract class StoreManager {
   public static final void clearCache() {
     StoreManager.soldItemsRetrieved = false;
     StoreManager.storeLog.clear();
+    StoreManager.newestLogEntry = null;
+    StoreManager.logEntryCount = 0;
     StoreManageFrame.cancelTableEditing();
     StoreManager.soldItemList.clear();
     StoreManager.sortedSoldItemList.clear();
@@ -326,33 +335,125 @@ public abstract class StoreManager {
     StoreManageFrame.updateEarnings(StoreManager.potentialEarnings);
   }
 
+  public interface StoreLogListener {
+    /** Called with the entries added to the store log since the last fetch, oldest first. */
+    void storeLogUpdated(List<StoreLogEntry> newEntries);
+  }
+
+  public static void addStoreLogListener(final StoreLogListener listener) {
+    StoreManager.storeLogListeners.add(listener);
+  }
+
+  public static void removeStoreLogListener(final StoreLogListener listener) {
+    StoreManager.storeLogListeners.remove(listener);
+  }
+
   public static final void parseLog(final String logText) {
-    StoreManager.storeLog.clear();
     Matcher logMatcher = StoreManager.LOGSPAN_PATTERN.matcher(logText);
-    if (logMatcher.find()) {
-      if (!logMatcher.group().contains("<br>")) {
-        return;
+    if (!logMatcher.find() || !logMatcher.group().contains("<br>")) {
+      StoreManager.storeLog.clear();
+      StoreManager.newestLogEntry = null;
+      StoreManager.logEntryCount = 0;
+      return;
+    }
+
+    // Entries are listed most recent first, each followed by a <br>. Only those above the newest
+    // entry seen last time need to be parsed.
+
+    String logSpan = logMatcher.group();
+    List<Integer> starts = new ArrayList<>();
+    for (int start = 0, end; (end = logSpan.indexOf("<br>", start)) != -1; start = end + 4) {
+      starts.add(start);
+    }
+    int total = starts.size();
+
+    // If the log has only grown, the newest entry seen last time has moved down by the number of
+    // entries added. Checking there first means a new entry whose text matches it, such as the
+    // same buyer buying the same thing in the same second, is not mistaken for it.
+    String newest = StoreManager.newestLogEntry;
+    int newCount = -1;
+    int grown = total - StoreManager.logEntryCount;
+    if (newest != null
+        && grown >= 0
+        && grown < total
+        && StoreManager.logEntryText(logSpan, starts.get(grown)).equals(newest)) {
+      newCount = grown;
+    } else {
+      for (int i = 0; i < total; ++i) {
+        if (StoreManager.logEntryText(logSpan, starts.get(i)).equals(newest)) {
+          newCount = i;
+          break;
+        }
       }
+    }
 
-      ArrayList<StoreLogEntry> currentLog = new ArrayList<>();
+    boolean caughtUp = newCount != -1;
+    if (!caughtUp) {
+      newCount = total;
+    }
 
-      String[] entries = logMatcher.group().split("<br>");
+    List<String> newEntries = new ArrayList<>();
+    for (int i = 0; i < newCount; ++i) {
+      newEntries.add(StoreManager.logEntryText(logSpan, starts.get(i)));
+    }
+    StoreManager.logEntryCount = total;
+
+    boolean firstRead = StoreManager.newestLogEntry == null;
+    if (!newEntries.isEmpty()) {
+      StoreManager.newestLogEntry = newEntries.get(0);
+    }
 
-      for (int i = 0; i < entries.length - 1; ++i) {
+    ArrayList<StoreLogEntry> added = new ArrayList<>();
+    for (int i = newEntries.size() - 1; i >= 0; --i) {
+      added.add(new StoreLogEntry(total - i, newEntries.get(i)));
+    }
+
+    if (caughtUp && total == StoreManager.storeLog.size() + added.size()) {
+      if (added.isEmpty()) {
+        return;
+      }
+      StoreManager.storeLog.addAll(added);
+    } else {
+      // The log was cleared, or old entries have dropped off the end; rebuild it
+      ArrayList<StoreLogEntry> currentLog = new ArrayList<>(added);
+      String[] entries = logSpan.split("<br>");
+      for (int i = newEntries.size(); i < entries.length - 1; ++i) {
         String entryString = KoLConstants.ANYTAG_PATTERN.matcher(entries[i]).replaceAll("");
-        StoreLogEntry entry = new StoreLogEntry(entries.length - i - 1, entryString);
-        currentLog.add(entry);
+        currentLog.add(new StoreLogEntry(entries.length - i - 1, entryString));
       }
 
+      StoreManager.storeLog.clear();
       StoreManager.storeLog.addAll(currentLog);
-      StoreManager.sortStoreLog(false);
     }
+
+    StoreManager.sortStoreLog(false);
+
+    // The first read only sets the starting point; none of it is news to anyone
+    if (firstRead || added.isEmpty()) {
+      return;
+    }
+
+    List<StoreLogEntry> published = Collections.unmodifiableList(added);
+    for (StoreLogListener listener : StoreManager.storeLogListeners) {
+      listener.storeLogUpdated(published);
+    }
+  }
+
+  private static String logEntryText(final String logSpan, final int start) {
+    String entry = logSpan.substring(start, logSpan.indexOf("<br>", start));
+    return KoLConstants.ANYTAG_PATTERN.matcher(entry).replaceAll("");
   }
 
   public static class StoreLogEntry implements Comparable<StoreLogEntry> {
+    private static final Pattern PURCHASE_PATTERN =
+        Pattern.compile("(.+?) bought ([\\d,]+) \\((.+)\\)");
+
     private final int id;
     private final String text;
     private final String stringForm;
+    private final String buyer;
+    private final int quantity;
+    private final String itemName;
 
     public StoreLogEntry(final int id, final String text) {
       this.id = id;
@@ -360,6 +461,37 @@ public abstract class StoreManager {
       String[] pieces = text.split(" ");
       this.text = text.substring(pieces[0].length() + pieces[1].length() + 2);
       this.stringForm = id + ": " + text;
+
+      Matcher purchaseMatcher = PURCHASE_PATTERN.matcher(this.text);
+      if (purchaseMatcher.lookingAt()) {
+        this.buyer = purchaseMatcher.group(1);
+        this.quantity = StringUtilities.parseInt(purchaseMatcher.group(2));
+        this.itemName = purchaseMatcher.group(3);
+      } else {
+        this.buyer = null;
+        this.quantity = 0;
+        this.itemName = null;
+      }
+    }
+
+    public int getId() {
+      return this.id;
+    }
+
+    public boolean isPurchase() {
+      return this.buyer != null;
+    }
+
+    public String getBuyer() {
+      return this.buyer;
+    }
+
+    public int getQuantity() {
+      return this.quantity;
+    }
+
+    public String getItemName() {
+      return this.itemName;
     }
 
     @Override
@@ -357,6 +357,10 @@ public class OptionsFrame extends GenericFrame {
           "relayAllowRemoteAccess",
           "Allow network devices to access relay browser (requires restart)"
         },
+        {
+          "relayUsesAgentPool",
+          "Serve the relay browser from a shared pool of threads, keeping connections open (requires restart)"
+        },
         {"relayOverridesImages", "Override certain KoL images"},
         {"relayAddSounds", "Add sounds to certain events"},
         {
@@ -463,6 +467,7 @@ public class OptionsFrame extends GenericFrame {
         {"useZoneComboBox", "Use zone selection instead of adventure name filter"},
         {"cacheMallSearches", "Cache mall search terms in mall search interface"},
         {"saveSettingsOnSet", "Save options to disk whenever they change"},
+        {"saveSettingsInBackground", "Batch option saves onto a background thread"},
         {},
         {"removeMalignantEffects", "Auto-remove malignant status effects"},
         {"switchEquipmentForBuffs", "Allow equipment changing when casting buffs"},
@@ -821,6 +826,9 @@ public class OptionsFrame extends GenericFrame {
       this.queue(
           new PreferenceCheckBox(
               "maximizerNoAdventures", "Do not show effects that cost adventures"));
+      this.queue(
+          new PreferenceCheckBox(
+              "maximizerParallel", "Search equipment for each familiar on its own thread"));
       this.queue(
           new PreferenceIntegerTextField(
               "maximizerCombinationLimit",
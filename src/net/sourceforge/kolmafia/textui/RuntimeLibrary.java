@@ -166,10 +166,12 @@ import net.sourceforge.kolmafia.session.MallPriceManager;
 import net.sourceforge.kolmafia.session.MonsterManuelManager;
 import net.sourceforge.kolmafia.session.MushroomManager;
 import net.sourceforge.kolmafia.session.NumberologyManager;
+import net.sourceforge.kolmafia.session.PageTimings;
 import net.sourceforge.kolmafia.session.PingManager;
 import net.sourceforge.kolmafia.session.PingManager.PingTest;
 import net.sourceforge.kolmafia.session.PvpManager;
 import net.sourceforge.kolmafia.session.ResultProcessor;
+import net.sourceforge.kolmafia.session.SessionLogIndex;
 import net.sourceforge.kolmafia.session.SorceressLairManager;
 import net.sourceforge.kolmafia.session.StoreManager;
 import net.sourceforge.kolmafia.session.StoreManager.SoldItem;
@@ -810,6 +812,26 @@ public abstract class RuntimeLibrary {
     functions.add(
         new LibraryFunction("session_logs", new AggregateType(DataTypes.STRING_TYPE, 0), params));
 
+    params =
+        List.of(
+            namedParam("player", DataTypes.STRING_TYPE),
+            namedParam("date", DataTypes.STRING_TYPE),
+            namedParam("types", DataTypes.STRING_TYPE));
+    functions.add(
+        new LibraryFunction(
+            "session_log_events", new AggregateType(DataTypes.STRING_TYPE, 0), params));
+
+    params =
+        List.of(
+            namedParam("player", DataTypes.STRING_TYPE),
+            namedParam("date", DataTypes.STRING_TYPE),
+            namedParam("types", DataTypes.STRING_TYPE),
+            namedParam("fromTurn", DataTypes.INT_TYPE),
+            namedParam("toTurn", DataTypes.INT_TYPE));
+    functions.add(
+        new LibraryFunction(
+            "session_log_events", new AggregateType(DataTypes.STRING_TYPE, 0), params));
+
     // Major functions related to adventuring and item management.
 
     params = List.of(namedParam("location", DataTypes.LOCATION_TYPE));
@@ -1425,6 +1447,9 @@ public abstract class RuntimeLibrary {
             namedParam("tiers", DataTypes.STRING_TYPE));
     functions.add(new LibraryFunction("mall_prices", DataTypes.INT_TYPE, params));
 
+    params = List.of();
+    functions.add(new LibraryFunction("mall_cache_stats", DataTypes.STRING_TO_INT_TYPE, params));
+
     params =
         List.of(
             namedParam("itemName", DataTypes.STRING_TYPE),
@@ -3746,6 +3771,15 @@ public abstract class RuntimeLibrary {
     params = List.of(namedParam("pingTest", DataTypes.STRING_TYPE));
     functions.add(new LibraryFunction("ping", pingTestRec, params));
 
+    params = List.of();
+    functions.add(
+        new LibraryFunction(
+            "page_timings",
+            new AggregateType(
+                new AggregateType(DataTypes.STRING_TO_INT_TYPE, DataTypes.STRING_TYPE),
+                DataTypes.STRING_TYPE),
+            params));
+
     params =
         List.of(
             namedParam("cls", DataTypes.CLASS_TYPE),
@@ -4895,11 +4929,48 @@ public abstract class RuntimeLibrary {
     return value;
   }
 
+  public static Value session_log_events(
+      ScriptRuntime controller, final Value player, final Value date, final Value types) {
+    return RuntimeLibrary.session_log_events(
+        controller,
+        player,
+        date,
+        types,
+        DataTypes.ZERO_VALUE,
+        DataTypes.makeIntValue(Integer.MAX_VALUE));
+  }
+
+  public static Value session_log_events(
+      ScriptRuntime controller,
+      final Value player,
+      final Value date,
+      final Value types,
+      final Value fromTurn,
+      final Value toTurn) {
+    File log = SessionLogIndex.getLogFile(player.toString(), date.toString());
+    List<String> events =
+        SessionLogIndex.query(
+            log,
+            SessionLogIndex.parseEvents(types.toString()),
+            (int) fromTurn.intValue(),
+            (int) toTurn.intValue());
+
+    AggregateType type = new AggregateType(DataTypes.STRING_TYPE, events.size());
+    ArrayValue value = new ArrayValue(type);
+    for (int i = 0; i < events.size(); ++i) {
+      value.aset(new Value(i), new Value(events.get(i)));
+    }
+    return value;
+  }
+
   private static String getContentsOfSessionLog(String playerName, String logDate) {
     StringBuilder contents = new StringBuilder();
     String filename =
         StringUtilities.globalStringReplace(playerName, " ", "_") + "_" + logDate + ".txt";
 
+    // Today's log may still have lines waiting to be written
+    RequestLogger.flushSessionLog();
+
     File path = new File(KoLConstants.SESSIONS_LOCATION, filename);
     BufferedReader reader = null;
     if (!path.exists()) {
@@ -6601,6 +6672,14 @@ public abstract class RuntimeLibrary {
     return new Value(MallPriceManager.getMallPrices(category.toString(), tiers.toString()));
   }
 
+  public static Value mall_cache_stats(ScriptRuntime controller) {
+    MapValue value = new MapValue(DataTypes.STRING_TO_INT_TYPE);
+    for (var stat : MallPriceManager.getCacheStatistics().entrySet()) {
+      value.aset(new Value(stat.getKey()), DataTypes.makeIntValue(stat.getValue()));
+    }
+    return value;
+  }
+
   public static Value well_stocked(
       ScriptRuntime controller, final Value itemName, final Value quantity, final Value price) {
     // extract parameters
@@ -11565,6 +11644,26 @@ public abstract class RuntimeLibrary {
     return rec;
   }
 
+  public static Value page_timings(ScriptRuntime controller) {
+    AggregateType phaseType =
+        new AggregateType(DataTypes.STRING_TO_INT_TYPE, DataTypes.STRING_TYPE);
+    MapValue value = new MapValue(new AggregateType(phaseType, DataTypes.STRING_TYPE));
+
+    for (var page : PageTimings.getSummary().entrySet()) {
+      MapValue phases = new MapValue(phaseType);
+      for (var phase : page.getValue().entrySet()) {
+        MapValue stats = new MapValue(DataTypes.STRING_TO_INT_TYPE);
+        for (var stat : phase.getValue().entrySet()) {
+          stats.aset(new Value(stat.getKey()), DataTypes.makeIntValue(stat.getValue()));
+        }
+        phases.aset(new Value(phase.getKey()), stats);
+      }
+      value.aset(new Value(page.getKey()), phases);
+    }
+
+    return value;
+  }
+
   public static Value fact_type(
       ScriptRuntime controller, final Value cls, final Value path, final Value monster) {
     if (cls.content == null || monster.content == null) return DataTypes.STRING_INIT;
@@ -0,0 +1,38 @@
+package net.sourceforge.kolmafia.textui.command;
+
+import net.sourceforge.kolmafia.KoLmafiaASH;
+import net.sourceforge.kolmafia.RequestLogger;
+
+public class AshCacheCommand extends AbstractCommand {
+  public AshCacheCommand() {
+    this.usage = " [clear] - show parsed script cache statistics, or empty the cache.";
+  }
+
+  @Override
+  public void run(final String cmd, final String parameters) {
+    String command = parameters.trim();
+
+    if (command.equals("clear")) {
+      KoLmafiaASH.clearInterpreterCache();
+      RequestLogger.printLine("Parsed script cache cleared.");
+      return;
+    }
+
+    if (!command.isEmpty()) {
+      RequestLogger.printLine("Usage: ashcache" + this.usage);
+      return;
+    }
+
+    RequestLogger.printLine(KoLmafiaASH.getCachedScriptCount() + " scripts cached");
+    RequestLogger.printLine(
+        KoLmafiaASH.getCacheHits()
+            + " hits ("
+            + KoLmafiaASH.getCacheRevalidations()
+            + " after checking contents of changed files)");
+    RequestLogger.printLine(
+        KoLmafiaASH.getCacheMisses()
+            + " misses, "
+            + KoLmafiaASH.getParseMillis()
+            + " ms spent parsing");
+  }
+}
@@ -0,0 +1,18 @@
+package net.sourceforge.kolmafia.textui.command;
+
+import net.sourceforge.kolmafia.KoLmafia;
+import net.sourceforge.kolmafia.preferences.Preferences;
+
+public class FlushPreferencesCommand extends AbstractCommand {
+  public FlushPreferencesCommand() {
+    this.usage = " - write any unsaved preference changes to disk now.";
+  }
+
+  @Override
+  public void run(final String cmd, final String parameters) {
+    boolean pending = Preferences.hasUnsavedChanges();
+    Preferences.flush();
+    KoLmafia.updateDisplay(
+        pending ? "Preferences saved." : "Preferences were already up to date on disk.");
+  }
+}
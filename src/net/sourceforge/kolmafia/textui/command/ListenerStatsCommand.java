@@ -0,0 +1,34 @@
+package net.sourceforge.kolmafia.textui.command;
+
+import net.sourceforge.kolmafia.RequestLogger;
+import net.sourceforge.kolmafia.listener.ListenerRegistry;
+
+public class ListenerStatsCommand extends AbstractCommand {
+  public ListenerStatsCommand() {
+    this.usage =
+        " [reset] - show how many listener fires coalescing has saved, or reset the counts.";
+  }
+
+  @Override
+  public void run(final String cmd, final String parameters) {
+    if (parameters.trim().equals("reset")) {
+      ListenerRegistry.resetFireCounters();
+      RequestLogger.printLine("Listener fire counts reset.");
+      return;
+    }
+
+    long requested = ListenerRegistry.getFiresRequested();
+    long saved = ListenerRegistry.getFiresSaved();
+
+    RequestLogger.printLine(
+        "Listener coalescing is " + (ListenerRegistry.isCoalescing() ? "on" : "off") + ".");
+    RequestLogger.printLine(
+        "Fires requested: "
+            + requested
+            + ", fired: "
+            + (requested - saved)
+            + ", saved: "
+            + saved
+            + ".");
+  }
+}
@@ -0,0 +1,66 @@
+package net.sourceforge.kolmafia.textui.command;
+
+import java.util.Map;
+import net.sourceforge.kolmafia.KoLConstants;
+import net.sourceforge.kolmafia.RequestLogger;
+import net.sourceforge.kolmafia.session.PageTimings;
+
+public class PageTimesCommand extends AbstractCommand {
+  private static final String[] STATS = {"p50", "p90", "p99", "max"};
+
+  public PageTimesCommand() {
+    this.usage =
+        " [clear | <page>] - show request timing percentiles (in msec) by page and phase, or reset them.";
+  }
+
+  @Override
+  public void run(final String cmd, final String parameters) {
+    String filter = parameters.trim();
+
+    if (filter.equals("clear")) {
+      PageTimings.reset();
+      RequestLogger.printLine("Page timings cleared.");
+      return;
+    }
+
+    var summary = PageTimings.getSummary();
+    if (!filter.isEmpty()) {
+      summary.keySet().removeIf(page -> !page.contains(filter));
+    }
+
+    if (summary.isEmpty()) {
+      RequestLogger.printLine("No page timings recorded.");
+      return;
+    }
+
+    StringBuilder buffer = new StringBuilder();
+    buffer.append("<table border=2 cols=7>");
+    buffer.append("<tr><th>page</th><th>phase</th><th>count</th>");
+    for (String stat : STATS) {
+      buffer.append("<th>").append(stat).append("</th>");
+    }
+    buffer.append("</tr>");
+
+    for (var page : summary.entrySet()) {
+      for (var phase : page.getValue().entrySet()) {
+        Map<String, Long> stats = phase.getValue();
+        buffer.append("<tr><td>");
+        buffer.append(page.getKey());
+        buffer.append("</td><td>");
+        buffer.append(phase.getKey());
+        buffer.append("</td><td align=right>");
+        buffer.append(stats.get("count"));
+        buffer.append("</td>");
+        for (String stat : STATS) {
+          buffer.append("<td align=right>");
+          buffer.append(KoLConstants.FLOAT_FORMAT.format(stats.get(stat) / 1000.0));
+          buffer.append("</td>");
+        }
+        buffer.append("</tr>");
+      }
+    }
+
+    buffer.append("</table>");
+    RequestLogger.printLine(buffer.toString());
+  }
+}
@@ -1,11 +1,14 @@
 package net.sourceforge.kolmafia.textui.command;
 
+import net.sourceforge.kolmafia.RequestLogger;
 import net.sourceforge.kolmafia.webui.RelayLoader;
 import net.sourceforge.kolmafia.webui.RelayServer;
 
 public class RelayBrowserCommand extends AbstractCommand {
   public RelayBrowserCommand() {
-    this.usage = " [nobrowser|stop] - start/stop the relay server and/or open the relay browser.";
+    this.usage =
+        " [nobrowser|stop|status] - start/stop the relay server, show its agents, or open the"
+            + " relay browser.";
   }
 
   @Override
@@ -14,6 +17,22 @@ public class RelayBrowserCommand extends AbstractCommand {
       RelayLoader.startRelayServer();
     } else if (parameters.equals("stop")) {
       RelayServer.stop();
+    } else if (parameters.equals("status")) {
+      if (!RelayServer.isRunning()) {
+        RequestLogger.printLine("The relay server is not running.");
+        return;
+      }
+      RequestLogger.printLine(
+          "Relay server on port "
+              + RelayServer.getPort()
+              + (RelayServer.usesAgentPool() ? " (agent pool)" : "")
+              + ": "
+              + RelayServer.getAgentCount()
+              + " agents, "
+              + RelayServer.getActiveAgents()
+              + " active, "
+              + RelayServer.getQueuedAgents()
+              + " connections queued");
     } else RelayLoader.openRelayBrowser();
   }
 }
@@ -0,0 +1,45 @@
+package net.sourceforge.kolmafia.textui.command;
+
+import java.util.Comparator;
+import net.sourceforge.kolmafia.KoLConstants;
+import net.sourceforge.kolmafia.RequestLogger;
+import net.sourceforge.kolmafia.persistence.DatabaseStartup;
+
+public class StartupTimesCommand extends AbstractCommand {
+  public StartupTimesCommand() {
+    this.usage = " - show how long each data file and database took to load at startup (in msec).";
+  }
+
+  @Override
+  public void run(final String cmd, final String parameters) {
+    var timings = DatabaseStartup.getTimings();
+    if (timings.isEmpty()) {
+      RequestLogger.printLine("No startup timings recorded.");
+      return;
+    }
+
+    timings.sort(Comparator.comparingLong(DatabaseStartup.Timing::start));
+
+    StringBuilder buffer = new StringBuilder();
+    buffer.append("<table border=2 cols=4>");
+    buffer.append("<tr><th>name</th><th>thread</th><th>start</th><th>elapsed</th></tr>");
+
+    for (var timing : timings) {
+      buffer.append("<tr><td>");
+      buffer.append(timing.name());
+      buffer.append("</td><td>");
+      buffer.append(timing.thread());
+      buffer.append("</td><td align=right>");
+      buffer.append(KoLConstants.FLOAT_FORMAT.format(timing.start() / 1000000.0));
+      buffer.append("</td><td align=right>");
+      buffer.append(KoLConstants.FLOAT_FORMAT.format(timing.elapsed() / 1000000.0));
+      buffer.append("</td></tr>");
+    }
+
+    buffer.append("<tr><td colspan=3>total</td><td align=right>");
+    buffer.append(KoLConstants.FLOAT_FORMAT.format(DatabaseStartup.getElapsed() / 1000000.0));
+    buffer.append("</td></tr>");
+    buffer.append("</table>");
+    RequestLogger.printLine(buffer.toString());
+  }
+}
@@ -7,9 +7,11 @@ import net.sourceforge.kolmafia.textui.DataTypes;
 import net.sourceforge.kolmafia.textui.Parser;
 import net.sourceforge.kolmafia.textui.Rng;
 import net.sourceforge.kolmafia.textui.ScriptRuntime;
+import net.sourceforge.kolmafia.textui.parsetree.CompositeType;
 import net.sourceforge.kolmafia.textui.parsetree.Function;
 import net.sourceforge.kolmafia.textui.parsetree.FunctionList;
 import net.sourceforge.kolmafia.textui.parsetree.ProxyRecordValue;
+import net.sourceforge.kolmafia.textui.parsetree.Type;
 import net.sourceforge.kolmafia.textui.parsetree.Value;
 import org.mozilla.javascript.BaseFunction;
 import org.mozilla.javascript.Context;
@@ -19,9 +21,22 @@ import org.mozilla.javascript.Scriptable;
 public abstract class AshStub extends BaseFunction {
   private static final long serialVersionUID = 1L;
 
+  // How many argument shapes each stub remembers an overload for
+  private static final int CACHED_SHAPES = 4;
+
+  // The overload chosen for arguments of the given types, valid while the function table is
+  // unchanged
+  private record CachedOverload(
+      FunctionList functions, int version, Type[] shape, Function function) {}
+
   protected final ScriptRuntime controller;
   protected final String ashFunctionName;
 
+  // Most recently used first. Each array is replaced rather than modified, since stubs may be
+  // shared between scripts running on different threads.
+  private transient volatile CachedOverload[] overloads;
+  private transient volatile ScriptableValueConverter converter;
+
   public AshStub(
       Scriptable scope, Scriptable prototype, ScriptRuntime controller, String ashFunctionName) {
     super(scope, prototype);
@@ -29,6 +44,12 @@ public abstract class AshStub extends BaseFunction {
     this.ashFunctionName = ashFunctionName;
   }
 
+  // Stubs shared between scripts have no controller of their own, and act for whichever script
+  // is running when they are called.
+  protected ScriptRuntime getController() {
+    return this.controller != null ? this.controller : JavascriptRuntime.getCurrentRuntime();
+  }
+
   @Override
   public String getFunctionName() {
     return JavascriptRuntime.toCamelCase(ashFunctionName);
@@ -38,15 +59,80 @@ public abstract class AshStub extends BaseFunction {
 
   protected abstract Value execute(Function function, List<Value> ashArgs);
 
+  private ScriptableValueConverter getConverter(Context cx, Scriptable scope) {
+    ScriptableValueConverter coercer = this.converter;
+    if (coercer == null || !coercer.converts(cx, scope)) {
+      coercer = new ScriptableValueConverter(cx, scope);
+      this.converter = coercer;
+    }
+    return coercer;
+  }
+
+  // Argument types which can key the cache: simple types are singletons, while composite ones are
+  // built afresh for every value.
+  private static Type[] getShape(List<Value> ashArgs) {
+    Type[] shape = new Type[ashArgs.size()];
+    for (int i = 0; i < shape.length; i++) {
+      Type type = ashArgs.get(i).getType();
+      if (type == DataTypes.ANY_TYPE || type instanceof CompositeType) {
+        return null;
+      }
+      shape[i] = type;
+    }
+    return shape;
+  }
+
+  private static boolean matches(Type[] shape, List<Value> ashArgs) {
+    if (shape.length != ashArgs.size()) {
+      return false;
+    }
+    for (int i = 0; i < shape.length; i++) {
+      if (shape[i] != ashArgs.get(i).getType()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private ValueConverter.FunctionWithArgs findFunction(
+      ScriptableValueConverter coercer, Object[] args) {
+    FunctionList functions = getAllFunctions();
+    int version = functions.getVersion();
+    List<Value> ashArgs = coercer.convertArgs(ashFunctionName, args);
+
+    CachedOverload[] cache = this.overloads;
+    if (cache != null) {
+      for (CachedOverload cached : cache) {
+        if (cached.functions() == functions
+            && cached.version() == version
+            && AshStub.matches(cached.shape(), ashArgs)) {
+          return new ValueConverter.FunctionWithArgs(cached.function(), ashArgs);
+        }
+      }
+    }
+
+    Type[] shape = AshStub.getShape(ashArgs);
+    var functionWithArgs = coercer.matchFunction(functions, ashFunctionName, args, ashArgs);
+    if (shape != null && functionWithArgs != null && functionWithArgs.function() != null) {
+      int kept = cache == null ? 0 : Math.min(cache.length, CACHED_SHAPES - 1);
+      CachedOverload[] next = new CachedOverload[kept + 1];
+      next[0] = new CachedOverload(functions, version, shape, functionWithArgs.function());
+      if (kept > 0) {
+        System.arraycopy(cache, 0, next, 1, kept);
+      }
+      this.overloads = next;
+    }
+    return functionWithArgs;
+  }
+
   @Override
   public Object call(Context cx, Scriptable scope, Scriptable thisObj, Object[] args) {
     JavascriptRuntime.checkInterrupted();
 
-    ScriptableValueConverter coercer = new ScriptableValueConverter(cx, scope);
+    ScriptableValueConverter coercer = this.getConverter(cx, scope);
     Value ashReturnValue;
     try {
-      var functionWithArgs =
-          coercer.findMatchingFunctionConvertArgs(getAllFunctions(), ashFunctionName, args);
+      var functionWithArgs = this.findFunction(coercer, args);
       if (functionWithArgs == null || functionWithArgs.function() == null) {
         // Convert arguments as best we can, and return undefined.
         var ashArgsGuess =
@@ -61,20 +147,20 @@ public abstract class AshStub extends BaseFunction {
                       }
                     })
                 .toList();
-        throw controller.runtimeException(
+        throw getController().runtimeException(
             Parser.undefinedFunctionMessage(ashFunctionName, ashArgsGuess));
       }
 
       ashReturnValue = execute(functionWithArgs.function(), functionWithArgs.ashArgs());
     } catch (ValueConverter.ValueConverterException e) {
-      throw controller.runtimeException(e.getMessage());
+      throw getController().runtimeException(e.getMessage());
     }
 
     // Some functions will interrupt code execution on failure. In ASH this is mitigated by
     // capturing the return
     // value of those functions. In JavaScript we don't want this behaviour at all
     if (!KoLmafia.refusesContinue() && ashReturnValue != null) {
-      this.controller.setState(ScriptRuntime.State.NORMAL);
+      this.getController().setState(ScriptRuntime.State.NORMAL);
       KoLmafia.forceContinue();
     }
 
@@ -94,7 +180,7 @@ public abstract class AshStub extends BaseFunction {
         return rng;
       }
 
-      throw controller.runtimeException("ASH function returned native Java object.");
+      throw getController().runtimeException("ASH function returned native Java object.");
     }
 
     return returnValue;
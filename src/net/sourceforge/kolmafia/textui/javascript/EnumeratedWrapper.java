@@ -5,6 +5,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import net.sourceforge.kolmafia.textui.DataTypes;
 import net.sourceforge.kolmafia.textui.ScriptException;
 import net.sourceforge.kolmafia.textui.parsetree.CompositeValue;
@@ -22,7 +23,9 @@ public class EnumeratedWrapper extends ScriptableObject {
   private static final long serialVersionUID = 1L;
 
   // Make sure each wrapper is a singleton, so that equality comparison works in JS.
-  private static final Map<Scriptable, Map<Value, EnumeratedWrapper>> registry = new HashMap<>();
+  // Scripts running at once each have their own, and all see those made for the shared scope.
+  private static final Map<Scriptable, Map<Value, EnumeratedWrapper>> registry =
+      new ConcurrentHashMap<>();
 
   private final Class<?> recordValueClass;
   // NB: This wrapped value is NOT the proxy record type version.
@@ -38,15 +41,21 @@ public class EnumeratedWrapper extends ScriptableObject {
     scope = getTopLevelScope(scope);
     Scriptable proto = scope.getPrototype();
     while (proto != null && proto != getObjectPrototype(scope)) {
+      if (JavascriptRuntime.isSharedScope(proto)) {
+        // Values wrapped when the shared scope was built are the same for every script
+        Map<Value, EnumeratedWrapper> sharedRegistry = registry.get(proto);
+        EnumeratedWrapper existing = sharedRegistry == null ? null : sharedRegistry.get(wrapped);
+        if (existing != null) {
+          return existing;
+        }
+        break;
+      }
       scope = proto;
       proto = scope.getPrototype();
     }
 
-    Map<Value, EnumeratedWrapper> subRegistry = registry.getOrDefault(scope, null);
-    if (subRegistry == null) {
-      subRegistry = new HashMap<>();
-      registry.put(scope, subRegistry);
-    }
+    Map<Value, EnumeratedWrapper> subRegistry =
+        registry.computeIfAbsent(scope, k -> new HashMap<>());
 
     EnumeratedWrapper existing = subRegistry.getOrDefault(wrapped, null);
     if (existing == null) {
@@ -79,7 +88,7 @@ public class EnumeratedWrapper extends ScriptableObject {
   }
 
   public static Object toJSON(Context cx, Scriptable thisObj, Object[] args, Function funObj) {
-    Scriptable scope = ScriptableObject.getTopLevelScope(thisObj);
+    Scriptable scope = JavascriptRuntime.getScriptScope(thisObj);
     ScriptableValueConverter coercer = new ScriptableValueConverter(cx, scope);
     var proxy = ((EnumeratedWrapper) thisObj).wrapped.asProxy();
 
@@ -151,7 +160,7 @@ public class EnumeratedWrapper extends ScriptableObject {
     String typeName = (String) ScriptableObject.getProperty(functionObject, "typeName");
     Type type = DataTypes.simpleTypes.find(typeName);
 
-    Scriptable scope = ScriptableObject.getTopLevelScope(thisObject);
+    Scriptable scope = JavascriptRuntime.getScriptScope(thisObject);
 
     Object arg = args[0];
     if (arg instanceof Iterable) {
@@ -174,7 +183,7 @@ public class EnumeratedWrapper extends ScriptableObject {
     String typeName = (String) ScriptableObject.getProperty(functionObject, "typeName");
     Type type = DataTypes.simpleTypes.find(typeName);
 
-    Scriptable scope = ScriptableObject.getTopLevelScope(thisObject);
+    Scriptable scope = JavascriptRuntime.getScriptScope(thisObject);
     ScriptableValueConverter coercer = new ScriptableValueConverter(cx, scope);
 
     try {
@@ -8,6 +8,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -33,6 +34,7 @@ import net.sourceforge.kolmafia.textui.parsetree.Type;
 import net.sourceforge.kolmafia.textui.parsetree.Value;
 import net.sourceforge.kolmafia.textui.parsetree.VariableReference;
 import net.sourceforge.kolmafia.utilities.StringUtilities;
+import org.mozilla.javascript.BaseFunction;
 import org.mozilla.javascript.Context;
 import org.mozilla.javascript.ContextFactory;
 import org.mozilla.javascript.EcmaError;
@@ -124,30 +126,99 @@ public class JavascriptRuntime extends AbstractRuntime {
     return functions;
   }
 
-  // Public only for testing.
-  public Scriptable initRuntimeLibrary(Context cx, Scriptable scope, File scriptFile) {
-    var addToTopScope = scriptFile == null;
+  /**
+   * The standard objects, library function stubs and enumerated type constructors a script runs
+   * with. Each script normally builds its own, which it is free to change, as polyfills do. With
+   * javascriptSharedScope, one sealed scope is shared by every script instead, so that none can
+   * change what another sees, and is only rebuilt when the runtime library changes.
+   */
+  private record LibraryScope(
+      int version,
+      ScriptableObject scope,
+      Map<String, LibraryFunctionStub> stubs,
+      List<ScriptableObject> enumeratedClasses) {}
+
+  private static volatile LibraryScope sharedScope = null;
+
+  private static synchronized LibraryScope initSharedScope(Context cx) {
+    int version = RuntimeLibrary.functions.getVersion();
+    LibraryScope shared = JavascriptRuntime.sharedScope;
+    if (shared != null && shared.version() == version) {
+      return shared;
+    }
+    if (shared != null) {
+      EnumeratedWrapper.cleanup(shared.scope());
+    }
+
+    shared = buildLibraryScope(cx, version, true);
+    JavascriptRuntime.sharedScope = shared;
+    return shared;
+  }
+
+  private static LibraryScope buildLibraryScope(Context cx, int version, boolean sealed) {
+    ScriptableObject scope = cx.initSafeStandardObjects(null, sealed);
 
     Set<String> uniqueFunctionNames =
         getFunctions().stream().map(Symbol::getName).collect(Collectors.toCollection(TreeSet::new));
 
-    Scriptable stdLib = cx.newObject(scope);
-
+    Map<String, LibraryFunctionStub> stubs = new LinkedHashMap<>();
     for (String libraryFunctionName : uniqueFunctionNames) {
-      String jsName = toCamelCase(libraryFunctionName);
-      ScriptableObject.defineProperty(
-          stdLib,
-          jsName,
+      // These stubs act for whichever script is running when they are called
+      var stub =
           new LibraryFunctionStub(
-              stdLib, ScriptableObject.getFunctionPrototype(stdLib), this, libraryFunctionName),
-          READONLY | PERMANENT);
+              scope, ScriptableObject.getFunctionPrototype(scope), null, libraryFunctionName);
+      if (sealed) {
+        stub.sealObject();
+      }
+      stubs.put(toCamelCase(libraryFunctionName), stub);
+    }
+
+    var enumeratedClasses = initEnumeratedTypes(cx, scope);
+    if (sealed) {
+      scope.sealObject();
+    }
+
+    return new LibraryScope(version, scope, stubs, enumeratedClasses);
+  }
+
+  static boolean isSharedScope(Scriptable scope) {
+    LibraryScope shared = JavascriptRuntime.sharedScope;
+    return shared != null && shared.scope() == scope;
+  }
+
+  /** Returns the runtime executing on this thread, if any. */
+  static JavascriptRuntime getCurrentRuntime() {
+    Context cx = Context.getCurrentContext();
+    return cx == null ? null : (JavascriptRuntime) cx.getThreadLocal(JavascriptRuntime.class);
+  }
+
+  /**
+   * Returns the top scope of the script running on this thread, for functions which belong to the
+   * shared scope and so cannot tell from their own scope which script called them.
+   */
+  static Scriptable getScriptScope(Scriptable fallback) {
+    JavascriptRuntime runtime = getCurrentRuntime();
+    if (runtime != null && runtime.currentTopScope != null) {
+      return runtime.currentTopScope;
+    }
+    return ScriptableObject.getTopLevelScope(fallback);
+  }
+
+  // Public only for testing.
+  public Scriptable initRuntimeLibrary(Context cx, Scriptable scope, File scriptFile) {
+    return initRuntimeLibrary(cx, scope, scriptFile, initSharedScope(cx));
+  }
+
+  private Scriptable initRuntimeLibrary(
+      Context cx, Scriptable scope, File scriptFile, LibraryScope library) {
+    var addToTopScope = scriptFile == null;
+
+    Scriptable stdLib = cx.newObject(scope);
+
+    for (var stub : library.stubs().entrySet()) {
+      ScriptableObject.defineProperty(stdLib, stub.getKey(), stub.getValue(), READONLY | PERMANENT);
       if (addToTopScope) {
-        ScriptableObject.defineProperty(
-            scope,
-            jsName,
-            new LibraryFunctionStub(
-                scope, ScriptableObject.getFunctionPrototype(scope), this, libraryFunctionName),
-            DONTENUM);
+        ScriptableObject.defineProperty(scope, stub.getKey(), stub.getValue(), DONTENUM);
       }
     }
 
@@ -167,23 +238,30 @@ public class JavascriptRuntime extends AbstractRuntime {
       ScriptableObject.defineProperty(scope, "sessionStorage", jsObject, DONTENUM);
     }
 
+    for (ScriptableObject constructor : library.enumeratedClasses()) {
+      ScriptableObject.defineProperty(
+          stdLib,
+          ((BaseFunction) constructor).getFunctionName(),
+          constructor,
+          DONTENUM | READONLY | PERMANENT);
+    }
+    var jsArray = (NativeArray) cx.newArray(scope, library.enumeratedClasses().toArray());
+    ScriptableObject.defineProperty(
+        stdLib, "MafiaClasses", jsArray, DONTENUM | READONLY | PERMANENT);
+
     ScriptableObject.defineProperty(
         scope, DEFAULT_RUNTIME_LIBRARY_NAME, stdLib, DONTENUM | READONLY | PERMANENT);
     return stdLib;
   }
 
   private static ScriptableObject initEnumeratedType(
-      Context cx,
-      Scriptable scope,
-      Scriptable runtimeLibrary,
-      Class<?> recordValueClass,
-      Type valueType) {
+      Context cx, Scriptable scope, Class<?> recordValueClass, Type valueType) {
     EnumeratedWrapperPrototype prototype =
         new EnumeratedWrapperPrototype(recordValueClass, valueType);
-    return prototype.initToScope(cx, scope, runtimeLibrary);
+    return prototype.initToScope(cx, scope, null);
   }
 
-  private static void initEnumeratedTypes(Context cx, Scriptable scope, Scriptable runtimeLibrary) {
+  private static List<ScriptableObject> initEnumeratedTypes(Context cx, Scriptable scope) {
     var enumeratedProtos = new ArrayList<ScriptableObject>();
     for (Type valueType : DataTypes.enumeratedTypes) {
       String typeName = capitalize(valueType.getName());
@@ -194,15 +272,10 @@ public class JavascriptRuntime extends AbstractRuntime {
         }
       }
 
-      var proto = initEnumeratedType(cx, scope, runtimeLibrary, proxyRecordValueClass, valueType);
+      var proto = initEnumeratedType(cx, scope, proxyRecordValueClass, valueType);
       if (proto != null) enumeratedProtos.add(proto);
     }
-
-    if (runtimeLibrary != null) {
-      var jsArray = (NativeArray) cx.newArray(scope, enumeratedProtos.toArray());
-      ScriptableObject.defineProperty(
-          runtimeLibrary, "MafiaClasses", jsArray, DONTENUM | READONLY | PERMANENT);
-    }
+    return enumeratedProtos;
   }
 
   @Override
@@ -224,15 +297,29 @@ public class JavascriptRuntime extends AbstractRuntime {
     cx.setTrackUnhandledPromiseRejections(true);
     runningRuntimes.add(this);
 
-    // TODO: Use a shared parent scope and initialize this with that as a prototype.
-    // But be careful. May mess up our EnumeratedWrapper registries.
-    Scriptable scope = cx.initSafeStandardObjects();
+    // Library functions called from here on act for this script
+    Object previousRuntime = cx.getThreadLocal(JavascriptRuntime.class);
+    cx.putThreadLocal(JavascriptRuntime.class, this);
+
+    LibraryScope library;
+    Scriptable scope;
+    if (Preferences.getBoolean("javascriptSharedScope")) {
+      // Everything a script defines at top level goes in its own scope, which inherits the
+      // standard objects and runtime library from the shared one.
+      library = initSharedScope(cx);
+      scope = cx.newObject(library.scope());
+      scope.setPrototype(library.scope());
+      scope.setParentScope(null);
+    } else {
+      // A scope of its own, whose standard objects it is free to change
+      library = buildLibraryScope(cx, RuntimeLibrary.functions.getVersion(), false);
+      scope = library.scope();
+    }
     currentTopScope = scope;
 
     try {
       // If executing from GCLI (and not file), add std lib to top scope.
-      currentStdLib = initRuntimeLibrary(cx, scope, scriptFile);
-      initEnumeratedTypes(cx, scope, currentStdLib);
+      currentStdLib = initRuntimeLibrary(cx, scope, scriptFile, library);
 
       setState(State.NORMAL);
       if (ScriptRuntime.hasTopCall(cx)) {
@@ -257,6 +344,11 @@ public class JavascriptRuntime extends AbstractRuntime {
       EnumeratedWrapper.cleanup(scope);
       currentTopScope = null;
       runningRuntimes.remove(this);
+      if (previousRuntime == null) {
+        cx.removeThreadLocal(JavascriptRuntime.class);
+      } else {
+        cx.putThreadLocal(JavascriptRuntime.class, previousRuntime);
+      }
       Context.exit();
     }
   }
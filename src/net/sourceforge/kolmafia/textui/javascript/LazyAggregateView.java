@@ -0,0 +1,164 @@
+package net.sourceforge.kolmafia.textui.javascript;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.sourceforge.kolmafia.textui.parsetree.CompositeValue;
+import net.sourceforge.kolmafia.textui.parsetree.Value;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.NativeObject;
+import org.mozilla.javascript.Scriptable;
+import org.mozilla.javascript.ScriptableObject;
+
+/**
+ * A JavaScript object over an ASH map or record which converts each entry when it is first read,
+ * rather than converting every entry up front.
+ *
+ * <p>The view is copy-on-write: anything which changes it, or needs all of it at once such as
+ * listing its keys, first converts every entry into an ordinary property, in the order an eager
+ * conversion would have used. From then on it behaves exactly as an eagerly converted object, and
+ * as with one, changes never reach the ASH value.
+ */
+public class LazyAggregateView extends NativeObject {
+  private static final long serialVersionUID = 1L;
+
+  private final transient ScriptableValueConverter converter;
+  private final transient CompositeValue aggregate;
+
+  // Property keys, a String or an Integer, to their ASH keys, in iteration order. Null once the
+  // view has been copied into ordinary properties.
+  private transient Map<Object, Value> keys;
+  // Entries already read, so that reading one twice gives the same object
+  private transient Map<Object, Object> converted;
+
+  LazyAggregateView(
+      Scriptable scope,
+      ScriptableValueConverter converter,
+      CompositeValue aggregate,
+      Map<Object, Value> keys) {
+    this.setPrototype(ScriptableObject.getObjectPrototype(scope));
+    this.setParentScope(scope);
+    this.converter = converter;
+    this.aggregate = aggregate;
+    this.keys = keys;
+    this.converted = new HashMap<>();
+  }
+
+  private Object convert(Object key) {
+    Object value = this.converted.get(key);
+    if (value == null) {
+      value = this.converter.asJava(this.aggregate.aref(this.keys.get(key)));
+      this.converted.put(key, value);
+    }
+    return value;
+  }
+
+  private void copy() {
+    Map<Object, Value> pending = this.keys;
+    if (pending == null || !this.isExtensible()) {
+      // A frozen view can't take new properties, so it stays lazy with its entries unchanged
+      return;
+    }
+
+    for (Object key : pending.keySet()) {
+      Object value = this.convert(key);
+      if (key instanceof Integer index) {
+        super.put(index, this, value);
+      } else {
+        super.put((String) key, this, value);
+      }
+    }
+    this.keys = null;
+    this.converted = null;
+  }
+
+  @Override
+  public Object get(String name, Scriptable start) {
+    if (this.keys != null && this.keys.containsKey(name)) {
+      return this.convert(name);
+    }
+    return super.get(name, start);
+  }
+
+  @Override
+  public Object get(int index, Scriptable start) {
+    if (this.keys != null && this.keys.containsKey(index)) {
+      return this.convert(index);
+    }
+    return super.get(index, start);
+  }
+
+  @Override
+  public boolean has(String name, Scriptable start) {
+    return this.keys != null && this.keys.containsKey(name) || super.has(name, start);
+  }
+
+  @Override
+  public boolean has(int index, Scriptable start) {
+    return this.keys != null && this.keys.containsKey(index) || super.has(index, start);
+  }
+
+  @Override
+  public void put(String name, Scriptable start, Object value) {
+    this.copy();
+    super.put(name, start, value);
+  }
+
+  @Override
+  public void put(int index, Scriptable start, Object value) {
+    this.copy();
+    super.put(index, start, value);
+  }
+
+  @Override
+  public void delete(String name) {
+    this.copy();
+    super.delete(name);
+  }
+
+  @Override
+  public void delete(int index) {
+    this.copy();
+    super.delete(index);
+  }
+
+  private Object[] withPending(Object[] ids) {
+    if (this.keys == null) {
+      return ids;
+    }
+    List<Object> result = new ArrayList<>(this.keys.keySet());
+    result.addAll(Arrays.asList(ids));
+    return result.toArray();
+  }
+
+  @Override
+  public Object[] getIds() {
+    this.copy();
+    return this.withPending(super.getIds());
+  }
+
+  @Override
+  public Object[] getAllIds() {
+    this.copy();
+    return this.withPending(super.getAllIds());
+  }
+
+  @Override
+  protected ScriptableObject getOwnPropertyDescriptor(Context cx, Object id) {
+    this.copy();
+    return super.getOwnPropertyDescriptor(cx, id);
+  }
+
+  @Override
+  public int size() {
+    this.copy();
+    return super.size() + (this.keys == null ? 0 : this.keys.size());
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return this.size() == 0;
+  }
+}
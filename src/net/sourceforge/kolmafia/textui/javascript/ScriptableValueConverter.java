@@ -1,8 +1,12 @@
 package net.sourceforge.kolmafia.textui.javascript;
 
 import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import net.sourceforge.kolmafia.preferences.Preferences;
 import net.sourceforge.kolmafia.textui.DataTypes;
 import net.sourceforge.kolmafia.textui.parsetree.ArrayValue;
+import net.sourceforge.kolmafia.textui.parsetree.CompositeValue;
 import net.sourceforge.kolmafia.textui.parsetree.MapValue;
 import net.sourceforge.kolmafia.textui.parsetree.PluralValue;
 import net.sourceforge.kolmafia.textui.parsetree.RecordValue;
@@ -30,45 +34,75 @@ public class ScriptableValueConverter extends ValueConverter<Scriptable> {
 
   private final Context cx;
   private final Scriptable scope;
+  private final boolean lazyAggregates;
 
   public ScriptableValueConverter(Context cx, Scriptable scope) {
     this.cx = cx;
     this.scope = scope;
+    this.lazyAggregates = Preferences.getBoolean("javascriptLazyAggregates");
   }
 
-  @Override
-  protected Scriptable asJavaObject(MapValue mapValue) {
+  boolean converts(Context cx, Scriptable scope) {
+    return this.cx == cx && this.scope == scope;
+  }
+
+  // The property a map key becomes: a String, or an Integer for an index
+  private static Object mapKey(Value key) {
+    if (key.getType().equals(DataTypes.STRING_TYPE)
+        || DataTypes.enumeratedTypes.contains(key.getType()) && key.contentString.length() > 0) {
+      return key.contentString;
+    } else if (key.getType().equals(DataTypes.INT_TYPE)
+        || DataTypes.enumeratedTypes.contains(key.getType()) && key.contentLong > 0) {
+      return (int) key.contentLong;
+    } else {
+      throw new ValueConverterException(
+          "Maps may only have keys of type string, int or an enumerated type.");
+    }
+  }
+
+  // The property a record field becomes
+  private static Object recordKey(Value key) {
+    if (key.getType().equals(DataTypes.INT_TYPE)) {
+      return Long.toString(key.contentLong);
+    } else if (!key.getType().equals(DataTypes.STRING_TYPE)) {
+      throw new ValueConverterException("Records may only have string keys.");
+    }
+    return key.contentString;
+  }
+
+  private Scriptable asJavaObject(CompositeValue value, Map<Object, Value> keys) {
+    if (this.lazyAggregates) {
+      return new LazyAggregateView(scope, this, value, keys);
+    }
+
     Scriptable result = cx.newObject(scope);
-    for (Value key : mapValue.keys()) {
-      Value value = mapValue.aref(key);
-      if (key.getType().equals(DataTypes.STRING_TYPE)
-          || DataTypes.enumeratedTypes.contains(key.getType()) && key.contentString.length() > 0) {
-        ScriptableObject.putProperty(result, key.contentString, asJava(value));
-      } else if (key.getType().equals(DataTypes.INT_TYPE)
-          || DataTypes.enumeratedTypes.contains(key.getType()) && key.contentLong > 0) {
-        ScriptableObject.putProperty(result, (int) key.contentLong, asJava(value));
+    for (var entry : keys.entrySet()) {
+      Object property = asJava(value.aref(entry.getValue()));
+      if (entry.getKey() instanceof Integer index) {
+        ScriptableObject.putProperty(result, index, property);
       } else {
-        throw new ValueConverterException(
-            "Maps may only have keys of type string, int or an enumerated type.");
+        ScriptableObject.putProperty(result, (String) entry.getKey(), property);
       }
     }
     return result;
   }
 
+  @Override
+  protected Scriptable asJavaObject(MapValue mapValue) {
+    Map<Object, Value> keys = new LinkedHashMap<>();
+    for (Value key : mapValue.keys()) {
+      keys.put(mapKey(key), key);
+    }
+    return asJavaObject(mapValue, keys);
+  }
+
   @Override
   protected Scriptable asJavaObject(RecordValue recordValue) {
-    Scriptable result = cx.newObject(scope);
+    Map<Object, Value> keys = new LinkedHashMap<>();
     for (Value key : recordValue.keys()) {
-      Value value = recordValue.aref(key);
-      String keyString = key.contentString;
-      if (key.getType().equals(DataTypes.INT_TYPE)) {
-        keyString = Long.toString(key.contentLong);
-      } else if (!key.getType().equals(DataTypes.STRING_TYPE)) {
-        throw new ValueConverterException("Records may only have string keys.");
-      }
-      ScriptableObject.putProperty(result, keyString, asJava(value));
+      keys.put(recordKey(key), key);
     }
-    return result;
+    return asJavaObject(recordValue, keys);
   }
 
   @Override
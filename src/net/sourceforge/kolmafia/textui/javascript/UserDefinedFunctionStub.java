@@ -1,6 +1,5 @@
 package net.sourceforge.kolmafia.textui.javascript;
 
-import java.util.ArrayList;
 import java.util.List;
 import net.sourceforge.kolmafia.textui.AshRuntime;
 import net.sourceforge.kolmafia.textui.Parser;
@@ -33,12 +32,14 @@ public class UserDefinedFunctionStub extends AshStub {
       throw controller.runtimeException(Parser.undefinedFunctionMessage(ashFunctionName, ashArgs));
     }
 
-    List<Object> ashArgsWithInterpreter = new ArrayList<>(ashArgs.size() + 1);
-    ashArgsWithInterpreter.add(controller);
-    ashArgsWithInterpreter.addAll(ashArgs);
+    Object[] ashArgsWithInterpreter = new Object[ashArgs.size() + 1];
+    ashArgsWithInterpreter[0] = controller;
+    for (int i = 0; i < ashArgs.size(); i++) {
+      ashArgsWithInterpreter[i + 1] = ashArgs.get(i);
+    }
 
     try {
-      return ashFunction.execute((AshRuntime) controller, ashArgsWithInterpreter.toArray());
+      return ashFunction.execute((AshRuntime) controller, ashArgsWithInterpreter);
     } catch (Throwable e) {
       // ensure the exception can be caught in Javascript
       throw Context.throwAsScriptRuntimeEx(e);
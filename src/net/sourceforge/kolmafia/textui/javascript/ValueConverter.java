@@ -211,6 +211,14 @@ public abstract class ValueConverter<ObjectType> {
 
   public FunctionWithArgs findMatchingFunctionConvertArgs(
       FunctionList functions, String functionName, Object[] args) {
+    return matchFunction(functions, functionName, args, convertArgs(functionName, args));
+  }
+
+  /**
+   * Converts JavaScript arguments to ASH values ahead of overload resolution. Arguments whose type
+   * can't be determined from JS alone come back as ANY_TYPE.
+   */
+  public List<Value> convertArgs(String functionName, Object[] args) {
     if (bufferFunctions.contains(functionName)) {
       // Manually convert string to buffer, since findMatchingFunction cannot match a string
       // argument to a
@@ -233,7 +241,7 @@ public abstract class ValueConverter<ObjectType> {
     // First, designate any arguments where we can't determine type (or aggregate type) from JS
     // as ANY_TYPE, which will be replaced in findMatchingFunction with the target type
     // to force a match. This is mainly relevant for empty arrays and records.
-    List<Value> ashArgs = new ArrayList<>();
+    List<Value> ashArgs = new ArrayList<>(definedArgs);
     for (int i = 0; i < definedArgs; i++) {
       Object original = args[i];
       if (Undefined.isUndefined(original)) {
@@ -250,7 +258,12 @@ public abstract class ValueConverter<ObjectType> {
       }
       ashArgs.add(coerced);
     }
+    return ashArgs;
+  }
 
+  /** Chooses the overload for arguments from convertArgs, converting any ANY_TYPE ones to fit. */
+  public FunctionWithArgs matchFunction(
+      FunctionList functions, String functionName, Object[] args, List<Value> ashArgs) {
     Function function = functions.findMatchingFunction(functionName, ashArgs, true);
     if (function == null) return null;
 
@@ -296,6 +296,17 @@ public abstract class Function extends Symbol {
   }
 
   public Object[] bindVariableReferences(AshRuntime interpreter, Object[] values) {
+    if (values.length == this.variableReferences.size() + 1 && !this.hasVarArg) {
+      // One value per parameter, so there is nothing to collapse.
+      if (interpreter != null) {
+        int paramCount = 1;
+        for (VariableReference paramVarRef : this.variableReferences) {
+          paramVarRef.setValue(interpreter, (Value) values[paramCount++]);
+        }
+      }
+      return values;
+    }
+
     List<Object> newValues = new ArrayList<>();
 
     // This is the interpreter.
@@ -1,7 +1,9 @@
 package net.sourceforge.kolmafia.textui.parsetree;
 
 import java.io.PrintStream;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 import net.sourceforge.kolmafia.KoLmafia;
 import net.sourceforge.kolmafia.textui.AshRuntime;
 import net.sourceforge.kolmafia.textui.DataTypes;
@@ -15,6 +17,8 @@ public class FunctionCall extends Evaluable {
   protected final List<Evaluable> params;
   protected final String fileName;
   protected final int lineNumber;
+  // Argument array kept between calls; a recursive or concurrent call finds it taken and allocates
+  private final AtomicReference<Object[]> spareValues = new AtomicReference<>();
 
   public FunctionCall(
       final Location location,
@@ -26,6 +30,10 @@ public class FunctionCall extends Evaluable {
     this.params = params;
     this.fileName = parser.getShortFileName();
     this.lineNumber = parser.getLineNumber();
+
+    if (target instanceof LibraryFunction libraryFunction) {
+      libraryFunction.getInvoker();
+    }
   }
 
   public Function getTarget() {
@@ -55,9 +63,22 @@ public class FunctionCall extends Evaluable {
 
     interpreter.traceIndent();
 
-    Object[] values = new Object[params.size() + 1];
+    Object[] values = this.spareValues.getAndSet(null);
+    if (values == null) {
+      values = new Object[params.size() + 1];
+    }
     values[0] = interpreter;
 
+    try {
+      return this.executeWith(interpreter, values);
+    } finally {
+      // Don't keep the arguments alive until the next call
+      Arrays.fill(values, null);
+      this.spareValues.set(values);
+    }
+  }
+
+  private Value executeWith(final AshRuntime interpreter, final Object[] values) {
     int paramCount = 1;
 
     for (Evaluable paramValue : this.params) {
@@ -13,16 +13,25 @@ public class FunctionList implements Iterable<Function> {
   // Assumes that \0 will never appear in a function name.
   private char sequence = '\0';
 
+  // Changes whenever a function is added or removed
+  private int version = 0;
+
   public boolean add(final Function f) {
     this.list.put(f.getName().toLowerCase() + '\0' + this.sequence, f);
     ++this.sequence;
+    ++this.version;
     return true;
   }
 
   public boolean remove(final Function f) {
+    ++this.version;
     return this.list.values().remove(f);
   }
 
+  public int getVersion() {
+    return this.version;
+  }
+
   public boolean isEmpty() {
     return list.isEmpty();
   }
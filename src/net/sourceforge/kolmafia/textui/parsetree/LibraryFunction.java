@@ -1,6 +1,8 @@
 package net.sourceforge.kolmafia.textui.parsetree;
 
-import java.lang.reflect.InvocationTargetException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 import java.util.List;
@@ -15,6 +17,8 @@ import net.sourceforge.kolmafia.textui.ScriptRuntime;
 
 public class LibraryFunction extends Function {
   private final Method method;
+  // Takes the bound values as one array; created when the parser first sees a call
+  private volatile MethodHandle invoker;
   public final String[] deprecationWarning;
 
   public LibraryFunction(
@@ -38,6 +42,40 @@ public class LibraryFunction extends Function {
     return RuntimeLibrary.findMethod(name, args);
   }
 
+  MethodHandle getInvoker() {
+    MethodHandle invoker = this.invoker;
+    if (invoker == null) {
+      int paramCount = this.method.getParameterCount();
+      try {
+        invoker =
+            MethodHandles.publicLookup()
+                .unreflect(this.method)
+                .asFixedArity()
+                .asType(MethodType.genericMethodType(paramCount))
+                .asSpreader(Object[].class, paramCount);
+      } catch (IllegalAccessException e) {
+        // This is not expected, but is an internal error in ASH
+        throw new ScriptException(e);
+      }
+      this.invoker = invoker;
+    }
+    return invoker;
+  }
+
+  private Value invoke(final Object[] values) {
+    try {
+      Object result = this.getInvoker().invokeExact(values);
+      return (Value) result;
+    } catch (ScriptException e) {
+      // Pass up exceptions intentionally generated by library
+      throw e;
+    } catch (Throwable e) {
+      // This is an error in the called method. Pass
+      // it on up so that we'll print a stack trace.
+      throw new RuntimeException(e);
+    }
+  }
+
   private static Method findLibraryMethodOrError(String name, int paramCount) {
     try {
       return LibraryFunction.findLibraryMethod(name, paramCount);
@@ -66,27 +104,12 @@ public class LibraryFunction extends Function {
       throw interpreter.runtimeException("Internal error: no method for " + this.getName());
     }
 
-    try {
-      // Bind values to variable references.
-      // Collapse values into VarArgs array
-      values = this.bindVariableReferences(interpreter, values);
-
-      // Invoke the method
-      return (Value) this.method.invoke(this, values);
-    } catch (InvocationTargetException e) {
-      // This is an error in the called method. Pass
-      // it on up so that we'll print a stack trace.
+    // Bind values to variable references.
+    // Collapse values into VarArgs array
+    values = this.bindVariableReferences(interpreter, values);
 
-      Throwable cause = e.getCause();
-      if (cause instanceof ScriptException) {
-        // Pass up exceptions intentionally generated by library
-        throw (ScriptException) cause;
-      }
-      throw new RuntimeException(cause);
-    } catch (IllegalAccessException e) {
-      // This is not expected, but is an internal error in ASH
-      throw new ScriptException(e);
-    }
+    // Invoke the method
+    return this.invoke(values);
   }
 
   // This is necessary for calls into the runtime library from other languages.
@@ -100,26 +123,11 @@ public class LibraryFunction extends Function {
       throw controller.runtimeException("Internal error: no method for " + this.getName());
     }
 
-    try {
-      // Collapse values into VarArgs array
-      values = this.bindVariableReferences(null, values);
+    // Collapse values into VarArgs array
+    values = this.bindVariableReferences(null, values);
 
-      // Invoke the method
-      return (Value) this.method.invoke(this, values);
-    } catch (InvocationTargetException e) {
-      // This is an error in the called method. Pass
-      // it on up so that we'll print a stack trace.
-
-      Throwable cause = e.getCause();
-      if (cause instanceof ScriptException) {
-        // Pass up exceptions intentionally generated by library
-        throw (ScriptException) cause;
-      }
-      throw new RuntimeException(cause);
-    } catch (IllegalAccessException e) {
-      // This is not expected, but is an internal error in ASH
-      throw new ScriptException(e);
-    }
+    // Invoke the method
+    return this.invoke(values);
   }
 
   public List<String> getParameterNames() {
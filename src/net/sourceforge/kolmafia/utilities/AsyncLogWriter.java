@@ -0,0 +1,200 @@
+package net.sourceforge.kolmafia.utilities;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Writes log files on a single background thread. Each log has a preallocated ring buffer which
+ * the logging thread copies its bytes into; the writer empties every buffer to disk in one batch
+ * when the flush interval passes or a buffer is half full, whichever comes first.
+ *
+ * <p>Flushing or closing a log writes out whatever it holds before returning, and everything still
+ * buffered is written out when the JVM exits.
+ */
+public class AsyncLogWriter {
+  private static final int BUFFER_SIZE = 256 * 1024;
+
+  private static final List<Channel> channels = new CopyOnWriteArrayList<>();
+  private static final Object lock = new Object();
+  private static boolean wakeup = false;
+  private static Thread writer = null;
+
+  // Milliseconds between batches. 0 writes each line out as soon as the writer gets to it.
+  private static volatile int flushInterval = 1000;
+
+  private AsyncLogWriter() {}
+
+  public static void setFlushInterval(final int millis) {
+    AsyncLogWriter.flushInterval = Math.max(0, millis);
+    AsyncLogWriter.wake();
+  }
+
+  /** Returns a stream which buffers writes for the background writer to send to the given one. */
+  public static OutputStream wrap(final OutputStream ostream) {
+    synchronized (AsyncLogWriter.lock) {
+      if (AsyncLogWriter.writer == null) {
+        AsyncLogWriter.writer = new Thread(AsyncLogWriter::run, "AsyncLogWriter");
+        AsyncLogWriter.writer.setDaemon(true);
+        AsyncLogWriter.writer.start();
+        Runtime.getRuntime()
+            .addShutdownHook(new Thread(AsyncLogWriter::drainAll, "AsyncLogWriterDrain"));
+      }
+    }
+
+    Channel channel = new Channel(ostream);
+    AsyncLogWriter.channels.add(channel);
+    return channel;
+  }
+
+  private static void wake() {
+    synchronized (AsyncLogWriter.lock) {
+      AsyncLogWriter.wakeup = true;
+      AsyncLogWriter.lock.notifyAll();
+    }
+  }
+
+  private static void run() {
+    while (true) {
+      synchronized (AsyncLogWriter.lock) {
+        try {
+          while (!AsyncLogWriter.wakeup) {
+            int interval = AsyncLogWriter.flushInterval;
+            AsyncLogWriter.lock.wait(interval);
+            if (interval > 0) {
+              break;
+            }
+          }
+        } catch (InterruptedException e) {
+          return;
+        }
+        AsyncLogWriter.wakeup = false;
+      }
+
+      AsyncLogWriter.drainAll();
+    }
+  }
+
+  /** Writes out everything buffered in every open log. */
+  public static void drainAll() {
+    for (Channel channel : AsyncLogWriter.channels) {
+      try {
+        channel.drain();
+      } catch (IOException e) {
+        // Nowhere to log this; the log which failed gets what it can
+      }
+    }
+  }
+
+  static class Channel extends OutputStream {
+    private final OutputStream ostream;
+    private final byte[] ring = new byte[BUFFER_SIZE];
+    private int head = 0;
+    private int size = 0;
+    private long written = 0;
+    private boolean closed = false;
+
+    // Only touched while holding ioLock
+    private final Object ioLock = new Object();
+    private final byte[] batch = new byte[BUFFER_SIZE];
+
+    Channel(final OutputStream ostream) {
+      this.ostream = ostream;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      this.write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b, int off, int len) throws IOException {
+      boolean wake = false;
+
+      while (len > 0) {
+        int copied;
+        synchronized (this) {
+          if (this.closed) {
+            throw new IOException("Log is closed");
+          }
+
+          copied = Math.min(len, BUFFER_SIZE - this.size);
+          int tail = (this.head + this.size) % BUFFER_SIZE;
+          int first = Math.min(copied, BUFFER_SIZE - tail);
+          System.arraycopy(b, off, this.ring, tail, first);
+          System.arraycopy(b, off + first, this.ring, 0, copied - first);
+          this.size += copied;
+          this.written += copied;
+
+          wake = this.size >= BUFFER_SIZE / 2 || AsyncLogWriter.flushInterval == 0;
+        }
+
+        off += copied;
+        len -= copied;
+
+        // If the buffer filled up, write it out from this thread rather than wait
+        if (len > 0) {
+          this.drain();
+        }
+      }
+
+      if (wake) {
+        AsyncLogWriter.wake();
+      }
+    }
+
+    // The number of bytes written to this stream, whether or not they have reached the file yet
+    synchronized long position() {
+      return this.written;
+    }
+
+    void drain() throws IOException {
+      synchronized (this.ioLock) {
+        int count;
+        synchronized (this) {
+          count = this.size;
+          int first = Math.min(count, BUFFER_SIZE - this.head);
+          System.arraycopy(this.ring, this.head, this.batch, 0, first);
+          System.arraycopy(this.ring, 0, this.batch, first, count - first);
+          this.head = (this.head + count) % BUFFER_SIZE;
+          this.size = 0;
+        }
+
+        if (count > 0) {
+          this.ostream.write(this.batch, 0, count);
+          this.ostream.flush();
+        }
+      }
+    }
+
+    @Override
+    public void flush() throws IOException {
+      this.drain();
+    }
+
+    @Override
+    public void close() throws IOException {
+      synchronized (this.ioLock) {
+        synchronized (this) {
+          if (this.closed) {
+            return;
+          }
+          this.closed = true;
+        }
+        AsyncLogWriter.channels.remove(this);
+
+        // Nothing can be added once closed, so this writes out the last of it
+        int count = this.size;
+        int first = Math.min(count, BUFFER_SIZE - this.head);
+        try {
+          this.ostream.write(this.ring, this.head, first);
+          this.ostream.write(this.ring, 0, count - first);
+          this.size = 0;
+        } finally {
+          this.ostream.close();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,282 @@
+package net.sourceforge.kolmafia.utilities;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import net.java.dev.spellcast.utilities.UtilityConstants;
+import net.sourceforge.kolmafia.KoLConstants;
+import net.sourceforge.kolmafia.StaticEntity;
+import net.sourceforge.kolmafia.utilities.FileUtilities.PreloadedFile;
+
+/**
+ * A binary image of the preloaded data files, already split into fields, so that later launches
+ * can skip reading and tokenizing the text files. The image is read into memory in one piece and
+ * its strings are decoded once each, however many rows share them.
+ *
+ * <p>An image is only used by the build which wrote it, and only while every bundled data file and
+ * every override file in the data directory is as it was when it was written; otherwise it is
+ * ignored and the text files are read as usual. Bundled files are compared by size and timestamp,
+ * or by those of the jar holding them, since the build version does not change between
+ * development builds.
+ *
+ * <p>Layout, all big-endian: a header of magic, format, build version and file count; for each
+ * file its name, version, override timestamp, bundled size and timestamp, and line count; a
+ * string table of lengths followed by the UTF-8 bytes of every string; and finally the lines as
+ * ints. A line is its field count followed by that many string indices, or -1 and the index of
+ * the text of a comment or blank.
+ */
+public class DataSnapshot {
+  public static final String SNAPSHOT_FILE = "snapshot.bin";
+
+  private static final int MAGIC = 0x4B4D4453;
+  private static final int FORMAT = 2;
+
+  private DataSnapshot() {}
+
+  public static File getFile() {
+    return new File(KoLConstants.DATA_LOCATION, DataSnapshot.SNAPSHOT_FILE);
+  }
+
+  private static long overrideModified(final String filename) {
+    // lastModified is 0 for a file which does not exist
+    return new File(KoLConstants.DATA_LOCATION, filename).lastModified();
+  }
+
+  /**
+   * Returns the size and timestamp of the copy of a data file bundled with the build. When it is
+   * inside a jar, those of the jar are used instead. Both are -1 if it can't be found on disk.
+   */
+  static long[] bundledStamp(final String filename) {
+    String fullname = UtilityConstants.DATA_DIRECTORY + filename;
+    URL url = UtilityConstants.SYSTEM_CLASSLOADER.getResource(fullname);
+    if (url == null) {
+      url = UtilityConstants.MAINCLASS_CLASSLOADER.getResource(fullname);
+    }
+    if (url == null) {
+      return new long[] {-1, -1};
+    }
+
+    try {
+      File file;
+      switch (url.getProtocol()) {
+        case "file" -> file = new File(url.toURI());
+        case "jar" -> {
+          String path = url.getPath();
+          int separator = path.indexOf("!/");
+          file = new File(URI.create(separator == -1 ? path : path.substring(0, separator)));
+        }
+        default -> {
+          return new long[] {-1, -1};
+        }
+      }
+      return new long[] {file.length(), file.lastModified()};
+    } catch (URISyntaxException | IllegalArgumentException e) {
+      return new long[] {-1, -1};
+    }
+  }
+
+  /**
+   * Preloads every data file in the image, unless it is missing, from another build, or older than
+   * a bundled or override file. Returns whether it was used.
+   */
+  public static boolean load(final File snapshot) {
+    if (!snapshot.exists()) {
+      return false;
+    }
+
+    Map<String, PreloadedFile> files;
+    try {
+      // Read rather than mapped: everything is copied out anyway, and a mapping would hold the
+      // file open, so that on Windows a stale image could not be replaced.
+      files = DataSnapshot.read(ByteBuffer.wrap(Files.readAllBytes(snapshot.toPath())));
+    } catch (IOException | RuntimeException e) {
+      // A truncated or damaged image is simply rewritten
+      files = null;
+    }
+
+    if (files == null) {
+      return false;
+    }
+
+    FileUtilities.preloaded.putAll(files);
+    return true;
+  }
+
+  private static Map<String, PreloadedFile> read(final ByteBuffer buffer) {
+    if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+      return null;
+    }
+    if (!DataSnapshot.getString(buffer).equals(StaticEntity.getVersion())) {
+      return null;
+    }
+
+    int fileCount = buffer.getInt();
+    String[] names = new String[fileCount];
+    int[] versions = new int[fileCount];
+    int[] lineCounts = new int[fileCount];
+    for (int i = 0; i < fileCount; ++i) {
+      names[i] = DataSnapshot.getString(buffer);
+      versions[i] = buffer.getInt();
+      long modified = buffer.getLong();
+      long bundledSize = buffer.getLong();
+      long bundledModified = buffer.getLong();
+      lineCounts[i] = buffer.getInt();
+      if (DataSnapshot.overrideModified(names[i]) != modified) {
+        return null;
+      }
+      long[] bundled = DataSnapshot.bundledStamp(names[i]);
+      if (bundled[0] != bundledSize || bundled[1] != bundledModified) {
+        return null;
+      }
+    }
+
+    int stringCount = buffer.getInt();
+    int byteCount = buffer.getInt();
+    int[] lengths = new int[stringCount];
+    buffer.asIntBuffer().get(lengths);
+    buffer.position(buffer.position() + stringCount * 4);
+    byte[] bytes = new byte[byteCount];
+    buffer.get(bytes);
+    String[] strings = new String[stringCount];
+    for (int i = 0, offset = 0; i < stringCount; offset += lengths[i++]) {
+      strings[i] = new String(bytes, offset, lengths[i], StandardCharsets.UTF_8);
+    }
+
+    int cellCount = buffer.getInt();
+    int[] cells = new int[cellCount];
+    IntBuffer ints = buffer.asIntBuffer();
+    ints.get(cells);
+
+    Map<String, PreloadedFile> files = new HashMap<>();
+    int cell = 0;
+    for (int i = 0; i < fileCount; ++i) {
+      String[] lines = new String[lineCounts[i]];
+      String[][] data = new String[lineCounts[i]][];
+      for (int line = 0; line < lines.length; ++line) {
+        int fieldCount = cells[cell++];
+        if (fieldCount < 0) {
+          lines[line] = strings[cells[cell++]];
+          continue;
+        }
+        String[] fields = new String[fieldCount];
+        for (int field = 0; field < fieldCount; ++field) {
+          fields[field] = strings[cells[cell++]];
+        }
+        data[line] = fields;
+      }
+      files.put(names[i], new PreloadedFile(versions[i], lines, data));
+    }
+    return files;
+  }
+
+  private static String getString(final ByteBuffer buffer) {
+    byte[] bytes = new byte[buffer.getInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /** Writes every data file currently preloaded to an image. */
+  public static void save(final File snapshot) {
+    List<Map.Entry<String, PreloadedFile>> files =
+        new ArrayList<>(FileUtilities.preloaded.entrySet());
+    if (files.isEmpty()) {
+      return;
+    }
+
+    Map<String, Integer> indices = new HashMap<>();
+    List<byte[]> strings = new ArrayList<>();
+    int byteCount = 0;
+    List<int[]> lines = new ArrayList<>();
+    int cellCount = 0;
+
+    for (var entry : files) {
+      PreloadedFile file = entry.getValue();
+      for (int i = 0; i < file.lines().length; ++i) {
+        String[] fields = file.data()[i];
+        String[] values = fields == null ? new String[] {file.line(i)} : fields;
+        int[] cells = new int[values.length + 1];
+        cells[0] = fields == null ? -1 : fields.length;
+        for (int field = 0; field < values.length; ++field) {
+          Integer index = indices.get(values[field]);
+          if (index == null) {
+            index = strings.size();
+            indices.put(values[field], index);
+            byte[] bytes = values[field].getBytes(StandardCharsets.UTF_8);
+            strings.add(bytes);
+            byteCount += bytes.length;
+          }
+          cells[field + 1] = index;
+        }
+        lines.add(cells);
+        cellCount += cells.length;
+      }
+    }
+
+    File temp = new File(snapshot.getPath() + ".tmp");
+    try (DataOutputStream ostream =
+        new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+      ostream.writeInt(MAGIC);
+      ostream.writeInt(FORMAT);
+      DataSnapshot.putString(ostream, StaticEntity.getVersion());
+
+      ostream.writeInt(files.size());
+      for (var entry : files) {
+        DataSnapshot.putString(ostream, entry.getKey());
+        ostream.writeInt(entry.getValue().version());
+        ostream.writeLong(DataSnapshot.overrideModified(entry.getKey()));
+        long[] bundled = DataSnapshot.bundledStamp(entry.getKey());
+        ostream.writeLong(bundled[0]);
+        ostream.writeLong(bundled[1]);
+        ostream.writeInt(entry.getValue().lines().length);
+      }
+
+      ostream.writeInt(strings.size());
+      ostream.writeInt(byteCount);
+      for (byte[] bytes : strings) {
+        ostream.writeInt(bytes.length);
+      }
+      for (byte[] bytes : strings) {
+        ostream.write(bytes);
+      }
+
+      ostream.writeInt(cellCount);
+      for (int[] cells : lines) {
+        for (int cell : cells) {
+          ostream.writeInt(cell);
+        }
+      }
+    } catch (IOException e) {
+      StaticEntity.printStackTrace(e);
+      temp.delete();
+      return;
+    }
+
+    try {
+      Files.move(temp.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    } catch (IOException e) {
+      StaticEntity.printStackTrace(e);
+      temp.delete();
+    }
+  }
+
+  private static void putString(final DataOutputStream ostream, final String value)
+      throws IOException {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    ostream.writeInt(bytes.length);
+    ostream.write(bytes);
+  }
+}
@@ -8,6 +8,8 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.net.http.HttpClient;
@@ -20,6 +22,8 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.zip.GZIPInputStream;
 import javax.swing.ImageIcon;
 import net.java.dev.spellcast.utilities.DataUtilities;
@@ -75,7 +79,96 @@ public class FileUtilities {
     return reader;
   }
 
+  // Data files read ahead of time, keyed by file name
+  static final Map<String, PreloadedFile> preloaded = new ConcurrentHashMap<>();
+
+  // A line is null where it has not been needed since its data row was loaded from a snapshot
+  record PreloadedFile(int version, String[] lines, String[][] data) {
+    String line(final int index) {
+      String line = this.lines[index];
+      if (line == null) {
+        line = String.join("\t", this.data[index]);
+        this.lines[index] = line;
+      }
+      return line;
+    }
+  }
+
+  // Hands out the lines of a preloaded file; readData returns them already split
+  private static class PreloadedReader extends BufferedReader {
+    private final PreloadedFile file;
+    private int index = 0;
+
+    PreloadedReader(final PreloadedFile file) {
+      super(Reader.nullReader(), 1);
+      this.file = file;
+    }
+
+    @Override
+    public String readLine() {
+      return this.index < this.file.lines().length ? this.file.line(this.index++) : null;
+    }
+
+    String[] readData() {
+      String[][] data = this.file.data();
+      while (this.index < data.length) {
+        String[] row = data[this.index++];
+        if (row != null) {
+          // Callers are free to modify what they are given
+          return row.clone();
+        }
+      }
+      return null;
+    }
+
+    @Override
+    public void close() {}
+  }
+
+  /**
+   * Reads and splits a data file so that later calls to getVersionedReader for it are served from
+   * memory. Files are preloaded in parallel at startup; see DatabaseStartup.
+   */
+  public static void preloadVersionedFile(final String filename, final int version) {
+    try (BufferedReader reader = FileUtilities.readVersionedFile(filename, version)) {
+      if (reader == null) {
+        return;
+      }
+
+      String[] lines = reader.lines().toArray(String[]::new);
+      String[][] data = new String[lines.length][];
+      for (int i = 0; i < lines.length; ++i) {
+        String line = lines[i];
+        if (!line.startsWith("#") && line.length() != 0) {
+          data[i] = line.split("\t", -1);
+        }
+      }
+      FileUtilities.preloaded.put(filename, new PreloadedFile(version, lines, data));
+    } catch (IOException | UncheckedIOException e) {
+      StaticEntity.printStackTrace(e);
+    }
+  }
+
+  public static boolean isPreloaded(final String filename, final int version) {
+    PreloadedFile file = FileUtilities.preloaded.get(filename);
+    return file != null && file.version() == version;
+  }
+
+  /** Forgets every preloaded file, so that data files are read from disk again. */
+  public static void clearPreloadedFiles() {
+    FileUtilities.preloaded.clear();
+  }
+
   public static final BufferedReader getVersionedReader(final String filename, final int version) {
+    PreloadedFile file = FileUtilities.preloaded.get(filename);
+    if (file != null && file.version() == version) {
+      return new PreloadedReader(file);
+    }
+
+    return FileUtilities.readVersionedFile(filename, version);
+  }
+
+  private static BufferedReader readVersionedFile(final String filename, final int version) {
     BufferedReader reader =
         FileUtilities.getReader(
             DataUtilities.getReader(KoLConstants.DATA_DIRECTORY, filename, true));
@@ -153,6 +246,10 @@ public class FileUtilities {
       return null;
     }
 
+    if (reader instanceof PreloadedReader preloadedReader) {
+      return preloadedReader.readData();
+    }
+
     String line = readLine(reader);
     return line == null ? null : line.split("\t", -1);
   }
@@ -0,0 +1,12 @@
+package net.sourceforge.kolmafia.utilities;
+
+import net.sourceforge.kolmafia.AdventureResult;
+
+/** A list of items which can find an item without searching the list. */
+public interface IndexedItemList {
+  /**
+   * Returns the element of this list which matches item, as {@link java.util.List#indexOf} would
+   * find it, or null if there is none.
+   */
+  AdventureResult findItem(AdventureResult item);
+}
@@ -0,0 +1,79 @@
+package net.sourceforge.kolmafia.utilities;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import net.sourceforge.kolmafia.AdventureResult;
+
+/**
+ * Maps item ids to the elements of an item list, for the lists in {@link IndexedItemList}. The
+ * list owning the index must report every element it gains or loses.
+ *
+ * <p>A list may hold two elements for one item id, if they have different names. Those ids are
+ * remembered and looked up by searching the list instead.
+ */
+public class ItemIndex {
+  private final Map<Integer, AdventureResult> items = new ConcurrentHashMap<>();
+  private final Set<Integer> duplicated = ConcurrentHashMap.newKeySet();
+
+  private static boolean isIndexed(final Object element) {
+    return element instanceof AdventureResult ar && ar.isItem() && ar.getItemId() > 0;
+  }
+
+  public void added(final Object element) {
+    if (!isIndexed(element)) {
+      return;
+    }
+
+    AdventureResult item = (AdventureResult) element;
+    AdventureResult previous = this.items.putIfAbsent(item.getItemId(), item);
+    if (previous != null && previous != item) {
+      this.duplicated.add(item.getItemId());
+    }
+  }
+
+  public void removed(final Object element) {
+    if (!isIndexed(element)) {
+      return;
+    }
+
+    AdventureResult item = (AdventureResult) element;
+    this.items.remove(item.getItemId(), item);
+  }
+
+  public void replaced(final Object previous, final Object element) {
+    this.removed(previous);
+    this.added(element);
+  }
+
+  public void clear() {
+    this.items.clear();
+    this.duplicated.clear();
+  }
+
+  public void rebuild(final Collection<?> elements) {
+    this.clear();
+    for (Object element : elements) {
+      this.added(element);
+    }
+  }
+
+  public AdventureResult find(final AdventureResult item, final List<AdventureResult> list) {
+    int itemId = item.getItemId();
+    if (!isIndexed(item) || this.duplicated.contains(itemId)) {
+      int index = list.indexOf(item);
+      return index == -1 ? null : list.get(index);
+    }
+
+    AdventureResult found = this.items.get(itemId);
+    if (found == null || found.compareTo(item) == 0) {
+      return found;
+    }
+
+    // Same item id, but a different name.
+    int index = list.indexOf(item);
+    return index == -1 ? null : list.get(index);
+  }
+}
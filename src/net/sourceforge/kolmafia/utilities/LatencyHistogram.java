@@ -0,0 +1,86 @@
+package net.sourceforge.kolmafia.utilities;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A lock-free histogram of durations in microseconds, laid out like an HdrHistogram. Each power of
+ * two is split into sixteen equal buckets, so any recorded value is reported to within about 6%,
+ * while the whole range up to a day fits in a few hundred counters.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BITS = 4;
+  private static final int SUB_COUNT = 1 << SUB_BITS;
+  // 2^37 microseconds is a little over a day and a half
+  private static final int MAX_EXPONENT = 36;
+  private static final long MAX_VALUE = (1L << (MAX_EXPONENT + 1)) - 1;
+
+  private final AtomicLongArray counts =
+      new AtomicLongArray((MAX_EXPONENT - SUB_BITS + 2) * SUB_COUNT);
+  private final AtomicLong count = new AtomicLong();
+  private final AtomicLong total = new AtomicLong();
+  private final AtomicLong max = new AtomicLong();
+
+  public void record(long micros) {
+    micros = Math.max(0, Math.min(micros, MAX_VALUE));
+    this.counts.incrementAndGet(LatencyHistogram.indexOf(micros));
+    this.count.incrementAndGet();
+    this.total.addAndGet(micros);
+    this.max.accumulateAndGet(micros, Math::max);
+  }
+
+  public long getCount() {
+    return this.count.get();
+  }
+
+  public long getMax() {
+    return this.max.get();
+  }
+
+  public long getMean() {
+    long count = this.count.get();
+    return count == 0 ? 0 : this.total.get() / count;
+  }
+
+  /**
+   * Returns the smallest recorded value that at least the given percentage of values are no larger
+   * than, rounded up to the top of its bucket.
+   */
+  public long getPercentile(final double percentile) {
+    long count = this.count.get();
+    if (count == 0) {
+      return 0;
+    }
+
+    long wanted = Math.max(1, (long) Math.ceil(count * percentile / 100.0));
+    long seen = 0;
+    for (int i = 0; i < this.counts.length(); ++i) {
+      seen += this.counts.get(i);
+      if (seen >= wanted) {
+        return Math.min(LatencyHistogram.highestValueAt(i), this.max.get());
+      }
+    }
+    return this.max.get();
+  }
+
+  static int indexOf(final long value) {
+    if (value < SUB_COUNT) {
+      return (int) value;
+    }
+
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+    int sub = (int) (value >>> shift) - SUB_COUNT;
+    return (shift + 1) * SUB_COUNT + sub;
+  }
+
+  static long highestValueAt(final int index) {
+    int bucket = index / SUB_COUNT;
+    int sub = index % SUB_COUNT;
+    if (bucket == 0) {
+      return sub;
+    }
+
+    int shift = bucket - 1;
+    return ((long) (SUB_COUNT + sub) << shift) + (1L << shift) - 1;
+  }
+}
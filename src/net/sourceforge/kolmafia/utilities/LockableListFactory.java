@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 import net.java.dev.spellcast.utilities.LockableListModel;
 import net.java.dev.spellcast.utilities.SortedListModel;
+import net.sourceforge.kolmafia.AdventureResult;
 
 /**
  * {@link net.java.dev.spellcast.utilities.LockableListModel} is used to hold data, but it depends
@@ -43,6 +44,19 @@ public class LockableListFactory {
     return i;
   }
 
+  /**
+   * Get an instance of SortedItemListModel if in a Swing environment, else get a SortedItemList.
+   * Either keeps an index of its items by item id.
+   *
+   * @return SortedItemListModel or SortedItemList if Swing cannot be loaded
+   */
+  public static List<AdventureResult> getSortedItemInstance() {
+    if (SwinglessUIUtils.isSwingAvailable) {
+      return new SortedItemListModel();
+    }
+    return new SortedItemList();
+  }
+
   /**
    * Calls {@link net.java.dev.spellcast.utilities.LockableListModel#getSize()} if possible, else
    * returns list size
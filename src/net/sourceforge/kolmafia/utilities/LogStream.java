@@ -15,6 +15,8 @@ import net.sourceforge.kolmafia.StaticEntity;
 
 public class LogStream extends PrintStream implements Runnable {
   private File proxy;
+  // The length of the file when it was opened
+  private long start = 0;
 
   public static PrintStream openStream(final String filename, final boolean forceNewFile) {
     return LogStream.openStream(new File(KoLConstants.ROOT_LOCATION, filename), forceNewFile);
@@ -26,13 +28,35 @@ public class LogStream extends PrintStream implements Runnable {
 
   public static PrintStream openStream(
       final File file, final boolean forceNewFile, final Charset encoding) {
+    return LogStream.openStream(file, forceNewFile, encoding, false);
+  }
+
+  /**
+   * Opens a log which is written out by the AsyncLogWriter rather than by the thread which logs to
+   * it. Lines reach the file a little later, or when the stream is flushed or closed.
+   */
+  public static PrintStream openAsyncStream(final String filename) {
+    return LogStream.openAsyncStream(new File(KoLConstants.ROOT_LOCATION, filename));
+  }
+
+  public static PrintStream openAsyncStream(final File file) {
+    return LogStream.openStream(file, false, StandardCharsets.UTF_8, true);
+  }
+
+  private static PrintStream openStream(
+      final File file, final boolean forceNewFile, final Charset encoding, final boolean async) {
     OutputStream ostream = DataUtilities.getOutputStream(file, !forceNewFile);
-    PrintStream pstream = openStream(ostream, encoding);
+    PrintStream pstream =
+        async
+            ? new LogStream(AsyncLogWriter.wrap(ostream), false, encoding)
+            : openStream(ostream, encoding);
 
     if (!(pstream instanceof LogStream newStream)) {
       return pstream;
     }
 
+    newStream.start = file.length();
+
     if (file.getName().startsWith("DEBUG")) {
       if (KoLDesktop.instanceExists()) {
         newStream.proxy = file;
@@ -81,12 +105,26 @@ public class LogStream extends PrintStream implements Runnable {
     return new LogStream(ostream, encoding);
   }
 
+  /**
+   * Returns the offset in the file at which the next thing printed will be written. This is only
+   * known for logs opened with openAsyncStream; for anything else, it is -1.
+   */
+  public long position() {
+    return this.out instanceof AsyncLogWriter.Channel channel
+        ? this.start + channel.position()
+        : -1;
+  }
+
   @Override
   public void run() {
     KoLDesktop.getInstance().getRootPane().putClientProperty("Window.documentFile", this.proxy);
   }
 
   private LogStream(final OutputStream ostream, final Charset encoding) {
-    super(ostream, true, encoding);
+    this(ostream, true, encoding);
+  }
+
+  private LogStream(final OutputStream ostream, final boolean autoFlush, final Charset encoding) {
+    super(ostream, autoFlush, encoding);
   }
 }
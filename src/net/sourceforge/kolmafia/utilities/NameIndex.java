@@ -0,0 +1,160 @@
+package net.sourceforge.kolmafia.utilities;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * An index of a sorted table of canonical names, used to narrow down which names a search string
+ * could possibly match before testing them one by one.
+ *
+ * <p>Each trigram maps to the positions of the names containing it, and to those where it begins a
+ * word; each character maps to the names containing it. A name can only contain a search string of
+ * three or more characters if it contains all of its trigrams, and can only fuzzy-match it if it
+ * contains all of its characters. Candidates come back in table order, so the matches found among
+ * them are the same, in the same order, as those found by testing every name.
+ */
+class NameIndex {
+  private static final int[] NONE = new int[0];
+
+  private final Map<Long, int[]> trigrams;
+  private final Map<Long, int[]> wordStarts;
+  private final Map<Character, int[]> characters;
+
+  private NameIndex(
+      final Map<Long, int[]> trigrams,
+      final Map<Long, int[]> wordStarts,
+      final Map<Character, int[]> characters) {
+    this.trigrams = trigrams;
+    this.wordStarts = wordStarts;
+    this.characters = characters;
+  }
+
+  // Positions in the table, appended in increasing order
+  private static class Postings {
+    private int[] ids = new int[4];
+    private int size = 0;
+
+    void add(final int id) {
+      if (this.size > 0 && this.ids[this.size - 1] == id) {
+        return;
+      }
+      if (this.size == this.ids.length) {
+        this.ids = Arrays.copyOf(this.ids, this.size * 2);
+      }
+      this.ids[this.size++] = id;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(this.ids, this.size);
+    }
+  }
+
+  private static long trigram(final String s, final int index) {
+    return ((long) s.charAt(index) << 32)
+        | ((long) s.charAt(index + 1) << 16)
+        | s.charAt(index + 2);
+  }
+
+  // Matches the boundary test in StringUtilities.substringMatches
+  private static boolean isWordStart(final String s, final int index) {
+    return index == 0 || !Character.isLetterOrDigit(s.charAt(index - 1));
+  }
+
+  static NameIndex build(final String[] names) {
+    Map<Long, Postings> trigrams = new HashMap<>();
+    Map<Long, Postings> wordStarts = new HashMap<>();
+    Map<Character, Postings> characters = new HashMap<>();
+
+    for (int id = 0; id < names.length; ++id) {
+      String name = names[id];
+      for (int i = 0; i < name.length(); ++i) {
+        characters.computeIfAbsent(name.charAt(i), c -> new Postings()).add(id);
+        if (i + 3 > name.length()) {
+          continue;
+        }
+        long trigram = NameIndex.trigram(name, i);
+        trigrams.computeIfAbsent(trigram, t -> new Postings()).add(id);
+        if (NameIndex.isWordStart(name, i)) {
+          wordStarts.computeIfAbsent(trigram, t -> new Postings()).add(id);
+        }
+      }
+    }
+
+    return new NameIndex(
+        NameIndex.freeze(trigrams), NameIndex.freeze(wordStarts), NameIndex.freeze(characters));
+  }
+
+  private static <K> Map<K, int[]> freeze(final Map<K, Postings> postings) {
+    Map<K, int[]> result = new HashMap<>(postings.size() * 4 / 3 + 1);
+    postings.forEach((key, value) -> result.put(key, value.toArray()));
+    return result;
+  }
+
+  /**
+   * Returns the positions of the names which could contain the search string. With wordStart, only
+   * names where a string of three or more characters could begin a word.
+   */
+  int[] substringCandidates(final String search, final boolean wordStart) {
+    if (search.length() < 3) {
+      return this.characterCandidates(search, false);
+    }
+
+    int count = search.length() - 2;
+    int[][] lists = new int[count + (wordStart ? 1 : 0)][];
+    for (int i = 0; i < count; ++i) {
+      lists[i] = this.trigrams.getOrDefault(NameIndex.trigram(search, i), NONE);
+    }
+    if (wordStart) {
+      lists[count] = this.wordStarts.getOrDefault(NameIndex.trigram(search, 0), NONE);
+    }
+    return NameIndex.intersect(lists);
+  }
+
+  /**
+   * Returns the positions of the names which could fuzzy-match the search string, or null if every
+   * name could.
+   */
+  int[] fuzzyCandidates(final String search) {
+    // Whitespace in a search string is skipped when fuzzy matching
+    return this.characterCandidates(search, true);
+  }
+
+  private int[] characterCandidates(final String search, final boolean skipWhitespace) {
+    int[][] lists = new int[search.length()][];
+    int count = 0;
+    for (int i = 0; i < search.length(); ++i) {
+      char ch = search.charAt(i);
+      if (skipWhitespace && Character.isWhitespace(ch) || search.indexOf(ch) != i) {
+        continue;
+      }
+      lists[count++] = this.characters.getOrDefault(ch, NONE);
+    }
+    return count == 0 ? null : NameIndex.intersect(Arrays.copyOf(lists, count));
+  }
+
+  private static int[] intersect(final int[][] lists) {
+    Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+
+    int[] result = lists[0];
+    int size = result.length;
+    for (int l = 1; l < lists.length && size > 0; ++l) {
+      int[] list = lists[l];
+      int[] next = new int[size];
+      int count = 0;
+      int j = 0;
+      for (int i = 0; i < size && j < list.length; ++i) {
+        int id = result[i];
+        while (j < list.length && list[j] < id) {
+          ++j;
+        }
+        if (j < list.length && list[j] == id) {
+          next[count++] = id;
+        }
+      }
+      result = next;
+      size = count;
+    }
+    return size == result.length ? result : Arrays.copyOf(result, size);
+  }
+}
@@ -0,0 +1,185 @@
+package net.sourceforge.kolmafia.utilities;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A reusable buffer for the body of a server response. Each thread has one, which grows to fit the
+ * largest page it has read and is then reused, so reading a response allocates nothing but the
+ * String made from it, and that only when it is asked for.
+ *
+ * <p>The buffer is also a CharSequence, so patterns can be matched against the body without making
+ * a String at all. A body which is entirely ASCII is viewed in place; anything else is decoded once
+ * into a reusable char buffer.
+ *
+ * <p>The contents are only valid until the buffer is released; callers must not keep the buffer or
+ * any CharSequence taken from it.
+ */
+public class ResponseBuffer implements CharSequence {
+  private static final int INITIAL_SIZE = 16 * 1024;
+  // Don't hang on to more than this between requests
+  private static final int MAX_RETAINED_SIZE = 4 * 1024 * 1024;
+
+  private static final ThreadLocal<ResponseBuffer> POOL =
+      ThreadLocal.withInitial(ResponseBuffer::new);
+
+  private final CharsetDecoder decoder =
+      StandardCharsets.UTF_8
+          .newDecoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+  private byte[] bytes = new byte[INITIAL_SIZE];
+  private int length = 0;
+  private boolean inUse = false;
+
+  // -1 until we know whether the body is ASCII
+  private int ascii = -1;
+  private CharBuffer chars = null;
+  private String string = null;
+
+  ResponseBuffer() {}
+
+  /**
+   * Returns this thread's buffer, emptied. If the buffer is already in use further up the stack, a
+   * new one is returned instead.
+   */
+  public static ResponseBuffer acquire() {
+    ResponseBuffer buffer = ResponseBuffer.POOL.get();
+    if (buffer.inUse) {
+      buffer = new ResponseBuffer();
+    }
+    buffer.clear();
+    buffer.inUse = true;
+    return buffer;
+  }
+
+  /** Returns the buffer to its thread, after which its contents must not be used. */
+  public void release() {
+    this.clear();
+    if (this.bytes.length > MAX_RETAINED_SIZE) {
+      this.bytes = new byte[INITIAL_SIZE];
+      this.chars = null;
+    }
+    this.inUse = false;
+  }
+
+  private void clear() {
+    this.length = 0;
+    this.ascii = -1;
+    this.string = null;
+    if (this.chars != null) {
+      this.chars.clear().limit(0);
+    }
+  }
+
+  /**
+   * Reads the whole stream into the buffer, replacing its contents, and closes the stream. As with
+   * ByteBufferUtilities.read, a stream which fails part way leaves the buffer empty.
+   */
+  public ResponseBuffer readFrom(final InputStream istream) {
+    this.clear();
+    if (istream == null) {
+      return this;
+    }
+
+    try (istream) {
+      while (true) {
+        if (this.length == this.bytes.length) {
+          this.bytes = Arrays.copyOf(this.bytes, this.bytes.length * 2);
+        }
+        int count = istream.read(this.bytes, this.length, this.bytes.length - this.length);
+        if (count < 0) {
+          break;
+        }
+        this.length += count;
+      }
+    } catch (IOException e) {
+      this.length = 0;
+    }
+    return this;
+  }
+
+  /** Replaces the contents of the buffer with the given bytes. */
+  public ResponseBuffer set(final byte[] source) {
+    this.clear();
+    if (source.length > this.bytes.length) {
+      this.bytes = new byte[source.length];
+    }
+    System.arraycopy(source, 0, this.bytes, 0, source.length);
+    this.length = source.length;
+    return this;
+  }
+
+  /** Returns the number of bytes in the body. */
+  public int byteLength() {
+    return this.length;
+  }
+
+  private boolean isAscii() {
+    if (this.ascii == -1) {
+      this.ascii = 1;
+      for (int i = 0; i < this.length; ++i) {
+        if (this.bytes[i] < 0) {
+          this.ascii = 0;
+          break;
+        }
+      }
+    }
+    return this.ascii == 1;
+  }
+
+  private CharBuffer decoded() {
+    if (this.chars == null || this.chars.limit() == 0 && this.length > 0) {
+      int needed = (int) (this.length * (double) this.decoder.maxCharsPerByte());
+      if (this.chars == null || this.chars.capacity() < needed) {
+        this.chars = CharBuffer.allocate(Math.max(needed, INITIAL_SIZE));
+      }
+      this.chars.clear();
+      this.decoder.reset();
+      this.decoder.decode(ByteBuffer.wrap(this.bytes, 0, this.length), this.chars, true);
+      this.decoder.flush(this.chars);
+      this.chars.flip();
+    }
+    return this.chars;
+  }
+
+  @Override
+  public int length() {
+    return this.isAscii() ? this.length : this.decoded().remaining();
+  }
+
+  @Override
+  public char charAt(final int index) {
+    if (this.isAscii()) {
+      if (index >= this.length) {
+        throw new IndexOutOfBoundsException(index);
+      }
+      return (char) this.bytes[index];
+    }
+    return this.decoded().get(index);
+  }
+
+  @Override
+  public CharSequence subSequence(final int start, final int end) {
+    if (this.isAscii()) {
+      return new String(this.bytes, start, end - start, StandardCharsets.ISO_8859_1);
+    }
+    return this.decoded().subSequence(start, end);
+  }
+
+  /** Returns the body as a String, which is only made the first time it is asked for. */
+  @Override
+  public String toString() {
+    if (this.string == null) {
+      this.string = new String(this.bytes, 0, this.length, StandardCharsets.UTF_8);
+    }
+    return this.string;
+  }
+}
@@ -0,0 +1,98 @@
+package net.sourceforge.kolmafia.utilities;
+
+import java.util.Collection;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import net.sourceforge.kolmafia.AdventureResult;
+
+/** Same as {@link SortedItemListModel}, except this extends a {@link SortedList} */
+public class SortedItemList extends SortedList<AdventureResult> implements IndexedItemList {
+  private ItemIndex index = new ItemIndex();
+
+  @Override
+  public AdventureResult findItem(final AdventureResult item) {
+    return this.index.find(item, this);
+  }
+
+  @Override
+  public boolean add(final AdventureResult o) {
+    if (!super.add(o)) {
+      return false;
+    }
+    this.index.added(o);
+    return true;
+  }
+
+  @Override
+  public void sort() {
+    // Also reached from addAll
+    super.sort();
+    this.index.rebuild(this);
+  }
+
+  @Override
+  public AdventureResult remove(final int index) {
+    AdventureResult element = super.remove(index);
+    this.index.removed(element);
+    return element;
+  }
+
+  @Override
+  public boolean remove(final Object o) {
+    for (int i = 0; i < this.size(); ++i) {
+      if (o == null ? this.get(i) == null : o.equals(this.get(i))) {
+        this.remove(i);
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public boolean removeAll(final Collection<?> c) {
+    boolean result = super.removeAll(c);
+    this.index.rebuild(this);
+    return result;
+  }
+
+  @Override
+  public boolean retainAll(final Collection<?> c) {
+    boolean result = super.retainAll(c);
+    this.index.rebuild(this);
+    return result;
+  }
+
+  @Override
+  public boolean removeIf(final Predicate<? super AdventureResult> filter) {
+    boolean result = super.removeIf(filter);
+    this.index.rebuild(this);
+    return result;
+  }
+
+  @Override
+  public void replaceAll(final UnaryOperator<AdventureResult> operator) {
+    super.replaceAll(operator);
+    this.index.rebuild(this);
+  }
+
+  @Override
+  public AdventureResult set(final int index, final AdventureResult element) {
+    AdventureResult previous = super.set(index, element);
+    this.index.replaced(previous, element);
+    return previous;
+  }
+
+  @Override
+  public void clear() {
+    super.clear();
+    this.index.clear();
+  }
+
+  @Override
+  public Object clone() {
+    SortedItemList copy = (SortedItemList) super.clone();
+    copy.index = new ItemIndex();
+    copy.index.rebuild(copy);
+    return copy;
+  }
+}
@@ -0,0 +1,79 @@
+package net.sourceforge.kolmafia.utilities;
+
+import java.util.Collection;
+import net.java.dev.spellcast.utilities.SortedListModel;
+import net.sourceforge.kolmafia.AdventureResult;
+
+/**
+ * A {@link SortedListModel} of items which keeps an index by item id, so that item counts can be
+ * found without searching. Swing views see the same events as for any other sorted list model.
+ */
+public class SortedItemListModel extends SortedListModel<AdventureResult>
+    implements IndexedItemList {
+  private ItemIndex index = new ItemIndex();
+
+  @Override
+  public AdventureResult findItem(final AdventureResult item) {
+    return this.index.find(item, this);
+  }
+
+  @Override
+  public boolean add(final AdventureResult o) {
+    synchronized (this.actualElements) {
+      if (!super.add(o)) {
+        return false;
+      }
+      this.index.added(o);
+      return true;
+    }
+  }
+
+  @Override
+  public boolean addAll(final int index, final Collection<? extends AdventureResult> c) {
+    synchronized (this.actualElements) {
+      if (!super.addAll(index, c)) {
+        return false;
+      }
+      for (AdventureResult element : c) {
+        this.index.added(element);
+      }
+      return true;
+    }
+  }
+
+  @Override
+  public AdventureResult remove(final int index) {
+    synchronized (this.actualElements) {
+      AdventureResult element = super.remove(index);
+      this.index.removed(element);
+      return element;
+    }
+  }
+
+  @Override
+  public AdventureResult set(final int index, final AdventureResult element) {
+    synchronized (this.actualElements) {
+      AdventureResult previous = super.set(index, element);
+      if (previous != null) {
+        this.index.replaced(previous, element);
+      }
+      return previous;
+    }
+  }
+
+  @Override
+  public void clear() {
+    synchronized (this.actualElements) {
+      super.clear();
+      this.index.clear();
+    }
+  }
+
+  @Override
+  public Object clone() {
+    SortedItemListModel copy = (SortedItemListModel) super.clone();
+    copy.index = new ItemIndex();
+    copy.index.rebuild(copy.actualElements);
+    return copy;
+  }
+}
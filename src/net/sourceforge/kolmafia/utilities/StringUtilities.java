@@ -14,6 +14,7 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.TimeZone;
 import java.util.WeakHashMap;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -31,7 +32,8 @@ public class StringUtilities {
   private static final HashMap<String, String> canonicalNameCache = new HashMap<>();
 
   private static final HashMap<String, String> prepositionsMap = new HashMap<>();
-  private static final WeakHashMap<String[], int[]> hashCache = new WeakHashMap<>();
+  private static final WeakHashMap<String[], NameIndex> nameIndexCache = new WeakHashMap<>();
+  private static final int MIN_INDEXED_NAMES = 256;
 
   private static final Pattern NONINTEGER_PATTERN = Pattern.compile("[^0-9\\-]+");
 
@@ -259,61 +261,65 @@ public class StringUtilities {
       return matchList;
     }
 
-    int nameCount = names.length;
-    int[] hashes = StringUtilities.hashCache.get(names);
-    if (hashes == null) {
-      hashes = new int[nameCount];
-      for (int i = 0; i < nameCount; ++i) {
-        hashes[i] = StringUtilities.stringHash(names[i]);
-      }
-      StringUtilities.hashCache.put(names, hashes);
-    }
-    int hash = StringUtilities.stringHash(searchString);
+    NameIndex index = StringUtilities.getNameIndex(names);
+    String search = searchString;
 
-    for (int i = 0; i < nameCount; ++i) {
-      if ((hashes[i] & hash) == hash
-          && StringUtilities.substringMatches(names[i], searchString, true)) {
-        matchList.add(names[i]);
-      }
-    }
+    StringUtilities.addMatches(
+        names,
+        index == null ? null : index.substringCandidates(search, true),
+        name -> StringUtilities.substringMatches(name, search, true),
+        matchList);
 
     if (!matchList.isEmpty()) {
       return matchList;
     }
 
-    for (int i = 0; i < nameCount; ++i) {
-      if ((hashes[i] & hash) == hash
-          && StringUtilities.substringMatches(names[i], searchString, false)) {
-        matchList.add(names[i]);
-      }
-    }
+    StringUtilities.addMatches(
+        names,
+        index == null ? null : index.substringCandidates(search, false),
+        name -> StringUtilities.substringMatches(name, search, false),
+        matchList);
 
     if (!matchList.isEmpty()) {
       return matchList;
     }
 
-    // There is an oddball special case here: a search string containing
-    // spaces can successfully fuzzy-match an item name with no spaces,
-    // for example "in the box" will match "chef-in-the-box".  However,
-    // the hash check would prevent us from even trying such a match.
-    // Therefore, strip out the bit representing a space in the hash:
-    hash &= ~StringUtilities.stringHash(" ");
+    // A search string containing spaces can fuzzy-match a name with no
+    // spaces, for example "in the box" will match "chef-in-the-box", so
+    // the candidates need not contain the spaces.
+    StringUtilities.addMatches(
+        names,
+        index == null ? null : index.fuzzyCandidates(search),
+        name -> StringUtilities.fuzzyMatches(name, search),
+        matchList);
 
-    for (int i = 0; i < nameCount; ++i) {
-      if ((hashes[i] & hash) == hash && StringUtilities.fuzzyMatches(names[i], searchString)) {
-        matchList.add(names[i]);
+    return matchList;
+  }
+
+  // Tests the names at the given positions, or every name if there are none, in table order
+  private static void addMatches(
+      final String[] names,
+      final int[] candidates,
+      final Predicate<String> matches,
+      final List<String> matchList) {
+    int count = candidates == null ? names.length : candidates.length;
+    for (int i = 0; i < count; ++i) {
+      String name = names[candidates == null ? i : candidates[i]];
+      if (matches.test(name)) {
+        matchList.add(name);
       }
     }
-
-    return matchList;
   }
 
-  private static int stringHash(final String s) {
-    int hash = 0;
-    for (int i = s.length() - 1; i >= 0; --i) {
-      hash |= 1 << (s.charAt(i) & 0x1F);
+  // Each table is indexed the first time it is searched. Tables are replaced rather than changed
+  // when names are added, so the new table gets a new index. Small tables are not worth indexing.
+  private static NameIndex getNameIndex(final String[] names) {
+    if (names.length < StringUtilities.MIN_INDEXED_NAMES) {
+      return null;
+    }
+    synchronized (StringUtilities.nameIndexCache) {
+      return StringUtilities.nameIndexCache.computeIfAbsent(names, NameIndex::build);
     }
-    return hash;
   }
 
   public static boolean substringMatches(
@@ -1,13 +1,17 @@
 package net.sourceforge.kolmafia.webui;
 
-import java.io.BufferedReader;
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStreamReader;
 import java.io.PrintStream;
 import java.net.InetAddress;
 import java.net.Socket;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.regex.Matcher;
@@ -45,12 +49,21 @@ public class RelayAgent extends Thread {
     RelayAgent.errorRequestPath = null;
   }
 
-  private final char[] data = new char[8192];
-  private final StringBuffer buffer = new StringBuffer();
+  // How long a kept-alive connection may sit idle before it is closed. The connection holds a
+  // pool thread all the while, so this is kept short.
+  private static final int KEEP_ALIVE_TIMEOUT = 2000;
+  // How long to wait for the rest of a request once it has started
+  private static final int READ_TIMEOUT = 15000;
+
+  private static final Pattern CONTENT_LENGTH_PATTERN =
+      Pattern.compile("^Content-Length:", Pattern.CASE_INSENSITIVE | Pattern.MULTILINE);
+
+  private final byte[] data = new byte[8192];
+  private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
   private final PauseObject pauser = new PauseObject();
 
   private Socket socket = null;
-  private BufferedReader reader;
+  private BufferedInputStream input;
   private PrintStream writer;
 
   private String path;
@@ -58,6 +71,12 @@ public class RelayAgent extends Thread {
   private String isCheckingModified;
   private final RelayRequest request;
 
+  // Set while serving a connection that may carry more than one request
+  private boolean persistent = false;
+  private boolean keepAlive = false;
+  // Set while this connection holds one of the relay server's keep-alive slots
+  private boolean keepAliveClaimed = false;
+
   public RelayAgent(final int id) {
     super("LocalRelayAgent" + id);
     this.request = new RelayRequest(true);
@@ -69,9 +88,57 @@ public class RelayAgent extends Thread {
 
   public void setSocket(final Socket socket) {
     this.socket = socket;
+    this.input = null;
+    this.writer = null;
     this.pauser.unpause();
   }
 
+  /**
+   * Serves every request sent on a connection, in order, until the browser closes it, asks for it
+   * to be closed, or leaves it idle. Used by the relay agent pool instead of the agent's own
+   * thread.
+   */
+  public void serveConnection(final Socket socket) {
+    this.setSocket(socket);
+    this.persistent = true;
+    this.request.streamLocalFiles = true;
+
+    try {
+      socket.setSoTimeout(RelayAgent.READ_TIMEOUT);
+      this.input = new BufferedInputStream(socket.getInputStream());
+
+      do {
+        this.performRelay();
+      } while (this.keepAlive && this.hasNextRequest());
+    } catch (IOException e) {
+    } finally {
+      if (this.keepAliveClaimed) {
+        RelayServer.releaseKeepAlive();
+        this.keepAliveClaimed = false;
+      }
+      this.persistent = false;
+      this.keepAlive = false;
+      this.request.streamLocalFiles = false;
+      this.closeRelay();
+    }
+  }
+
+  private boolean hasNextRequest() {
+    try {
+      this.socket.setSoTimeout(RelayAgent.KEEP_ALIVE_TIMEOUT);
+      this.input.mark(1);
+      if (this.input.read() == -1) {
+        return false;
+      }
+      this.input.reset();
+      this.socket.setSoTimeout(RelayAgent.READ_TIMEOUT);
+      return true;
+    } catch (IOException e) {
+      // Includes the keep-alive timeout expiring
+      return false;
+    }
+  }
+
   @Override
   public void run() {
     while (true) {
@@ -93,8 +160,6 @@ public class RelayAgent extends Thread {
     }
 
     this.path = null;
-    this.reader = null;
-    this.writer = null;
 
     try {
       // readBrowserRequest returns true if we should process the request further, and otherwise
@@ -105,7 +170,10 @@ public class RelayAgent extends Thread {
 
       this.sendServerResponse();
     } catch (IOException e) {
+      this.keepAlive = false;
     } catch (Exception e) {
+      // The browser is still waiting for a response, so it cannot reuse the connection
+      this.keepAlive = false;
       StaticEntity.printStackTrace(e, "Horrible relay failure");
     }
   }
@@ -115,9 +183,13 @@ public class RelayAgent extends Thread {
         RequestLogger.isDebugging() && Preferences.getBoolean("logBrowserInteractions");
     boolean tracing = RequestLogger.isTracing();
 
-    this.reader = new BufferedReader(new InputStreamReader(this.socket.getInputStream()));
+    this.keepAlive = false;
+
+    if (this.input == null) {
+      this.input = new BufferedInputStream(this.socket.getInputStream());
+    }
 
-    String requestLine = this.reader.readLine();
+    String requestLine = this.readLine();
 
     if (requestLine == null) {
       this.request.pseudoResponse("HTTP/1.1 400 Bad Request", "");
@@ -161,9 +233,10 @@ public class RelayAgent extends Thread {
 
     String host = null;
     String referer = null;
+    String connection = null;
 
     this.request.cookies = null;
-    while ((currentLine = this.reader.readLine()) != null && !currentLine.equals("")) {
+    while ((currentLine = this.readLine()) != null && !currentLine.equals("")) {
       if (debugging) {
         RequestLogger.updateDebugLog(currentLine);
       }
@@ -177,6 +250,7 @@ public class RelayAgent extends Thread {
       switch (headerType) {
         case "host" -> host = headerValue;
         case "referer" -> referer = headerValue;
+        case "connection" -> connection = headerValue;
         case "if-modified-since" -> this.isCheckingModified = headerValue;
         case "content-length" -> contentLength = StringUtilities.parseInt(headerValue);
         case "user-agent" -> GenericRequest.saveUserAgent(headerValue);
@@ -200,7 +274,13 @@ public class RelayAgent extends Thread {
       }
     }
 
+    this.keepAlive =
+        this.persistent
+            && (connection == null || !connection.toLowerCase().contains("close"))
+            && this.claimKeepAlive();
+
     if (!isValidReferer(host, referer)) {
+      this.keepAlive = false;
       RequestLogger.printLine("Request from bogus referer ignored");
       RequestLogger.printLine("Path: \"" + path + "\"");
       RequestLogger.printLine("Host: \"" + host + "\"");
@@ -214,13 +294,18 @@ public class RelayAgent extends Thread {
       int remaining = contentLength;
 
       while (remaining > 0) {
-        int current = this.reader.read(this.data);
-        this.buffer.append(this.data, 0, current);
+        // Content-Length counts bytes. Don't read past the body into a pipelined request.
+        int current = this.input.read(this.data, 0, Math.min(remaining, this.data.length));
+        if (current == -1) {
+          this.keepAlive = false;
+          break;
+        }
+        this.buffer.write(this.data, 0, current);
         remaining -= current;
       }
 
-      String fields = this.buffer.toString();
-      this.buffer.setLength(0);
+      String fields = this.buffer.toString(StandardCharsets.UTF_8);
+      this.buffer.reset();
 
       if (debugging) {
         RequestLogger.updateDebugLog(fields);
@@ -258,6 +343,37 @@ public class RelayAgent extends Thread {
     return true;
   }
 
+  /**
+   * Reads one line of the request head, without buffering any further than its end, so that the
+   * body which follows can be read as bytes. Returns null at the end of the stream.
+   */
+  private String readLine() throws IOException {
+    ByteArrayOutputStream line = new ByteArrayOutputStream();
+    int current;
+    while ((current = this.input.read()) != -1 && current != '\n') {
+      line.write(current);
+    }
+
+    if (current == -1 && line.size() == 0) {
+      return null;
+    }
+
+    String text = line.toString(StandardCharsets.UTF_8);
+    return text.endsWith("\r") ? text.substring(0, text.length() - 1) : text;
+  }
+
+  private boolean claimKeepAlive() {
+    // A kept-alive connection holds its pool thread while it waits for the next request, so only
+    // a few may do so at once, and none while other connections are waiting for a thread.
+    if (RelayServer.getQueuedAgents() > 0) {
+      return false;
+    }
+    if (!this.keepAliveClaimed) {
+      this.keepAliveClaimed = RelayServer.claimKeepAlive();
+    }
+    return this.keepAliveClaimed;
+  }
+
   private boolean isValidReferer(String host, String referer) {
     if (host != null) {
       validRefererHosts.add(host);
@@ -478,10 +594,13 @@ public class RelayAgent extends Thread {
               + RelayAgent.NOCACHE_IMAGES);
 
   private void sendServerResponse() throws IOException {
-    if (this.request.rawByteBuffer == null) {
+    File localFile = this.request.localFile;
+
+    if (localFile == null && this.request.rawByteBuffer == null) {
       if (this.request.responseText == null) {
         // We did not make a request of KoL and did not
         // create a pseudoResponse
+        this.keepAlive = false;
         return;
       }
 
@@ -506,12 +625,25 @@ public class RelayAgent extends Thread {
       this.request.rawByteBuffer = this.request.responseText.getBytes(StandardCharsets.UTF_8);
     }
 
-    this.writer = new PrintStream(this.socket.getOutputStream(), false);
+    long length = localFile != null ? localFile.length() : this.request.rawByteBuffer.length;
+    boolean hasBody = this.request.responseCode != 304 && this.request.responseCode != 204;
+
+    if (this.writer == null) {
+      this.writer = new PrintStream(this.socket.getOutputStream(), false);
+    }
     this.writer.print(this.request.statusLine);
     this.writer.print("\r\n");
-    this.request.printHeaders(this.writer);
+    if (this.persistent) {
+      this.printPersistentHeaders(hasBody, length);
+    } else {
+      this.request.printHeaders(this.writer);
+    }
     this.writer.print("\r\n");
-    this.writer.write(this.request.rawByteBuffer);
+    if (localFile != null) {
+      this.transferFile(localFile, length);
+    } else if (hasBody || !this.persistent) {
+      this.writer.write(this.request.rawByteBuffer);
+    }
     this.writer.flush();
 
     if (RequestLogger.isTracing()) {
@@ -521,7 +653,7 @@ public class RelayAgent extends Thread {
       buffer.append(this.path);
       if (this.request.responseCode == 200) {
         buffer.append(" (");
-        buffer.append(this.request.rawByteBuffer.length);
+        buffer.append(length);
         buffer.append(" bytes)");
       } else if (this.request.responseCode == 302) {
         buffer.append(" -> ");
@@ -555,11 +687,54 @@ public class RelayAgent extends Thread {
     }
   }
 
+  private void printPersistentHeaders(final boolean hasBody, final long length) {
+    // The browser can only find the end of the response if it is told the length
+    ByteArrayOutputStream headers = new ByteArrayOutputStream();
+    PrintStream headerStream = new PrintStream(headers, false, StandardCharsets.UTF_8);
+    this.request.printHeaders(headerStream);
+    headerStream.flush();
+
+    String headerText = headers.toString(StandardCharsets.UTF_8);
+    this.writer.print(headerText);
+
+    if (hasBody && !RelayAgent.CONTENT_LENGTH_PATTERN.matcher(headerText).find()) {
+      this.writer.print("Content-Length: ");
+      this.writer.print(length);
+      this.writer.print("\r\n");
+    }
+
+    this.writer.print(this.keepAlive ? "Connection: keep-alive" : "Connection: close");
+    this.writer.print("\r\n");
+  }
+
+  private void transferFile(final File file, final long length) throws IOException {
+    this.writer.flush();
+
+    // Sockets from the agent pool have a channel, so the file goes straight to the socket
+    WritableByteChannel out =
+        this.socket.getChannel() != null
+            ? this.socket.getChannel()
+            : Channels.newChannel(this.socket.getOutputStream());
+
+    try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      long position = 0;
+      while (position < length) {
+        long sent = in.transferTo(position, length - position, out);
+        if (sent <= 0) {
+          // The file shrank after the length was sent
+          this.keepAlive = false;
+          break;
+        }
+        position += sent;
+      }
+    }
+  }
+
   private void closeRelay() {
     try {
-      if (this.reader != null) {
-        this.reader.close();
-        this.reader = null;
+      if (this.input != null) {
+        this.input.close();
+        this.input = null;
       }
     } catch (IOException e) {
       // The only time this happens is if the
@@ -1,11 +1,18 @@
 package net.sourceforge.kolmafia.webui;
 
 import java.net.InetAddress;
+import java.net.InetSocketAddress;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.UnknownHostException;
+import java.nio.channels.ServerSocketChannel;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.KoLmafia;
 import net.sourceforge.kolmafia.StaticEntity;
@@ -16,6 +23,14 @@ import net.sourceforge.kolmafia.utilities.StringUtilities;
 public class RelayServer implements Runnable {
   public static final Set<RelayAgent> agentThreads = new HashSet<>();
 
+  // With relayUsesAgentPool, connections are served by a bounded pool of threads instead
+  private static ThreadPoolExecutor agentPool = null;
+  private static final Set<Thread> poolThreads = ConcurrentHashMap.newKeySet();
+  private static final ThreadLocal<RelayAgent> poolAgents = new ThreadLocal<>();
+  private static final AtomicInteger poolThreadCount = new AtomicInteger();
+  // Connections kept alive between requests, each holding a pool thread while it waits
+  private static final AtomicInteger keptAlive = new AtomicInteger();
+
   private static long lastStatusMessage = 0;
   private static Thread relayThread = null;
 
@@ -93,6 +108,63 @@ public class RelayServer implements Runnable {
     RelayServer.listening = false;
   }
 
+  public static final boolean isAgentThread(final Thread thread) {
+    return RelayServer.poolThreads.contains(thread) || RelayServer.agentThreads.contains(thread);
+  }
+
+  public static final boolean usesAgentPool() {
+    return RelayServer.agentPool != null;
+  }
+
+  public static final int getActiveAgents() {
+    ThreadPoolExecutor pool = RelayServer.agentPool;
+    if (pool != null) {
+      return pool.getActiveCount();
+    }
+
+    synchronized (RelayServer.INSTANCE) {
+      return (int) RelayServer.agentThreads.stream().filter(agent -> !agent.isWaiting()).count();
+    }
+  }
+
+  public static final int getQueuedAgents() {
+    // Without the pool, every connection gets an agent immediately
+    ThreadPoolExecutor pool = RelayServer.agentPool;
+    return pool != null ? pool.getQueue().size() : 0;
+  }
+
+  /**
+   * Reserves one of the few connections which may be kept alive, a quarter of relayMaxAgents, so
+   * that idle connections can never take every pool thread. Returns false if none is free.
+   */
+  static boolean claimKeepAlive() {
+    int limit = Math.max(1, Preferences.getInteger("relayMaxAgents") / 4);
+    while (true) {
+      int current = RelayServer.keptAlive.get();
+      if (current >= limit) {
+        return false;
+      }
+      if (RelayServer.keptAlive.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  static void releaseKeepAlive() {
+    RelayServer.keptAlive.decrementAndGet();
+  }
+
+  public static final int getAgentCount() {
+    ThreadPoolExecutor pool = RelayServer.agentPool;
+    if (pool != null) {
+      return pool.getPoolSize();
+    }
+
+    synchronized (RelayServer.INSTANCE) {
+      return RelayServer.agentThreads.size();
+    }
+  }
+
   @Override
   public void run() {
     boolean startedSuccessfully = true;
@@ -128,6 +200,9 @@ public class RelayServer implements Runnable {
     }
 
     if (startedSuccessfully) {
+      if (Preferences.getBoolean("relayUsesAgentPool")) {
+        RelayServer.agentPool = RelayServer.createAgentPool();
+      }
       RelayServer.listening = true;
     }
 
@@ -145,6 +220,12 @@ public class RelayServer implements Runnable {
 
     this.closeAgents();
 
+    if (RelayServer.agentPool != null) {
+      // Idle connections close themselves once their keep-alive timeout expires
+      RelayServer.agentPool.shutdown();
+      RelayServer.agentPool = null;
+    }
+
     try {
       if (this.serverSocket != null) {
         this.serverSocket.close();
@@ -161,7 +242,21 @@ public class RelayServer implements Runnable {
 
   private synchronized boolean openServerSocket() {
     try {
-      if (Preferences.getBoolean("relayAllowRemoteAccess")) {
+      if (Preferences.getBoolean("relayUsesAgentPool")) {
+        // Sockets accepted through a channel let agents send files with FileChannel.transferTo
+        ServerSocketChannel channel = ServerSocketChannel.open();
+        try {
+          channel.bind(
+              Preferences.getBoolean("relayAllowRemoteAccess")
+                  ? new InetSocketAddress(RelayServer.port)
+                  : new InetSocketAddress(InetAddress.getByName("127.0.0.1"), RelayServer.port),
+              25);
+        } catch (Exception e) {
+          channel.close();
+          throw e;
+        }
+        this.serverSocket = channel.socket();
+      } else if (Preferences.getBoolean("relayAllowRemoteAccess")) {
         this.serverSocket = new ServerSocket(RelayServer.port, 25);
       } else {
         this.serverSocket =
@@ -181,7 +276,50 @@ public class RelayServer implements Runnable {
     agentThreads.clear();
   }
 
+  private static ThreadPoolExecutor createAgentPool() {
+    int maxAgents = Math.max(1, Preferences.getInteger("relayMaxAgents"));
+    ThreadPoolExecutor pool =
+        new ThreadPoolExecutor(
+            maxAgents,
+            maxAgents,
+            30,
+            TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(),
+            task -> {
+              Thread thread =
+                  new Thread(
+                      () -> {
+                        RelayServer.poolThreads.add(Thread.currentThread());
+                        try {
+                          task.run();
+                        } finally {
+                          RelayServer.poolThreads.remove(Thread.currentThread());
+                        }
+                      },
+                      "LocalRelayWorker" + RelayServer.poolThreadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  private static void serveConnection(final Socket socket) {
+    RelayAgent agent = RelayServer.poolAgents.get();
+    if (agent == null) {
+      agent = new RelayAgent(RelayServer.poolThreadCount.get());
+      RelayServer.poolAgents.set(agent);
+    }
+    agent.serveConnection(socket);
+  }
+
   private synchronized void dispatchAgent(final Socket socket) {
+    ThreadPoolExecutor pool = RelayServer.agentPool;
+    if (pool != null) {
+      pool.execute(() -> RelayServer.serveConnection(socket));
+      return;
+    }
+
     for (RelayAgent agent : agentThreads) {
       if (agent.isWaiting()) {
         agent.setSocket(socket);
@@ -1,5 +1,6 @@
 package net.sourceforge.kolmafia;
 
+import static internal.helpers.Player.withProperty;
 import static internal.helpers.Utilities.verboseDelete;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.startsWith;
@@ -33,6 +34,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.Arguments;
 import org.junit.jupiter.params.provider.MethodSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 class CustomScriptTest {
   @BeforeEach
@@ -203,11 +205,13 @@ class CustomScriptTest {
       JavascriptRuntime.clearSessionStorage();
     }
 
-    @Test
-    void sessionStorageDoesNotLeakAcrossScriptEntrypoints() {
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    void sessionStorageDoesNotLeakAcrossScriptEntrypoints(boolean sharedScope) {
       ByteArrayOutputStream ostream = new ByteArrayOutputStream();
 
-      try (PrintStream out = new PrintStream(ostream, true)) {
+      try (PrintStream out = new PrintStream(ostream, true);
+          var cleanups = withProperty("javascriptSharedScope", sharedScope)) {
         var jsCommand = new JavaScriptCommand();
         jsCommand.run("js", "sessionStorage.setItem(\"test\", \"value\");");
 
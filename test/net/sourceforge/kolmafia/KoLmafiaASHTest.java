@@ -0,0 +1,65 @@
+package net.sourceforge.kolmafia;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class KoLmafiaASHTest {
+  @TempDir Path scripts;
+
+  @BeforeEach
+  void beforeEach() {
+    KoLmafiaASH.clearInterpreterCache();
+  }
+
+  private File writeScript(final String contents) throws IOException {
+    Path script = this.scripts.resolve("cached.ash");
+    Files.writeString(script, contents, StandardCharsets.UTF_8);
+    return script.toFile();
+  }
+
+  @Test
+  void reusesParsedScriptUntilItChanges() throws IOException {
+    File script = this.writeScript("print(\"one\");");
+
+    var first = KoLmafiaASH.getInterpreter(script);
+    var second = KoLmafiaASH.getInterpreter(script);
+
+    assertThat(first, notNullValue());
+    assertThat(second, sameInstance(first));
+    assertThat(KoLmafiaASH.getCacheMisses(), is(1));
+    assertThat(KoLmafiaASH.getCacheHits(), is(1));
+
+    this.writeScript("print(\"two\");");
+    script.setLastModified(script.lastModified() + 10_000);
+
+    var third = KoLmafiaASH.getInterpreter(script);
+
+    assertThat(third, not(sameInstance(first)));
+    assertThat(KoLmafiaASH.getCacheMisses(), is(2));
+  }
+
+  @Test
+  void touchedScriptWithSameContentsIsNotReparsed() throws IOException {
+    File script = this.writeScript("print(\"one\");");
+
+    var first = KoLmafiaASH.getInterpreter(script);
+    script.setLastModified(script.lastModified() + 10_000);
+    var second = KoLmafiaASH.getInterpreter(script);
+
+    assertThat(second, sameInstance(first));
+    assertThat(KoLmafiaASH.getCacheMisses(), is(1));
+    assertThat(KoLmafiaASH.getCacheRevalidations(), is(1));
+  }
+}
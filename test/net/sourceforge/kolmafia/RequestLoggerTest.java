@@ -7,11 +7,14 @@ import static internal.helpers.Player.withProperty;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import internal.helpers.Cleanups;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.PrintStream;
+import java.util.Date;
 import net.sourceforge.kolmafia.persistence.AdventureDatabase;
 import net.sourceforge.kolmafia.preferences.Preferences;
 import net.sourceforge.kolmafia.request.AdventureRequest.ShadowRift;
@@ -143,4 +146,32 @@ class RequestLoggerTest {
       }
     }
   }
+
+  @Nested
+  class SessionLog {
+    @Test
+    public void switchingToCharacterWithShorterNameLeavesOtherLogAlone() {
+      String today = KoLConstants.DAILY_FORMAT.format(new Date());
+      File longer = new File(KoLConstants.SESSIONS_LOCATION, "bob_smith_" + today + ".txt");
+      File shorter = new File(KoLConstants.SESSIONS_LOCATION, "bob_" + today + ".txt");
+
+      try (var cleanups = withProperty("compressSessionLogs", true)) {
+        KoLCharacter.reset("bob_smith");
+        RequestLogger.openSessionLog();
+        RequestLogger.updateSessionLog("bob_smith was here");
+
+        KoLCharacter.reset("bob");
+        RequestLogger.openSessionLog();
+        RequestLogger.closeSessionLog();
+
+        assertTrue(longer.exists());
+        assertFalse(new File(longer.getPath() + ".gz").exists());
+      } finally {
+        RequestLogger.closeSessionLog();
+        KoLCharacter.reset("RequestLogger");
+        longer.delete();
+        shorter.delete();
+      }
+    }
+  }
 }
@@ -0,0 +1,67 @@
+package net.sourceforge.kolmafia;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.sourceforge.kolmafia.request.GenericRequest;
+import net.sourceforge.kolmafia.request.UseItemRequest;
+import org.junit.jupiter.api.Test;
+
+class RequestRegistryTest {
+  private final List<String> consulted = new ArrayList<>();
+
+  private RequestRegistry.Registrar registrar(final String name, final boolean claims) {
+    return (isExternal, urlString) -> {
+      this.consulted.add(name);
+      return claims;
+    };
+  }
+
+  @Test
+  void onlyConsultsRegistrarsForThePageInOrder() {
+    var registry =
+        new RequestRegistry()
+            .alwaysWithOrigin("first", registrar("first", false), "place.php")
+            .alwaysWithOrigin("anywhere", registrar("anywhere", false))
+            .alwaysWithOrigin("elsewhere", registrar("elsewhere", true), "town.php")
+            .alwaysWithOrigin("second", registrar("second", true), "place.php")
+            .build();
+
+    var claimant =
+        registry.register(new GenericRequest("place.php"), false, "place.php?whichplace=town");
+
+    assertThat(claimant, is("second"));
+    assertThat(this.consulted, contains("first", "anywhere", "second"));
+  }
+
+  @Test
+  void consultsOnlyAnyPageRegistrarsForUnknownPages() {
+    var registry =
+        new RequestRegistry()
+            .alwaysWithOrigin("place", registrar("place", true), "place.php")
+            .alwaysWithOrigin("anywhere", registrar("anywhere", false))
+            .build();
+
+    var claimant = registry.register(new GenericRequest("town.php"), false, "town.php");
+
+    assertThat(claimant, nullValue());
+    assertThat(this.consulted, contains("anywhere"));
+  }
+
+  @Test
+  void skipsRegistrarsForOtherRequestClassesUnlessExternal() {
+    var registry =
+        new RequestRegistry()
+            .claimWithOrigin(UseItemRequest.class, registrar("use", true), "inv_use.php")
+            .build();
+    var request = new GenericRequest("inv_use.php");
+
+    assertThat(registry.register(request, false, "inv_use.php?whichitem=1"), nullValue());
+    assertThat(registry.register(request, true, "inv_use.php?whichitem=1"), is("UseItemRequest"));
+    assertThat(this.consulted, contains("use"));
+  }
+}
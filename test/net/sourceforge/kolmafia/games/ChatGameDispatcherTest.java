@@ -0,0 +1,84 @@
+package net.sourceforge.kolmafia.games;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ChatGameDispatcherTest {
+  private final List<String> handled = Collections.synchronizedList(new ArrayList<>());
+  private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+
+  @Test
+  void handlesLinesInOrderOffTheCallingThread() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(3);
+    Thread caller = Thread.currentThread();
+    List<Thread> threads = Collections.synchronizedList(new ArrayList<>());
+    var dispatcher =
+        new ChatGameDispatcher(
+            (sender, message) -> {
+              threads.add(Thread.currentThread());
+              this.handled.add(sender + ": " + message);
+              done.countDown();
+            },
+            (contact, message) -> {},
+            0);
+
+    dispatcher.start();
+    try {
+      dispatcher.receive("a", "one");
+      dispatcher.receive("b", "two");
+      dispatcher.receive("a", "three");
+      assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+    } finally {
+      dispatcher.stop();
+    }
+
+    assertThat(this.handled, contains("a: one", "b: two", "a: three"));
+    assertThat(threads.contains(caller), is(false));
+  }
+
+  @Test
+  void mergesQueuedMessagesToTheSameContact() throws InterruptedException {
+    var dispatcher =
+        new ChatGameDispatcher(
+            (sender, message) -> {}, (contact, message) -> this.sent.add(contact + message), 200);
+
+    dispatcher.start();
+    dispatcher.send("", "/games ", "one");
+    dispatcher.send("", "/games ", "two");
+    dispatcher.send("", "/games ", "three");
+    dispatcher.send("bob", "", "four");
+    dispatcher.send("", null, "/who");
+    dispatcher.stop();
+
+    for (int i = 0; i < 100 && !String.join("", this.sent).endsWith("/who"); ++i) {
+      Thread.sleep(50);
+    }
+
+    List<String> parts = new ArrayList<>();
+    for (String message : this.sent) {
+      parts.addAll(List.of(message.replace("/games ", "").split(" / ")));
+    }
+    assertThat(parts, contains("one", "two", "three", "bobfour", "/who"));
+    assertThat(this.sent.size(), lessThan(5));
+  }
+
+  @Test
+  void sendsDirectlyWhenNotRunning() {
+    var dispatcher =
+        new ChatGameDispatcher(
+            (sender, message) -> {}, (contact, message) -> this.sent.add(contact + message), 200);
+
+    dispatcher.send("bob", "", "hi");
+
+    assertThat(this.sent, contains("bobhi"));
+  }
+}
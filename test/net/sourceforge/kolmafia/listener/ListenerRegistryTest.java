@@ -0,0 +1,114 @@
+package net.sourceforge.kolmafia.listener;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ListenerRegistryTest {
+  private final ListenerRegistry registry = new ListenerRegistry();
+  private final AtomicInteger aFires = new AtomicInteger();
+  private final AtomicInteger bFires = new AtomicInteger();
+  private final Listener aListener = aFires::incrementAndGet;
+  private final Listener bListener = bFires::incrementAndGet;
+
+  @BeforeEach
+  void beforeEach() {
+    // Registered as interface listeners would be, so that they are batched
+    this.registry.registerListener("a", this.aListener, true);
+    this.registry.registerListener("b", this.bListener, true);
+    ListenerRegistry.resetFireCounters();
+  }
+
+  @AfterEach
+  void afterEach() {
+    ListenerRegistry.setCoalescing(false, 50);
+    ListenerRegistry.resetFireCounters();
+  }
+
+  @Test
+  void firesImmediatelyWhenNotCoalescing() {
+    this.registry.fireListener("a");
+    this.registry.fireListener("a");
+
+    assertThat(this.aFires.get(), equalTo(2));
+    assertThat(ListenerRegistry.getFiresRequested(), equalTo(0L));
+  }
+
+  @Test
+  void firesEachKeyOncePerBatchWhenCoalescing() {
+    // A long frame, so that nothing fires until the batch is flushed
+    ListenerRegistry.setCoalescing(true, 60000);
+
+    this.registry.fireListener("a");
+    this.registry.flushCoalesced();
+    this.aFires.set(0);
+
+    this.registry.fireListener("a");
+    this.registry.fireListener("a");
+    this.registry.fireListener("b");
+    this.registry.fireListener("a");
+
+    assertThat(this.aFires.get(), equalTo(0));
+    assertThat(this.bFires.get(), equalTo(0));
+
+    this.registry.flushCoalesced();
+
+    assertThat(this.aFires.get(), equalTo(1));
+    assertThat(this.bFires.get(), equalTo(1));
+    assertThat(ListenerRegistry.getFiresRequested(), equalTo(5L));
+    assertThat(ListenerRegistry.getFiresSaved(), equalTo(2L));
+  }
+
+  @Test
+  void deferringTakesPrecedenceOverCoalescing() {
+    ListenerRegistry.setCoalescing(true, 60000);
+
+    this.registry.deferListeners(true);
+    this.registry.fireListener("a");
+    this.registry.fireListener("a");
+    this.registry.deferListeners(false);
+
+    assertThat(this.aFires.get(), equalTo(1));
+  }
+
+  @Test
+  void otherListenersStillFireImmediatelyWhenCoalescing() {
+    ListenerRegistry.setCoalescing(true, 60000);
+    AtomicInteger fires = new AtomicInteger();
+    Listener listener = fires::incrementAndGet;
+    this.registry.registerListener("a", listener);
+
+    this.registry.fireListener("a");
+    this.registry.fireListener("a");
+
+    assertThat(fires.get(), equalTo(2));
+    assertThat(this.aFires.get(), equalTo(0));
+
+    this.registry.flushCoalesced();
+
+    assertThat(fires.get(), equalTo(2));
+    assertThat(this.aFires.get(), equalTo(1));
+  }
+
+  @Test
+  void preferenceListenersStillFireImmediatelyWhenCoalescing() {
+    ListenerRegistry.setCoalescing(true, 60000);
+    AtomicInteger fires = new AtomicInteger();
+    Listener listener = fires::incrementAndGet;
+    PreferenceListenerRegistry.registerPreferenceListener("coalescingTest", listener);
+
+    try {
+      PreferenceListenerRegistry.firePreferenceChanged("coalescingTest");
+      assertThat(fires.get(), equalTo(1));
+
+      PreferenceListenerRegistry.fireAllPreferencesChanged();
+      assertThat(fires.get(), equalTo(2));
+    } finally {
+      PreferenceListenerRegistry.unregisterPreferenceListener("coalescingTest", listener);
+    }
+  }
+}
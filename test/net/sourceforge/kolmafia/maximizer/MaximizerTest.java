@@ -41,13 +41,20 @@ import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import internal.helpers.Cleanups;
 import java.time.Month;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.sourceforge.kolmafia.AdventureResult;
 import net.sourceforge.kolmafia.AscensionClass;
 import net.sourceforge.kolmafia.AscensionPath.Path;
 import net.sourceforge.kolmafia.KoLCharacter;
+import net.sourceforge.kolmafia.KoLConstants.MafiaState;
+import net.sourceforge.kolmafia.KoLmafia;
 import net.sourceforge.kolmafia.ModifierType;
 import net.sourceforge.kolmafia.Modifiers;
 import net.sourceforge.kolmafia.RestrictedItemType;
@@ -61,6 +68,7 @@ import net.sourceforge.kolmafia.objectpool.ItemPool;
 import net.sourceforge.kolmafia.objectpool.SkillPool;
 import net.sourceforge.kolmafia.persistence.AdventureDatabase;
 import net.sourceforge.kolmafia.persistence.AdventureDatabase.Environment;
+import net.sourceforge.kolmafia.persistence.ModifierDatabase;
 import net.sourceforge.kolmafia.preferences.Preferences;
 import net.sourceforge.kolmafia.session.EquipmentManager;
 import org.junit.jupiter.api.BeforeAll;
@@ -1599,6 +1607,79 @@ public class MaximizerTest {
       }
     }
 
+    private List<String> maximizeWithParallel(final boolean parallel, final String expression) {
+      try (var cleanups = withProperty("maximizerParallel", parallel)) {
+        maximize(expression);
+        return getBoosts().stream().map(boost -> boost.getCmd() + " => " + boost).toList();
+      }
+    }
+
+    @Test
+    public void switchMultipleFamiliarsInParallelMatchesSerial() {
+      var cleanups =
+          new Cleanups(
+              withFamiliarInTerrarium(FamiliarPool.TRICK_TOT),
+              withFamiliarInTerrarium(FamiliarPool.HAND),
+              withFamiliarInTerrarium(FamiliarPool.MOSQUITO),
+              withItem(ItemPool.TRICK_TOT_UNICORN), // 5 adv with tot
+              withItem(ItemPool.TRICK_TOT_CANDY), // 0 adv
+              withItem(ItemPool.TIME_SWORD), // 3 adv with hand
+              withItem(ItemPool.SOLID_SHIFTING_TIME_WEIRDNESS) // 4 adv with any familiar
+              );
+
+      try (cleanups) {
+        String expression =
+            "adv -weapon -offhand -tie +switch tot +switch disembodied hand +switch mosquito";
+        var serial = maximizeWithParallel(false, expression);
+        var parallel = maximizeWithParallel(true, expression);
+
+        assertThat(serial, hasItem(startsWith("familiar Trick-or-Treating Tot")));
+        assertThat(parallel, equalTo(serial));
+      }
+    }
+
+    @Test
+    public void switchTiedFamiliarsInParallelMatchesSerial() {
+      var cleanups =
+          new Cleanups(
+              withFamiliarInTerrarium(FamiliarPool.MOSQUITO),
+              withFamiliarInTerrarium(FamiliarPool.LEPRECHAUN),
+              withFamiliarInTerrarium(FamiliarPool.BADGER),
+              withItem(ItemPool.SOLID_SHIFTING_TIME_WEIRDNESS) // 4 adv with any familiar
+              );
+
+      try (cleanups) {
+        // Every familiar scores the same, so the serial search keeps the first one it tried
+        String expression = "adv -tie +switch mosquito +switch leprechaun +switch astral badger";
+        var serial = maximizeWithParallel(false, expression);
+        var parallel = maximizeWithParallel(true, expression);
+
+        assertThat(serial, hasItem(startsWith("familiar Mosquito")));
+        assertThat(parallel, equalTo(serial));
+      }
+    }
+
+    @Test
+    public void switchFamiliarsInParallelStopsWhenMaximumAchieved() {
+      var cleanups =
+          new Cleanups(
+              withFamiliarInTerrarium(FamiliarPool.MOSQUITO),
+              withFamiliarInTerrarium(FamiliarPool.LEPRECHAUN),
+              withItem(ItemPool.SOLID_SHIFTING_TIME_WEIRDNESS) // 4 adv with any familiar
+              );
+
+      try (cleanups) {
+        String expression = "adv 1 max -tie +switch mosquito +switch leprechaun";
+        var serial = maximizeWithParallel(false, expression);
+        var parallel = maximizeWithParallel(true, expression);
+
+        assertThat(
+            serial,
+            hasItem(containsString("(maximum achieved, no further combinations checked)")));
+        assertThat(parallel, equalTo(serial));
+      }
+    }
+
     @Test
     public void switchMultipleFamiliarsWithFoldable() {
       var cleanups =
@@ -1617,6 +1698,67 @@ public class MaximizerTest {
     }
   }
 
+  @Nested
+  class ParallelSearches {
+    // Adds a partition which runs until the search tells it to stop, counting it when it does
+    private void addSpinningPartition(final ParallelSearch search, final AtomicInteger stopped) {
+      var self = new ParallelSearch.Partition[1];
+      self[0] =
+          search.addPartition(
+              () -> {
+                try {
+                  while (true) {
+                    self[0].checkContinue();
+                    Thread.onSpinWait();
+                  }
+                } finally {
+                  stopped.incrementAndGet();
+                }
+              });
+    }
+
+    @Test
+    public void exceedingTargetStopsLaterPartitions() {
+      // The search starts from the best of a previous run
+      maximize("adv");
+
+      var search = new ParallelSearch();
+      var stopped = new AtomicInteger();
+      search.addPartition(
+          () -> {
+            throw new MaximizerExceededException();
+          });
+      addSpinningPartition(search, stopped);
+      addSpinningPartition(search, stopped);
+
+      assertThrows(MaximizerExceededException.class, search::run);
+      assertEquals(2, stopped.get());
+    }
+
+    @Test
+    public void interruptStopsEveryPartition() {
+      maximize("adv");
+
+      var search = new ParallelSearch();
+      var stopped = new AtomicInteger();
+      search.addPartition(
+          () -> {
+            KoLmafia.updateDisplay(MafiaState.ABORT, "Interrupted");
+            throw new MaximizerInterruptedException();
+          });
+      addSpinningPartition(search, stopped);
+      addSpinningPartition(search, stopped);
+
+      try {
+        var e = assertThrows(MaximizerInterruptedException.class, search::run);
+        assertEquals(MaximizerInterruptedException.class, e.getClass());
+        assertEquals(2, stopped.get());
+      } finally {
+        KoLmafia.forceContinue();
+      }
+    }
+  }
+
   @Nested
   public class Uniques {
     @Test
@@ -2387,4 +2529,41 @@ public class MaximizerTest {
       }
     }
   }
+
+  @Nested
+  class CompiledScore {
+    @ParameterizedTest
+    @CsvSource(
+        delimiter = ';',
+        value = {
+          "meat, 2 item",
+          "mus, hp, mp, -tie",
+          "item, 300 max, familiar weight",
+          "letter, number, bonus time sword",
+          "cold res 5 min, sleaze res",
+        })
+    public void compiledScoreMatchesUncompiled(String expression) {
+      var equipment = new EnumMap<Slot, AdventureResult>(Slot.class);
+      equipment.put(Slot.HAT, ItemPool.get(ItemPool.JEWEL_EYED_WIZARD_HAT));
+      equipment.put(Slot.WEAPON, ItemPool.get(ItemPool.TIME_SWORD));
+      equipment.put(Slot.PANTS, ItemPool.get(ItemPool.OLD_SWEATPANTS));
+      equipment.put(Slot.ACCESSORY1, ItemPool.get(ItemPool.STAINLESS_STEEL_SOLITAIRE));
+      equipment.put(Slot.ACCESSORY2, null);
+
+      var mods = new Modifiers();
+      for (var item : equipment.values()) {
+        if (item != null) {
+          mods.add(ModifierDatabase.getItemModifiers(item.getItemId()));
+        }
+      }
+
+      var evaluator = new Evaluator(expression);
+      double uncompiled = evaluator.getUncompiledScore(mods, equipment);
+      boolean uncompiledFailed = evaluator.failed;
+      double compiled = evaluator.getScore(mods, equipment);
+
+      assertThat(compiled, equalTo(uncompiled));
+      assertThat(evaluator.failed, equalTo(uncompiledFailed));
+    }
+  }
 }
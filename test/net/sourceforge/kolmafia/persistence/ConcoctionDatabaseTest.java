@@ -2,11 +2,16 @@ package net.sourceforge.kolmafia.persistence;
 
 import static internal.helpers.HttpClientWrapper.getRequests;
 import static internal.helpers.HttpClientWrapper.setupFakeClient;
+import static internal.helpers.Player.withCocktailKit;
 import static internal.helpers.Player.withItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 
 import internal.helpers.Cleanups;
+import net.sourceforge.kolmafia.AdventureResult;
 import net.sourceforge.kolmafia.KoLCharacter;
+import net.sourceforge.kolmafia.KoLConstants;
+import net.sourceforge.kolmafia.objectpool.ConcoctionPool;
 import net.sourceforge.kolmafia.objectpool.ItemPool;
 import net.sourceforge.kolmafia.preferences.Preferences;
 import net.sourceforge.kolmafia.session.ResultProcessor;
@@ -38,4 +43,47 @@ public class ConcoctionDatabaseTest {
       assertFalse(requests.isEmpty());
     }
   }
+
+  @Test
+  public void itemChangeRecalculatesDependentConcoctions() {
+    var cleanups = new Cleanups(withItem(ItemPool.TEN_LEAF_CLOVER, 1));
+
+    try (cleanups) {
+      var disassembled = ConcoctionPool.get(ItemPool.DISASSEMBLED_CLOVER);
+      assertEquals(1, disassembled.creatable);
+
+      AdventureResult.addResultToList(
+          KoLConstants.inventory, ItemPool.get(ItemPool.TEN_LEAF_CLOVER, 2));
+      ConcoctionDatabase.setRefreshNeeded(ItemPool.TEN_LEAF_CLOVER);
+      ConcoctionDatabase.refreshConcoctions(false);
+
+      assertEquals(3, disassembled.creatable);
+      assertEquals(3, ConcoctionPool.get(ItemPool.TEN_LEAF_CLOVER).getAvailable());
+    }
+  }
+
+  @Test
+  public void interchangeableIngredientChangeRefreshesEveryConcoction() {
+    var cleanups = new Cleanups(withCocktailKit(), withItem(ItemPool.GRUBBY_WOOL_BEERWARMER, 1));
+
+    try (cleanups) {
+      ConcoctionDatabase.refreshConcoctions();
+      var warmBeer = ConcoctionPool.get(ItemPool.NICE_WARM_BEER);
+      assertEquals(0, warmBeer.creatable);
+
+      // nice warm beer only takes Sir Schlitz, so it is not a known use of Willer. Gaining Willer
+      // must still recalculate it, since recipes listing one beer can use the other.
+      AdventureResult.addResultToList(KoLConstants.inventory, ItemPool.get(ItemPool.SCHLITZ, 1));
+      AdventureResult.addResultToList(KoLConstants.inventory, ItemPool.get(ItemPool.WILLER, 1));
+      ConcoctionDatabase.setRefreshNeeded(ItemPool.WILLER);
+      ConcoctionDatabase.refreshConcoctions(false);
+
+      assertEquals(1, warmBeer.creatable);
+    } finally {
+      AdventureResult.removeResultFromList(
+          KoLConstants.inventory, ItemPool.get(ItemPool.SCHLITZ, 1));
+      AdventureResult.removeResultFromList(
+          KoLConstants.inventory, ItemPool.get(ItemPool.WILLER, 1));
+    }
+  }
 }
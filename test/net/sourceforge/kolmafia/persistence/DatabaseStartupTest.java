@@ -0,0 +1,22 @@
+package net.sourceforge.kolmafia.persistence;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class DatabaseStartupTest {
+  @Test
+  void loadsDatabasesAfterTheirDependencies() {
+    List<String> order = DatabaseStartup.getLoadOrder();
+
+    assertThat(order, hasSize(14));
+    assertThat(order.indexOf("items"), lessThan(order.indexOf("concoctions")));
+    assertThat(order.indexOf("monsters"), lessThan(order.indexOf("adventures")));
+    assertThat(order.indexOf("coinmasters"), lessThan(order.indexOf("shops")));
+    assertThat(order.indexOf("modifiers"), greaterThan(order.indexOf("familiars")));
+  }
+}
@@ -12,18 +12,28 @@ import static org.hamcrest.Matchers.startsWith;
 import internal.helpers.Utilities;
 import internal.network.FakeHttpClientBuilder;
 import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
 import java.io.PrintStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import net.sourceforge.kolmafia.utilities.HttpUtilities;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
 public class MallPriceDatabaseTest {
 
   @BeforeAll
-  public static void beforeEach() {
+  public static void beforeAll() {
     MallPriceDatabase.savePricesToFile = false;
+    // Prices are kept in mallprices.bin and mallprices.log, so start without the ones an earlier
+    // run saved there, and then load the bundled prices.
+    Utilities.verboseDelete(MallPriceDatabase.PRICE_FILE);
+    Utilities.verboseDelete(MallPriceDatabase.LOG_FILE);
+    MallPriceDatabase.reset();
     String MallPriceFileName = "data/mallprices.txt";
     Utilities.verboseDelete(MallPriceFileName);
     MallPriceDatabase.updatePrices(MallPriceFileName);
@@ -77,4 +87,51 @@ public class MallPriceDatabaseTest {
     assertThat(lines[2], matchesPattern("^600\t\\d+\t5$"));
     assertThat(lines[3], matchesPattern("^607\t\\d+\t50$"));
   }
+
+  @Test
+  void readsPriceFileAndReplaysLog(@TempDir Path dir) {
+    File priceFile = dir.resolve("mallprices.bin").toFile();
+    File logFile = dir.resolve("mallprices.log").toFile();
+
+    MallPriceDatabase.reset();
+    try {
+      MallPriceDatabase.recordPrice(555, 500, true);
+      MallPriceDatabase.recordPrice(600, 5, true);
+      MallPriceDatabase.compact(priceFile, logFile);
+
+      // Later prices only go to the log
+      MallPriceDatabase.recordPrice(600, 10, true);
+      MallPriceDatabase.recordPrice(607, 50, true);
+      MallPriceDatabase.appendLog(logFile);
+      assertThat(logFile.length(), is(2L * (Integer.BYTES + 2 * Long.BYTES)));
+
+      MallPriceDatabase.reset();
+      assertThat(MallPriceDatabase.loadPrices(priceFile, logFile), is(true));
+      assertThat(MallPriceDatabase.getPrice(555), is(500L));
+      assertThat(MallPriceDatabase.getPrice(600), is(10L));
+      assertThat(MallPriceDatabase.getPrice(607), is(50L));
+      assertThat(MallPriceDatabase.getPrice(603), is(0L));
+
+      // Compacting folds the log into the price file
+      MallPriceDatabase.compact(priceFile, logFile);
+      assertThat(logFile.exists(), is(false));
+
+      MallPriceDatabase.reset();
+      assertThat(MallPriceDatabase.loadPrices(priceFile, logFile), is(true));
+      assertThat(MallPriceDatabase.getPrice(600), is(10L));
+      assertThat(MallPriceDatabase.getPrice(607), is(50L));
+    } finally {
+      MallPriceDatabase.reset();
+    }
+  }
+
+  @Test
+  void ignoresTextPriceFile(@TempDir Path dir) throws IOException {
+    Path priceFile = dir.resolve("mallprices.bin");
+    Files.writeString(priceFile, 0xF00D5 + "\n555\t1700000000\t500\n");
+
+    assertThat(
+        MallPriceDatabase.loadPrices(priceFile.toFile(), dir.resolve("mallprices.log").toFile()),
+        is(false));
+  }
 }
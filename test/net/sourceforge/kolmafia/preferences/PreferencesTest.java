@@ -19,6 +19,7 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.TreeMap;
 import net.java.dev.spellcast.utilities.DataUtilities;
 import net.sourceforge.kolmafia.KoLCharacter;
@@ -641,6 +642,71 @@ class PreferencesTest {
     }
   }
 
+  @Nested
+  class SaveInBackground {
+    private String userFileContents() throws IOException {
+      File userFile = new File("settings/" + USER_NAME.toLowerCase() + "_prefs.txt");
+      return Files.readString(userFile.toPath(), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void changesAreWrittenOnFlush() throws IOException {
+      var cleanups =
+          new Cleanups(
+              withSavePreferencesToFile(),
+              withProperty("saveSettingsInBackgroundDelay", 60000),
+              withProperty("saveSettingsInBackground", true));
+
+      try (cleanups) {
+        Preferences.flush();
+        Preferences.setString("writeBehind", "pending");
+        assertTrue(Preferences.hasUnsavedChanges());
+        assertThat(userFileContents(), not(containsString("writeBehind=pending")));
+
+        Preferences.flush();
+        assertFalse(Preferences.hasUnsavedChanges());
+        assertThat(userFileContents(), containsString("writeBehind=pending"));
+      }
+    }
+
+    @Test
+    public void backgroundFlushCoalescesChanges() throws IOException, InterruptedException {
+      var cleanups =
+          new Cleanups(
+              withSavePreferencesToFile(),
+              withProperty("saveSettingsInBackgroundDelay", 0),
+              withProperty("saveSettingsInBackground", true));
+
+      try (cleanups) {
+        for (int i = 1; i <= 100; ++i) {
+          Preferences.setInteger("_writeBehindCounter", i);
+        }
+
+        for (int tries = 0; tries < 50 && Preferences.hasUnsavedChanges(); ++tries) {
+          Thread.sleep(100);
+        }
+
+        assertFalse(Preferences.hasUnsavedChanges());
+        assertThat(userFileContents(), containsString("_writeBehindCounter=100"));
+      }
+    }
+
+    @Test
+    public void resetSavesPendingChanges() {
+      var cleanups =
+          new Cleanups(
+              withSavePreferencesToFile(),
+              withProperty("saveSettingsInBackgroundDelay", 60000),
+              withProperty("saveSettingsInBackground", true));
+
+      try (cleanups) {
+        Preferences.setString("writeBehind", "kept");
+        Preferences.reset(USER_NAME);
+        assertEquals("kept", Preferences.getString("writeBehind"));
+      }
+    }
+  }
+
   @Test
   public void exerciseGetStringVariant() {
     String name = "makeMineAlso"; // makeAndTestUserProperty using the same name breaks
@@ -1,14 +1,24 @@
 package net.sourceforge.kolmafia.request;
 
+import static internal.helpers.Player.withItem;
+import static internal.helpers.Player.withItemInCloset;
+import static internal.helpers.Player.withNoItems;
 import static internal.helpers.Player.withPath;
 import static internal.helpers.Player.withProperty;
 import static internal.matchers.Preference.isSetTo;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 
 import com.alibaba.fastjson2.JSONObject;
 import internal.helpers.Cleanups;
+import net.sourceforge.kolmafia.AdventureResult;
 import net.sourceforge.kolmafia.AscensionPath;
 import net.sourceforge.kolmafia.KoLCharacter;
+import net.sourceforge.kolmafia.KoLConstants;
+import net.sourceforge.kolmafia.objectpool.ItemPool;
 import net.sourceforge.kolmafia.preferences.Preferences;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -64,4 +74,69 @@ class ApiRequestTest {
       assertThat("zootGraftedFootRightFamiliar", isSetTo(0));
     }
   }
+
+  @Test
+  void readsItemCountsAsStringsOrNumbers() {
+    var counts = ApiRequest.getItemCounts("{\"1\":\"3\",\"2\":4}", "inventory");
+
+    assertThat(counts.keySet(), contains(1, 2));
+    assertThat(counts.get(1), is(3));
+    assertThat(counts.get(2), is(4));
+  }
+
+  @Test
+  void ignoresResponseWithoutItems() {
+    assertThat(ApiRequest.getItemCounts("[]", "inventory"), nullValue());
+  }
+
+  private static AdventureResult findInInventory(final int itemId) {
+    return KoLConstants.inventory.stream()
+        .filter(item -> item.getItemId() == itemId)
+        .findFirst()
+        .orElseThrow();
+  }
+
+  @Test
+  void updatesOnlyChangedInventoryStacks() {
+    // Clearing the inventory afterwards also removes the chewing gum which the update adds
+    var cleanups =
+        new Cleanups(
+            withNoItems(),
+            withItem(ItemPool.SEAL_TOOTH, 1),
+            withItem(ItemPool.CASINO_PASS, 2),
+            withItem(ItemPool.DINGY_PLANKS, 1));
+
+    try (cleanups) {
+      var tooth = findInInventory(ItemPool.SEAL_TOOTH);
+
+      ApiRequest.parseInventory(
+          "{\""
+              + ItemPool.SEAL_TOOTH
+              + "\":\"1\",\""
+              + ItemPool.CASINO_PASS
+              + "\":\"5\",\""
+              + ItemPool.CHEWING_GUM
+              + "\":\"1\"}");
+
+      assertThat(findInInventory(ItemPool.SEAL_TOOTH), sameInstance(tooth));
+      assertThat(ItemPool.get(ItemPool.CASINO_PASS).getCount(KoLConstants.inventory), is(5));
+      assertThat(ItemPool.get(ItemPool.CHEWING_GUM).getCount(KoLConstants.inventory), is(1));
+      assertThat(ItemPool.get(ItemPool.DINGY_PLANKS).getCount(KoLConstants.inventory), is(0));
+    }
+  }
+
+  @Test
+  void replacesClosetContents() {
+    // Clearing the closet afterwards also removes the casino pass which the update adds
+    var cleanups =
+        new Cleanups(
+            new Cleanups(KoLConstants.closet::clear), withItemInCloset(ItemPool.SEAL_TOOTH, 2));
+
+    try (cleanups) {
+      ApiRequest.parseCloset("{\"" + ItemPool.CASINO_PASS + "\":\"1\"}");
+
+      assertThat(ItemPool.get(ItemPool.SEAL_TOOTH).getCount(KoLConstants.closet), is(0));
+      assertThat(ItemPool.get(ItemPool.CASINO_PASS).getCount(KoLConstants.closet), is(1));
+    }
+  }
 }
@@ -10,6 +10,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -17,17 +18,22 @@ import static org.mockito.Mockito.mockStatic;
 
 import internal.helpers.Cleanups;
 import internal.network.FakeHttpClientBuilder;
+import java.io.File;
 import java.time.Clock;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import net.sourceforge.kolmafia.AdventureResult;
 import net.sourceforge.kolmafia.KoLCharacter;
+import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.objectpool.ItemPool;
 import net.sourceforge.kolmafia.persistence.CoinmastersDatabase;
+import net.sourceforge.kolmafia.persistence.ItemDatabase;
 import net.sourceforge.kolmafia.persistence.MallPriceDatabase;
 import net.sourceforge.kolmafia.persistence.NPCStoreDatabase;
 import net.sourceforge.kolmafia.preferences.Preferences;
@@ -620,6 +626,163 @@ public class MallPriceManagerTest {
     }
   }
 
+  @Test
+  public void canExpireStaleMallPrices() {
+    List<PurchaseRequest> results = new ArrayList<>();
+    MallSearchRequest request = new MockMallSearchRequest("", 0, results);
+
+    try (var cleanups = mockMallSearchRequest(request)) {
+      long timestamp = 1_000_000;
+      Mockito.when(clock.millis()).thenReturn(timestamp);
+
+      int itemId = ItemPool.REAGENT;
+      AdventureResult item = ItemPool.get(itemId, 1);
+      addSearchResults(item, generateSearchResults(item, getTestPrices()));
+
+      // The price is cached, so asking for it again does not search
+      assertEquals(500, MallPriceManager.getMallPrice(itemId));
+      assertEquals(1L, MallPriceManager.getCacheStatistics().get("hits"));
+
+      // Advance time until the cached price is stale
+      long now = timestamp + (MallPriceManager.MALL_PRICE_FRESHNESS + 5) * 1000L;
+      Mockito.when(clock.millis()).thenReturn(now);
+
+      // Our mocked MallSearchRequest finds nothing, so the item is no longer in the mall
+      assertEquals(-1, MallPriceManager.getMallPrice(itemId));
+
+      var stats = MallPriceManager.getCacheStatistics();
+      assertEquals(1L, stats.get("expired"));
+      assertEquals(1L, stats.get("misses"));
+    }
+  }
+
+  @Test
+  public void canEvictLeastRecentlyUsedMallPrices() {
+    int saved = MallPriceManager.MALL_PRICE_CACHE_SIZE;
+    MallPriceManager.MALL_PRICE_CACHE_SIZE = 2;
+    try {
+      List<PurchaseRequest> results = new ArrayList<>();
+      results.add(makeMallItem(ItemPool.REAGENT, 10, 100));
+
+      MallPriceManager.updateMallPrice(ItemPool.REAGENT, results);
+      MallPriceManager.updateMallPrice(ItemPool.DRY_NOODLES, results);
+      // Using the first price makes the second the least recently used
+      assertEquals(100, MallPriceManager.getMallPrice(ItemPool.REAGENT));
+      MallPriceManager.updateMallPrice(ItemPool.HELL_RAMEN, results);
+
+      var stats = MallPriceManager.getCacheStatistics();
+      assertEquals(1L, stats.get("evictions"));
+      assertEquals(2L, stats.get("size"));
+      assertEquals(1L, stats.get("hits"));
+    } finally {
+      MallPriceManager.MALL_PRICE_CACHE_SIZE = saved;
+    }
+  }
+
+  @Test
+  public void canSaveAndLoadMallPriceCache() {
+    File cacheFile =
+        new File(KoLConstants.DATA_LOCATION, KoLCharacter.baseUserName() + "_mallcache.txt");
+    try (var cleanups = mockClock()) {
+      long timestamp = 1_000_000_000;
+      Mockito.when(clock.millis()).thenReturn(timestamp);
+      MallPriceManager.updateMallPrice(
+          ItemPool.REAGENT, List.of(makeMallItem(ItemPool.REAGENT, 10, 100)));
+
+      // Find the second price half a day later
+      long later = timestamp + MallPriceManager.MALL_PRICE_FRESHNESS * 1000L / 2;
+      Mockito.when(clock.millis()).thenReturn(later);
+      MallPriceManager.updateMallPrice(
+          ItemPool.DRY_NOODLES, List.of(makeMallItem(ItemPool.DRY_NOODLES, 10, 200)));
+
+      MallPriceManager.saveCache();
+      MallPriceManager.reset();
+
+      // Load the cache once the first price, but not the second, is stale
+      long now = timestamp + (MallPriceManager.MALL_PRICE_FRESHNESS + 5) * 1000L;
+      Mockito.when(clock.millis()).thenReturn(now);
+      MallPriceManager.loadCache();
+
+      assertEquals(1L, MallPriceManager.getCacheStatistics().get("size"));
+      assertEquals(200, MallPriceManager.getMallPrice(ItemPool.DRY_NOODLES));
+      assertEquals(1L, MallPriceManager.getCacheStatistics().get("hits"));
+    } finally {
+      cacheFile.delete();
+    }
+  }
+
+  @Test
+  public void doesNotSaveMallPriceCacheWhenDisabled() {
+    File cacheFile =
+        new File(KoLConstants.DATA_LOCATION, KoLCharacter.baseUserName() + "_mallcache.txt");
+    MallPriceManager.saveCacheToFile = false;
+    try {
+      MallPriceManager.updateMallPrice(
+          ItemPool.REAGENT, List.of(makeMallItem(ItemPool.REAGENT, 10, 100)));
+      MallPriceManager.saveCache();
+
+      assertFalse(cacheFile.exists());
+    } finally {
+      MallPriceManager.saveCacheToFile = true;
+      cacheFile.delete();
+    }
+  }
+
+  @Test
+  public void canRefreshStalePricesWithOneCategorySearch() {
+    // Every tradeable shirt, some of which we will ask for
+    List<Integer> shirts =
+        IntStream.rangeClosed(1, ItemDatabase.maxItemId())
+            .filter(ItemDatabase::isTradeable)
+            .filter(itemId -> "shirts".equals(MallPriceManager.getMallCategory(itemId)))
+            .boxed()
+            .toList();
+    int asked = shirts.size() / 2;
+    assertTrue(asked > 1);
+
+    // The category search finds all of them
+    List<PurchaseRequest> found = new ArrayList<>();
+    for (int itemId : shirts) {
+      found.add(makeMallItem(itemId, 10, 1000 + itemId));
+    }
+
+    var searches = new AtomicInteger();
+    MallSearchRequest request =
+        new MockMallSearchRequest("", "") {
+          @Override
+          public void run() {
+            searches.incrementAndGet();
+            super.run();
+          }
+        };
+    request.setResults(found);
+
+    try (var cleanups = mockMallSearchRequest(request)) {
+      // Far enough in the future that any bundled price is out of date
+      long timestamp = 4_000_000_000_000L;
+      Mockito.when(clock.millis()).thenReturn(timestamp);
+
+      AdventureResult[] items =
+          shirts.subList(0, asked).stream()
+              .map(itemId -> ItemPool.get(itemId, 1))
+              .toArray(AdventureResult[]::new);
+      assertEquals(asked, MallPriceManager.getMallPrices(items, 1.0f));
+      assertEquals(1, searches.get());
+
+      // The shirts we did not ask for were refreshed as well
+      int other = shirts.get(shirts.size() - 1);
+      assertEquals(1000 + other, MallPriceManager.getMallPrice(other));
+      assertEquals(1, searches.get());
+    }
+  }
+
+  @Test
+  public void canFindMallCategoryOfItems() {
+    assertEquals("food", MallPriceManager.getMallCategory(ItemPool.HELL_RAMEN));
+    assertEquals("weapons", MallPriceManager.getMallCategory(ItemPool.SEAL_CLUB));
+    assertNull(MallPriceManager.getMallCategory(-1));
+  }
+
   // *** Need tests for getMallPrice(AdventureResult item, float maxAge)
 
   @Test
@@ -0,0 +1,99 @@
+package net.sourceforge.kolmafia.session;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import net.sourceforge.kolmafia.session.SessionLogIndex.Event;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SessionLogIndexTest {
+  private static final String LOG =
+      """
+
+      [1] Noob Cave
+      Encounter: crate
+      Round 0: Bob wins initiative!
+      Round 1: Bob attacks with weapon!
+      You gain 10 Meat
+      You acquire an item: crème brûlée
+      You acquire an effect: Bubbles (3)
+
+      [2] Noob Cave
+      Encounter: Lost in the Noob Cave
+      You acquire seal teeth (2)
+      """;
+
+  private static File writeLog(final Path dir) throws IOException {
+    File log = dir.resolve("Bob_20240101.txt").toFile();
+    Files.writeString(log.toPath(), LOG, StandardCharsets.UTF_8);
+    return log;
+  }
+
+  @Test
+  void classifiesEvents() {
+    assertThat(SessionLogIndex.classify("[123] The Haunted Pantry"), is(Event.TURN));
+    assertThat(SessionLogIndex.classify("Encounter: crate"), is(Event.ENCOUNTER));
+    assertThat(SessionLogIndex.classify("Round 0: Bob wins initiative!"), is(Event.FIGHT));
+    assertThat(SessionLogIndex.classify("You acquire an item: seal tooth"), is(Event.ITEM));
+    assertThat(SessionLogIndex.classify("You spent 500 Meat"), is(Event.MEAT));
+    assertThat(SessionLogIndex.classify("You acquire an effect: Bubbles (3)"), nullValue());
+    assertThat(SessionLogIndex.classify("[chat] hello"), nullValue());
+  }
+
+  @Test
+  void indexesLogAndWritesSidecar(@TempDir Path dir) throws IOException {
+    File log = writeLog(dir);
+
+    var entries = SessionLogIndex.read(log);
+
+    assertThat(entries, hasSize(8));
+    assertThat(entries.get(0).offset(), is(1L));
+    assertThat(entries.get(7).turn(), is(2));
+    assertThat(SessionLogIndex.getIndexFile(log).exists(), is(true));
+    assertThat(SessionLogIndex.read(log), is(entries));
+  }
+
+  @Test
+  void queriesEventsByTypeAndTurn(@TempDir Path dir) throws IOException {
+    File log = writeLog(dir);
+
+    assertThat(
+        SessionLogIndex.query(log, SessionLogIndex.parseEvents("item, meat"), 0, 10),
+        contains(
+            "You gain 10 Meat", "You acquire an item: crème brûlée", "You acquire seal teeth (2)"));
+    assertThat(
+        SessionLogIndex.query(log, SessionLogIndex.parseEvents("turn"), 2, 2),
+        contains("[2] Noob Cave\nEncounter: Lost in the Noob Cave\nYou acquire seal teeth (2)"));
+    assertThat(
+        SessionLogIndex.query(log, SessionLogIndex.parseEvents("encounter"), 1, 1),
+        contains("Encounter: crate"));
+  }
+
+  @Test
+  void queriesCompressedLogs(@TempDir Path dir) throws IOException {
+    File log = dir.resolve("Bob_20240101.txt.gz").toFile();
+    try (var ostream = new GZIPOutputStream(new FileOutputStream(log))) {
+      ostream.write(LOG.getBytes(StandardCharsets.UTF_8));
+    }
+
+    assertThat(
+        SessionLogIndex.query(log, SessionLogIndex.parseEvents("fight"), 0, 10),
+        contains(
+            "Round 0: Bob wins initiative!\n"
+                + "Round 1: Bob attacks with weapon!\n"
+                + "You gain 10 Meat\n"
+                + "You acquire an item: crème brûlée\n"
+                + "You acquire an effect: Bubbles (3)"));
+  }
+}
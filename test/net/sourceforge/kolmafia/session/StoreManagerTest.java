@@ -0,0 +1,110 @@
+package net.sourceforge.kolmafia.session;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.sourceforge.kolmafia.session.StoreManager.StoreLogEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class StoreManagerTest {
+  private final List<List<StoreLogEntry>> updates = new ArrayList<>();
+  private final StoreManager.StoreLogListener listener = this.updates::add;
+
+  @BeforeEach
+  void beforeEach() {
+    StoreManager.clearCache();
+    StoreManager.addStoreLogListener(this.listener);
+  }
+
+  @AfterEach
+  void afterEach() {
+    StoreManager.removeStoreLogListener(this.listener);
+    StoreManager.clearCache();
+  }
+
+  private static String storeLog(final String... entries) {
+    StringBuilder buffer = new StringBuilder("<span class=small>");
+    for (String entry : entries) {
+      buffer.append(entry).append("<br>");
+    }
+    return buffer.append("</span>").toString();
+  }
+
+  private static final String FIRST =
+      "10/16/26 12:00:00 <a href=\"showplayer.php?who=1\">Alice</a>"
+          + " bought 1 (seal tooth) for 100 Meat.";
+  private static final String SECOND =
+      "10/16/26 12:01:00 <a href=\"showplayer.php?who=2\">Bob Smith</a>"
+          + " bought 2 (seal tooth) for 200 Meat.";
+  private static final String THIRD =
+      "10/16/26 12:02:00 <a href=\"showplayer.php?who=3\">Carol</a>"
+          + " bought 1 (big rock) for 50 Meat.";
+
+  @Test
+  void firstReadSetsStartingPointWithoutNotifying() {
+    StoreManager.parseLog(storeLog(SECOND, FIRST));
+
+    assertThat(StoreManager.getStoreLog(), hasSize(2));
+    assertThat(this.updates, empty());
+  }
+
+  @Test
+  void laterReadsPublishOnlyNewEntries() {
+    StoreManager.parseLog(storeLog(FIRST));
+    StoreManager.parseLog(storeLog(THIRD, SECOND, FIRST));
+    StoreManager.parseLog(storeLog(THIRD, SECOND, FIRST));
+
+    assertThat(StoreManager.getStoreLog(), hasSize(3));
+    assertThat(this.updates, hasSize(1));
+
+    List<StoreLogEntry> added = this.updates.get(0);
+    assertThat(added.stream().map(StoreLogEntry::getId).toList(), contains(2, 3));
+    assertThat(added.get(0).getBuyer(), is("Bob Smith"));
+    assertThat(added.get(0).getQuantity(), is(2));
+    assertThat(added.get(0).getItemName(), is("seal tooth"));
+    assertThat(added.get(1).getBuyer(), is("Carol"));
+    assertThat(added.get(1).getItemName(), is("big rock"));
+  }
+
+  @Test
+  void publishesNewEntryWithSameTextAsNewestSeen() {
+    // The same buyer bought the same thing again within the same second
+    StoreManager.parseLog(storeLog(SECOND, FIRST));
+    StoreManager.parseLog(storeLog(SECOND, SECOND, FIRST));
+
+    assertThat(StoreManager.getStoreLog(), hasSize(3));
+    assertThat(this.updates, hasSize(1));
+    assertThat(this.updates.get(0).stream().map(StoreLogEntry::getId).toList(), contains(3));
+    assertThat(this.updates.get(0).get(0).getBuyer(), is("Bob Smith"));
+  }
+
+  @Test
+  void rebuildsWhenOldEntriesDropOff() {
+    StoreManager.parseLog(storeLog(SECOND, FIRST));
+    StoreManager.parseLog(storeLog(THIRD, SECOND));
+
+    assertThat(StoreManager.getStoreLog(), hasSize(2));
+    assertThat(this.updates, hasSize(1));
+    assertThat(this.updates.get(0).get(0).getBuyer(), is("Carol"));
+    assertThat(
+        StoreManager.getStoreLog().stream().map(StoreLogEntry::getId).sorted().toList(),
+        contains(1, 2));
+  }
+
+  @Test
+  void refillsClearedLogWithoutNotifying() {
+    StoreManager.parseLog(storeLog(SECOND, FIRST));
+    StoreManager.getStoreLog().clear();
+    StoreManager.parseLog(storeLog(SECOND, FIRST));
+
+    assertThat(StoreManager.getStoreLog(), hasSize(2));
+    assertThat(this.updates, empty());
+  }
+}
@@ -1,5 +1,6 @@
 package net.sourceforge.kolmafia.textui.javascript;
 
+import static internal.helpers.Player.withProperty;
 import static org.junit.jupiter.api.Assertions.*;
 
 import net.sourceforge.kolmafia.KoLmafia;
@@ -8,6 +9,7 @@ import net.sourceforge.kolmafia.textui.parsetree.Value;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
 
 public class AshInteropTest {
 
@@ -113,4 +115,101 @@ public class AshInteropTest {
     String retS = ret.toString();
     assertEquals(expected, retS);
   }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void globalsDoNotLeakBetweenScripts(boolean sharedScope) {
+    try (var cleanups = withProperty("javascriptSharedScope", sharedScope)) {
+      var js = new JavascriptRuntime("var leaked = getPlayerName(354981); leaked");
+      ContactManager.registerPlayerId("heeheehee", "354981");
+      assertEquals("heeheehee", js.execute(null, null, true).toString());
+
+      var js2 = new JavascriptRuntime("typeof leaked");
+      Value ret = js2.execute(null, null, true);
+      assertNotNull(ret, "Javascript execute returns null instead of a result to be tested.");
+      assertEquals("undefined", ret.toString());
+    }
+  }
+
+  @Test
+  void scriptsCanChangeBuiltInsWithoutSharedScope() {
+    try (var cleanups = withProperty("javascriptSharedScope", false)) {
+      // As polyfills do
+      var js = new JavascriptRuntime("Array.prototype.polyfilled = 1; [].polyfilled");
+      Value ret = js.execute(null, null, true);
+      assertNotNull(ret, "Javascript execute returns null instead of a result to be tested.");
+      assertEquals("1", ret.toString());
+
+      var js2 = new JavascriptRuntime("typeof [].polyfilled");
+      assertEquals("undefined", js2.execute(null, null, true).toString());
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void enumeratedValuesAreIdenticalInEachScript(boolean sharedScope) {
+    try (var cleanups = withProperty("javascriptSharedScope", sharedScope)) {
+      for (int i = 0; i < 2; ++i) {
+        var js =
+            new JavascriptRuntime(
+                "Class.get(1) === Class.get(1) && Class.get(\"Seal Clubber\") === Class.get(1)");
+        Value ret = js.execute(null, null, true);
+        assertNotNull(ret, "Javascript execute returns null instead of a result to be tested.");
+        assertEquals("true", ret.toString());
+      }
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(booleans = {true, false})
+  void nestedRuntimeHandsBackToOuterScript(boolean sharedScope) {
+    try (var cleanups = withProperty("javascriptSharedScope", sharedScope)) {
+      // The inner script's runtime must not stay current once it is done, or the outer script's
+      // library calls would act for it
+      var js =
+          new JavascriptRuntime(
+              "const before = Class.get(1); "
+                  + "cliExecute(\"js Class.get(1)\"); "
+                  + "before === Class.get(1)");
+      Value ret = js.execute(null, null, true);
+      assertNotNull(ret, "Javascript execute returns null instead of a result to be tested.");
+      assertEquals("true", ret.toString());
+    }
+  }
+
+  @Test
+  void repeatedCallsFollowArgumentTypes() {
+    var js =
+        new JavascriptRuntime(
+            "[\"12\", true, 7, \"34\", false, 7].map(x => toInt(x)).join(\",\")");
+    Value ret = js.execute(null, null, true);
+    assertNotNull(ret, "Javascript execute returns null instead of a result to be tested.");
+    assertEquals("12,1,7,34,0,7", ret.toString());
+  }
+
+  @Test
+  void lazyAggregatesReadLikeEagerOnes() {
+    String script =
+        """
+        const pantry = Location.get("The Haunted Pantry");
+        const a = getLocationMonsters(pantry);
+        const b = getLocationMonsters(pantry);
+        const before = a["undead elbow macaroni"];
+        b["undead elbow macaroni"] = "changed";
+        [
+          before,
+          "fiendish can of asparagus" in a,
+          JSON.stringify(a),
+          Object.keys(b).join(),
+          getLocationMonsters(pantry)["undead elbow macaroni"],
+        ].join("|")
+        """;
+
+    Value eager = new JavascriptRuntime(script).execute(null, null, true);
+    try (var cleanups = withProperty("javascriptLazyAggregates", true)) {
+      Value lazy = new JavascriptRuntime(script).execute(null, null, true);
+      assertNotNull(lazy, "Javascript execute returns null instead of a result to be tested.");
+      assertEquals(eager.toString(), lazy.toString());
+    }
+  }
 }
@@ -5,12 +5,15 @@ import static internal.helpers.Player.withTurnsPlayed;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import internal.helpers.Cleanups;
+import java.util.Arrays;
 import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.textui.AshRuntime;
 import net.sourceforge.kolmafia.textui.DataTypes;
 import net.sourceforge.kolmafia.textui.RuntimeLibrary;
+import net.sourceforge.kolmafia.textui.ScriptException;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -52,4 +55,26 @@ class LibraryFunctionTest {
       assertThat(result, nullValue());
     }
   }
+
+  @Test
+  void executeCollapsesVarArgs() {
+    var max =
+        Arrays.stream(allFunctions.findFunctions("max"))
+            .filter(f -> f.getType().equals(DataTypes.INT_TYPE))
+            .findFirst()
+            .orElseThrow();
+    var result =
+        max.execute(runtime, new Object[] {runtime, new Value(3), new Value(9), new Value(4)});
+
+    assertThat(result.intValue(), is(9L));
+  }
+
+  @Test
+  void executePassesOnScriptExceptions() {
+    var charAt = allFunctions.findFunctions("char_at")[0];
+
+    assertThrows(
+        ScriptException.class,
+        () -> charAt.execute(runtime, new Object[] {runtime, new Value("abc"), new Value(5)}));
+  }
 }
@@ -0,0 +1,65 @@
+package net.sourceforge.kolmafia.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class AsyncLogWriterTest {
+  @Test
+  void flushWritesEverythingBuffered() {
+    var out = new ByteArrayOutputStream();
+    var log = new PrintStream(AsyncLogWriter.wrap(out), false, StandardCharsets.UTF_8);
+
+    log.println("first");
+    log.println("second");
+    log.flush();
+
+    String nl = System.lineSeparator();
+    assertThat(out.toString(StandardCharsets.UTF_8), is("first" + nl + "second" + nl));
+    log.close();
+  }
+
+  @Test
+  void closeWritesEverythingBuffered() {
+    var closed = new boolean[1];
+    var out =
+        new ByteArrayOutputStream() {
+          @Override
+          public void close() {
+            closed[0] = true;
+          }
+        };
+    var log = new PrintStream(AsyncLogWriter.wrap(out), false, StandardCharsets.UTF_8);
+
+    log.print("last line");
+    log.close();
+
+    assertThat(out.toString(StandardCharsets.UTF_8), is("last line"));
+    assertThat(closed[0], is(true));
+    // Anything written after closing is dropped
+    log.print("too late");
+    assertThat(log.checkError(), is(true));
+  }
+
+  @Test
+  void keepsOrderWhenWritesOutgrowTheBuffer() throws IOException {
+    var out = new ByteArrayOutputStream();
+    OutputStream log = AsyncLogWriter.wrap(out);
+    var expected = new ByteArrayOutputStream();
+
+    for (int i = 0; i < 2000; ++i) {
+      byte[] line = ("line " + i + " " + "x".repeat(i % 500) + "\n").getBytes();
+      log.write(line);
+      expected.write(line);
+    }
+    log.close();
+
+    assertThat(out.toString(), is(expected.toString()));
+  }
+}
@@ -0,0 +1,113 @@
+package net.sourceforge.kolmafia.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import net.sourceforge.kolmafia.KoLConstants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DataSnapshotTest {
+  @AfterEach
+  void clearPreloaded() {
+    FileUtilities.clearPreloadedFiles();
+  }
+
+  private static List<String> readLines(final String filename, final int version)
+      throws IOException {
+    List<String> lines = new ArrayList<>();
+    try (BufferedReader reader = FileUtilities.getVersionedReader(filename, version)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        lines.add(line);
+      }
+    }
+    return lines;
+  }
+
+  private static List<String> readRows(final String filename, final int version)
+      throws IOException {
+    List<String> rows = new ArrayList<>();
+    try (BufferedReader reader = FileUtilities.getVersionedReader(filename, version)) {
+      String[] data;
+      while ((data = FileUtilities.readData(reader)) != null) {
+        rows.add(String.join("|", data));
+      }
+    }
+    return rows;
+  }
+
+  @Test
+  void loadsWhatWasSaved(@TempDir Path dir) throws IOException {
+    File snapshot = dir.resolve(DataSnapshot.SNAPSHOT_FILE).toFile();
+    List<String> lines = readLines("outfits.txt", KoLConstants.OUTFITS_VERSION);
+    List<String> rows = readRows("outfits.txt", KoLConstants.OUTFITS_VERSION);
+
+    FileUtilities.preloadVersionedFile("outfits.txt", KoLConstants.OUTFITS_VERSION);
+    DataSnapshot.save(snapshot);
+    FileUtilities.clearPreloadedFiles();
+
+    assertThat(DataSnapshot.load(snapshot), is(true));
+    assertThat(FileUtilities.isPreloaded("outfits.txt", KoLConstants.OUTFITS_VERSION), is(true));
+    assertThat(readRows("outfits.txt", KoLConstants.OUTFITS_VERSION), equalTo(rows));
+    assertThat(readLines("outfits.txt", KoLConstants.OUTFITS_VERSION), equalTo(lines));
+  }
+
+  @Test
+  void ignoresSnapshotOlderThanOverride(@TempDir Path dir) throws IOException {
+    File snapshot = dir.resolve(DataSnapshot.SNAPSHOT_FILE).toFile();
+    FileUtilities.preloadVersionedFile("pulverize.txt", KoLConstants.PULVERIZE_VERSION);
+    DataSnapshot.save(snapshot);
+    FileUtilities.clearPreloadedFiles();
+
+    File override = new File(KoLConstants.DATA_LOCATION, "pulverize.txt");
+    KoLConstants.DATA_LOCATION.mkdirs();
+    try {
+      Files.writeString(override.toPath(), KoLConstants.PULVERIZE_VERSION + "\n");
+      assertThat(DataSnapshot.load(snapshot), is(false));
+      assertThat(
+          FileUtilities.isPreloaded("pulverize.txt", KoLConstants.PULVERIZE_VERSION), is(false));
+    } finally {
+      override.delete();
+    }
+  }
+
+  @Test
+  void ignoresSnapshotOlderThanBundledFile(@TempDir Path dir) throws Exception {
+    URL url = DataSnapshotTest.class.getClassLoader().getResource("data/pulverize.txt");
+    assumeTrue(url != null && url.getProtocol().equals("file"));
+    File bundled = new File(url.toURI());
+    long modified = bundled.lastModified();
+
+    File snapshot = dir.resolve(DataSnapshot.SNAPSHOT_FILE).toFile();
+    FileUtilities.preloadVersionedFile("pulverize.txt", KoLConstants.PULVERIZE_VERSION);
+    DataSnapshot.save(snapshot);
+    FileUtilities.clearPreloadedFiles();
+
+    try {
+      assertThat(bundled.setLastModified(modified + 2000), is(true));
+      assertThat(DataSnapshot.load(snapshot), is(false));
+    } finally {
+      bundled.setLastModified(modified);
+    }
+  }
+
+  @Test
+  void ignoresDamagedSnapshot(@TempDir Path dir) throws IOException {
+    File snapshot = dir.resolve(DataSnapshot.SNAPSHOT_FILE).toFile();
+    Files.write(snapshot.toPath(), new byte[] {0x4B, 0x4D, 0x44});
+
+    assertThat(DataSnapshot.load(snapshot), is(false));
+  }
+}
@@ -8,6 +8,7 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.util.ArrayList;
 import net.sourceforge.kolmafia.KoLConstants;
 import net.sourceforge.kolmafia.StaticEntity;
 import net.sourceforge.kolmafia.preferences.Preferences;
@@ -114,6 +115,31 @@ class FileUtilitiesTest {
     assertNull(FileUtilities.readLine(null));
   }
 
+  @Test
+  public void itShouldReadPreloadedFilesLikeFilesOnDisk() throws IOException {
+    var expected = new ArrayList<String>();
+    try (BufferedReader reader =
+        FileUtilities.getVersionedReader("items.txt", KoLConstants.ITEMS_VERSION)) {
+      String[] data;
+      while ((data = FileUtilities.readData(reader)) != null) {
+        expected.add(String.join("\t", data));
+      }
+    }
+
+    FileUtilities.preloadVersionedFile("items.txt", KoLConstants.ITEMS_VERSION);
+    try (BufferedReader reader =
+        FileUtilities.getVersionedReader("items.txt", KoLConstants.ITEMS_VERSION)) {
+      var actual = new ArrayList<String>();
+      String[] data;
+      while ((data = FileUtilities.readData(reader)) != null) {
+        actual.add(String.join("\t", data));
+      }
+      assertThat(actual, equalTo(expected));
+    } finally {
+      FileUtilities.clearPreloadedFiles();
+    }
+  }
+
   @Nested
   class EmptyDirectory {
     @BeforeAll
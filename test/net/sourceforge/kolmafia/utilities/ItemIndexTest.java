@@ -0,0 +1,67 @@
+package net.sourceforge.kolmafia.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.equalTo;
+
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import net.sourceforge.kolmafia.AdventureResult;
+import net.sourceforge.kolmafia.objectpool.ItemPool;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+public class ItemIndexTest {
+  private static Stream<Arguments> lists() {
+    return Stream.of(
+        Arguments.of(
+            "SortedItemListModel", (Supplier<List<AdventureResult>>) SortedItemListModel::new),
+        Arguments.of("SortedItemList", (Supplier<List<AdventureResult>>) SortedItemList::new));
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("lists")
+  public void countsFollowAdditionsAndRemovals(
+      final String name, final Supplier<List<AdventureResult>> supplier) {
+    var list = supplier.get();
+    var toast = ItemPool.get(ItemPool.TOAST, 1);
+    var seal = ItemPool.get(ItemPool.SEAL_HELMET, 1);
+
+    AdventureResult.addResultToList(list, ItemPool.get(ItemPool.TOAST, 3));
+    AdventureResult.addResultToList(list, ItemPool.get(ItemPool.SEAL_HELMET, 1));
+    assertThat(toast.getCount(list), equalTo(3));
+    assertThat(seal.getCount(list), equalTo(1));
+
+    AdventureResult.addResultToList(list, ItemPool.get(ItemPool.TOAST, 2));
+    assertThat(toast.getCount(list), equalTo(5));
+
+    AdventureResult.addResultToList(list, ItemPool.get(ItemPool.TOAST, -5));
+    assertThat(toast.getCount(list), equalTo(0));
+    assertThat(list, contains(ItemPool.get(ItemPool.SEAL_HELMET, 1)));
+
+    list.clear();
+    assertThat(seal.getCount(list), equalTo(0));
+  }
+
+  @ParameterizedTest(name = "{0}")
+  @MethodSource("lists")
+  public void countsFollowBulkChanges(
+      final String name, final Supplier<List<AdventureResult>> supplier) {
+    var list = supplier.get();
+    var toast = ItemPool.get(ItemPool.TOAST, 1);
+    var seal = ItemPool.get(ItemPool.SEAL_HELMET, 1);
+
+    list.addAll(List.of(ItemPool.get(ItemPool.TOAST, 4), ItemPool.get(ItemPool.SEAL_HELMET, 2)));
+    assertThat(toast.getCount(list), equalTo(4));
+    assertThat(seal.getCount(list), equalTo(2));
+
+    list.removeIf(item -> item.getItemId() == ItemPool.TOAST);
+    assertThat(toast.getCount(list), equalTo(0));
+    assertThat(seal.getCount(list), equalTo(2));
+
+    list.remove(ItemPool.get(ItemPool.SEAL_HELMET, 2));
+    assertThat(seal.getCount(list), equalTo(0));
+  }
+}
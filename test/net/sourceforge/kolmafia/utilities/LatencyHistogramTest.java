@@ -0,0 +1,54 @@
+package net.sourceforge.kolmafia.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.both;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class LatencyHistogramTest {
+  @Test
+  void emptyHistogramReportsZero() {
+    var histogram = new LatencyHistogram();
+
+    assertThat(histogram.getCount(), is(0L));
+    assertThat(histogram.getMean(), is(0L));
+    assertThat(histogram.getPercentile(99), is(0L));
+  }
+
+  @ParameterizedTest
+  @ValueSource(longs = {0, 1, 15, 16, 17, 1000, 123456, 86_400_000_000L})
+  void bucketsHoldTheirValues(final long value) {
+    int index = LatencyHistogram.indexOf(value);
+
+    assertThat(
+        LatencyHistogram.highestValueAt(index),
+        both(greaterThanOrEqualTo(value)).and(lessThanOrEqualTo(value + value / 16)));
+    if (index > 0) {
+      assertThat(LatencyHistogram.highestValueAt(index - 1) < value, is(true));
+    }
+  }
+
+  @Test
+  void reportsPercentilesWithinBucketPrecision() {
+    var histogram = new LatencyHistogram();
+    for (long i = 1; i <= 1000; ++i) {
+      histogram.record(i * 100);
+    }
+
+    assertThat(histogram.getCount(), is(1000L));
+    assertThat(histogram.getMax(), is(100_000L));
+    assertThat(histogram.getMean(), is(50_050L));
+    assertThat(
+        histogram.getPercentile(50),
+        both(greaterThanOrEqualTo(50_000L)).and(lessThanOrEqualTo(50_000L + 50_000L / 16)));
+    assertThat(
+        histogram.getPercentile(99),
+        both(greaterThanOrEqualTo(99_000L)).and(lessThanOrEqualTo(100_000L)));
+    assertThat(histogram.getPercentile(100), is(100_000L));
+  }
+}
@@ -0,0 +1,98 @@
+package net.sourceforge.kolmafia.utilities;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+class ResponseBufferTest {
+  private static ResponseBuffer read(final String text) {
+    return ResponseBuffer.acquire()
+        .readFrom(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8)));
+  }
+
+  @Test
+  void viewsAsciiBodyInPlace() {
+    var body = read("<html><a href=\"main.php\">main</a></html>");
+    try {
+      var matcher = Pattern.compile("href=\"(.*?)\"").matcher(body);
+
+      assertThat(matcher.find(), is(true));
+      assertThat(matcher.group(1), is("main.php"));
+      assertThat(body.length(), is(body.byteLength()));
+    } finally {
+      body.release();
+    }
+  }
+
+  @Test
+  void decodesNonAsciiBody() {
+    String text = "You acquire an item: <b>Jick's crème brûlée ☃</b>";
+    var body = read(text);
+    try {
+      assertThat(body.length(), is(text.length()));
+      assertThat(body.charAt(text.indexOf('☃')), is('☃'));
+      assertThat(body.subSequence(24, 30).toString(), is(text.substring(24, 30)));
+      assertThat(body.toString(), is(text));
+    } finally {
+      body.release();
+    }
+  }
+
+  @Test
+  void growsToFitLargeBodies() {
+    String text = "<tr><td>row</td></tr>".repeat(10_000) + "é";
+    var body = read(text);
+    try {
+      assertThat(body.toString(), is(text));
+      assertThat(body.length(), is(text.length()));
+    } finally {
+      body.release();
+    }
+  }
+
+  @Test
+  void makesStringOnlyOnce() {
+    var body = read("hello");
+    try {
+      assertThat(body.toString(), sameInstance(body.toString()));
+    } finally {
+      body.release();
+    }
+  }
+
+  @Test
+  void reusesBufferAfterRelease() {
+    var first = read("éfirst");
+    first.release();
+    var second = read("second");
+    try {
+      assertThat(second, sameInstance(first));
+      assertThat(second.toString(), is("second"));
+      assertThat(second.length(), is(6));
+    } finally {
+      second.release();
+    }
+  }
+
+  @Test
+  void nestedAcquireGetsSeparateBuffer() {
+    var outer = read("outer");
+    try {
+      var inner = read("inner");
+      try {
+        assertThat(inner, not(sameInstance(outer)));
+        assertThat(outer.toString(), is("outer"));
+      } finally {
+        inner.release();
+      }
+    } finally {
+      outer.release();
+    }
+  }
+}
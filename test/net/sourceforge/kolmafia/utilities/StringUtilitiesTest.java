@@ -13,6 +13,7 @@ import java.util.Arrays;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeSet;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
@@ -798,4 +799,52 @@ class StringUtilitiesTest {
   void parseRomanNumerals(final String roman, final Integer value) {
     assertThat(StringUtilities.parseRomanNumerals(roman), is(value));
   }
+
+  @Nested
+  class MatchingNames {
+    private static final String[] NAMES = names();
+
+    // Enough names that the table is indexed
+    private static String[] names() {
+      var names = new TreeSet<String>();
+      for (int i = 0; i < 300; ++i) {
+        names.add("filler item " + i);
+      }
+      names.addAll(
+          List.of(
+              "chef-in-the-box",
+              "bartender-in-the-box",
+              "seal tooth",
+              "seal-clubbing club",
+              "baby seal",
+              "sealskin drum",
+              "unsealed letter"));
+      return names.toArray(new String[0]);
+    }
+
+    @ParameterizedTest
+    @CsvSource(
+        delimiter = '|',
+        value = {
+          "seal|baby seal,seal tooth,seal-clubbing club,sealskin drum",
+          "ealed|unsealed letter",
+          "in the box|bartender-in-the-box,chef-in-the-box",
+          "chef box|chef-in-the-box",
+          "\"seal tooth\"|seal tooth",
+          "item 29|filler item 29,filler item 290,filler item 291,filler item 292,filler item 293,"
+              + "filler item 294,filler item 295,filler item 296,filler item 297,filler item 298,"
+              + "filler item 299",
+        })
+    void findsMatchesInTableOrder(final String search, final String expected) {
+      assertThat(
+          StringUtilities.getMatchingNames(NAMES, search),
+          equalTo(Arrays.asList(expected.split(","))));
+    }
+
+    @Test
+    void findsNothingForUnmatchedNames() {
+      assertThat(StringUtilities.getMatchingNames(NAMES, "xyzzy"), equalTo(List.of()));
+      assertThat(StringUtilities.getMatchingNames(NAMES, "\"seal\""), equalTo(List.of()));
+    }
+  }
 }
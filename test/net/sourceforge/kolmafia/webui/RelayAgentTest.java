@@ -1,16 +1,19 @@
 package net.sourceforge.kolmafia.webui;
 
 import static internal.helpers.Player.withPasswordHash;
+import static internal.helpers.Player.withProperty;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.arrayContaining;
 import static org.hamcrest.Matchers.is;
 
+import internal.helpers.Cleanups;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
+import java.nio.charset.StandardCharsets;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
@@ -34,6 +37,9 @@ class RelayAgentTest {
     public OutputStream getOutputStream() {
       return this.outputStream;
     }
+
+    @Override
+    public void setSoTimeout(int timeout) {}
   }
 
   private static final RelayAgent agent = new RelayAgent(999);
@@ -90,4 +96,107 @@ class RelayAgentTest {
       }
     }
   }
+
+  @Test
+  void serveConnectionAnswersPipelinedRequestsInOrder() throws IOException {
+    var cleanups = withPasswordHash("xxxx");
+    try (cleanups) {
+      var outputStream = new ByteArrayOutputStream();
+      var input =
+          "GET /KoLmafia/sideCommand?pwd=xxxx&cmd=echo hi HTTP/1.1\r\n\r\n"
+              + "GET /KoLmafia/sideCommand?pwd=yyyy HTTP/1.1\r\nConnection: close\r\n\r\n"
+              + "GET /KoLmafia/sideCommand?pwd=xxxx&cmd=echo hi HTTP/1.1\r\n\r\n";
+      agent.serveConnection(
+          new MockSocket(new ByteArrayInputStream(input.getBytes()), outputStream));
+
+      String[] result =
+          outputStream.toString().replaceAll("Date: .* GMT", "Date: GMT").split("\r\n");
+      assertThat(
+          result,
+          arrayContaining(
+              "HTTP/1.1 302 Found",
+              "Date: GMT",
+              "Server: KoLmafia r0",
+              "Location: /charpane.php",
+              "Content-Length: 0",
+              "Connection: keep-alive",
+              "",
+              "HTTP/1.1 401 Unauthorized",
+              "Date: GMT",
+              "Server: KoLmafia r0",
+              "Content-Length: 1",
+              "Connection: close",
+              "",
+              " "));
+    }
+  }
+
+  @Test
+  void serveConnectionReadsPostBodyByLengthInBytes() throws IOException {
+    var cleanups = withPasswordHash("xxxx");
+    try (cleanups) {
+      var outputStream = new ByteArrayOutputStream();
+      var body = "pwd=xxxx&cmd=echo \u00e9";
+      var input =
+          "POST /KoLmafia/sideCommand HTTP/1.1\r\n"
+              + "Content-Length: "
+              + body.getBytes(StandardCharsets.UTF_8).length
+              + "\r\n\r\n"
+              + body
+              + "GET /KoLmafia/sideCommand?pwd=yyyy HTTP/1.1\r\nConnection: close\r\n\r\n";
+      agent.serveConnection(
+          new MockSocket(
+              new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), outputStream));
+
+      String[] result =
+          outputStream.toString().replaceAll("Date: .* GMT", "Date: GMT").split("\r\n");
+      assertThat(
+          result,
+          arrayContaining(
+              "HTTP/1.1 302 Found",
+              "Date: GMT",
+              "Server: KoLmafia r0",
+              "Location: /charpane.php",
+              "Content-Length: 0",
+              "Connection: keep-alive",
+              "",
+              "HTTP/1.1 401 Unauthorized",
+              "Date: GMT",
+              "Server: KoLmafia r0",
+              "Content-Length: 1",
+              "Connection: close",
+              "",
+              " "));
+    }
+  }
+
+  @Test
+  void serveConnectionClosesWhenNoKeepAliveIsFree() throws IOException {
+    var cleanups = new Cleanups(withPasswordHash("xxxx"), withProperty("relayMaxAgents", 1));
+    try (cleanups) {
+      assertThat(RelayServer.claimKeepAlive(), is(true));
+      try {
+        var outputStream = new ByteArrayOutputStream();
+        var input =
+            "GET /KoLmafia/sideCommand?pwd=xxxx&cmd=echo hi HTTP/1.1\r\n\r\n"
+                + "GET /KoLmafia/sideCommand?pwd=xxxx&cmd=echo hi HTTP/1.1\r\n\r\n";
+        agent.serveConnection(
+            new MockSocket(new ByteArrayInputStream(input.getBytes()), outputStream));
+
+        String[] result =
+            outputStream.toString().replaceAll("Date: .* GMT", "Date: GMT").split("\r\n");
+        assertThat(
+            result,
+            arrayContaining(
+                "HTTP/1.1 302 Found",
+                "Date: GMT",
+                "Server: KoLmafia r0",
+                "Location: /charpane.php",
+                "Content-Length: 0",
+                "Connection: close"));
+      } finally {
+        RelayServer.releaseKeepAlive();
+      }
+    }
+  }
 }